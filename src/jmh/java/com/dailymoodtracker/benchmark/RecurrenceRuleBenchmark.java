@@ -0,0 +1,75 @@
+package com.dailymoodtracker.benchmark;
+
+import com.dailymoodtracker.service.RecurrenceRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Next-occurrence computations per second for each kind of reminder rule. The
+ * target is at least a million per second on one thread, so that rescheduling
+ * every reminder of a user is negligible.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurrenceRuleBenchmark {
+    private static final int INSTANTS = 1024; // a power of two
+
+    @Param({
+        "daily",
+        "weekdays",
+        "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;DTSTART=2026-01-05",
+        "FREQ=MONTHLY;BYMONTHDAY=31",
+        "FREQ=DAILY;INTERVAL=3;BYDAY=SA,SU;TZID=Europe/Berlin"
+    })
+    public String frequency;
+
+    private RecurrenceRule rule;
+    private final LocalTime time = LocalTime.of(9, 30);
+    private ZonedDateTime[] instants;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        rule = RecurrenceRule.compile(frequency);
+
+        // Instants spread over a few years, so daylight saving changes are included
+        Random random = new Random(42);
+        ZoneId zone = ZoneId.of("America/New_York");
+        long from = Instant.parse("2026-01-01T00:00:00Z").getEpochSecond();
+        instants = new ZonedDateTime[INSTANTS];
+        for (int i = 0; i < INSTANTS; i++) {
+            instants[i] = Instant.ofEpochSecond(from + random.nextInt(3 * 365 * 86_400)).atZone(zone);
+        }
+    }
+
+    @Benchmark
+    public Instant nextOccurrence() {
+        ZonedDateTime after = instants[next++ & (INSTANTS - 1)];
+        return rule.nextOccurrence(time, after);
+    }
+
+    @Benchmark
+    public RecurrenceRule compileCached() {
+        return RecurrenceRule.compile(frequency);
+    }
+}
@@ -0,0 +1,118 @@
+package com.dailymoodtracker.benchmark;
+
+import com.dailymoodtracker.service.HashedFeatureExtractor;
+import com.dailymoodtracker.service.ScalarScoringKernel;
+import com.dailymoodtracker.service.ScoringKernel;
+import com.dailymoodtracker.service.ScoringKernels;
+import com.dailymoodtracker.service.SentimentModel;
+import com.dailymoodtracker.service.SentimentModelTrainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and Vector API scoring kernels on a backfill-sized batch of
+ * messages, both for the raw weight accumulation and for full model scoring.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ScoringKernelBenchmark {
+    private static final int BATCH_SIZE = 1024;
+    private static final int MAX_FEATURES = 512;
+
+    private static final String[] SAMPLE_MESSAGES = {
+        "I feel really happy today, everything went well at work",
+        "I'm so anxious about the exam tomorrow and I can't sleep",
+        "honestly I am just tired and a bit sad, nothing seems to help",
+        "thank you, that breathing exercise actually made me feel calmer",
+        "why does this keep happening to me, I am so frustrated and angry",
+        "I had lunch with a friend and then went home",
+        "not sure what to say, it was an ordinary day I guess",
+        "I'm hopeful that next week will be better than this one"
+    };
+
+    @Param({"scalar", "vector"})
+    public String kernelType;
+
+    private ScoringKernel kernel;
+    private SentimentModel model;
+    private float[] emotionWeights;
+    private int[][] batchFeatures;
+    private int[] batchCounts;
+
+    @Setup
+    public void setUp() {
+        kernel = "vector".equals(kernelType) ? ScoringKernels.best() : new ScalarScoringKernel();
+        if ("vector".equals(kernelType) && kernel instanceof ScalarScoringKernel) {
+            throw new IllegalStateException("Vector API not available; run with --add-modules jdk.incubator.vector");
+        }
+
+        int numBuckets = SentimentModelTrainer.DEFAULT_NUM_BUCKETS;
+        int sentimentClasses = SentimentModel.SENTIMENT_CLASSES.length;
+        int emotionClasses = SentimentModel.EMOTION_CLASSES.length;
+
+        // Random weights with the production layout; the values do not affect the timing
+        Random random = new Random(42);
+        float[] sentimentWeights = randomArray(random, numBuckets * sentimentClasses);
+        emotionWeights = randomArray(random, numBuckets * emotionClasses);
+        model = new SentimentModel(numBuckets, randomArray(random, sentimentClasses),
+                randomArray(random, emotionClasses), sentimentWeights, emotionWeights);
+        model.setKernel(kernel);
+
+        HashedFeatureExtractor extractor = new HashedFeatureExtractor(numBuckets);
+        batchFeatures = new int[BATCH_SIZE][MAX_FEATURES];
+        batchCounts = new int[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String text = SAMPLE_MESSAGES[i % SAMPLE_MESSAGES.length] + " " + i;
+            batchCounts[i] = extractor.extract(text, batchFeatures[i]);
+        }
+    }
+
+    private static float[] randomArray(Random random, int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = -random.nextFloat() * 10f;
+        }
+        return values;
+    }
+
+    @Benchmark
+    public void accumulateEmotionBatch(Blackhole blackhole) {
+        int numClasses = SentimentModel.EMOTION_CLASSES.length;
+        float[] scores = new float[numClasses];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Arrays.fill(scores, 0f);
+            kernel.accumulate(batchFeatures[i], batchCounts[i], emotionWeights, numClasses, scores);
+            blackhole.consume(scores[0]);
+        }
+    }
+
+    @Benchmark
+    public void scoreBatch(Blackhole blackhole) {
+        float[] sentiment = new float[SentimentModel.SENTIMENT_CLASSES.length];
+        float[] emotions = new float[SentimentModel.EMOTION_CLASSES.length];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            model.scoreSentiment(batchFeatures[i], batchCounts[i], sentiment);
+            model.scoreEmotion(batchFeatures[i], batchCounts[i], emotions);
+            blackhole.consume(sentiment[0]);
+            blackhole.consume(emotions[0]);
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package com.dailymoodtracker;
 
+import com.dailymoodtracker.config.DatabaseConfig;
 import com.dailymoodtracker.controller.LoginController;
 import com.dailymoodtracker.controller.MainController;
 import com.dailymoodtracker.model.User;
+import com.dailymoodtracker.service.AppExecutors;
+import com.dailymoodtracker.service.ChatTrainingService;
+import com.dailymoodtracker.service.SentimentBackfillJob;
+import com.dailymoodtracker.service.SentimentServiceFactory;
+import com.dailymoodtracker.service.StartupOrchestrator;
+import com.dailymoodtracker.service.StartupProfiler;
 import com.dailymoodtracker.service.UserService;
+import com.dailymoodtracker.ui.FxWatchdog;
+import com.dailymoodtracker.utils.SceneManager;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import org.slf4j.Logger;
@@ -17,16 +29,53 @@ import org.slf4j.LoggerFactory;
 public class MainApp extends Application {
     private static final Logger logger = LoggerFactory.getLogger(MainApp.class);
     
+    @Override
+    public void init() {
+        // Runs before the JavaFX toolkit shows anything; the database is set up meanwhile
+        StartupProfiler.getInstance().mark("launch");
+        StartupOrchestrator.getInstance().startCritical();
+    }
+    
     @Override
     public void start(Stage primaryStage) throws Exception {
+        StartupProfiler profiler = StartupProfiler.getInstance();
+        profiler.mark("fx-start");
+        
+        // Log event handlers that hold up the UI for more than a frame, when debugging
+        FxWatchdog.getInstance().start();
+        
+        // All later navigation goes through the scene manager
+        SceneManager.getInstance().setMainStage(primaryStage);
+        
+        // A splash paints at once; the login view is loaded in the next frame
+        profiler.time("splash", () -> {
+            primaryStage.setTitle("Daily Mood Tracker");
+            primaryStage.setScene(createSplashScene());
+            primaryStage.show();
+        });
+        runAfterPaint(() -> {
+            profiler.time("login-view", () -> showLoginView(primaryStage));
+            runAfterPaint(() -> {
+                long millis = profiler.mark("login-interactive");
+                logger.info("Login screen interactive {} ms after launch", millis);
+                
+                // Nothing on the login screen needs these
+                StartupOrchestrator.getInstance().startDeferred();
+            });
+        });
+    }
+    
+    private void showLoginView(Stage primaryStage) {
         try {
             // Show login screen - user data will be retained in the database
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/LoginView.fxml"));
             Scene scene = new Scene(loader.load());
             
-            primaryStage.setTitle("Daily Mood Tracker");
             primaryStage.setScene(scene);
-            primaryStage.show();
+            
+            // The splash set the window's size; fit it to the login view instead
+            primaryStage.sizeToScene();
+            primaryStage.centerOnScreen();
         } catch (Exception e) {
             logger.error("Failed to start application", e);
             
@@ -45,7 +94,6 @@ public class MainApp extends Application {
             Scene fallbackScene = new Scene(fallbackRoot, 600, 400);
             primaryStage.setTitle("Daily Mood Tracker - Error");
             primaryStage.setScene(fallbackScene);
-            primaryStage.show();
             
             // Show a more detailed error alert
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -55,6 +103,54 @@ public class MainApp extends Application {
             alert.showAndWait();
         }
     }
+    
+    /**
+     * A plain splash built in code, so it needs no FXML or stylesheet.
+     */
+    private Scene createSplashScene() {
+        Label titleLabel = new Label("Daily Mood Tracker");
+        titleLabel.setStyle("-fx-font-size: 24px; -fx-text-fill: white; -fx-font-weight: bold;");
+        
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(40, 40);
+        
+        VBox splashRoot = new VBox(20, titleLabel, progress);
+        splashRoot.setAlignment(Pos.CENTER);
+        splashRoot.setStyle("-fx-padding: 20; -fx-background-color: #1a1a2e;");
+        return new Scene(splashRoot, 600, 400);
+    }
+    
+    /**
+     * Run an action on the FX thread once the current scene has been drawn. An
+     * animation timer's second frame comes after the first one was rendered.
+     */
+    private static void runAfterPaint(Runnable action) {
+        new AnimationTimer() {
+            private int frames;
+            
+            @Override
+            public void handle(long now) {
+                if (++frames == 2) {
+                    stop();
+                    action.run();
+                }
+            }
+        }.start();
+    }
+
+    @Override
+    public void stop() {
+        // Stop the producers of background work first, then the executors, then the database
+        logger.info("Application stopping");
+        FxWatchdog.getInstance().stop();
+        logger.info("Scene cache: {}", SceneManager.getInstance().getMetrics());
+        SceneManager.getInstance().clearCache(); // stops the cached main view's reminders
+        SentimentBackfillJob.getInstance().cancel();
+        SentimentServiceFactory.shutdown();
+        ChatTrainingService.shutdownInstance();
+        AppExecutors.shutdown();
+        DatabaseConfig.closeConnection();
+    }
 
     public static void main(String[] args) {
         launch(args);
@@ -5,6 +5,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import org.slf4j.Logger;
@@ -26,11 +27,12 @@ public class DatabaseConfig {
     private static Connection connection;
     
     /**
-     * Get a database connection.
+     * Get a database connection. The first call creates the schema; startup makes it
+     * in the background, and callers that arrive meanwhile wait for it.
      * @return Connection object
      * @throws SQLException if connection fails
      */
-    public static Connection getConnection() throws SQLException {
+    public static synchronized Connection getConnection() throws SQLException {
         if (connection != null && !connection.isClosed()) {
             return connection;
         }
@@ -58,6 +60,19 @@ public class DatabaseConfig {
         }
     }
     
+    /**
+     * Open a separate connection for one unit of work, so concurrent callers on
+     * background threads neither share nor close the connection held here, which
+     * stays open for the session. The caller is responsible for closing it.
+     * @return a new Connection object
+     * @throws SQLException if connection fails
+     */
+    public static Connection openConnection() throws SQLException {
+        // Make sure the schema exists before handing out a second connection
+        getConnection();
+        return createConnection();
+    }
+    
     /**
      * Create a database connection based on the configured database type.
      * @return Connection object
@@ -120,6 +135,12 @@ public class DatabaseConfig {
                          "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
                          "FOREIGN KEY (user_id) REFERENCES users(id))");
             
+            // Sentiment of the mood entry notes, filled in by the sentiment backfill
+            stmt.execute("ALTER TABLE mood_entries ADD COLUMN IF NOT EXISTS sentiment VARCHAR(50)");
+            stmt.execute("ALTER TABLE mood_entries ADD COLUMN IF NOT EXISTS positive_score DOUBLE");
+            stmt.execute("ALTER TABLE mood_entries ADD COLUMN IF NOT EXISTS negative_score DOUBLE");
+            stmt.execute("ALTER TABLE mood_entries ADD COLUMN IF NOT EXISTS neutral_score DOUBLE");
+            
             // Create Activities table
             stmt.execute("CREATE TABLE IF NOT EXISTS activities (" +
                          "id INT AUTO_INCREMENT PRIMARY KEY," +
@@ -154,6 +175,12 @@ public class DatabaseConfig {
                          "days_of_week VARCHAR(50)," +
                          "active BOOLEAN DEFAULT TRUE," +
                          "FOREIGN KEY (user_id) REFERENCES users(id))");
+            stmt.execute("ALTER TABLE reminders ADD COLUMN IF NOT EXISTS frequency VARCHAR(255)"); // holds recurrence rules
+            widenColumn(stmt, "reminders", "frequency", 255); // was VARCHAR(20)
+            stmt.execute("ALTER TABLE reminders ADD COLUMN IF NOT EXISTS is_read BOOLEAN DEFAULT FALSE");
+            stmt.execute("ALTER TABLE reminders ADD COLUMN IF NOT EXISTS next_fire_at TIMESTAMP");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reminders_user ON reminders (user_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reminders_next_fire ON reminders (user_id, next_fire_at)");
             
             // Create UserPreferences table
             stmt.execute("CREATE TABLE IF NOT EXISTS user_preferences (" +
@@ -176,6 +203,34 @@ public class DatabaseConfig {
                          "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
                          "FOREIGN KEY (user_id) REFERENCES users(id))");
             
+            // Create chat_feedback table for feedback on chatbot responses
+            stmt.execute("CREATE TABLE IF NOT EXISTS chat_feedback (" +
+                         "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                         "user_id INT NOT NULL," +
+                         "user_message TEXT," +
+                         "bot_response TEXT," +
+                         "feedback_type VARCHAR(20) NOT NULL," +
+                         "feedback_content TEXT," +
+                         "sentiment_type VARCHAR(50)," +
+                         "specific_emotion VARCHAR(50)," +
+                         "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            
+            // Create sentiment backfill checkpoint table (one row per backfill source)
+            stmt.execute("CREATE TABLE IF NOT EXISTS sentiment_backfill_checkpoints (" +
+                         "source VARCHAR(50) PRIMARY KEY," +
+                         "last_id INT NOT NULL," +
+                         "processed BIGINT NOT NULL," +
+                         "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            
+            // Create API usage table (daily request and token counts per external API)
+            stmt.execute("CREATE TABLE IF NOT EXISTS api_usage (" +
+                         "api VARCHAR(50) NOT NULL," +
+                         "usage_day DATE NOT NULL," +
+                         "requests INT NOT NULL," +
+                         "tokens BIGINT NOT NULL," +
+                         "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                         "PRIMARY KEY (api, usage_day))");
+            
             logger.info("Database schema initialized successfully");
         } catch (SQLException e) {
             logger.error("Failed to initialize database schema", e);
@@ -183,10 +238,28 @@ public class DatabaseConfig {
         }
     }
     
+    /**
+     * Widen a VARCHAR column created narrower by an earlier version. Checks first, so
+     * the table is only altered once.
+     */
+    private static void widenColumn(Statement stmt, String table, String column, int length) throws SQLException {
+        String sql = "SELECT CHARACTER_MAXIMUM_LENGTH FROM INFORMATION_SCHEMA.COLUMNS " +
+                     "WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = '" + table.toUpperCase() + "' " +
+                     "AND COLUMN_NAME = '" + column.toUpperCase() + "'";
+        boolean narrower;
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            narrower = rs.next() && rs.getLong(1) < length;
+        }
+        if (narrower) {
+            stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET DATA TYPE VARCHAR(" + length + ")");
+            logger.info("Widened {}.{} to VARCHAR({})", table, column, length);
+        }
+    }
+    
     /**
      * Close the database connection.
      */
-    public static void closeConnection() {
+    public static synchronized void closeConnection() {
         if (connection != null) {
             try {
                 connection.close();
@@ -21,9 +21,19 @@ public class OpenAIConfig {
     private String model;
     private double temperature;
     private int maxTokens;
+    private int promptTokenBudget;
     private String systemSentimentPrompt;
     private String systemResponsePrompt;
     private int dailyLimit;
+    private int requestsPerMinute;
+    private long tokensPerMinute;
+    private long maxQueueWaitMillis;
+    
+    // Response cache settings
+    private boolean responseCacheEnabled;
+    private long responseCacheTtlMinutes;
+    private double responseCacheSimilarity;
+    private int responseCacheMaxEntries;
     
     // Custom GPT properties
     private String customGptId;
@@ -128,6 +138,17 @@ public class OpenAIConfig {
             logger.warn("Invalid max_tokens value in config, using default: 300");
         }
         
+        // The prompt may be a few times the size of the answer; 0 derives it from max_tokens
+        try {
+            promptTokenBudget = Integer.parseInt(properties.getProperty("openai.prompt.max_tokens", "0"));
+        } catch (NumberFormatException e) {
+            promptTokenBudget = 0;
+            logger.warn("Invalid prompt max_tokens value in config, using default: 4 x max_tokens");
+        }
+        if (promptTokenBudget <= 0) {
+            promptTokenBudget = maxTokens * 4;
+        }
+        
         try {
             dailyLimit = Integer.parseInt(properties.getProperty("openai.daily.limit", "100"));
         } catch (NumberFormatException e) {
@@ -135,6 +156,51 @@ public class OpenAIConfig {
             logger.warn("Invalid daily limit value in config, using default: 100");
         }
         
+        try {
+            requestsPerMinute = Integer.parseInt(properties.getProperty("openai.rate.requests_per_minute", "20"));
+        } catch (NumberFormatException e) {
+            requestsPerMinute = 20;
+            logger.warn("Invalid requests per minute value in config, using default: 20");
+        }
+        
+        try {
+            tokensPerMinute = Long.parseLong(properties.getProperty("openai.rate.tokens_per_minute", "40000"));
+        } catch (NumberFormatException e) {
+            tokensPerMinute = 40000;
+            logger.warn("Invalid tokens per minute value in config, using default: 40000");
+        }
+        
+        try {
+            maxQueueWaitMillis = Long.parseLong(properties.getProperty("openai.rate.max_queue_wait_ms", "3000"));
+        } catch (NumberFormatException e) {
+            maxQueueWaitMillis = 3000;
+            logger.warn("Invalid queue wait value in config, using default: 3000");
+        }
+        
+        // Load response cache configuration
+        responseCacheEnabled = Boolean.parseBoolean(properties.getProperty("openai.cache.enabled", "true"));
+        
+        try {
+            responseCacheTtlMinutes = Long.parseLong(properties.getProperty("openai.cache.ttl_minutes", "60"));
+        } catch (NumberFormatException e) {
+            responseCacheTtlMinutes = 60;
+            logger.warn("Invalid cache TTL value in config, using default: 60");
+        }
+        
+        try {
+            responseCacheSimilarity = Double.parseDouble(properties.getProperty("openai.cache.similarity", "0.85"));
+        } catch (NumberFormatException e) {
+            responseCacheSimilarity = 0.85;
+            logger.warn("Invalid cache similarity value in config, using default: 0.85");
+        }
+        
+        try {
+            responseCacheMaxEntries = Integer.parseInt(properties.getProperty("openai.cache.max_entries_per_user", "50"));
+        } catch (NumberFormatException e) {
+            responseCacheMaxEntries = 50;
+            logger.warn("Invalid cache size value in config, using default: 50");
+        }
+        
         // Load custom GPT configuration
         customGptId = properties.getProperty("openai.custom_gpt.id", "");
         customGptName = properties.getProperty("openai.custom_gpt.name", "Custom Mental Health GPT");
@@ -224,6 +290,13 @@ public class OpenAIConfig {
         return maxTokens;
     }
     
+    /**
+     * Maximum estimated tokens of the prompt sent with each request.
+     */
+    public int getPromptTokenBudget() {
+        return promptTokenBudget;
+    }
+    
     public String getSystemSentimentPrompt() {
         return systemSentimentPrompt;
     }
@@ -236,6 +309,41 @@ public class OpenAIConfig {
         return dailyLimit;
     }
     
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+    
+    public long getTokensPerMinute() {
+        return tokensPerMinute;
+    }
+    
+    /**
+     * How long a request may wait for the per-minute rate budget before it is given up.
+     */
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+    
+    public boolean isResponseCacheEnabled() {
+        return responseCacheEnabled;
+    }
+    
+    public long getResponseCacheTtlMinutes() {
+        return responseCacheTtlMinutes;
+    }
+    
+    /**
+     * Minimum similarity (0-1) for reusing the response to a similar message; 1 reuses
+     * responses only for the same message.
+     */
+    public double getResponseCacheSimilarity() {
+        return responseCacheSimilarity;
+    }
+    
+    public int getResponseCacheMaxEntries() {
+        return responseCacheMaxEntries;
+    }
+    
     public String getCustomGptId() {
         return customGptId;
     }
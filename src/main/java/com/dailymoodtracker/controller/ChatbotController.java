@@ -5,19 +5,25 @@ import com.dailymoodtracker.model.SentimentResult;
 import com.dailymoodtracker.model.User;
 import com.dailymoodtracker.repository.ChatMessageRepository;
 import com.dailymoodtracker.repository.RepositoryFactory;
+import com.dailymoodtracker.service.AppExecutors;
+import com.dailymoodtracker.service.ChatTrainingService;
+import com.dailymoodtracker.service.ConversationSession;
+import com.dailymoodtracker.service.ConversationSessionStore;
+import com.dailymoodtracker.service.IntentRouter;
 import com.dailymoodtracker.service.SentimentAnalysisService;
 import com.dailymoodtracker.service.SentimentServiceFactory;
+import com.dailymoodtracker.service.SpeculativeSentimentAnalyzer;
 import com.dailymoodtracker.ui.ChatFeedbackDialog;
+import com.dailymoodtracker.ui.TaskScope;
+import com.dailymoodtracker.utils.SceneManager;
 import com.dailymoodtracker.controller.DashboardController;
 
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -32,21 +38,22 @@ import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.scene.Node;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.lang.reflect.Method;
 
 /**
@@ -89,14 +96,32 @@ public class ChatbotController {
     @FXML private Button feedbackButton;
     
     private int currentUserId = 1; // Default user ID
-    private final SentimentAnalysisService sentimentService;
     private final ChatMessageRepository chatMessageRepository;
+    private final TaskScope tasks = new TaskScope();
     private final ObservableList<ChatMessage> chatMessages;
     private final Random random = new Random();
     
+    // Scores the draft while the user types so the reply can start as soon as it is sent
+    private final SpeculativeSentimentAnalyzer speculativeAnalyzer = new SpeculativeSentimentAnalyzer(
+        SentimentServiceFactory::getService, SpeculativeSentimentAnalyzer.DEFAULT_DEBOUNCE_MILLIS);
+    
+    private final ChatTrainingService trainingService = ChatTrainingService.getInstance();
+    private final IntentRouter intentRouter = IntentRouter.getInstance();
+    
+    // The reply being streamed, cancelled when the user sends another message
+    private volatile ChatTrainingService.ResponseStream activeStream;
+    // Bumped on every sent message so a reply still analyzing sentiment does not start streaming
+    private volatile long currentTurn;
+    
+    private static final String TYPING_TEXT = "Analyzing...";
+    
     private ChatMessage lastUserMessage;
     private ChatMessage lastBotMessage;
     
+    // The finished messages as reply context: the most recent ones and a summary of the rest
+    private static final int CONTEXT_MESSAGES = 5;
+    private volatile ConversationSession conversation = newConversation(currentUserId);
+    
     // Suggestion prompts based on sentiment
     private final List<String> positiveActivities = Arrays.asList(
         "journaling about what you're grateful for", 
@@ -243,7 +268,6 @@ public class ChatbotController {
         "Hi there! I'm your supportive mental health assistant. How are you feeling today? I'm here to listen and help.";
     
     public ChatbotController() {
-        sentimentService = SentimentServiceFactory.getService();
         chatMessageRepository = RepositoryFactory.getChatMessageRepository();
         chatMessages = FXCollections.observableArrayList();
     }
@@ -274,16 +298,12 @@ public class ChatbotController {
             }
         });
         
-        // Load recent conversation if available
+        // Load recent conversation if available; stop loading if the view is closed first
+        tasks.cancelWhenClosed(chatListView);
         loadRecentMessages();
         
-        // Add welcome message if no messages in history
-        if (chatMessages.isEmpty()) {
-            addBotGreeting();
-        }
-        
         // Only show feedback buttons for real AI services
-        boolean isRealAIService = !(sentimentService instanceof com.dailymoodtracker.service.DummySentimentService);
+        boolean isRealAIService = SentimentServiceFactory.getServiceType() != SentimentServiceFactory.ServiceType.DUMMY;
         feedbackButton.setVisible(isRealAIService);
     }
     
@@ -304,6 +324,10 @@ public class ChatbotController {
         // Send message on Enter key press
         messageInput.setOnAction(event -> sendMessage());
         
+        // Pre-analyze the draft in the background while the user types
+        messageInput.textProperty().addListener((observable, oldText, newText) ->
+            speculativeAnalyzer.onDraftChanged(newText, currentUserId));
+        
         // Quick response buttons
         if (feelingAnxiousButton != null) {
             feelingAnxiousButton.setOnAction(event -> {
@@ -432,60 +456,36 @@ public class ChatbotController {
     }
     
     private void navigateToDashboard() {
-        try {
-            // Load the FXML file directly and let the FXML handle controller injection
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/MainView.fxml"));
-            
-            Stage stage = (Stage) dashboardButton.getScene().getWindow();
-            stage.setScene(new Scene(root));
-            stage.show();
-            
-            logger.info("Navigated to dashboard");
-        } catch (IOException e) {
-            logger.error("Failed to navigate to dashboard: {}", e.getMessage(), e);
-            showErrorMessage("Navigation error: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error navigating to dashboard: {}", e.getMessage(), e);
-            showErrorMessage("Unexpected navigation error: " + e.getMessage());
-        }
+        showMainView(dashboardButton);
+        logger.info("Navigated to dashboard");
     }
     
     private void navigateToHistory() {
-        try {
-            // Load the FXML file directly and let the FXML handle controller injection
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/MainView.fxml"));
-            
-            Stage stage = (Stage) historyButton.getScene().getWindow();
-            stage.setScene(new Scene(root));
-            stage.show();
-            
-            logger.info("Navigated to history view");
-        } catch (IOException e) {
-            logger.error("Failed to navigate to history view: {}", e.getMessage(), e);
-            showErrorMessage("Navigation error: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error navigating to history view: {}", e.getMessage(), e);
-            showErrorMessage("Unexpected navigation error: " + e.getMessage());
+        // History is opened from the main view
+        showMainView(historyButton);
+        logger.info("Navigated to history view");
+    }
+    
+    /**
+     * Return to the cached main view: close the chatbot's own window if it has one,
+     * otherwise switch the main stage back.
+     */
+    private void showMainView(Button source) {
+        SceneManager sceneManager = SceneManager.getInstance();
+        Stage stage = (Stage) source.getScene().getWindow();
+        if (stage != sceneManager.getMainStage()) {
+            stage.close();
+            sceneManager.getMainStage().toFront();
+            return;
         }
+        sceneManager.switchScene(SceneManager.MAIN_VIEW, null, null, MainController::refresh);
     }
     
     private void navigateToSettings() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/settings.fxml"));
-            Parent root = loader.load();
-            
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("AI Settings");
-            dialogStage.initModality(Modality.APPLICATION_MODAL);
-            dialogStage.initOwner(settingsButton.getScene().getWindow());
-            Scene scene = new Scene(root);
-            dialogStage.setScene(scene);
+        Stage dialogStage = SceneManager.getInstance().openDialog(SceneManager.SETTINGS_VIEW, "AI Settings");
+        if (dialogStage != null) {
             dialogStage.showAndWait();
-            
             logger.info("Opened AI settings dialog");
-        } catch (IOException e) {
-            logger.error("Failed to open AI settings dialog", e);
-            showErrorMessage("Navigation error. Please try again.");
         }
     }
     
@@ -514,11 +514,7 @@ public class ChatbotController {
                 ChatMessage botMessage = new ChatMessage(botResponse, ChatMessage.MessageType.BOT);
                 chatMessages.add(botMessage);
                 
-                try {
-                    chatMessageRepository.save(botMessage);
-                } catch (Exception e) {
-                    logger.error("Failed to save bot response to database", e);
-                }
+                recordMessage(botMessage, "bot response");
             });
     }
     
@@ -559,22 +555,14 @@ public class ChatbotController {
         ChatMessage infoMessage = new ChatMessage(message, ChatMessage.MessageType.BOT);
         chatMessages.add(infoMessage);
         
-        try {
-            chatMessageRepository.save(infoMessage);
-        } catch (Exception e) {
-            logger.error("Failed to save info message to database", e);
-        }
+        recordMessage(infoMessage, "info message");
     }
     
     private void showErrorMessage(String message) {
         ChatMessage errorMessage = new ChatMessage("Error: " + message, ChatMessage.MessageType.BOT);
         chatMessages.add(errorMessage);
         
-        try {
-            chatMessageRepository.save(errorMessage);
-        } catch (Exception e) {
-            logger.error("Failed to save error message to database", e);
-        }
+        recordMessage(errorMessage, "error message");
     }
     
     private void addBotGreeting() {
@@ -583,20 +571,36 @@ public class ChatbotController {
         chatMessages.add(greeting);
         
         // Save greeting to database
-        try {
-            chatMessageRepository.save(greeting);
-        } catch (Exception e) {
-            logger.error("Failed to save greeting message to database", e);
-        }
+        recordMessage(greeting, "greeting message");
     }
     
     private void loadRecentMessages() {
-        try {
-            // Load last 20 messages for this user
-            chatMessages.addAll(chatMessageRepository.findRecentByUserId(currentUserId, 20));
-        } catch (Exception e) {
-            logger.error("Failed to load recent messages from database", e);
-        }
+        // Load last 20 messages for this user, ahead of anything sent in the meantime
+        tasks.task(() -> chatMessageRepository.findRecentByUserId(currentUserId, 20))
+            .onSuccess(recent -> {
+                chatMessages.addAll(0, recent);
+                
+                // The history goes before whatever was said in the meantime
+                // The repository returns newest first
+                List<ChatMessage> chronological = new ArrayList<>(recent);
+                Collections.reverse(chronological);
+                ConversationSession loaded = newConversation(currentUserId);
+                loaded.addMessages(chronological);
+                loaded.addMessages(conversation.getRecentMessages());
+                conversation = loaded;
+                
+                // Add welcome message if no messages in history
+                if (chatMessages.isEmpty()) {
+                    addBotGreeting();
+                }
+            })
+            .onError(e -> {
+                logger.error("Failed to load recent messages from database", e);
+                if (chatMessages.isEmpty()) {
+                    addBotGreeting();
+                }
+            })
+            .start();
     }
     
     @FXML
@@ -606,38 +610,58 @@ public class ChatbotController {
             return;
         }
         
+        // The user has moved on: stop streaming the previous reply
+        currentTurn++;
+        ChatTrainingService.ResponseStream previousStream = activeStream;
+        if (previousStream != null) {
+            previousStream.cancel();
+        }
+        
+        // Conversation so far for the response context; pending replies are not part of it yet
+        List<ChatMessage> context = conversation.getRecentMessages();
+        String earlierSummary = conversation.getEarlierSummary();
+        
         // Create user message
         ChatMessage userMessage = new ChatMessage(messageText, ChatMessage.MessageType.USER);
         chatMessages.add(userMessage);
         
         // Save to database
-        try {
-            chatMessageRepository.save(userMessage);
-        } catch (Exception e) {
-            logger.error("Failed to save user message to database", e);
-        }
+        recordMessage(userMessage, "user message");
         
         // Store as last user message for feedback
         lastUserMessage = userMessage;
         
+        // Pick up the analysis started while typing, before clearing the input discards it
+        CompletableFuture<SentimentResult> speculativeResult =
+            speculativeAnalyzer.takeResult(messageText, currentUserId);
+        
         // Clear input field
         messageInput.clear();
         
         // Process message with sentiment analysis
-        processMessageWithSentimentAnalysis(userMessage);
+        processMessageWithSentimentAnalysis(userMessage, speculativeResult, context, earlierSummary);
     }
     
-    private void processMessageWithSentimentAnalysis(ChatMessage userMessage) {
-        // Add "typing" indicator
-        int typingIndex = chatMessages.size();
-        ChatMessage typingMessage = new ChatMessage("Analyzing...", ChatMessage.MessageType.BOT);
-        chatMessages.add(typingMessage);
-        
-        // Process the message asynchronously
-        CompletableFuture<SentimentResult> future = sentimentService.analyzeSentimentAsync(
-            userMessage.getContent(), currentUserId);
-            
-        future.thenAccept(sentimentResult -> {
+    private void processMessageWithSentimentAnalysis(ChatMessage userMessage,
+                                                     CompletableFuture<SentimentResult> speculativeResult,
+                                                     List<ChatMessage> context, String earlierSummary) {
+        long turn = currentTurn;
+        
+        // Add "typing" indicator; it becomes the response once text is available
+        ChatMessage responseMessage = new ChatMessage(TYPING_TEXT, ChatMessage.MessageType.BOT);
+        chatMessages.add(responseMessage);
+        
+        // Resolve the service per message so health-based swaps take effect immediately
+        SentimentAnalysisService sentimentService = SentimentServiceFactory.getService();
+        
+        // Reuse the speculative analysis if it matched the sent text, otherwise analyze now
+        CompletableFuture<SentimentResult> future = speculativeResult != null
+            ? speculativeResult
+            : sentimentService.analyzeSentimentAsync(userMessage.getContent(), currentUserId);
+        
+        // Continue on the I/O executor: the future may already be complete, and the
+        // response and database work below must not run on the UI thread
+        future.thenAcceptAsync(sentimentResult -> {
             // Apply sentiment to user message
             userMessage.setSentiment(sentimentResult);
             
@@ -661,52 +685,27 @@ public class ChatbotController {
                     conversationNeeds != null ? conversationNeeds : "N/A");
             }
             
-            // Generate bot response based on sentiment
-            String botResponse = null;
-            try {
-                botResponse = sentimentService.getBotResponse(sentimentResult);
-            } catch (Exception e) {
-                logger.error("Error getting bot response: {}", e.getMessage(), e);
-                botResponse = "I'm having trouble connecting to my AI services right now. This may be due to API limits or connection issues. Please try again in a moment.";
-            }
-            
-            // Final variable for lambda
-            final String finalBotResponse = botResponse;
-            
-            // Update UI on JavaFX thread
+            // Show the sentiment right away; the reply may still take a while to stream
             Platform.runLater(() -> {
-                // Remove typing indicator
-                chatMessages.remove(typingIndex);
-                
-                // Add bot response
-                ChatMessage responseMessage = new ChatMessage(finalBotResponse, ChatMessage.MessageType.BOT);
-                responseMessage.setRelatedSentiment(sentimentResult);
-                chatMessages.add(responseMessage);
-                
-                // Store as last bot message for feedback
-                lastBotMessage = responseMessage;
-                
-                // Save bot response to database
-                try {
-                    chatMessageRepository.save(responseMessage);
-                } catch (Exception e) {
-                    logger.error("Failed to save bot response to database", e);
-                }
-                
-                // Update sentiment bars and emotion display
                 updateSentimentBars(sentimentResult);
                 updateEmotionDisplay(sentimentResult);
             });
             
             // Log sentiment analysis
             logger.info("Sentiment analysis: {}", sentimentResult);
-        }).exceptionally(e -> {
+            
+            if (turn == currentTurn) {
+                streamResponse(userMessage, responseMessage, context, earlierSummary, sentimentResult,
+                    sentimentService, turn);
+            } else {
+                // Superseded before a reply started: answer without starting a stream
+                String botResponse = getFallbackResponse(sentimentService, sentimentResult);
+                Platform.runLater(() -> completeResponse(responseMessage, botResponse, sentimentResult));
+            }
+        }, AppExecutors.io()).exceptionally(e -> {
             Throwable cause = e.getCause();
             logger.error("Error analyzing sentiment", cause);
             Platform.runLater(() -> {
-                // Remove typing indicator
-                chatMessages.remove(typingIndex);
-                
                 // Add error message
                 String errorMsg = "I'm having trouble understanding that right now.";
                 if (cause != null && cause.getMessage() != null && cause.getMessage().contains("model")) {
@@ -715,25 +714,99 @@ public class ChatbotController {
                     errorMsg = "I'm having trouble connecting to my AI services. This could be due to rate limits or API issues.";
                 }
                 
-                ChatMessage errorMessage = new ChatMessage(errorMsg, ChatMessage.MessageType.BOT);
-                chatMessages.add(errorMessage);
-                
-                // Store as last bot message for feedback
-                lastBotMessage = errorMessage;
-                
-                // Save error message to database
-                try {
-                    chatMessageRepository.save(errorMessage);
-                } catch (Exception ex) {
-                    logger.error("Failed to save error message to database", ex);
-                }
+                completeResponse(responseMessage, errorMsg, null);
             });
             return null;
         });
     }
     
+    /**
+     * Stream the reply into the response message as it is generated, falling back to
+     * the sentiment service's response if OpenAI is not available.
+     */
+    private void streamResponse(ChatMessage userMessage, ChatMessage responseMessage, List<ChatMessage> context,
+                                String earlierSummary, SentimentResult sentimentResult,
+                                SentimentAnalysisService sentimentService, long turn) {
+        // Tokens can arrive faster than frames; queue at most one UI update at a time
+        AtomicBoolean updatePending = new AtomicBoolean();
+        AtomicReference<ChatTrainingService.ResponseStream> streamRef = new AtomicReference<>();
+        ChatTrainingService.ResponseStream stream = trainingService.streamImprovedResponse(
+            userMessage.getContent(), context, earlierSummary, sentimentResult, token -> {
+                if (updatePending.compareAndSet(false, true)) {
+                    Platform.runLater(() -> {
+                        updatePending.set(false);
+                        ChatTrainingService.ResponseStream current = streamRef.get();
+                        if (current != null && !current.isCancelled()) {
+                            showResponseText(responseMessage, current.getText());
+                        }
+                    });
+                }
+            });
+        streamRef.set(stream);
+        activeStream = stream;
+        if (turn != currentTurn) {
+            // Another message was sent while the stream was being set up
+            stream.cancel();
+        }
+        
+        stream.getResult().whenCompleteAsync((text, error) -> {
+            if (activeStream == stream) {
+                activeStream = null;
+            }
+            
+            if (error != null) {
+                // Cancelled: keep what was already shown
+                String partialText = stream.getText();
+                Platform.runLater(() -> {
+                    if (partialText.isEmpty()) {
+                        chatMessages.remove(responseMessage);
+                    } else {
+                        completeResponse(responseMessage, partialText + "...", sentimentResult);
+                    }
+                });
+                return;
+            }
+            
+            String botResponse = text != null ? text : getFallbackResponse(sentimentService, sentimentResult);
+            Platform.runLater(() -> completeResponse(responseMessage, botResponse, sentimentResult));
+        }, AppExecutors.io());
+    }
+    
+    private String getFallbackResponse(SentimentAnalysisService sentimentService, SentimentResult sentimentResult) {
+        try {
+            return sentimentService.getBotResponse(sentimentResult);
+        } catch (Exception e) {
+            logger.error("Error getting bot response: {}", e.getMessage(), e);
+            return "I'm having trouble connecting to my AI services right now. This may be due to API limits or connection issues. Please try again in a moment.";
+        }
+    }
+    
+    /**
+     * Replace the text of a message already in the list and redraw its cell.
+     */
+    private void showResponseText(ChatMessage message, String text) {
+        int index = chatMessages.indexOf(message);
+        if (index >= 0) {
+            message.setContent(text);
+            chatMessages.set(index, message);
+        }
+    }
+    
+    /**
+     * Show the final response text and save it. Must be called on the JavaFX thread.
+     */
+    private void completeResponse(ChatMessage responseMessage, String botResponse, SentimentResult sentimentResult) {
+        responseMessage.setRelatedSentiment(sentimentResult);
+        showResponseText(responseMessage, botResponse);
+        
+        // Store as last bot message for feedback
+        lastBotMessage = responseMessage;
+        
+        // Save bot response to database
+        recordMessage(responseMessage, "bot response");
+    }
+    
     private String generateEnhancedResponse(String userMessage, SentimentResult sentiment) {
-        String lowercaseMessage = userMessage.toLowerCase();
         String dominantSentiment = sentiment.getDominantSentiment();
         
         // Update dominant emotion label
@@ -744,47 +817,40 @@ public class ChatbotController {
             }
         });
         
-        // Check for specific emotional states or needs
-        if (lowercaseMessage.contains("anxious") || lowercaseMessage.contains("anxiety") || 
-            lowercaseMessage.contains("nervous") || lowercaseMessage.contains("worry")) {
-            return getRandomItem(anxietyResponses);
-        }
-        
-        if (lowercaseMessage.contains("sad") || lowercaseMessage.contains("unhappy") || 
-            lowercaseMessage.contains("depressed") || lowercaseMessage.contains("down")) {
-            return getRandomItem(sadnessResponses);
-        }
-        
-        if (lowercaseMessage.contains("stress") || lowercaseMessage.contains("overwhelm") || 
-            lowercaseMessage.contains("too much") || lowercaseMessage.contains("pressure")) {
-            return getRandomItem(stressResponses);
-        }
-        
-        if (lowercaseMessage.contains("fear") || lowercaseMessage.contains("afraid") || 
-            lowercaseMessage.contains("scared") || lowercaseMessage.contains("terrified")) {
-            return getRandomItem(fearResponses);
-        }
-        
-        if (lowercaseMessage.contains("angry") || lowercaseMessage.contains("anger") || 
-            lowercaseMessage.contains("mad") || lowercaseMessage.contains("frustrated")) {
-            return getRandomItem(angerResponses);
-        }
-        
-        if (lowercaseMessage.contains("breathing") || lowercaseMessage.contains("breath") || 
-            lowercaseMessage.contains("calm down") || lowercaseMessage.contains("relax")) {
-            startBreathingExercise();
-            return "Let's take a moment for some breathing together.";
-        }
-        
-        if (lowercaseMessage.contains("grounding") || lowercaseMessage.contains("present") || 
-            lowercaseMessage.contains("reality") || lowercaseMessage.contains("panicking")) {
-            startGroundingTechnique();
-            return "Let's try a grounding exercise to help you connect with the present moment.";
+        // Check for specific emotional states or needs, then for requested exercises
+        List<IntentRouter.Match> intents = intentRouter.route(userMessage);
+        IntentRouter.Match support = IntentRouter.firstIntent(intents, "support");
+        if (support != null) {
+            switch (support.getIntent()) {
+                case "support.anxiety":
+                    return getRandomItem(anxietyResponses);
+                case "support.sadness":
+                    return getRandomItem(sadnessResponses);
+                case "support.stress":
+                    return getRandomItem(stressResponses);
+                case "support.fear":
+                    return getRandomItem(fearResponses);
+                case "support.anger":
+                    return getRandomItem(angerResponses);
+                default:
+                    break;
+            }
         }
         
-        if (lowercaseMessage.contains("gratitude") || lowercaseMessage.contains("thankful") || 
-            lowercaseMessage.contains("appreciate") || lowercaseMessage.contains("grateful")) {
-            return "Let's practice gratitude. " + getRandomItem(gratitudePrompts);
+        IntentRouter.Match exercise = IntentRouter.firstIntent(intents, "exercise");
+        if (exercise != null) {
+            switch (exercise.getIntent()) {
+                case "exercise.breathing":
+                    startBreathingExercise();
+                    return "Let's take a moment for some breathing together.";
+                case "exercise.grounding":
+                    startGroundingTechnique();
+                    return "Let's try a grounding exercise to help you connect with the present moment.";
+                case "exercise.gratitude":
+                    return "Let's practice gratitude. " + getRandomItem(gratitudePrompts);
+                default:
+                    break;
+            }
         }
         
         // If no specific need is detected, respond based on sentiment
@@ -908,18 +974,48 @@ public class ChatbotController {
     }
     
     private void saveBotMessage(ChatMessage message) {
-        try {
-            chatMessageRepository.save(message);
-        } catch (Exception e) {
-            logger.error("Failed to save bot message to database", e);
-        }
+        recordMessage(message, "bot message");
+    }
+    
+    /**
+     * Add a finished message to the conversation context and save it.
+     */
+    private void recordMessage(ChatMessage message, String description) {
+        conversation.addMessage(message);
+        saveInBackground(message, description);
+    }
+    
+    private static ConversationSession newConversation(int userId) {
+        return new ConversationSession(userId, ConversationSessionStore.DEFAULT_SESSION_ID, CONTEXT_MESSAGES);
+    }
+    
+    /**
+     * Save a message without blocking the JavaFX thread; a failure is only logged.
+     * The save goes straight to the I/O executor rather than through the view's task
+     * scope, so leaving the view or switching user does not cancel it.
+     */
+    private void saveInBackground(ChatMessage message, String description) {
+        CompletableFuture.runAsync(() -> chatMessageRepository.save(message), AppExecutors.io())
+            .exceptionally(e -> {
+                logger.error("Failed to save {} to database", description, e);
+                return null;
+            });
     }
     
     /**
      * Sets the current user ID for this chatbot session.
      */
     public void setCurrentUserId(int userId) {
+        if (userId == currentUserId) {
+            return;
+        }
         this.currentUserId = userId;
+        
+        // The view may have been preloaded with the default user's history
+        tasks.cancelAll();
+        chatMessages.clear();
+        conversation = newConversation(userId);
+        loadRecentMessages();
     }
     
     /**
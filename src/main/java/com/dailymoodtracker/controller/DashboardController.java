@@ -7,22 +7,17 @@ import com.dailymoodtracker.service.SentimentServiceFactory;
 import com.dailymoodtracker.service.SentimentServiceFactory.ServiceType;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.PieChart;
 import javafx.scene.layout.VBox;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -129,21 +124,15 @@ public class DashboardController implements Initializable {
      */
     @FXML
     private void openChatbot() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/ChatbotView.fxml"));
-            Parent root = loader.load();
-            
-            // Get the controller and initialize with user
-            ChatbotController controller = loader.getController();
-            // controller.initData(currentUser);
-            
-            Stage stage = (Stage) chatbotButton.getScene().getWindow();
-            stage.setScene(new Scene(root));
-            
+        // Preloaded after login; the controller is given the user each time it is shown
+        ChatbotController controller = sceneManager.switchScene(SceneManager.CHATBOT_VIEW, null, null,
+            (ChatbotController chatbot) -> {
+                if (currentUser != null) {
+                    chatbot.setCurrentUserId(currentUser.getId());
+                }
+            });
+        if (controller != null) {
             logger.info("Opened chatbot view");
-        } catch (IOException e) {
-            logger.error("Error opening chatbot view", e);
-            AlertHelper.showError("Navigation Error", "Failed to open chatbot view: " + e.getMessage());
         }
     }
     
@@ -187,27 +176,18 @@ public class DashboardController implements Initializable {
      * Show AI settings dialog.
      */
     private void showAISettings() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/settings.fxml"));
-            Parent root = loader.load();
-            
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("AI Settings");
-            dialogStage.initModality(Modality.APPLICATION_MODAL);
-            dialogStage.initOwner(aiSettingsButton.getScene().getWindow());
-            dialogStage.setScene(new Scene(root));
-            
-            // Display current AI service
-            ServiceType currentService = SentimentServiceFactory.getServiceType();
-            logger.info("Current AI service: {}", currentService);
-            
-            dialogStage.showAndWait();
-            
-            logger.info("AI settings dialog closed");
-        } catch (IOException e) {
-            logger.error("Error showing AI settings dialog", e);
-            AlertHelper.showError("Dialog Error", "Failed to open AI settings: " + e.getMessage());
+        Stage dialogStage = sceneManager.openDialog(SceneManager.SETTINGS_VIEW, "AI Settings");
+        if (dialogStage == null) {
+            return;
         }
+        
+        // Display current AI service
+        ServiceType currentService = SentimentServiceFactory.getServiceType();
+        logger.info("Current AI service: {}", currentService);
+        
+        dialogStage.showAndWait();
+        
+        logger.info("AI settings dialog closed");
     }
     
     /**
@@ -216,18 +196,12 @@ public class DashboardController implements Initializable {
     @FXML
     private void logout() {
         logger.info("User logout");
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/LoginView.fxml"));
-            Parent root = loader.load();
-            
-            Stage stage = (Stage) welcomeLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-            
-            logger.info("Returned to login screen");
-        } catch (IOException e) {
-            logger.error("Error returning to login screen", e);
-            AlertHelper.showError("Navigation Error", "Failed to return to login screen: " + e.getMessage());
-        }
+        
+        // Cached views belong to this user
+        sceneManager.clearCache();
+        sceneManager.switchScene(SceneManager.LOGIN_VIEW, null, false);
+        
+        logger.info("Returned to login screen");
     }
     
     /**
@@ -1,15 +1,13 @@
 package com.dailymoodtracker.controller;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
 import javafx.scene.Node;
 import javafx.event.ActionEvent;
 import com.dailymoodtracker.model.User;
 import com.dailymoodtracker.service.UserService;
-import java.io.IOException;
+import com.dailymoodtracker.ui.TaskScope;
+import com.dailymoodtracker.utils.SceneManager;
 import javafx.scene.layout.VBox;
 import javafx.animation.*;
 import javafx.util.Duration;
@@ -26,6 +24,7 @@ public class LoginController {
     @FXML private Label titleLabel;
     
     private final UserService userService;
+    private final TaskScope tasks = new TaskScope();
     
     public LoginController() {
         this.userService = UserService.getInstance();
@@ -35,6 +34,7 @@ public class LoginController {
     public void initialize() {
         setupAnimations();
         setupInputValidation();
+        tasks.cancelWhenClosed(mainContainer);
     }
     
     private void setupAnimations() {
@@ -125,72 +125,70 @@ public class LoginController {
             return;
         }
         
-        try {
-            User user = userService.authenticateUser(username, password);
-            if (user != null) {
-                try {
-                    MainController controller = new MainController(user);
-                    FXMLLoader loader = new FXMLLoader();
-                    loader.setLocation(getClass().getResource("/fxml/MainView.fxml"));
-                    loader.setController(controller);
-                    Scene scene = new Scene(loader.load());
-                    Stage stage = (Stage) loginButton.getScene().getWindow();
-                    
-                    // Create fade out transition
-                    FadeTransition fadeOut = new FadeTransition(Duration.millis(300), mainContainer);
-                    fadeOut.setFromValue(1);
-                    fadeOut.setToValue(0);
-                    fadeOut.setOnFinished(e -> {
-                        stage.setScene(scene);
-                        
-                        // Fade in new scene
-                        FadeTransition fadeIn = new FadeTransition(Duration.millis(300), scene.getRoot());
-                        fadeIn.setFromValue(0);
-                        fadeIn.setToValue(1);
-                        fadeIn.play();
-                    });
-                    fadeOut.play();
-                    
-                } catch (IOException e) {
-                    showError("Error loading main view: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            } else {
-                showError("Invalid username or password");
-                passwordField.clear();
-            }
-        } catch (Exception e) {
-            showError("Error during login: " + e.getMessage());
-            e.printStackTrace();
+        // The user lookup runs off the JavaFX thread
+        tasks.task(() -> userService.authenticateUser(username, password))
+            .disableWhileRunning(loginButton)
+            .onSuccess(this::openMainView)
+            .onError(e -> {
+                showError("Error during login: " + e.getMessage());
+                e.printStackTrace();
+            })
+            .start();
+    }
+    
+    private void openMainView(User user) {
+        if (user == null) {
+            showError("Invalid username or password");
+            passwordField.clear();
+            return;
         }
+        
+        SceneManager sceneManager = SceneManager.getInstance();
+        
+        // A new session starts with fresh views
+        sceneManager.clearCache();
+        
+        // Create fade out transition
+        FadeTransition fadeOut = new FadeTransition(Duration.millis(300), mainContainer);
+        fadeOut.setFromValue(1);
+        fadeOut.setToValue(0);
+        fadeOut.setOnFinished(e -> {
+            MainController controller = sceneManager.switchScene(SceneManager.MAIN_VIEW, null,
+                type -> new MainController(user), MainController::refresh);
+            
+            // Fade in new scene, or this one again if it failed to load
+            FadeTransition fadeIn = new FadeTransition(Duration.millis(300), sceneManager.getMainStage().getScene().getRoot());
+            fadeIn.setFromValue(0);
+            fadeIn.setToValue(1);
+            fadeIn.play();
+            
+            if (controller != null) {
+                // Views the user is likely to open next
+                sceneManager.preload(SceneManager.CHATBOT_VIEW, SceneManager.PREFERENCES_VIEW);
+            }
+        });
+        fadeOut.play();
     }
     
     @FXML
     private void handleRegister() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/RegisterView.fxml"));
-            Scene scene = new Scene(loader.load());
-            Stage stage = (Stage) registerLink.getScene().getWindow();
-            
-            // Create fade out transition
-            FadeTransition fadeOut = new FadeTransition(Duration.millis(300), mainContainer);
-            fadeOut.setFromValue(1);
-            fadeOut.setToValue(0);
-            fadeOut.setOnFinished(e -> {
-                stage.setScene(scene);
-                
-                // Fade in new scene
-                FadeTransition fadeIn = new FadeTransition(Duration.millis(300), scene.getRoot());
-                fadeIn.setFromValue(0);
-                fadeIn.setToValue(1);
-                fadeIn.play();
-            });
-            fadeOut.play();
+        SceneManager sceneManager = SceneManager.getInstance();
+        
+        // Create fade out transition
+        FadeTransition fadeOut = new FadeTransition(Duration.millis(300), mainContainer);
+        fadeOut.setFromValue(1);
+        fadeOut.setToValue(0);
+        fadeOut.setOnFinished(e -> {
+            // The form is not cached, so it opens empty
+            sceneManager.switchScene(SceneManager.REGISTER_VIEW, null, false);
             
-        } catch (IOException e) {
-            showError("Error loading registration view: " + e.getMessage());
-            e.printStackTrace();
-        }
+            // Fade in new scene, or this one again if it failed to load
+            FadeTransition fadeIn = new FadeTransition(Duration.millis(300), sceneManager.getMainStage().getScene().getRoot());
+            fadeIn.setFromValue(0);
+            fadeIn.setToValue(1);
+            fadeIn.play();
+        });
+        fadeOut.play();
     }
     
     private void showError(String message) {
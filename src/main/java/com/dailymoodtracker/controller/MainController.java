@@ -20,7 +20,6 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.Node;
 import javafx.scene.Parent;
@@ -33,13 +32,15 @@ import com.dailymoodtracker.service.MoodService;
 import com.dailymoodtracker.service.QuoteService;
 import com.dailymoodtracker.service.ReminderService;
 import com.dailymoodtracker.service.AchievementService;
+import com.dailymoodtracker.ui.AnimationCoordinator;
+import com.dailymoodtracker.ui.NotificationDispatcher;
+import com.dailymoodtracker.ui.TaskScope;
+import com.dailymoodtracker.utils.SceneManager;
 import javafx.event.ActionEvent;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
-import javafx.fxml.FXMLLoader;
 import java.io.IOException;
 import javafx.animation.FadeTransition;
 import javafx.animation.Timeline;
@@ -60,9 +61,11 @@ import java.util.Collections;
 import com.dailymoodtracker.service.UserService;
 import com.dailymoodtracker.service.PreferencesService;
 import javafx.scene.layout.StackPane;
-import javafx.scene.layout.Region;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public class MainController {
+public class MainController implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MainController.class);
     @FXML private TextArea notesArea;
     @FXML private CheckBox activityExercise, activityWork, activitySocial, activityHobby;
     @FXML private Label quoteLabel;
@@ -83,16 +86,18 @@ public class MainController {
     private final AchievementService achievementService;
     private User user;
     private final UserService userService;
+    private final TaskScope tasks = new TaskScope();
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
     private PreferencesService preferencesService;
     private UserPreferences userPreferences;
+    private Timeline quotePulse;
 
     public MainController(User user) {
         this.user = user;
         this.userService = UserService.getInstance();
         this.moodService = new MoodService();
         this.quoteService = new QuoteService();
-        this.reminderService = new ReminderService();
+        this.reminderService = new ReminderService(user != null ? user.getId() : 0);
         this.achievementService = new AchievementService();
     }
 
@@ -112,6 +117,34 @@ public class MainController {
         // Apply user's theme preferences
         if (userPreferences != null) {
             preferencesService.applyTheme(mainContainer.getScene(), userPreferences);
+            AnimationCoordinator.getInstance().setReducedMotion(userPreferences.isReducedMotion());
+        }
+    }
+
+    /**
+     * Re-apply the user's preferences each time the view is shown, as the cached view
+     * stays loaded while they are changed in the preferences view.
+     */
+    public void refresh() {
+        if (user == null) {
+            return;
+        }
+        userPreferences = preferencesService.getUserPreferences(user);
+        if (userPreferences != null) {
+            preferencesService.applyTheme(mainContainer.getScene(), userPreferences);
+            AnimationCoordinator.getInstance().setReducedMotion(userPreferences.isReducedMotion());
+        }
+    }
+
+    /**
+     * Stop this user's reminders and the quote animation when the view leaves the scene cache.
+     */
+    @Override
+    public void close() {
+        tasks.cancelAll();
+        reminderService.shutdown();
+        if (quotePulse != null) {
+            AnimationCoordinator.getInstance().unregister(quotePulse);
         }
     }
 
@@ -162,22 +195,29 @@ public class MainController {
             scaleIn.play();
         }
         
-        // Add subtle animation to the quote
-        Timeline pulseTimeline = new Timeline(
+        // Add subtle animation to the quote; it plays only while the main window is in front
+        quotePulse = new Timeline(
             new KeyFrame(Duration.ZERO, new KeyValue(quoteLabel.scaleXProperty(), 1)),
             new KeyFrame(Duration.ZERO, new KeyValue(quoteLabel.scaleYProperty(), 1)),
             new KeyFrame(Duration.seconds(10), new KeyValue(quoteLabel.scaleXProperty(), 1.02)),
             new KeyFrame(Duration.seconds(10), new KeyValue(quoteLabel.scaleYProperty(), 1.02)),
             new KeyFrame(Duration.seconds(20), new KeyValue(quoteLabel.scaleXProperty(), 1))
         );
-        pulseTimeline.setCycleCount(Timeline.INDEFINITE);
-        pulseTimeline.setAutoReverse(true);
-        pulseTimeline.play();
+        quotePulse.setCycleCount(Timeline.INDEFINITE);
+        quotePulse.setAutoReverse(true);
+        AnimationCoordinator.getInstance().register(quotePulse, quoteLabel);
     }
 
     private void loadUserData() {
         updateUserInfo();
-        checkAchievements();
+        
+        // The checks query the database, so they run off the JavaFX thread; the
+        // unlocks are announced back on it
+        tasks.cancelWhenClosed(mainContainer);
+        tasks.task(this::checkAchievements)
+            .onSuccess(unlocked -> unlocked.forEach(this::showAchievementNotification))
+            .onError(e -> logger.warn("Failed to check achievements", e))
+            .start();
     }
 
     private void setupMoodButtons() {
@@ -605,37 +645,28 @@ public class MainController {
 
     @FXML
     private void openRemindersDialog() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/ReminderDialog.fxml"));
-            loader.setControllerFactory(param -> new ReminderDialogController(reminderService, user.getId()));
-            
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("Manage Reminders");
-            dialogStage.initModality(Modality.APPLICATION_MODAL);
-            dialogStage.initOwner(mainContainer.getScene().getWindow());
-            
-            Scene scene = new Scene(loader.load());
-            scene.getStylesheets().add(getClass().getResource("/styles/main.css").toExternalForm());
-            
-            // Set dialog style and behavior
-            dialogStage.setScene(scene);
-            dialogStage.setMinWidth(700);
-            dialogStage.setMinHeight(600);
-            
-            // Add entry animation
-            dialogStage.setOnShown(event -> {
-                Node root = scene.getRoot();
-                FadeTransition fadeIn = new FadeTransition(Duration.millis(300), root);
-                fadeIn.setFromValue(0.0);
-                fadeIn.setToValue(1.0);
-                fadeIn.play();
-            });
-            
-            dialogStage.show();
-        } catch (IOException e) {
-            e.printStackTrace();
-            showError("Error opening reminders dialog", e.getMessage());
+        Stage dialogStage = SceneManager.getInstance().openDialog(SceneManager.REMINDER_DIALOG, "Manage Reminders",
+            type -> new ReminderDialogController(reminderService, user.getId()));
+        if (dialogStage == null) {
+            return;
         }
+        Scene scene = dialogStage.getScene();
+        scene.getStylesheets().add(getClass().getResource("/styles/main.css").toExternalForm());
+        
+        // Set dialog style and behavior
+        dialogStage.setMinWidth(700);
+        dialogStage.setMinHeight(600);
+        
+        // Add entry animation
+        dialogStage.setOnShown(event -> {
+            Node root = scene.getRoot();
+            FadeTransition fadeIn = new FadeTransition(Duration.millis(300), root);
+            fadeIn.setFromValue(0.0);
+            fadeIn.setToValue(1.0);
+            fadeIn.play();
+        });
+        
+        dialogStage.show();
     }
 
     @FXML
@@ -773,7 +804,13 @@ public class MainController {
         }
     }
 
-    private void checkAchievements() {
+    /**
+     * Run the achievement checks. Safe off the JavaFX thread.
+     *
+     * @return the achievements unlocked by this check
+     */
+    private List<Achievement> checkAchievements() {
+        List<Achievement> unlocked = new ArrayList<>();
         if (user != null) {
             // Check existing achievements
             achievementService.checkMoodStreak(user);
@@ -781,14 +818,15 @@ public class MainController {
             achievementService.checkActivityVariety(user);
             
             // Check new achievements
-            checkMoodConsistency();
-            checkTimeOfDayVariety();
-            checkNotesLength();
-            checkWeeklyProgress();
+            checkMoodConsistency(unlocked);
+            checkTimeOfDayVariety(unlocked);
+            checkNotesLength(unlocked);
+            checkWeeklyProgress(unlocked);
         }
+        return unlocked;
     }
 
-    private void checkMoodConsistency() {
+    private void checkMoodConsistency(List<Achievement> unlocked) {
         List<MoodEntry> recentMoods = moodService.getRecentEntries(user, 7);
         if (recentMoods.size() >= 7) {
             boolean isConsistent = true;
@@ -808,13 +846,13 @@ public class MainController {
                     LocalDateTime.now()
                 );
                 if (achievementService.addAchievement(user, achievement)) {
-                    showAchievementNotification(achievement);
+                    unlocked.add(achievement);
                 }
             }
         }
     }
 
-    private void checkTimeOfDayVariety() {
+    private void checkTimeOfDayVariety(List<Achievement> unlocked) {
         List<MoodEntry> entries = moodService.getAllEntries();
         Set<Integer> uniqueHours = entries.stream()
             .map(entry -> entry.getTimestamp().getHour())
@@ -827,12 +865,12 @@ public class MainController {
                 LocalDateTime.now()
             );
             if (achievementService.addAchievement(user, achievement)) {
-                showAchievementNotification(achievement);
+                unlocked.add(achievement);
             }
         }
     }
 
-    private void checkNotesLength() {
+    private void checkNotesLength(List<Achievement> unlocked) {
         List<MoodEntry> entries = moodService.getAllEntries();
         boolean hasDetailedNotes = entries.stream()
             .anyMatch(entry -> entry.getNotes().length() >= 100);
@@ -844,12 +882,12 @@ public class MainController {
                 LocalDateTime.now()
             );
             if (achievementService.addAchievement(user, achievement)) {
-                showAchievementNotification(achievement);
+                unlocked.add(achievement);
             }
         }
     }
 
-    private void checkWeeklyProgress() {
+    private void checkWeeklyProgress(List<Achievement> unlocked) {
         List<MoodEntry> weekEntries = moodService.getRecentEntries(user, 7);
         double averageMood = weekEntries.stream()
             .mapToInt(MoodEntry::getMoodLevel)
@@ -863,7 +901,7 @@ public class MainController {
                 LocalDateTime.now()
             );
             if (achievementService.addAchievement(user, achievement)) {
-                showAchievementNotification(achievement);
+                unlocked.add(achievement);
             }
         }
     }
@@ -1033,7 +1071,8 @@ public class MainController {
             new KeyFrame(Duration.millis(3000), new KeyValue(headerGlow.levelProperty(), 0.6))
         );
         pulseTrophy.setCycleCount(Timeline.INDEFINITE);
-        pulseTrophy.play();
+        // Stopped when the dialog closes
+        AnimationCoordinator.getInstance().register(pulseTrophy, trophyLabel);
         
         // Title with gradient text similar to popup
         Label titleLabel = new Label("Your Achievements");
@@ -1103,127 +1142,21 @@ public class MainController {
     }
 
     private void showAchievementNotification(Achievement achievement) {
-        // Create a custom dialog stage
-        Stage dialogStage = new Stage();
-        dialogStage.initModality(Modality.NONE); // Non-modal
-        dialogStage.initStyle(javafx.stage.StageStyle.TRANSPARENT);
-        dialogStage.setResizable(false);
-        
-        // Create achievement container
-        VBox achievementBox = new VBox(10);
-        achievementBox.setAlignment(Pos.CENTER);
-        achievementBox.setPadding(new Insets(30));
-        achievementBox.setMaxWidth(400);
-        achievementBox.setMaxHeight(300);
-        achievementBox.setStyle("-fx-background-color: linear-gradient(to bottom right, #2d2d3a, #1a1a24); " + 
-                              "-fx-background-radius: 15px; " +
-                              "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.5), 15, 0, 0, 2); " + 
-                              "-fx-border-width: 1px; " +
-                              "-fx-border-color: rgba(93, 95, 239, 0.3); " +
-                              "-fx-border-radius: 15px;");
-        
-        // Trophy icon with glow effect
-        Label trophyLabel = new Label(getAchievementIcon(achievement.getName()));
-        trophyLabel.setStyle("-fx-font-size: 64px;");
-        javafx.scene.effect.Glow glow = new javafx.scene.effect.Glow(0.8);
-        trophyLabel.setEffect(glow);
-        
-        // Achievement unlocked banner
-        Label unlockedLabel = new Label("ACHIEVEMENT UNLOCKED!");
-        unlockedLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; " +
-                              "-fx-text-fill: linear-gradient(to right, #5D5FEF, #17C3B2); " +
-                              "-fx-padding: 0 0 5 0;");
-        
-        // Achievement title with outline effect
-        Label nameLabel = new Label(achievement.getName());
-        nameLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold; -fx-text-fill: white; " +
-                          "-fx-effect: dropshadow(gaussian, rgba(93, 95, 239, 0.8), 3, 0, 0, 0);");
-        
-        // Achievement description
-        Label descLabel = new Label(achievement.getDescription());
-        descLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #a1a1aa;");
-        descLabel.setWrapText(true);
-        descLabel.setAlignment(Pos.CENTER);
-        descLabel.setTextAlignment(javafx.scene.text.TextAlignment.CENTER);
-        
-        // Button to close the dialog
-        Button closeButton = new Button("AWESOME!");
-        closeButton.getStyleClass().add("save-button");
-        closeButton.setPrefWidth(150);
-        closeButton.setOnAction(e -> dialogStage.close());
-        
-        // Add all components to the VBox
-        Region spacer = new Region();
-        spacer.setMinHeight(10);
-        
-        achievementBox.getChildren().addAll(
-            trophyLabel, 
-            unlockedLabel,
-            nameLabel, 
-            new Separator(), 
-            descLabel,
-            spacer,
-            closeButton
-        );
-        
-        // Create scene with transparent background
-        Scene scene = new Scene(achievementBox);
-        scene.setFill(Color.TRANSPARENT);
-        scene.getStylesheets().add(getClass().getResource("/styles/main.css").toExternalForm());
-        
-        // Set the scene on the dialog stage
-        dialogStage.setScene(scene);
-        
-        // Position the dialog in the top-right corner of the main window
-        Stage mainStage = (Stage) mainContainer.getScene().getWindow();
-        dialogStage.setX(mainStage.getX() + mainStage.getWidth() - 420);
-        dialogStage.setY(mainStage.getY() + 50);
-        
-        // Show the dialog with animations
-        dialogStage.show();
-        
-        // Create entrance animations
-        FadeTransition fadeIn = new FadeTransition(Duration.millis(500), achievementBox);
-        fadeIn.setFromValue(0);
-        fadeIn.setToValue(1);
-        
-        ScaleTransition scaleIn = new ScaleTransition(Duration.millis(500), achievementBox);
-        scaleIn.setFromX(0.8);
-        scaleIn.setFromY(0.8);
-        scaleIn.setToX(1);
-        scaleIn.setToY(1);
-        
-        // Pulse animation for trophy
-        Timeline pulseTrophy = new Timeline(
-            new KeyFrame(Duration.ZERO, new KeyValue(glow.levelProperty(), 0.8)),
-            new KeyFrame(Duration.millis(1000), new KeyValue(glow.levelProperty(), 0.4)),
-            new KeyFrame(Duration.millis(2000), new KeyValue(glow.levelProperty(), 0.8))
-        );
-        pulseTrophy.setCycleCount(5);
-        
-        // Play animations
-        fadeIn.play();
-        scaleIn.play();
-        pulseTrophy.play();
-        
-        // Close automatically after 10 seconds if user doesn't interact
-        Timeline autoClose = new Timeline(new KeyFrame(Duration.seconds(10), e -> {
-            FadeTransition fadeOut = new FadeTransition(Duration.millis(500), achievementBox);
-            fadeOut.setFromValue(1);
-            fadeOut.setToValue(0);
-            fadeOut.setOnFinished(ev -> dialogStage.close());
-            fadeOut.play();
-        }));
-        autoClose.play();
-        
-        // Cancel auto-close if user interacts with the dialog
-        closeButton.setOnMouseEntered(e -> autoClose.stop());
+        // Queued, so several unlocks at once share one panel instead of a window each
+        NotificationDispatcher dispatcher = NotificationDispatcher.getInstance();
+        if (mainContainer.getScene() != null) {
+            dispatcher.setOwner(mainContainer.getScene().getWindow());
+        }
+        dispatcher.post(new NotificationDispatcher.Notification(NotificationDispatcher.Kind.ACHIEVEMENT,
+            getAchievementIcon(achievement.getName()), achievement.getName(), achievement.getDescription()));
     }
 
     @FXML
     private void testAchievements() {
         if (user == null) return;
 
+        List<Achievement> unlocked = new ArrayList<>();
+        
         // Test 1: Mood Stability (7 days of consistent moods)
         LocalDateTime now = LocalDateTime.now();
         for (int i = 0; i < 7; i++) {
@@ -1235,7 +1168,7 @@ public class MainController {
             );
             moodService.saveEntry(entry);
         }
-        checkMoodConsistency();
+        checkMoodConsistency(unlocked);
 
         // Test 2: Time Explorer (different times of day)
         MoodEntry morningEntry = new MoodEntry(
@@ -1267,7 +1200,7 @@ public class MainController {
         moodService.saveEntry(afternoonEntry);
         moodService.saveEntry(eveningEntry);
         moodService.saveEntry(nightEntry);
-        checkTimeOfDayVariety();
+        checkTimeOfDayVariety(unlocked);
 
         // Test 3: Detailed Observer (long note)
         MoodEntry detailedEntry = new MoodEntry(
@@ -1278,7 +1211,7 @@ public class MainController {
             Arrays.asList("Family", "Work", "Exercise")
         );
         moodService.saveEntry(detailedEntry);
-        checkNotesLength();
+        checkNotesLength(unlocked);
 
         // Test 4: Weekly Progress (positive moods for a week)
         for (int i = 0; i < 5; i++) {
@@ -1290,7 +1223,8 @@ public class MainController {
             );
             moodService.saveEntry(entry);
         }
-        checkWeeklyProgress();
+        checkWeeklyProgress(unlocked);
+        unlocked.forEach(this::showAchievementNotification);
 
         // Show success message
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -1308,28 +1242,9 @@ public class MainController {
      */
     @FXML
     private void showPreferences() {
-        try {
-            // Create preferences controller
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/PreferencesView.fxml"));
-            Parent root = loader.load();
-            
-            // Initialize controller with user data
-            PreferencesController preferencesController = loader.getController();
-            preferencesController.initData(user);
-            
-            // Create and show new scene
-            Scene scene = new Scene(root);
-            Stage stage = (Stage) mainContainer.getScene().getWindow();
-            stage.setScene(scene);
-            
-        } catch (IOException e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Could not open preferences");
-            alert.setContentText("An error occurred while trying to open preferences: " + e.getMessage());
-            alert.showAndWait();
-        }
+        // Preloaded after login; the controller reloads the preferences each time
+        SceneManager.getInstance().switchScene(SceneManager.PREFERENCES_VIEW, null, null,
+            (PreferencesController preferencesController) -> preferencesController.initData(user));
     }
 
     /**
@@ -1352,16 +1267,22 @@ public class MainController {
     @FXML
     private void openChatbot() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/ChatbotView.fxml"));
-            Parent chatbotView = loader.load();
+            // Preloaded after login, and kept with its conversation when closed
+            SceneManager.View view = SceneManager.getInstance().getView(SceneManager.CHATBOT_VIEW, null);
             
             // Get controller and set user ID
-            ChatbotController controller = loader.getController();
+            ChatbotController controller = view.getController();
             controller.setCurrentUserId(getCurrentUserId());
             
+            Scene scene = view.getScene();
+            if (scene.getWindow() instanceof Stage && scene.getWindow().isShowing()) {
+                ((Stage) scene.getWindow()).toFront();
+                return;
+            }
+            
             Stage chatbotStage = new Stage();
             chatbotStage.setTitle("Mood Assistant - AI Chatbot");
-            chatbotStage.setScene(new Scene(chatbotView));
+            chatbotStage.setScene(scene);
             chatbotStage.setMinWidth(800);
             chatbotStage.setMinHeight(600);
             chatbotStage.show();
@@ -1393,29 +1314,22 @@ public class MainController {
             fadeOut.setToValue(0);
             
             fadeOut.setOnFinished(e -> {
-                try {
-                    // Clear user data
-                    user = null;
-                    
-                    // Load the login view
-                    FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/LoginView.fxml"));
-                    Scene scene = new Scene(loader.load());
-                    Stage stage = (Stage) mainContainer.getScene().getWindow();
-                    
-                    // Apply the scene to the stage
-                    stage.setScene(scene);
-                    
-                    // Create fade-in animation for the login screen
-                    Parent root = scene.getRoot();
-                    FadeTransition fadeIn = new FadeTransition(Duration.millis(300), root);
-                    fadeIn.setFromValue(0);
-                    fadeIn.setToValue(1);
-                    fadeIn.play();
-                    
-                } catch (IOException ex) {
-                    showError("Error", "Could not load login view: " + ex.getMessage());
-                    ex.printStackTrace();
-                }
+                // Drop this user's cached views, which also stops their reminders
+                SceneManager sceneManager = SceneManager.getInstance();
+                sceneManager.clearCache();
+                
+                // Clear user data
+                user = null;
+                
+                // Load the login view
+                sceneManager.switchScene(SceneManager.LOGIN_VIEW, null, false);
+                
+                // Create fade-in animation for the login screen
+                Parent root = sceneManager.getMainStage().getScene().getRoot();
+                FadeTransition fadeIn = new FadeTransition(Duration.millis(300), root);
+                fadeIn.setFromValue(0);
+                fadeIn.setToValue(1);
+                fadeIn.play();
             });
             
             // Start the fade-out animation
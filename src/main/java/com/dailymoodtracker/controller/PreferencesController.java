@@ -6,11 +6,11 @@ import com.dailymoodtracker.model.UserPreferences;
 import com.dailymoodtracker.service.PreferencesService;
 import com.dailymoodtracker.service.SentimentServiceFactory;
 import com.dailymoodtracker.service.UserService;
+import com.dailymoodtracker.ui.TaskScope;
+import com.dailymoodtracker.utils.SceneManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -18,7 +18,6 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
-import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +50,7 @@ public class PreferencesController {
     @FXML private ComboBox<String> themeComboBox;
     @FXML private ComboBox<String> accentColorComboBox;
     @FXML private ComboBox<String> moodScaleComboBox;
+    @FXML private CheckBox reducedMotionCheckBox;
     @FXML private HBox themePreview;
     @FXML private HBox moodScalePreview;
     @FXML private ListView<String> categoriesListView;
@@ -69,27 +69,49 @@ public class PreferencesController {
     private UserPreferences.Theme selectedTheme;
     private UserPreferences.AccentColor selectedAccentColor;
     private UserPreferences.MoodScale selectedMoodScale;
-    private Properties systemPreferences;
+    private volatile Properties systemPreferences; // loaded in the background
+    private final TaskScope tasks = new TaskScope();
     
     private ObservableList<String> categoriesObservable;
     private ObservableList<String> activitiesObservable;
     private ObservableList<String> goalsObservable;
     
+    @FXML
+    private void initialize() {
+        // Stop loading or saving if the view is closed first
+        tasks.cancelWhenClosed(mainContainer);
+    }
+    
     /**
-     * Initialize the controller with a user.
+     * Initialize the controller with a user. Called again each time the cached view is shown.
      */
     public void initData(User user) {
         this.currentUser = user;
         preferencesService = PreferencesService.getInstance();
-        userPreferences = preferencesService.getUserPreferences(user);
-        systemPreferences = new Properties();
-        
-        // Load properties file if it exists
+        userPreferences = null; // onSave waits for the fresh copy
+        systemPreferences = null;
+        
+        // Read the preferences off the JavaFX thread, then fill in the view
+        tasks.task(() -> {
+                UserPreferences loaded = preferencesService.getUserPreferences(user);
+                systemPreferences = loadSystemPreferences();
+                return loaded;
+            })
+            .onSuccess(this::showPreferences)
+            .errorTitle("Failed to load user preferences")
+            .start();
+    }
+    
+    /**
+     * Load the API settings file if it exists.
+     */
+    private Properties loadSystemPreferences() {
+        Properties properties = new Properties();
         try {
             File prefsFile = new File(PREFERENCES_FILE);
             if (prefsFile.exists()) {
                 try (FileInputStream fis = new FileInputStream(prefsFile)) {
-                    systemPreferences.load(fis);
+                    properties.load(fis);
                 }
             } else {
                 // Ensure directory exists
@@ -98,7 +120,11 @@ public class PreferencesController {
         } catch (IOException e) {
             logger.error("Error loading preferences file", e);
         }
-        
+        return properties;
+    }
+    
+    private void showPreferences(UserPreferences loaded) {
+        userPreferences = loaded;
         if (userPreferences == null) {
             logger.error("Failed to load user preferences");
             showError("Error", "Failed to load user preferences", 
@@ -141,6 +167,8 @@ public class PreferencesController {
         String moodScaleText = selectedMoodScale.getPoints() + "-point";
         moodScaleComboBox.getSelectionModel().select(moodScaleText);
         
+        reducedMotionCheckBox.setSelected(userPreferences.isReducedMotion());
+        
         // Set up categories and activities lists
         categoriesListView.setItems(categoriesObservable);
         activitiesListView.setItems(activitiesObservable);
@@ -479,39 +507,30 @@ public class PreferencesController {
         
         apiStatusLabel.setText("Testing API connection...");
         apiStatusLabel.setTextFill(Color.GRAY);
-        testApiButton.setDisable(true);
         
-        // Run in background thread
-        new Thread(() -> {
-            try {
+        tasks.task(() -> {
                 URL url = new URL(apiUrl);
                 HttpURLConnection connection = (HttpURLConnection) url.openConnection();
                 connection.setRequestMethod("GET");
                 connection.setConnectTimeout(5000);
                 connection.setReadTimeout(5000);
-                
-                int status = connection.getResponseCode();
-                
-                // Update UI on JavaFX thread
-                javafx.application.Platform.runLater(() -> {
-                    if (status >= 200 && status < 300) {
-                        apiStatusLabel.setText("API connection successful!");
-                        apiStatusLabel.setTextFill(Color.GREEN);
-                    } else {
-                        apiStatusLabel.setText("API test failed. Status code: " + status);
-                        apiStatusLabel.setTextFill(Color.RED);
-                    }
-                    testApiButton.setDisable(false);
-                });
-            } catch (Exception e) {
-                // Update UI on JavaFX thread
-                javafx.application.Platform.runLater(() -> {
-                    apiStatusLabel.setText("Error: " + e.getMessage());
+                return connection.getResponseCode();
+            })
+            .disableWhileRunning(testApiButton)
+            .onSuccess(status -> {
+                if (status >= 200 && status < 300) {
+                    apiStatusLabel.setText("API connection successful!");
+                    apiStatusLabel.setTextFill(Color.GREEN);
+                } else {
+                    apiStatusLabel.setText("API test failed. Status code: " + status);
                     apiStatusLabel.setTextFill(Color.RED);
-                    testApiButton.setDisable(false);
-                });
-            }
-        }).start();
+                }
+            })
+            .onError(e -> {
+                apiStatusLabel.setText("Error: " + e.getMessage());
+                apiStatusLabel.setTextFill(Color.RED);
+            })
+            .start();
     }
     
     /**
@@ -519,24 +538,19 @@ public class PreferencesController {
      */
     @FXML
     private void onSave() {
+        if (userPreferences == null || systemPreferences == null) {
+            return; // still loading
+        }
+        
         // Save API URL preference
         String apiUrl = apiKeyTextField.getText().trim();
         systemPreferences.setProperty(API_URL_PREF_KEY, apiUrl);
         
-        // Save properties to file
-        try (FileOutputStream fos = new FileOutputStream(PREFERENCES_FILE)) {
-            systemPreferences.store(fos, "Daily Mood Tracker API Settings");
-        } catch (IOException e) {
-            logger.error("Error saving preferences file", e);
-        }
-        
-        // Reload sentiment service with new URL
-        SentimentServiceFactory.reloadService();
-        
         // Update user preferences
         userPreferences.setTheme(selectedTheme);
         userPreferences.setAccentColor(selectedAccentColor);
         userPreferences.setMoodScale(selectedMoodScale);
+        userPreferences.setReducedMotion(reducedMotionCheckBox.isSelected());
         
         // Save personal goals - creating updated goals
         List<Goal> updatedGoals = new ArrayList<>();
@@ -547,16 +561,31 @@ public class PreferencesController {
         userPreferences.getPersonalGoals().clear();
         userPreferences.getPersonalGoals().addAll(updatedGoals);
         
-        // Save to database
-        boolean success = preferencesService.saveUserPreferences(userPreferences);
-        
-        if (success) {
-            // Navigate back to main view
-            goToMainView();
-        } else {
-            showError("Error", "Failed to save preferences", 
-                     "An error occurred while saving your preferences. Please try again.");
-        }
+        // Save the file and the database row off the JavaFX thread
+        tasks.task(() -> {
+                // Save properties to file
+                try (FileOutputStream fos = new FileOutputStream(PREFERENCES_FILE)) {
+                    systemPreferences.store(fos, "Daily Mood Tracker API Settings");
+                } catch (IOException e) {
+                    logger.error("Error saving preferences file", e);
+                }
+                
+                // Reload sentiment service with new URL
+                SentimentServiceFactory.reloadService();
+                
+                return preferencesService.saveUserPreferences(userPreferences);
+            })
+            .onSuccess(success -> {
+                if (success) {
+                    // Navigate back to main view
+                    goToMainView();
+                } else {
+                    showError("Error", "Failed to save preferences", 
+                             "An error occurred while saving your preferences. Please try again.");
+                }
+            })
+            .errorTitle("Failed to save preferences")
+            .start();
     }
     
     /**
@@ -571,28 +600,9 @@ public class PreferencesController {
      * Navigate back to the main view.
      */
     private void goToMainView() {
-        try {
-            // Create main controller with current user
-            MainController controller = new MainController(currentUser);
-            
-            // Load FXML with controller
-            FXMLLoader loader = new FXMLLoader();
-            loader.setLocation(getClass().getResource("/fxml/MainView.fxml"));
-            loader.setController(controller);
-            
-            // Create scene and stage
-            Scene scene = new Scene(loader.load());
-            Stage stage = (Stage) mainContainer.getScene().getWindow();
-            stage.setScene(scene);
-            
-            // Apply theme to new scene
-            preferencesService.applyTheme(scene, userPreferences);
-            
-        } catch (IOException e) {
-            logger.error("Error loading main view", e);
-            showError("Navigation Error", "Failed to Load Main View", 
-                     "There was an error returning to the main view: " + e.getMessage());
-        }
+        // The main view is cached, so this only refreshes it with the new theme
+        SceneManager.getInstance().switchScene(SceneManager.MAIN_VIEW, null,
+            type -> new MainController(currentUser), MainController::refresh);
     }
     
     /**
@@ -1,15 +1,12 @@
 package com.dailymoodtracker.controller;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
 import javafx.scene.Node;
 import javafx.event.ActionEvent;
 import com.dailymoodtracker.model.User;
 import com.dailymoodtracker.service.UserService;
-import java.io.IOException;
+import com.dailymoodtracker.utils.SceneManager;
 import javafx.scene.layout.VBox;
 import javafx.animation.*;
 import javafx.util.Duration;
@@ -192,29 +189,22 @@ public class RegisterController {
     
     @FXML
     private void handleLogin() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/LoginView.fxml"));
-            Scene scene = new Scene(loader.load());
-            Stage stage = (Stage) loginLink.getScene().getWindow();
-            
-            // Create fade out transition
-            FadeTransition fadeOut = new FadeTransition(Duration.millis(300), mainContainer);
-            fadeOut.setFromValue(1);
-            fadeOut.setToValue(0);
-            fadeOut.setOnFinished(e -> {
-                stage.setScene(scene);
-                
-                // Fade in new scene
-                FadeTransition fadeIn = new FadeTransition(Duration.millis(300), scene.getRoot());
-                fadeIn.setFromValue(0);
-                fadeIn.setToValue(1);
-                fadeIn.play();
-            });
-            fadeOut.play();
+        SceneManager sceneManager = SceneManager.getInstance();
+        
+        // Create fade out transition
+        FadeTransition fadeOut = new FadeTransition(Duration.millis(300), mainContainer);
+        fadeOut.setFromValue(1);
+        fadeOut.setToValue(0);
+        fadeOut.setOnFinished(e -> {
+            sceneManager.switchScene(SceneManager.LOGIN_VIEW, null, false);
             
-        } catch (IOException e) {
-            showError("Error loading login view");
-        }
+            // Fade in new scene, or this one again if it failed to load
+            FadeTransition fadeIn = new FadeTransition(Duration.millis(300), sceneManager.getMainStage().getScene().getRoot());
+            fadeIn.setFromValue(0);
+            fadeIn.setToValue(1);
+            fadeIn.play();
+        });
+        fadeOut.play();
     }
     
     private void showError(String message) {
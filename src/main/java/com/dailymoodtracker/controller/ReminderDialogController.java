@@ -7,6 +7,8 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import com.dailymoodtracker.service.ReminderService;
 import com.dailymoodtracker.model.Reminder;
+import com.dailymoodtracker.ui.AnimationCoordinator;
+import com.dailymoodtracker.ui.TaskScope;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.time.LocalTime;
@@ -49,6 +51,7 @@ public class ReminderDialogController {
 
     private final ReminderService reminderService;
     private final int userId;
+    private final TaskScope tasks = new TaskScope();
 
     public ReminderDialogController(ReminderService reminderService, int userId) {
         this.reminderService = reminderService;
@@ -59,6 +62,7 @@ public class ReminderDialogController {
     private void initialize() {
         setupTableColumns();
         setupComboBoxes();
+        tasks.cancelWhenClosed(reminderTable);
         loadReminders();
         setupAnimations();
         setupCloseButton();
@@ -86,7 +90,7 @@ public class ReminderDialogController {
                     new KeyFrame(Duration.millis(3000), new KeyValue(glow.levelProperty(), 0.6))
                 );
                 pulseTimeline.setCycleCount(Timeline.INDEFINITE);
-                pulseTimeline.play();
+                AnimationCoordinator.getInstance().register(pulseTimeline, reminderIconLabel);
             }
             
             // Add subtle rotation animation to the clock icon
@@ -94,7 +98,7 @@ public class ReminderDialogController {
             rotateTransition.setByAngle(360);
             rotateTransition.setCycleCount(Timeline.INDEFINITE);
             rotateTransition.setInterpolator(Interpolator.LINEAR);
-            rotateTransition.play();
+            AnimationCoordinator.getInstance().register(rotateTransition, reminderIconLabel);
         }
         
         // Style the header with gradient background
@@ -269,8 +273,13 @@ public class ReminderDialogController {
                 checkBox.selectedProperty().addListener((obs, oldVal, newVal) -> {
                     if (getTableRow() != null && getTableRow().getItem() != null) {
                         Reminder reminder = (Reminder) getTableRow().getItem();
+                        if (reminder.isEnabled() == newVal) {
+                            return; // set by updateItem, not by the user
+                        }
                         reminder.setEnabled(newVal);
-                        reminderService.updateReminder(reminder);
+                        tasks.action(() -> reminderService.updateReminder(reminder))
+                            .errorTitle("Failed to update reminder")
+                            .start();
                     }
                 });
             }
@@ -364,22 +373,25 @@ public class ReminderDialogController {
             FadeTransition fade = new FadeTransition(Duration.millis(500), row);
             fade.setFromValue(1);
             fade.setToValue(0);
-            fade.setOnFinished(e -> {
-                reminderService.deleteReminder(reminder);
-                loadReminders();
-            });
+            fade.setOnFinished(e -> removeReminder(reminder));
             fade.play();
         } else {
-            reminderService.deleteReminder(reminder);
-            loadReminders();
+            removeReminder(reminder);
         }
     }
 
+    private void removeReminder(Reminder reminder) {
+        tasks.action(() -> reminderService.deleteReminder(reminder))
+            .onSuccess(done -> loadReminders())
+            .errorTitle("Failed to delete reminder")
+            .start();
+    }
+
     private void loadReminders() {
-        ObservableList<Reminder> reminders = FXCollections.observableArrayList(
-            reminderService.getUserReminders(userId)
-        );
-        reminderTable.setItems(reminders);
+        tasks.task(() -> reminderService.getUserReminders(userId))
+            .onSuccess(reminders -> reminderTable.setItems(FXCollections.observableArrayList(reminders)))
+            .errorTitle("Failed to load reminders")
+            .start();
     }
 
     @FXML
@@ -397,28 +409,27 @@ public class ReminderDialogController {
         String message = messageArea.getText();
         String frequency = frequencyComboBox.getValue();
 
-        try {
-            // Create a new reminder with a unique ID
-            Reminder reminder = new Reminder(
-                generateReminderId(),
-                userId,
-                time,
-                message,
-                true, // enabled by default
-                frequency,
-                false // not read initially
-            );
+        // The database assigns the ID when the reminder is saved
+        Reminder reminder = new Reminder(
+            0,
+            userId,
+            time,
+            message,
+            true, // enabled by default
+            frequency,
+            false // not read initially
+        );
 
-            reminderService.createReminder(reminder);
-            
-            // Add animation for added item
-            animateNewReminderAdded();
-            
-            loadReminders();
-            clearInputs();
-        } catch (Exception e) {
-            showError("Error", "Failed to create reminder: " + e.getMessage());
-        }
+        tasks.action(() -> reminderService.createReminder(reminder))
+            .onSuccess(done -> {
+                // Add animation for added item
+                animateNewReminderAdded();
+                
+                loadReminders();
+                clearInputs();
+            })
+            .onError(e -> showError("Error", "Failed to create reminder: " + e.getMessage()))
+            .start();
     }
     
     private void animateNewReminderAdded() {
@@ -442,11 +453,6 @@ public class ReminderDialogController {
         }
     }
 
-    private int generateReminderId() {
-        // Simple ID generation - you might want to use a more sophisticated method
-        return (int) (System.currentTimeMillis() % Integer.MAX_VALUE);
-    }
-
     private void editReminder(Reminder reminder) {
         // Populate the form with the reminder details
         hourComboBox.setValue(String.format("%02d", reminder.getTime().getHour()));
@@ -483,17 +489,17 @@ public class ReminderDialogController {
         String message = messageArea.getText();
         String frequency = frequencyComboBox.getValue();
         
-        try {
-            reminder.setTime(time);
-            reminder.setMessage(message);
-            reminder.setFrequency(frequency);
-            
-            reminderService.updateReminder(reminder);
-            loadReminders();
-            clearInputs();
-        } catch (Exception e) {
-            showError("Error", "Failed to update reminder: " + e.getMessage());
-        }
+        reminder.setTime(time);
+        reminder.setMessage(message);
+        reminder.setFrequency(frequency);
+        
+        tasks.action(() -> reminderService.updateReminder(reminder))
+            .onSuccess(done -> {
+                loadReminders();
+                clearInputs();
+            })
+            .onError(e -> showError("Error", "Failed to update reminder: " + e.getMessage()))
+            .start();
     }
 
     private boolean validateInput() {
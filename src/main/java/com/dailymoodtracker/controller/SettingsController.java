@@ -1,12 +1,13 @@
 package com.dailymoodtracker.controller;
 
+import com.dailymoodtracker.service.SentimentBackfillJob;
 import com.dailymoodtracker.service.SentimentServiceFactory;
 import com.dailymoodtracker.service.SentimentServiceFactory.ServiceType;
-import com.dailymoodtracker.service.PythonSentimentService;
-import com.dailymoodtracker.service.HttpSentimentService;
+import com.dailymoodtracker.service.SentimentHealthMonitor;
 import com.dailymoodtracker.utils.AlertHelper;
 import com.dailymoodtracker.utils.SceneManager;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
@@ -37,6 +38,8 @@ public class SettingsController implements Initializable {
     @FXML private Label lblHttpStatus;
     @FXML private Button btnSave;
     @FXML private Button btnCancel;
+    @FXML private Button btnBackfill;
+    @FXML private Label lblBackfillStatus;
 
     private ToggleGroup serviceToggleGroup;
     private SceneManager sceneManager;
@@ -47,6 +50,7 @@ public class SettingsController implements Initializable {
         sceneManager = SceneManager.getInstance();
         setupToggleGroup();
         refreshServiceStatus();
+        refreshBackfillStatus();
     }
 
     /**
@@ -82,11 +86,11 @@ public class SettingsController implements Initializable {
      * Refresh the status of service configurations
      */
     private void refreshServiceStatus() {
-        // Check Python service availability
+        // Check Python service availability (from the background health monitor, no probe on the FX thread)
         boolean pythonAvailable = false;
         try {
-            PythonSentimentService pythonService = PythonSentimentService.getInstance();
-            pythonAvailable = pythonService.isServiceAvailable();
+            SentimentHealthMonitor.BackendHealth pythonHealth = SentimentServiceFactory.getBackendHealth(ServiceType.PYTHON);
+            pythonAvailable = !pythonHealth.isProbed() || pythonHealth.isHealthy();
             lblPythonStatus.setText(pythonAvailable ? "Status: Available" : "Status: Not available");
             lblPythonStatus.setStyle(pythonAvailable ? "-fx-text-fill: green;" : "-fx-text-fill: red;");
         } catch (Exception e) {
@@ -98,8 +102,7 @@ public class SettingsController implements Initializable {
         // Check HTTP service availability
         boolean httpAvailable = false;
         try {
-            HttpSentimentService httpService = HttpSentimentService.getInstance();
-            httpAvailable = httpService.isServiceAvailable();
+            httpAvailable = SentimentServiceFactory.getBackendHealth(ServiceType.HTTP).isHealthy();
             lblHttpStatus.setText(httpAvailable ? "Status: Available" : "Status: Not available");
             lblHttpStatus.setStyle(httpAvailable ? "-fx-text-fill: green;" : "-fx-text-fill: red;");
         } catch (Exception e) {
@@ -126,6 +129,66 @@ public class SettingsController implements Initializable {
         }
     }
 
+    /**
+     * Show the state of the sentiment backfill job
+     */
+    private void refreshBackfillStatus() {
+        SentimentBackfillJob backfillJob = SentimentBackfillJob.getInstance();
+        btnBackfill.setText(backfillJob.isRunning() ? "Stop Scoring" : "Score Past Entries");
+        if (backfillJob.getProgress().getState() != SentimentBackfillJob.State.IDLE) {
+            showBackfillProgress(backfillJob.getProgress());
+        }
+    }
+
+    private void showBackfillProgress(SentimentBackfillJob.Progress progress) {
+        switch (progress.getState()) {
+            case RUNNING:
+                lblBackfillStatus.setText(String.format("Scoring... %.0f%% (%d of %d, %.0f rows/s)",
+                        progress.getFractionComplete() * 100, progress.getProcessed(),
+                        progress.getTotal(), progress.getRowsPerSecond()));
+                break;
+            case COMPLETED:
+                lblBackfillStatus.setText("Done: " + progress.getProcessed() + " entries scored.");
+                break;
+            case CANCELLED:
+                lblBackfillStatus.setText("Stopped after " + progress.getProcessed()
+                        + " entries. Scoring will resume where it left off.");
+                break;
+            case FAILED:
+                lblBackfillStatus.setText("Scoring failed; see the log for details.");
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Start or stop the sentiment backfill. It runs in the background and keeps
+     * going after the settings window is closed.
+     */
+    @FXML
+    private void handleBackfill() {
+        SentimentBackfillJob backfillJob = SentimentBackfillJob.getInstance();
+        if (backfillJob.isRunning()) {
+            backfillJob.cancel();
+            btnBackfill.setDisable(true);
+            lblBackfillStatus.setText("Stopping...");
+            return;
+        }
+
+        btnBackfill.setText("Stop Scoring");
+        lblBackfillStatus.setText("Starting...");
+        backfillJob.start(progress -> Platform.runLater(() -> showBackfillProgress(progress)))
+                .whenComplete((progress, error) -> Platform.runLater(() -> {
+                    btnBackfill.setDisable(false);
+                    btnBackfill.setText("Score Past Entries");
+                    if (error != null) {
+                        logger.error("Sentiment backfill failed: {}", error.getMessage(), error);
+                        lblBackfillStatus.setText("Scoring failed; see the log for details.");
+                    }
+                }));
+    }
+
     /**
      * Save button action
      */
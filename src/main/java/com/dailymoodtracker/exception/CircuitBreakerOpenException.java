@@ -0,0 +1,16 @@
+package com.dailymoodtracker.exception;
+
+/**
+ * Exception thrown when a call is rejected because a circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    /**
+     * Create a new CircuitBreakerOpenException with a message.
+     *
+     * @param message the error message
+     */
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
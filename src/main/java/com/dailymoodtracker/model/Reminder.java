@@ -3,7 +3,7 @@ package com.dailymoodtracker.model;
 import java.time.LocalTime;
 
 public class Reminder {
-    private final int reminderId;
+    private int reminderId; // 0 until the reminder is first saved
     private final int userId;
     private LocalTime time;
     private String message;
@@ -51,6 +51,10 @@ public class Reminder {
     }
 
     // Setters for mutable fields
+    public void setReminderId(int reminderId) {
+        this.reminderId = reminderId;
+    }
+
     public void setTime(LocalTime time) {
         this.time = time;
     }
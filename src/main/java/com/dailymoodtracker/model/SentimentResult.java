@@ -8,6 +8,9 @@ import java.util.Map;
  * Model class to represent the result of sentiment analysis.
  */
 public class SentimentResult {
+    /** Analysis source of the neutral default returned when the analysis failed. */
+    public static final String FALLBACK_SOURCE = "fallback";
+
     private double positiveScore;
     private double negativeScore;
     private double neutralScore;
@@ -146,6 +149,13 @@ public class SentimentResult {
         this.analysisSource = analysisSource;
     }
     
+    /**
+     * Whether this is the neutral default for a failed analysis rather than a real result.
+     */
+    public boolean isFallback() {
+        return FALLBACK_SOURCE.equals(analysisSource);
+    }
+    
     /**
      * Determine dominant sentiment based on scores
      */
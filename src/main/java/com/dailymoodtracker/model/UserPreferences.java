@@ -89,6 +89,9 @@ public class UserPreferences implements Serializable {
     // Mood scale preference
     private MoodScale moodScale;
     
+    // Pause decorative animations; absent, and so off, in files saved before it existed
+    private boolean reducedMotion;
+    
     // Custom activity categories and activities
     private Map<String, List<String>> activityCategories;
     
@@ -157,6 +160,9 @@ public class UserPreferences implements Serializable {
     public MoodScale getMoodScale() { return moodScale; }
     public void setMoodScale(MoodScale moodScale) { this.moodScale = moodScale; }
     
+    public boolean isReducedMotion() { return reducedMotion; }
+    public void setReducedMotion(boolean reducedMotion) { this.reducedMotion = reducedMotion; }
+    
     public Map<String, List<String>> getActivityCategories() { return activityCategories; }
     
     public List<String> getActivitiesForCategory(String category) {
@@ -0,0 +1,75 @@
+package com.dailymoodtracker.repository;
+
+import com.dailymoodtracker.model.ChatFeedback;
+import java.util.List;
+
+/**
+ * Repository interface for feedback on chatbot responses.
+ */
+public interface ChatFeedbackRepository {
+
+    /**
+     * Number of feedback entries with the same sentiment, emotion and feedback type.
+     */
+    class CategoryCount {
+        private final String sentimentType;
+        private final String specificEmotion;
+        private final ChatFeedback.FeedbackType feedbackType;
+        private final long count;
+
+        public CategoryCount(String sentimentType, String specificEmotion,
+                             ChatFeedback.FeedbackType feedbackType, long count) {
+            this.sentimentType = sentimentType;
+            this.specificEmotion = specificEmotion;
+            this.feedbackType = feedbackType;
+            this.count = count;
+        }
+
+        public String getSentimentType() {
+            return sentimentType;
+        }
+
+        public String getSpecificEmotion() {
+            return specificEmotion;
+        }
+
+        public ChatFeedback.FeedbackType getFeedbackType() {
+            return feedbackType;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Save feedback entries in one batch.
+     *
+     * @param feedback the entries to save
+     */
+    void saveAll(List<ChatFeedback> feedback);
+
+    /**
+     * Find the most recent feedback entries of each user.
+     *
+     * @param limitPerUser the maximum number of entries to return per user
+     * @return the entries, newest first
+     */
+    List<ChatFeedback> findRecentPerUser(int limitPerUser);
+
+    /**
+     * Find the most recent feedback entries of one type.
+     *
+     * @param type the feedback type
+     * @param limit the maximum number of entries to return
+     * @return the entries, newest first
+     */
+    List<ChatFeedback> findByType(ChatFeedback.FeedbackType type, int limit);
+
+    /**
+     * Count all feedback by sentiment type, specific emotion and feedback type.
+     *
+     * @return one count per combination that occurs
+     */
+    List<CategoryCount> countByCategory();
+}
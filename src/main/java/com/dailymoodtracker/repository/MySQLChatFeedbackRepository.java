@@ -0,0 +1,147 @@
+package com.dailymoodtracker.repository;
+
+import com.dailymoodtracker.config.DatabaseConfig;
+import com.dailymoodtracker.exception.DatabaseException;
+import com.dailymoodtracker.model.ChatFeedback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for chat feedback using the application database.
+ *
+ * Feedback is written from background threads, so every call opens its own
+ * connection instead of sharing the UI's.
+ */
+public class MySQLChatFeedbackRepository implements ChatFeedbackRepository {
+    private static final Logger logger = LoggerFactory.getLogger(MySQLChatFeedbackRepository.class);
+
+    @Override
+    public void saveAll(List<ChatFeedback> feedback) {
+        if (feedback.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO chat_feedback (user_id, user_message, bot_response, feedback_type, " +
+                     "feedback_content, sentiment_type, specific_emotion, timestamp) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (ChatFeedback entry : feedback) {
+                stmt.setInt(1, entry.getUserId());
+                stmt.setString(2, entry.getUserMessage());
+                stmt.setString(3, entry.getBotResponse());
+                stmt.setString(4, entry.getType().name());
+                stmt.setString(5, entry.getFeedbackContent());
+                stmt.setString(6, entry.getSentimentType());
+                stmt.setString(7, entry.getSpecificEmotion());
+                stmt.setTimestamp(8, Timestamp.valueOf(
+                    entry.getTimestamp() != null ? entry.getTimestamp() : LocalDateTime.now()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+
+            logger.debug("Saved {} chat feedback entries", feedback.size());
+        } catch (SQLException e) {
+            logger.error("Error saving chat feedback", e);
+            throw new DatabaseException("Error saving chat feedback", e);
+        }
+    }
+
+    @Override
+    public List<ChatFeedback> findRecentPerUser(int limitPerUser) {
+        String sql = "SELECT id, user_id, user_message, bot_response, feedback_type, feedback_content, " +
+                     "sentiment_type, specific_emotion, timestamp FROM (" +
+                     "SELECT f.*, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY timestamp DESC, id DESC) AS rank_in_user " +
+                     "FROM chat_feedback f) ranked " +
+                     "WHERE rank_in_user <= ? ORDER BY timestamp DESC, id DESC";
+
+        List<ChatFeedback> feedback = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limitPerUser);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    feedback.add(mapResultSetToFeedback(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding recent chat feedback", e);
+            throw new DatabaseException("Error finding recent chat feedback", e);
+        }
+        return feedback;
+    }
+
+    @Override
+    public List<ChatFeedback> findByType(ChatFeedback.FeedbackType type, int limit) {
+        String sql = "SELECT id, user_id, user_message, bot_response, feedback_type, feedback_content, " +
+                     "sentiment_type, specific_emotion, timestamp " +
+                     "FROM chat_feedback WHERE feedback_type = ? ORDER BY timestamp DESC, id DESC LIMIT ?";
+
+        List<ChatFeedback> feedback = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, type.name());
+            stmt.setInt(2, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    feedback.add(mapResultSetToFeedback(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding chat feedback by type: {}", type, e);
+            throw new DatabaseException("Error finding chat feedback by type", e);
+        }
+        return feedback;
+    }
+
+    @Override
+    public List<CategoryCount> countByCategory() {
+        String sql = "SELECT sentiment_type, specific_emotion, feedback_type, COUNT(*) AS entries " +
+                     "FROM chat_feedback GROUP BY sentiment_type, specific_emotion, feedback_type";
+
+        List<CategoryCount> counts = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                counts.add(new CategoryCount(
+                    rs.getString("sentiment_type"),
+                    rs.getString("specific_emotion"),
+                    ChatFeedback.FeedbackType.valueOf(rs.getString("feedback_type")),
+                    rs.getLong("entries")));
+            }
+        } catch (SQLException e) {
+            logger.error("Error counting chat feedback", e);
+            throw new DatabaseException("Error counting chat feedback", e);
+        }
+        return counts;
+    }
+
+    private ChatFeedback mapResultSetToFeedback(ResultSet rs) throws SQLException {
+        ChatFeedback feedback = new ChatFeedback(
+            rs.getString("user_message"),
+            rs.getString("bot_response"),
+            ChatFeedback.FeedbackType.valueOf(rs.getString("feedback_type")),
+            rs.getString("feedback_content"),
+            rs.getInt("user_id"));
+        feedback.setId(rs.getLong("id"));
+        feedback.setSentimentType(rs.getString("sentiment_type"));
+        feedback.setSpecificEmotion(rs.getString("specific_emotion"));
+        feedback.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        return feedback;
+    }
+}
@@ -236,9 +236,9 @@ public class MySQLMoodEntryRepository extends AbstractRepository<MoodEntry, Inte
         } finally {
             if (conn != null) {
                 try {
-                    conn.setAutoCommit(true);
+                    conn.close();
                 } catch (SQLException e) {
-                    logger.error("Error resetting auto-commit", e);
+                    logger.error("Error closing connection", e);
                 }
             }
         }
@@ -355,9 +355,9 @@ public class MySQLMoodEntryRepository extends AbstractRepository<MoodEntry, Inte
         } finally {
             if (conn != null) {
                 try {
-                    conn.setAutoCommit(true);
+                    conn.close();
                 } catch (SQLException e) {
-                    logger.error("Error resetting auto-commit", e);
+                    logger.error("Error closing connection", e);
                 }
             }
         }
@@ -0,0 +1,190 @@
+package com.dailymoodtracker.repository;
+
+import com.dailymoodtracker.config.DatabaseConfig;
+import com.dailymoodtracker.exception.DatabaseException;
+import com.dailymoodtracker.model.Reminder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for reminders using the application database.
+ *
+ * Reminders fire on scheduler threads, so every call opens its own connection
+ * instead of sharing the UI's. Lookups by user and by next fire time use the
+ * indexes on user_id and (user_id, next_fire_at).
+ */
+public class MySQLReminderRepository implements ReminderRepository {
+    private static final Logger logger = LoggerFactory.getLogger(MySQLReminderRepository.class);
+
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    @Override
+    public void save(Reminder reminder, Instant nextFireAt) {
+        boolean isNewReminder = reminder.getReminderId() == 0;
+        String sql = isNewReminder
+            ? "INSERT INTO reminders (title, message, time, active, frequency, is_read, next_fire_at, user_id) " +
+              "VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+            : "UPDATE reminders SET title = ?, message = ?, time = ?, active = ?, frequency = ?, is_read = ?, " +
+              "next_fire_at = ? WHERE user_id = ? AND id = ?";
+
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = isNewReminder
+                 ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                 : conn.prepareStatement(sql)) {
+            String message = reminder.getMessage() != null ? reminder.getMessage() : "";
+            stmt.setString(1, message.length() > MAX_TITLE_LENGTH ? message.substring(0, MAX_TITLE_LENGTH) : message);
+            stmt.setString(2, message);
+            stmt.setTime(3, Time.valueOf(reminder.getTime()));
+            stmt.setBoolean(4, reminder.isEnabled());
+            stmt.setString(5, reminder.getFrequency());
+            stmt.setBoolean(6, reminder.isRead());
+            setInstant(stmt, 7, nextFireAt);
+            stmt.setInt(8, reminder.getUserId());
+            if (!isNewReminder) {
+                stmt.setInt(9, reminder.getReminderId());
+            }
+
+            int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected == 0) {
+                // Only the owner's row is updated, so this is also another user's reminder
+                throw new SQLException("Reminder " + reminder.getReminderId() + " of user " +
+                    reminder.getUserId() + " not found");
+            }
+            if (isNewReminder) {
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Creating reminder failed, no ID obtained.");
+                    }
+                    reminder.setReminderId(generatedKeys.getInt(1));
+                }
+            }
+
+            logger.debug("Saved reminder {}", reminder.getReminderId());
+        } catch (SQLException e) {
+            logger.error("Error saving reminder: {}", reminder.getReminderId(), e);
+            throw new DatabaseException("Error saving reminder", e);
+        }
+    }
+
+    @Override
+    public void delete(int userId, int reminderId) {
+        String sql = "DELETE FROM reminders WHERE user_id = ? AND id = ?";
+
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, reminderId);
+            if (stmt.executeUpdate() == 0) {
+                logger.warn("No reminder {} of user {} to delete", reminderId, userId);
+            }
+        } catch (SQLException e) {
+            logger.error("Error deleting reminder: {}", reminderId, e);
+            throw new DatabaseException("Error deleting reminder", e);
+        }
+    }
+
+    @Override
+    public List<Reminder> findByUserId(int userId) {
+        String sql = "SELECT id, user_id, message, time, active, frequency, is_read " +
+                     "FROM reminders WHERE user_id = ? ORDER BY id";
+
+        List<Reminder> reminders = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reminders.add(mapResultSetToReminder(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding reminders for user: {}", userId, e);
+            throw new DatabaseException("Error finding reminders for user", e);
+        }
+        return reminders;
+    }
+
+    @Override
+    public List<ScheduledReminder> findDueByUserId(int userId, Instant until) {
+        String sql = "SELECT id, user_id, message, time, active, frequency, is_read, next_fire_at " +
+                     "FROM reminders WHERE user_id = ? AND active = TRUE AND next_fire_at <= ? " +
+                     "ORDER BY next_fire_at";
+
+        List<ScheduledReminder> reminders = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setTimestamp(2, Timestamp.from(until));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reminders.add(new ScheduledReminder(
+                        mapResultSetToReminder(rs), rs.getTimestamp("next_fire_at").toInstant()));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding due reminders for user: {}", userId, e);
+            throw new DatabaseException("Error finding due reminders", e);
+        }
+        return reminders;
+    }
+
+    @Override
+    public void updateSchedules(List<ScheduledReminder> reminders) {
+        if (reminders.isEmpty()) {
+            return;
+        }
+
+        String sql = "UPDATE reminders SET is_read = ?, next_fire_at = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (ScheduledReminder scheduled : reminders) {
+                stmt.setBoolean(1, scheduled.getReminder().isRead());
+                setInstant(stmt, 2, scheduled.getNextFireAt());
+                stmt.setInt(3, scheduled.getReminder().getReminderId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+
+            logger.debug("Updated schedules of {} reminders", reminders.size());
+        } catch (SQLException e) {
+            logger.error("Error updating reminder schedules", e);
+            throw new DatabaseException("Error updating reminder schedules", e);
+        }
+    }
+
+    private static void setInstant(PreparedStatement stmt, int index, Instant instant) throws SQLException {
+        if (instant != null) {
+            stmt.setTimestamp(index, Timestamp.from(instant));
+        } else {
+            stmt.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    private Reminder mapResultSetToReminder(ResultSet rs) throws SQLException {
+        return new Reminder(
+            rs.getInt("id"),
+            rs.getInt("user_id"),
+            rs.getTime("time").toLocalTime(),
+            rs.getString("message"),
+            rs.getBoolean("active"),
+            rs.getString("frequency"),
+            rs.getBoolean("is_read"));
+    }
+}
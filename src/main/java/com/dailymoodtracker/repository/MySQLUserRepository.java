@@ -24,7 +24,7 @@ public class MySQLUserRepository implements UserRepository {
     public User findByUsername(String username) {
         String sql = "SELECT * FROM users WHERE username = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.openConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, username);
@@ -51,7 +51,7 @@ public class MySQLUserRepository implements UserRepository {
     public User save(User user) {
         String sql = "INSERT INTO users (username, password, email, created_at) VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.openConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, user.getUsername());
@@ -86,7 +86,7 @@ public class MySQLUserRepository implements UserRepository {
     public boolean delete(int userId) {
         String sql = "DELETE FROM users WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.openConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
@@ -109,7 +109,7 @@ public class MySQLUserRepository implements UserRepository {
     public User update(User user) {
         String sql = "UPDATE users SET username = ?, password = ?, email = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.openConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, user.getUsername());
@@ -0,0 +1,77 @@
+package com.dailymoodtracker.repository;
+
+import com.dailymoodtracker.model.Reminder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for reminders and when each one fires next.
+ */
+public interface ReminderRepository {
+
+    /**
+     * A reminder with the instant it fires next.
+     */
+    class ScheduledReminder {
+        private final Reminder reminder;
+        private final Instant nextFireAt;
+
+        public ScheduledReminder(Reminder reminder, Instant nextFireAt) {
+            this.reminder = reminder;
+            this.nextFireAt = nextFireAt;
+        }
+
+        public Reminder getReminder() {
+            return reminder;
+        }
+
+        /**
+         * @return the instant, or null if the reminder is disabled or never fires
+         */
+        public Instant getNextFireAt() {
+            return nextFireAt;
+        }
+    }
+
+    /**
+     * Insert a new reminder, whose ID is 0, and set the ID the database generated on
+     * it, or update an existing one of the same user.
+     *
+     * @param reminder the reminder
+     * @param nextFireAt when it fires next, or null if it does not
+     */
+    void save(Reminder reminder, Instant nextFireAt);
+
+    /**
+     * Delete a reminder of a user. A reminder of another user is left alone.
+     *
+     * @param userId the user the reminder belongs to
+     * @param reminderId the reminder ID
+     */
+    void delete(int userId, int reminderId);
+
+    /**
+     * Find all reminders of a user.
+     *
+     * @param userId the user ID
+     * @return the reminders, in creation order
+     */
+    List<Reminder> findByUserId(int userId);
+
+    /**
+     * Find the enabled reminders of a user that fire by a given instant.
+     *
+     * @param userId the user ID
+     * @param until the end of the window, inclusive
+     * @return the reminders, soonest first
+     */
+    List<ScheduledReminder> findDueByUserId(int userId, Instant until);
+
+    /**
+     * Save the read flag and next fire instant of several reminders in one batch.
+     *
+     * @param reminders the reminders with their new next fire instants
+     */
+    void updateSchedules(List<ScheduledReminder> reminders);
+}
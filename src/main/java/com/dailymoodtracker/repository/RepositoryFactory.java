@@ -15,7 +15,9 @@ public class RepositoryFactory {
     
     // Singleton instances of repositories
     private static ChatMessageRepository chatMessageRepository;
+    private static ChatFeedbackRepository chatFeedbackRepository;
     private static MoodEntryRepository moodEntryRepository;
+    private static ReminderRepository reminderRepository;
     private static UserRepository userRepository;
     
     /**
@@ -30,6 +32,18 @@ public class RepositoryFactory {
         return chatMessageRepository;
     }
     
+    /**
+     * Get the ChatFeedbackRepository instance.
+     * @return ChatFeedbackRepository instance
+     */
+    public static synchronized ChatFeedbackRepository getChatFeedbackRepository() {
+        if (chatFeedbackRepository == null) {
+            chatFeedbackRepository = new MySQLChatFeedbackRepository();
+            logger.info("Created MySQL chat feedback repository");
+        }
+        return chatFeedbackRepository;
+    }
+    
     /**
      * Get the MoodEntryRepository instance.
      * @return MoodEntryRepository instance
@@ -42,6 +56,18 @@ public class RepositoryFactory {
         return moodEntryRepository;
     }
     
+    /**
+     * Get the ReminderRepository instance.
+     * @return ReminderRepository instance
+     */
+    public static synchronized ReminderRepository getReminderRepository() {
+        if (reminderRepository == null) {
+            reminderRepository = new MySQLReminderRepository();
+            logger.info("Created MySQL reminder repository");
+        }
+        return reminderRepository;
+    }
+    
     /**
      * Get the user repository instance.
      * @return A UserRepository implementation
@@ -14,7 +14,7 @@ public class AchievementService {
         this.userAchievements = new HashMap<>();
     }
 
-    public boolean addAchievement(User user, Achievement achievement) {
+    public synchronized boolean addAchievement(User user, Achievement achievement) {
         List<Achievement> achievements = userAchievements.computeIfAbsent(user.getId(), k -> new ArrayList<>());
         
         // Check if achievement already exists
@@ -29,8 +29,8 @@ public class AchievementService {
         return false; // Achievement already existed
     }
 
-    public List<Achievement> getUnlockedAchievements(User user) {
-        return userAchievements.getOrDefault(user.getId(), new ArrayList<>());
+    public synchronized List<Achievement> getUnlockedAchievements(User user) {
+        return new ArrayList<>(userAchievements.getOrDefault(user.getId(), new ArrayList<>()));
     }
 
     public void checkMoodStreak(User user) {
@@ -0,0 +1,409 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rate limiter for calls to a paid API with three budgets: requests per day (reset
+ * at local midnight), and requests and tokens per minute over a sliding one-minute
+ * window.
+ *
+ * A caller asks for a permit with the number of tokens the request is expected to
+ * use. If the per-minute budgets are exhausted but will free up within the caller's
+ * maximum wait, the request is queued and granted in order when the window has room;
+ * otherwise it is refused right away instead of being sent only to fail with HTTP 429.
+ * The daily request and token counts are saved to the database, so a restart does
+ * not reset the daily limit. They are loaded in the background, and saves wait for
+ * the load, so usage counted meanwhile is added to the stored counts, not overwritten.
+ */
+public final class ApiRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(ApiRateLimiter.class);
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final String name;
+    private final int dailyRequestLimit;
+    private final int requestsPerMinute;
+    private final long tokensPerMinute;
+
+    // Guarded by this
+    private LocalDate day = LocalDate.now();
+    private int requestsToday;
+    private long tokensToday;
+    private int savedRequestsToday; // not persisted
+    private final ArrayDeque<Permit> window = new ArrayDeque<>();
+    private long windowTokens;
+    private long blockedUntilMillis;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private ScheduledFuture<?> drainTask;
+
+    private final CompletableFuture<Void> usageLoaded;
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    /**
+     * Permission to make one request. Report the tokens it actually used with
+     * {@link #recordUsage(Permit, long)}, or hand it back with {@link #release(Permit)}
+     * if the request was never sent.
+     */
+    public static class Permit {
+        private final long grantedMillis;
+        private long tokens;
+        private boolean released;
+
+        private Permit(long grantedMillis, long tokens) {
+            this.grantedMillis = grantedMillis;
+            this.tokens = tokens;
+        }
+
+        public long getTokens() {
+            return tokens;
+        }
+    }
+
+    private static class Waiter {
+        private final long tokens;
+        private final long deadlineMillis;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+        Waiter(long tokens, long deadlineMillis) {
+            this.tokens = tokens;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+
+    /**
+     * @param name Name of the API, used as the key of the saved daily usage
+     * @param dailyRequestLimit Maximum requests per day
+     * @param requestsPerMinute Maximum requests in any one-minute window
+     * @param tokensPerMinute Maximum tokens in any one-minute window
+     */
+    public ApiRateLimiter(String name, int dailyRequestLimit, int requestsPerMinute, long tokensPerMinute) {
+        this.name = name;
+        this.dailyRequestLimit = dailyRequestLimit;
+        this.requestsPerMinute = requestsPerMinute;
+        this.tokensPerMinute = tokensPerMinute;
+        usageLoaded = CompletableFuture.runAsync(this::loadUsage, AppExecutors.io());
+    }
+
+    /**
+     * Get a permit without waiting.
+     *
+     * @param tokens Expected number of tokens of the request
+     * @return the permit, or null if any budget is exhausted
+     */
+    public Permit tryAcquire(long tokens) {
+        return acquire(tokens, 0).getNow(null);
+    }
+
+    /**
+     * Get a permit, waiting up to {@code maxWaitMillis} for the per-minute budgets to
+     * free up. No thread is blocked while waiting.
+     *
+     * @param tokens Expected number of tokens of the request
+     * @param maxWaitMillis How long the caller is willing to wait
+     * @return a future completing with the permit, or with null if the daily limit is
+     *         reached or no permit can be granted within the wait
+     */
+    public CompletableFuture<Permit> acquire(long tokens, long maxWaitMillis) {
+        Waiter waiter = new Waiter(tokens, System.currentTimeMillis() + maxWaitMillis);
+        synchronized (this) {
+            rollDay();
+            if (requestsToday >= dailyRequestLimit) {
+                logger.warn("Daily {} API request limit reached: {}", name, dailyRequestLimit);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            long now = System.currentTimeMillis();
+            long waitMillis = millisUntilAvailable(tokens, now);
+            if (waitMillis == 0 && waiters.isEmpty()) {
+                Permit permit = grant(tokens, now);
+                scheduleSave();
+                return CompletableFuture.completedFuture(permit);
+            }
+            if (maxWaitMillis <= 0 || now + waitMillis > waiter.deadlineMillis) {
+                logger.info("{} API budget exhausted for the next {} ms, not waiting", name, waitMillis);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            waiters.addLast(waiter);
+            scheduleDrain(waitMillis);
+        }
+        return waiter.future;
+    }
+
+    /**
+     * Record the tokens a request actually used, replacing the estimate of its permit.
+     */
+    public synchronized void recordUsage(Permit permit, long actualTokens) {
+        if (permit.released) {
+            return;
+        }
+        long difference = actualTokens - permit.tokens;
+        permit.tokens = actualTokens;
+        if (window.contains(permit)) {
+            windowTokens += difference;
+        }
+        if (day.equals(LocalDate.now())) {
+            tokensToday += difference;
+        }
+        scheduleSave();
+    }
+
+    /**
+     * Return a permit whose request was never sent, e.g. because it was cancelled.
+     */
+    public void release(Permit permit) {
+        synchronized (this) {
+            if (permit.released) {
+                return;
+            }
+            permit.released = true;
+            if (window.remove(permit)) {
+                windowTokens -= permit.tokens;
+            }
+            if (day.equals(LocalDate.now())) {
+                requestsToday = Math.max(0, requestsToday - 1);
+                tokensToday = Math.max(0, tokensToday - permit.tokens);
+            }
+            scheduleSave();
+        }
+        drain();
+    }
+
+    /**
+     * Stop granting permits until the server's retry time has passed, after it
+     * answered with HTTP 429 anyway.
+     *
+     * @param retryAfterMillis How long the server asked to wait
+     */
+    public synchronized void onRateLimited(long retryAfterMillis) {
+        blockedUntilMillis = Math.max(blockedUntilMillis, System.currentTimeMillis() + retryAfterMillis);
+        logger.warn("{} API rate limited by the server, pausing requests for {} ms", name, retryAfterMillis);
+    }
+
+    private void drain() {
+        List<Waiter> refused = new ArrayList<>();
+        List<Waiter> granted = new ArrayList<>();
+        List<Permit> permits = new ArrayList<>();
+        synchronized (this) {
+            drainTask = null;
+            rollDay();
+            long now = System.currentTimeMillis();
+            while (!waiters.isEmpty()) {
+                Waiter waiter = waiters.peekFirst();
+                if (requestsToday >= dailyRequestLimit || now > waiter.deadlineMillis
+                        || waiter.future.isDone()) {
+                    refused.add(waiters.pollFirst());
+                    continue;
+                }
+                long waitMillis = millisUntilAvailable(waiter.tokens, now);
+                if (waitMillis > 0) {
+                    if (now + waitMillis > waiter.deadlineMillis) {
+                        refused.add(waiters.pollFirst());
+                        continue;
+                    }
+                    scheduleDrain(waitMillis);
+                    break;
+                }
+                granted.add(waiters.pollFirst());
+                permits.add(grant(waiter.tokens, now));
+            }
+            if (!permits.isEmpty()) {
+                scheduleSave();
+            }
+        }
+
+        // Complete outside the lock: dependent stages run on this thread
+        for (Waiter waiter : refused) {
+            waiter.future.complete(null);
+        }
+        for (int i = 0; i < granted.size(); i++) {
+            if (!granted.get(i).future.complete(permits.get(i))) {
+                release(permits.get(i)); // the caller gave up meanwhile
+            }
+        }
+    }
+
+    private void scheduleDrain(long delayMillis) {
+        if (drainTask == null || drainTask.getDelay(TimeUnit.MILLISECONDS) > delayMillis) {
+            if (drainTask != null) {
+                drainTask.cancel(false);
+            }
+            drainTask = AppExecutors.scheduler().schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Permit grant(long tokens, long now) {
+        Permit permit = new Permit(now, tokens);
+        window.addLast(permit);
+        windowTokens += tokens;
+        requestsToday++;
+        tokensToday += tokens;
+        return permit;
+    }
+
+    /**
+     * How long until a request of the given size fits all per-minute budgets, or 0
+     * if it fits now.
+     */
+    private long millisUntilAvailable(long tokens, long now) {
+        while (!window.isEmpty() && window.peekFirst().grantedMillis + WINDOW_MILLIS <= now) {
+            windowTokens -= window.pollFirst().tokens;
+        }
+
+        long waitMillis = Math.max(0, blockedUntilMillis - now);
+        if (window.size() >= requestsPerMinute) {
+            Permit expiring = window.peekFirst();
+            waitMillis = Math.max(waitMillis, expiring.grantedMillis + WINDOW_MILLIS - now);
+        }
+
+        // A request larger than the whole budget is let through once the window is empty
+        long excess = windowTokens + Math.min(tokens, tokensPerMinute) - tokensPerMinute;
+        if (excess > 0) {
+            long freed = 0;
+            for (Iterator<Permit> it = window.iterator(); it.hasNext(); ) {
+                Permit expiring = it.next();
+                freed += expiring.tokens;
+                if (freed >= excess) {
+                    waitMillis = Math.max(waitMillis, expiring.grantedMillis + WINDOW_MILLIS - now);
+                    break;
+                }
+            }
+        }
+        return waitMillis;
+    }
+
+    private void rollDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(day)) {
+            logger.info("{} API usage on {}: {} requests, {} tokens", name, day, requestsToday, tokensToday);
+            day = today;
+            requestsToday = 0;
+            tokensToday = 0;
+            savedRequestsToday = 0;
+        }
+    }
+
+    /**
+     * Add the usage saved earlier today, so a restart does not reset the daily limit.
+     */
+    private void loadUsage() {
+        String sql = "SELECT requests, tokens FROM api_usage WHERE api = ? AND usage_day = ?";
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            LocalDate today = LocalDate.now();
+            stmt.setString(1, name);
+            stmt.setDate(2, Date.valueOf(today));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    synchronized (this) {
+                        if (day.equals(today)) {
+                            requestsToday += rs.getInt("requests");
+                            tokensToday += rs.getLong("tokens");
+                        }
+                    }
+                    logger.info("Loaded today's {} API usage: {} requests", name, getRequestsToday());
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not load {} API usage, starting from zero: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Save the daily usage in the background; saves requested while one is pending
+     * are folded into it. None runs before the saved usage has been loaded, as the
+     * load would otherwise add back what the save had just written.
+     */
+    private void scheduleSave() {
+        if (savePending.compareAndSet(false, true)) {
+            usageLoaded.whenCompleteAsync((ignored, error) -> saveUsage(), AppExecutors.io());
+        }
+    }
+
+    private void saveUsage() {
+        savePending.set(false);
+        LocalDate savedDay;
+        int requests;
+        long tokens;
+        synchronized (this) {
+            savedDay = day;
+            requests = requestsToday;
+            tokens = tokensToday;
+        }
+
+        String sql = "MERGE INTO api_usage (api, usage_day, requests, tokens, updated_at) " +
+                     "KEY (api, usage_day) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+        try (Connection conn = DatabaseConfig.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            stmt.setDate(2, Date.valueOf(savedDay));
+            stmt.setInt(3, requests);
+            stmt.setLong(4, tokens);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.warn("Could not save {} API usage: {}", name, e.getMessage());
+        }
+    }
+
+    public synchronized int getRequestsToday() {
+        rollDay();
+        return requestsToday;
+    }
+
+    /**
+     * Count a request that was not needed, e.g. because a cached response was reused.
+     *
+     * @return the requests saved today, this one included
+     */
+    public synchronized int recordSavedRequest() {
+        rollDay();
+        return ++savedRequestsToday;
+    }
+
+    public synchronized int getSavedRequestsToday() {
+        rollDay();
+        return savedRequestsToday;
+    }
+
+    public int getDailyRequestLimit() {
+        return dailyRequestLimit;
+    }
+
+    /**
+     * Reset today's usage, e.g. after the provider's quota was raised.
+     */
+    public synchronized void resetDailyUsage() {
+        requestsToday = 0;
+        tokensToday = 0;
+        savedRequestsToday = 0;
+        scheduleSave();
+    }
+
+    /**
+     * Get a one-line summary of the budgets and their use.
+     */
+    public synchronized String getMetrics() {
+        rollDay();
+        millisUntilAvailable(0, System.currentTimeMillis());
+        return String.format("%s{today=%d/%d requests, %d tokens; last minute=%d/%d requests, %d/%d tokens; queued=%d}",
+            name, requestsToday, dailyRequestLimit, tokensToday, window.size(), requestsPerMinute,
+            windowTokens, tokensPerMinute, waiters.size());
+    }
+}
@@ -0,0 +1,136 @@
+package com.dailymoodtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Application-wide executors. Services submit background work here instead of
+ * creating their own thread pools, so thread count stays predictable and everything
+ * is stopped in one place on exit.
+ *
+ * <ul>
+ *   <li>{@link #io()}: virtual threads for blocking work (HTTP calls, database access),
+ *       with a cap on how many run at once</li>
+ *   <li>{@link #cpu()}: a fixed pool of platform threads sized to the machine for
+ *       CPU-bound work such as sentiment scoring, with a bounded queue; when the queue
+ *       is full the submitting thread runs the task itself</li>
+ *   <li>{@link #scheduler()}: one timer thread for delayed and periodic tasks, which
+ *       should be short or hand off to the other pools</li>
+ * </ul>
+ */
+public final class AppExecutors {
+    private static final Logger logger = LoggerFactory.getLogger(AppExecutors.class);
+
+    private static final int IO_MAX_CONCURRENCY = 256;
+    private static final int CPU_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int CPU_QUEUE_CAPACITY = 1024;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 2000;
+
+    private static final InstrumentedExecutorService io = new InstrumentedExecutorService("io",
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 1).factory()),
+            IO_MAX_CONCURRENCY);
+
+    private static final InstrumentedExecutorService cpu = new InstrumentedExecutorService("cpu",
+            createCpuPool(), 0);
+
+    private static final ScheduledThreadPoolExecutor scheduler = createScheduler();
+
+    private AppExecutors() {
+    }
+
+    private static ExecutorService createCpuPool() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        return new ThreadPoolExecutor(CPU_THREADS, CPU_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CPU_QUEUE_CAPACITY),
+                r -> {
+                    Thread thread = new Thread(r, "cpu-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "app-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Cancelled timers (e.g. superseded debounces) should not pile up in the queue
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    /**
+     * Executor for blocking I/O; each task runs on its own virtual thread.
+     */
+    public static ExecutorService io() {
+        return io;
+    }
+
+    /**
+     * Bounded platform-thread pool for CPU-bound work.
+     */
+    public static ExecutorService cpu() {
+        return cpu;
+    }
+
+    /**
+     * Shared timer for delayed and periodic tasks.
+     */
+    public static ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Number of threads in the CPU pool.
+     */
+    public static int getCpuParallelism() {
+        return CPU_THREADS;
+    }
+
+    /**
+     * Get a one-line summary of all pools.
+     */
+    public static String getMetrics() {
+        return io.getMetrics() + ", " + cpu.getMetrics()
+                + String.format(", scheduler{scheduled=%d, completed=%d}",
+                        scheduler.getQueue().size(), scheduler.getCompletedTaskCount());
+    }
+
+    /**
+     * Stop all executors: first the scheduler so no new timed work is started, then
+     * the I/O and CPU pools, each given a short grace period to finish running tasks.
+     */
+    public static void shutdown() {
+        logger.info("Shutting down executors: {}", getMetrics());
+        scheduler.shutdownNow();
+        shutdownAndAwait(io);
+        shutdownAndAwait(cpu);
+        logger.info("Executors shut down");
+    }
+
+    private static void shutdownAndAwait(InstrumentedExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.warn("{} pool did not finish within {} ms, interrupting {} running tasks",
+                        executor.getName(), SHUTDOWN_TIMEOUT_MILLIS, executor.getRunningTasks());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
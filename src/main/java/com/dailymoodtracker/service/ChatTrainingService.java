@@ -4,6 +4,7 @@ import com.dailymoodtracker.config.OpenAIConfig;
 import com.dailymoodtracker.model.ChatFeedback;
 import com.dailymoodtracker.model.ChatMessage;
 import com.dailymoodtracker.model.SentimentResult;
+import com.dailymoodtracker.repository.RepositoryFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,21 +14,26 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Service for training the chatbot with conversation data and user feedback.
@@ -38,17 +44,51 @@ public class ChatTrainingService {
     private static final Logger logger = LoggerFactory.getLogger(ChatTrainingService.class);
     
     private final OpenAIConfig config;
-    private final ExecutorService executorService;
     private final ObjectMapper objectMapper;
-    private final AtomicInteger apiCallCounter = new AtomicInteger(0);
+    
+    // Daily, per-minute request and per-minute token budgets for the API
+    private final ApiRateLimiter rateLimiter;
+    
+    // Stream events are parsed on the HTTP client's threads; ObjectMapper reads are thread-safe
+    private static final ObjectMapper EVENT_READER = new ObjectMapper();
+    
+    // Limits the wait for response headers; a stream may then take as long as generation does
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    // Pause after an HTTP 429 that did not say how long to wait
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 20;
+    
+    // One client for all calls so connections to the API are pooled and kept alive
+    private final HttpClient httpClient;
+    
+    // Earlier responses reused instead of calling the API again; null if disabled
+    private final ResponseCache responseCache;
+    
+    // Streaming metrics
+    private final AtomicLong streamsStarted = new AtomicLong();
+    private final AtomicLong streamsWithTokens = new AtomicLong();
+    private final AtomicLong totalFirstTokenMillis = new AtomicLong();
+    
+    // Prompt size metrics
+    private final AtomicLong promptsBuilt = new AtomicLong();
+    private final AtomicLong totalPromptTokens = new AtomicLong();
+    private final AtomicLong maxPromptTokens = new AtomicLong();
     
     // Store conversation history (limited to last 20 conversations for memory efficiency)
     private final List<Map<String, Object>> conversationHistory = new ArrayList<>();
     private static final int MAX_HISTORY_SIZE = 20;
     
-    // Store feedback data for training
-    private final List<ChatFeedback> feedbackData = new ArrayList<>();
-    private static final int MAX_FEEDBACK_SIZE = 50;
+    // Feedback for training, saved to the database and summarized for prompts
+    private final FeedbackIndex feedbackIndex;
+    
+    // Well-rated past exchanges, searched for replies and prompt examples
+    private static final int MAX_INDEXED_EXCHANGES = 5000;
+    private static final int MAX_EXAMPLES = 2;
+    private static final float EXAMPLE_MIN_CONFIDENCE = 0.3f;
+    private static final float FALLBACK_REPLY_MIN_CONFIDENCE = 0.6f; // when the API cannot be used
+    private static final float DIRECT_REPLY_MIN_CONFIDENCE = 0.9f;   // instead of calling the API
+    private final ExchangeIndex exchangeIndex = new ExchangeIndex(MAX_INDEXED_EXCHANGES);
+    private final AtomicInteger retrievedReplies = new AtomicInteger(0);
     
     // Singleton instance
     private static ChatTrainingService instance;
@@ -69,8 +109,21 @@ public class ChatTrainingService {
      */
     private ChatTrainingService() {
         this.config = OpenAIConfig.getInstance();
-        this.executorService = Executors.newCachedThreadPool();
         this.objectMapper = new ObjectMapper();
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(AppExecutors.io())
+            .build();
+        this.rateLimiter = new ApiRateLimiter("openai", config.getDailyLimit(),
+            config.getRequestsPerMinute(), config.getTokensPerMinute());
+        this.responseCache = config.isResponseCacheEnabled()
+            ? new ResponseCache(TimeUnit.MINUTES.toMillis(config.getResponseCacheTtlMinutes()),
+                config.getResponseCacheSimilarity(), config.getResponseCacheMaxEntries())
+            : null;
+        this.feedbackIndex = new FeedbackIndex(RepositoryFactory::getChatFeedbackRepository);
+        feedbackIndex.start();
+        CompletableFuture.runAsync(this::loadRatedExchanges, AppExecutors.io());
         
         logger.info("Chat training service initialized");
     }
@@ -126,15 +179,13 @@ public class ChatTrainingService {
      * @param feedback The feedback data
      */
     public void addFeedback(ChatFeedback feedback) {
-        if (feedback == null) {
+        if (feedback == null || feedback.getType() == null) {
             return;
         }
         
-        synchronized (feedbackData) {
-            feedbackData.add(feedback);
-            if (feedbackData.size() > MAX_FEEDBACK_SIZE) {
-                feedbackData.remove(0);
-            }
+        feedbackIndex.add(feedback);
+        if (feedback.getType() == ChatFeedback.FeedbackType.POSITIVE) {
+            exchangeIndex.add(feedback.getUserMessage(), feedback.getBotResponse());
         }
         
         logger.info("Recorded user feedback: {}", feedback);
@@ -146,83 +197,543 @@ public class ChatTrainingService {
      * @param userMessage The current user message
      * @param previousMessages Recent messages in the conversation (if any)
      * @param sentiment The sentiment analysis of the user message
-     * @return An improved response
+     * @return An improved response, or null if the regular chatbot should handle it.
+     *         Cancelling the future aborts the request.
+     */
+    public CompletableFuture<String> generateImprovedResponse(
+            String userMessage, 
+            List<ChatMessage> previousMessages,
+            SentimentResult sentiment) {
+        return generateImprovedResponse(userMessage, previousMessages, null, sentiment);
+    }
+    
+    /**
+     * Generate an improved response based on conversation history and feedback.
+     * 
+     * @param userMessage The current user message
+     * @param previousMessages Recent messages in the conversation (if any)
+     * @param earlierSummary Summary of the conversation before the recent messages, or null
+     * @param sentiment The sentiment analysis of the user message
+     * @return An improved response, or null if the regular chatbot should handle it.
+     *         Cancelling the future aborts the request.
      */
     public CompletableFuture<String> generateImprovedResponse(
             String userMessage, 
             List<ChatMessage> previousMessages,
+            String earlierSummary,
             SentimentResult sentiment) {
         
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Check if OpenAI API is configured
-                if (!config.isConfigValid()) {
-                    return null; // Let the regular chatbot handle it
+        String cachedResponse = getCachedResponse(userMessage, sentiment);
+        if (cachedResponse != null) {
+            return CompletableFuture.completedFuture(cachedResponse);
+        }
+        
+        // A well-rated reply to nearly the same message needs no API call
+        List<ExchangeIndex.Hit> similarExchanges = findSimilarExchanges(userMessage);
+        String retrievedReply = retrievedReply(similarExchanges, DIRECT_REPLY_MIN_CONFIDENCE);
+        if (retrievedReply != null) {
+            return CompletableFuture.completedFuture(useRetrievedReply(retrievedReply));
+        }
+        String fallbackReply = retrievedReply(similarExchanges, FALLBACK_REPLY_MIN_CONFIDENCE);
+        
+        // Check if OpenAI API is configured
+        if (!config.isConfigValid()) {
+            // A close enough retrieved reply, or null to let the regular chatbot handle it
+            return CompletableFuture.completedFuture(useRetrievedReply(fallbackReply));
+        }
+        
+        // Wait briefly for the rate budget rather than sending a request bound to get a 429
+        ObjectNode requestBody = buildRequestBody(userMessage, previousMessages, earlierSummary,
+            similarExchanges, sentiment, false);
+        CompletableFuture<ApiRateLimiter.Permit> permitFuture =
+            rateLimiter.acquire(estimateTokens(requestBody), config.getMaxQueueWaitMillis());
+        AtomicReference<CompletableFuture<HttpResponse<String>>> exchangeRef = new AtomicReference<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        
+        CompletableFuture<String> result = permitFuture
+            .thenCompose(permit -> {
+                if (permit == null) {
+                    return CompletableFuture.completedFuture(useRetrievedReply(fallbackReply));
                 }
-                
-                // Check API call limit
-                if (apiCallCounter.get() >= config.getDailyLimit()) {
-                    logger.warn("Daily API call limit reached: {}", config.getDailyLimit());
-                    return null;
+                if (abandoned.get()) {
+                    // Cancelled while waiting for the rate budget
+                    rateLimiter.release(permit);
+                    return CompletableFuture.completedFuture(null);
+                }
+                CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(buildRequest(requestBody),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                exchangeRef.set(exchange);
+                // Settle the permit however the exchange ends, aborted included
+                AtomicLong usedTokens = new AtomicLong(-1);
+                return exchange
+                    .thenApply(response -> parseResponse(response, usedTokens, userMessage, sentiment))
+                    .whenComplete((content, error) -> rateLimiter.recordUsage(permit,
+                        usedTokens.get() >= 0 ? usedTokens.get() : promptTokens(requestBody)));
+            })
+            .exceptionally(e -> {
+                logger.error("Error generating improved response: {}", e.getMessage(), e);
+                return null;
+            });
+        
+        // A caller that stops waiting (e.g. past its deadline) cancels the result; abort the request too
+        result.whenComplete((content, error) -> {
+            if (result.isCancelled()) {
+                abandoned.set(true);
+                permitFuture.cancel(false);
+                CompletableFuture<HttpResponse<String>> exchange = exchangeRef.get();
+                if (exchange != null) {
+                    exchange.cancel(true);
                 }
-                
-                // Prepare the request
-                ObjectNode requestBody = objectMapper.createObjectNode();
-                requestBody.put("model", config.getModel());
-                requestBody.put("temperature", 0.7); // A bit of creativity
-                requestBody.put("max_tokens", config.getMaxTokens());
-                
-                ArrayNode messagesArray = requestBody.putArray("messages");
-                
-                // System message with instructions
-                ObjectNode systemMessage = objectMapper.createObjectNode();
-                systemMessage.put("role", "system");
-                systemMessage.put("content", buildSystemPrompt(sentiment));
-                messagesArray.add(systemMessage);
-                
-                // Add conversation context from history
-                addConversationContext(messagesArray, previousMessages);
-                
-                // Add recent feedback data if available
-                addFeedbackContext(messagesArray);
-                
-                // Add the user's current message
-                ObjectNode userMessageNode = objectMapper.createObjectNode();
-                userMessageNode.put("role", "user");
-                userMessageNode.put("content", userMessage);
-                messagesArray.add(userMessageNode);
-                
-                // Call the OpenAI API
-                String responseJson = callOpenAI(requestBody.toString());
-                if (responseJson == null || responseJson.isEmpty()) {
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Get the reply from a response, and the tokens the request used into {@code usedTokens}
+     * if the response reports them.
+     */
+    private String parseResponse(HttpResponse<String> response, AtomicLong usedTokens,
+                                 String userMessage, SentimentResult sentiment) {
+        if (response.statusCode() != 200) {
+            checkRateLimited(response.statusCode(), response.headers());
+            logger.error("API request failed with code {}: {}", response.statusCode(), response.body());
+            return null;
+        }
+        try {
+            // Parse the response
+            JsonNode responseNode = objectMapper.readTree(response.body());
+            JsonNode totalTokens = responseNode.path("usage").path("total_tokens");
+            if (totalTokens.canConvertToLong()) {
+                usedTokens.set(totalTokens.asLong());
+            }
+            
+            JsonNode messageNode = responseNode.path("choices").path(0).path("message");
+            if (messageNode.has("content")) {
+                logger.info("Generated improved response using ChatGPT");
+                String content = messageNode.get("content").asText();
+                cacheResponse(userMessage, sentiment, content);
+                return content;
+            }
+        } catch (IOException e) {
+            logger.error("Error parsing response from OpenAI API: {}", e.getMessage());
+            return null;
+        }
+        
+        logger.warn("Failed to parse response from OpenAI API");
+        return null;
+    }
+    
+    /**
+     * Stream an improved response token by token as the model generates it.
+     * 
+     * The tokens are delivered to {@code onToken} on a background thread in the order
+     * they arrive; callers updating the UI must hand them over to the FX thread. The
+     * stream's result completes with the full text, or with null if OpenAI is not
+     * configured, the daily limit is reached or the request fails, in which case the
+     * caller should fall back to the regular chatbot response.
+     * 
+     * @param userMessage The current user message
+     * @param previousMessages Recent messages in the conversation (if any)
+     * @param earlierSummary Summary of the conversation before the recent messages, or null
+     * @param sentiment The sentiment analysis of the user message
+     * @param onToken Receives each piece of generated text
+     * @return A handle to follow or cancel the stream
+     */
+    public ResponseStream streamImprovedResponse(
+            String userMessage,
+            List<ChatMessage> previousMessages,
+            String earlierSummary,
+            SentimentResult sentiment,
+            Consumer<String> onToken) {
+        
+        ResponseStream stream = new ResponseStream(onToken);
+        String cachedResponse = getCachedResponse(userMessage, sentiment);
+        if (cachedResponse != null) {
+            // Nothing to wait for: deliver the whole response at once
+            stream.publish(cachedResponse);
+            stream.complete();
+            return stream;
+        }
+        
+        // Likewise for a well-rated reply to nearly the same message
+        List<ExchangeIndex.Hit> similarExchanges = findSimilarExchanges(userMessage);
+        String retrievedReply = retrievedReply(similarExchanges, DIRECT_REPLY_MIN_CONFIDENCE);
+        String fallbackReply = retrievedReply(similarExchanges, FALLBACK_REPLY_MIN_CONFIDENCE);
+        if (retrievedReply != null || (fallbackReply != null && !config.isConfigValid())) {
+            stream.publish(useRetrievedReply(retrievedReply != null ? retrievedReply : fallbackReply));
+            stream.complete();
+            return stream;
+        }
+        if (!config.isConfigValid()) {
+            stream.result.complete(null);
+            return stream;
+        }
+        
+        ObjectNode requestBody = buildRequestBody(userMessage, previousMessages, earlierSummary,
+            similarExchanges, sentiment, true);
+        CompletableFuture<ApiRateLimiter.Permit> permitFuture =
+            rateLimiter.acquire(estimateTokens(requestBody), config.getMaxQueueWaitMillis());
+        permitFuture.thenAccept(permit -> {
+            if (permit == null) {
+                if (fallbackReply != null) {
+                    stream.publish(useRetrievedReply(fallbackReply));
+                    stream.complete();
+                } else {
+                    stream.result.complete(null);
+                }
+                return;
+            }
+            if (stream.result.isDone()) {
+                // Cancelled while waiting for the rate budget
+                rateLimiter.release(permit);
+                return;
+            }
+            
+            streamsStarted.incrementAndGet();
+            stream.permit = permit;
+            
+            // Only a successful response is parsed as events; an error body is read whole for the log
+            HttpResponse.BodyHandler<Void> bodyHandler = responseInfo -> responseInfo.statusCode() == 200
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(stream)
+                : HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                    checkRateLimited(responseInfo.statusCode(), responseInfo.headers());
+                    stream.fail(new IOException("API request failed with code " + responseInfo.statusCode() + ": " + body));
                     return null;
+                });
+            
+            stream.exchange = httpClient.sendAsync(buildRequest(requestBody), bodyHandler);
+            stream.exchange.whenComplete((response, error) -> {
+                if (error != null) {
+                    stream.fail(error);
+                }
+            });
+            if (stream.result.isCancelled()) {
+                stream.exchange.cancel(true);
+            }
+        });
+        stream.result.whenComplete((text, error) -> {
+            if (stream.result.isCancelled()) {
+                permitFuture.cancel(false);
+            }
+            ApiRateLimiter.Permit permit = stream.permit;
+            if (permit != null) {
+                rateLimiter.recordUsage(permit, streamedTokens(stream, requestBody));
+            }
+            recordStream(stream, text, error);
+            if (text != null) {
+                cacheResponse(userMessage, sentiment, text);
+            }
+        });
+        return stream;
+    }
+    
+    /**
+     * Handle to a streaming response. It receives the server-sent events of the
+     * completion line by line, forwards each content delta and keeps the text so far.
+     */
+    public static class ResponseStream implements Flow.Subscriber<String> {
+        private final Consumer<String> onToken;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final StringBuilder text = new StringBuilder();
+        private final long startNanos = System.nanoTime();
+        private volatile long firstTokenNanos;
+        private volatile Flow.Subscription subscription;
+        private volatile CompletableFuture<HttpResponse<Void>> exchange;
+        private volatile ApiRateLimiter.Permit permit; // once the request is sent
+        private volatile long usageTokens = -1; // as reported at the end of the stream
+        private int tokenCount;
+        
+        private ResponseStream(Consumer<String> onToken) {
+            this.onToken = onToken;
+        }
+        
+        /**
+         * Completes with the full response text, or null if no response could be
+         * generated. Cancelled if {@link #cancel()} is called first.
+         */
+        public CompletableFuture<String> getResult() {
+            return result;
+        }
+        
+        /**
+         * Stop the stream, e.g. because the user sent another message. The text received
+         * so far stays available from {@link #getText()}.
+         */
+        public void cancel() {
+            if (result.cancel(false)) {
+                Flow.Subscription current = subscription;
+                if (current != null) {
+                    current.cancel();
                 }
-                
-                // Parse the response
-                JsonNode responseNode = objectMapper.readTree(responseJson);
-                JsonNode choicesNode = responseNode.path("choices");
-                
-                if (choicesNode.isArray() && choicesNode.size() > 0) {
-                    JsonNode firstChoice = choicesNode.get(0);
-                    JsonNode messageNode = firstChoice.path("message");
-                    
-                    if (messageNode.has("content")) {
-                        String content = messageNode.get("content").asText();
-                        
-                        // Log success
-                        logger.info("Generated improved response using ChatGPT");
-                        return content;
-                    }
+                CompletableFuture<HttpResponse<Void>> currentExchange = exchange;
+                if (currentExchange != null) {
+                    currentExchange.cancel(true);
                 }
-                
-                logger.warn("Failed to parse response from OpenAI API");
-                return null;
-                
-            } catch (Exception e) {
-                logger.error("Error generating improved response: {}", e.getMessage(), e);
-                return null;
             }
-        }, executorService);
+        }
+        
+        public boolean isCancelled() {
+            return result.isCancelled();
+        }
+        
+        /**
+         * Get the text received so far.
+         */
+        public synchronized String getText() {
+            return text.toString();
+        }
+        
+        /**
+         * Milliseconds from sending the request to the first token, or -1 if none arrived yet.
+         */
+        public long getTimeToFirstTokenMillis() {
+            long first = firstTokenNanos;
+            return first == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(first - startNanos);
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (result.isDone()) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+        
+        @Override
+        public void onNext(String line) {
+            // Events are "data: {json}" lines separated by blank lines; ":" starts a comment
+            if (result.isDone() || !line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if ("[DONE]".equals(data)) {
+                complete();
+                return;
+            }
+            
+            try {
+                JsonNode event = EVENT_READER.readTree(data);
+                if (event.has("error")) {
+                    fail(new IOException("API stream error: " + event.get("error").path("message").asText()));
+                    return;
+                }
+                // The last event before [DONE] has no choices, only the usage of the whole request
+                JsonNode totalTokens = event.path("usage").path("total_tokens");
+                if (totalTokens.canConvertToLong()) {
+                    usageTokens = totalTokens.asLong();
+                }
+                JsonNode content = event.path("choices").path(0).path("delta").path("content");
+                if (content.isTextual() && !content.asText().isEmpty()) {
+                    publish(content.asText());
+                }
+            } catch (IOException e) {
+                logger.warn("Skipping malformed stream event: {}", e.getMessage());
+            }
+        }
+        
+        private void publish(String token) {
+            synchronized (this) {
+                if (tokenCount++ == 0) {
+                    firstTokenNanos = System.nanoTime();
+                }
+                text.append(token);
+            }
+            try {
+                onToken.accept(token);
+            } catch (RuntimeException e) {
+                logger.error("Error publishing streamed token: {}", e.getMessage(), e);
+            }
+        }
+        
+        @Override
+        public void onError(Throwable error) {
+            fail(error);
+        }
+        
+        @Override
+        public void onComplete() {
+            complete();
+        }
+        
+        private void complete() {
+            String fullText = getText();
+            result.complete(fullText.isEmpty() ? null : fullText);
+        }
+        
+        private void fail(Throwable error) {
+            if (!result.isDone()) {
+                logger.error("Error streaming improved response: {}", error.getMessage());
+                result.complete(null);
+            }
+        }
+    }
+    
+    /**
+     * Look up a reusable response for the message in the user's response cache.
+     * 
+     * @return the cached response, or null if the API should be called
+     */
+    private String getCachedResponse(String userMessage, SentimentResult sentiment) {
+        if (responseCache == null || sentiment == null || !config.isConfigValid()) {
+            return null;
+        }
+        
+        String cachedResponse = responseCache.get(sentiment.getUserId(), userMessage, sentiment);
+        if (cachedResponse != null) {
+            // Counted by the limiter, so the count starts over with its day
+            int savedApiCalls = rateLimiter.recordSavedRequest();
+            logger.info("Reusing cached response ({} API calls saved today)", savedApiCalls);
+        }
+        return cachedResponse;
+    }
+    
+    private void cacheResponse(String userMessage, SentimentResult sentiment, String response) {
+        if (responseCache != null && sentiment != null) {
+            responseCache.put(sentiment.getUserId(), userMessage, sentiment, response);
+        }
+    }
+    
+    /**
+     * Find well-rated past exchanges similar to the message, best first.
+     */
+    private List<ExchangeIndex.Hit> findSimilarExchanges(String userMessage) {
+        List<ExchangeIndex.Hit> hits = new ArrayList<>(exchangeIndex.search(userMessage, MAX_EXAMPLES));
+        hits.removeIf(hit -> hit.getConfidence() < EXAMPLE_MIN_CONFIDENCE);
+        return hits;
+    }
+    
+    /**
+     * Get the reply of the best exchange if it matches the message closely enough.
+     */
+    private String retrievedReply(List<ExchangeIndex.Hit> hits, float minConfidence) {
+        if (hits.isEmpty() || hits.get(0).getConfidence() < minConfidence) {
+            return null;
+        }
+        return hits.get(0).getReply();
+    }
+    
+    /**
+     * Count a retrieved reply that is about to be used instead of a generated one.
+     */
+    private String useRetrievedReply(String reply) {
+        if (reply != null) {
+            retrievedReplies.incrementAndGet();
+        }
+        return reply;
+    }
+    
+    /**
+     * Index the positively rated exchanges saved earlier.
+     */
+    private void loadRatedExchanges() {
+        try {
+            List<ChatFeedback> rated = RepositoryFactory.getChatFeedbackRepository()
+                .findByType(ChatFeedback.FeedbackType.POSITIVE, MAX_INDEXED_EXCHANGES);
+            // Newest first; add the oldest first so the newest survive a rebuild
+            for (int i = rated.size() - 1; i >= 0; i--) {
+                exchangeIndex.add(rated.get(i).getUserMessage(), rated.get(i).getBotResponse());
+            }
+            logger.info("Indexed {} well-rated exchanges", exchangeIndex.size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not load rated exchanges: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Estimated token count of a request: its prompt plus the most the completion may use.
+     */
+    private long estimateTokens(ObjectNode requestBody) {
+        long tokens = config.getMaxTokens();
+        for (JsonNode message : requestBody.path("messages")) {
+            tokens += TokenEstimator.estimateMessage(message.path("content").asText());
+        }
+        return tokens;
+    }
+    
+    /**
+     * Tokens a sent streaming request used: as reported at the end of the stream, or,
+     * if it ended before that (cancelled or failed), the prompt and the text received.
+     */
+    private long streamedTokens(ResponseStream stream, ObjectNode requestBody) {
+        if (stream.usageTokens >= 0) {
+            return stream.usageTokens;
+        }
+        return promptTokens(requestBody) + TokenEstimator.estimate(stream.getText());
+    }
+    
+    /**
+     * Tokens of a request's prompt alone, without the completion it allows.
+     */
+    private long promptTokens(ObjectNode requestBody) {
+        return estimateTokens(requestBody) - config.getMaxTokens();
+    }
+    
+    private void recordPromptTokens(int tokens) {
+        promptsBuilt.incrementAndGet();
+        totalPromptTokens.addAndGet(tokens);
+        maxPromptTokens.accumulateAndGet(tokens, Math::max);
+        logger.debug("Built prompt of about {} tokens", tokens);
+    }
+    
+    /**
+     * Pause the rate limiter if the API answered that the rate limit was exceeded.
+     */
+    private void checkRateLimited(int statusCode, HttpHeaders headers) {
+        if (statusCode != 429) {
+            return;
+        }
+        long retryAfterSeconds = headers.firstValue("Retry-After")
+            .map(value -> {
+                try {
+                    return Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                    return DEFAULT_RETRY_AFTER_SECONDS;
+                }
+            })
+            .orElse(DEFAULT_RETRY_AFTER_SECONDS);
+        rateLimiter.onRateLimited(TimeUnit.SECONDS.toMillis(retryAfterSeconds));
+    }
+    
+    /**
+     * Build the chat completion request with the system prompt, conversation context,
+     * recent feedback and the user's message.
+     */
+    private ObjectNode buildRequestBody(String userMessage, List<ChatMessage> previousMessages,
+                                        String earlierSummary, List<ExchangeIndex.Hit> examples,
+                                        SentimentResult sentiment, boolean stream) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.put("model", config.getModel());
+        requestBody.put("temperature", 0.7); // A bit of creativity
+        requestBody.put("max_tokens", config.getMaxTokens());
+        if (stream) {
+            requestBody.put("stream", true);
+            // Report the usage in a last event, to settle the rate limit permit
+            requestBody.putObject("stream_options").put("include_usage", true);
+        }
+        
+        // Fit instructions, context and feedback into the prompt budget, most important first
+        PromptBuilder promptBuilder = new PromptBuilder(config.getPromptTokenBudget())
+            .setSystemPrompt(buildSystemPrompt(sentiment))
+            .setUserMessage(userMessage)
+            .setRecentMessages(previousMessages)
+            .setEarlierSummary(earlierSummary)
+            .setExamples(examples)
+            .setFeedbackNotes(sentiment != null
+                ? feedbackIndex.getPromptNotes(sentiment.getUserId())
+                : feedbackIndex.getOverviewNotes());
+        
+        ArrayNode messagesArray = requestBody.putArray("messages");
+        for (PromptBuilder.Message message : promptBuilder.build()) {
+            ObjectNode messageNode = messagesArray.addObject();
+            messageNode.put("role", message.getRole());
+            messageNode.put("content", message.getContent());
+        }
+        
+        recordPromptTokens(promptBuilder.getEstimatedTokens());
+        return requestBody;
     }
     
     /**
@@ -264,144 +775,116 @@ public class ChatTrainingService {
     }
     
     /**
-     * Add conversation context to the request.
+     * Build an OpenAI API request for the given body.
      */
-    private void addConversationContext(ArrayNode messagesArray, List<ChatMessage> previousMessages) {
-        // First add recent messages from the current conversation
-        if (previousMessages != null && !previousMessages.isEmpty()) {
-            // Limit to last 5 messages to keep context manageable
-            int startIndex = Math.max(0, previousMessages.size() - 5);
-            
-            for (int i = startIndex; i < previousMessages.size(); i++) {
-                ChatMessage message = previousMessages.get(i);
-                ObjectNode messageNode = objectMapper.createObjectNode();
-                
-                if (message.getType() == ChatMessage.MessageType.USER) {
-                    messageNode.put("role", "user");
-                } else {
-                    messageNode.put("role", "assistant");
-                }
-                
-                messageNode.put("content", message.getContent());
-                messagesArray.add(messageNode);
-            }
-        }
+    private HttpRequest buildRequest(ObjectNode requestBody) {
+        return HttpRequest.newBuilder(URI.create(config.getApiUrl()))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + config.getApiKey())
+            .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString(), StandardCharsets.UTF_8))
+            .build();
     }
     
-    /**
-     * Add feedback context to the request.
-     */
-    private void addFeedbackContext(ArrayNode messagesArray) {
-        if (feedbackData.isEmpty()) {
-            return;
+    private void recordStream(ResponseStream stream, String text, Throwable error) {
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stream.startNanos);
+        long firstTokenMillis = stream.getTimeToFirstTokenMillis();
+        if (firstTokenMillis >= 0) {
+            streamsWithTokens.incrementAndGet();
+            totalFirstTokenMillis.addAndGet(firstTokenMillis);
         }
         
-        // Add a system message with feedback summaries
-        StringBuilder feedbackSummary = new StringBuilder("Recent user feedback about your responses:\n");
-        
-        synchronized (feedbackData) {
-            // Only use the last few pieces of feedback
-            int startIndex = Math.max(0, feedbackData.size() - 3);
-            
-            for (int i = startIndex; i < feedbackData.size(); i++) {
-                ChatFeedback feedback = feedbackData.get(i);
-                feedbackSummary.append("\nUser message: \"").append(feedback.getUserMessage()).append("\"\n");
-                feedbackSummary.append("Your response: \"").append(feedback.getBotResponse()).append("\"\n");
-                feedbackSummary.append("Feedback type: ").append(feedback.getType()).append("\n");
-                feedbackSummary.append("Feedback content: \"").append(feedback.getFeedbackContent()).append("\"\n");
-                
-                if (feedback.getSentimentType() != null) {
-                    feedbackSummary.append("Sentiment: ").append(feedback.getSentimentType());
-                    
-                    if (feedback.getSpecificEmotion() != null) {
-                        feedbackSummary.append(" (").append(feedback.getSpecificEmotion()).append(")");
-                    }
-                    
-                    feedbackSummary.append("\n");
-                }
-                
-                feedbackSummary.append("---\n");
-            }
+        if (error != null) {
+            logger.info("Streamed response cancelled after {} ms ({} chars received)", totalMillis, stream.getText().length());
+        } else if (text != null) {
+            logger.info("Streamed response: first token after {} ms, complete after {} ms", firstTokenMillis, totalMillis);
         }
-        
-        feedbackSummary.append("\nPlease use this feedback to improve your responses.");
-        
-        ObjectNode feedbackNode = objectMapper.createObjectNode();
-        feedbackNode.put("role", "system");
-        feedbackNode.put("content", feedbackSummary.toString());
-        messagesArray.add(feedbackNode);
     }
     
     /**
-     * Call the OpenAI API.
+     * Get a one-line summary of streaming latency.
      */
-    private String callOpenAI(String requestBody) throws IOException {
-        URL url = new URL(config.getApiUrl());
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Content-Type", "application/json");
-        connection.setRequestProperty("Authorization", "Bearer " + config.getApiKey());
-        connection.setDoOutput(true);
-        
-        // Increment API call counter
-        apiCallCounter.incrementAndGet();
-        
-        // Send request
-        try (OutputStream os = connection.getOutputStream()) {
-            byte[] input = requestBody.getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
-        }
-        
-        // Read response
-        StringBuilder response = new StringBuilder();
-        int responseCode = connection.getResponseCode();
-        
-        if (responseCode != 200) {
-            // Handle error response
-            try (BufferedReader br = new BufferedReader(
-                    new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8))) {
-                String responseLine;
-                while ((responseLine = br.readLine()) != null) {
-                    response.append(responseLine.trim());
-                }
-            }
-            
-            logger.error("API request failed with code {}: {}", responseCode, response.toString());
-            return null;
-        }
-        
-        // Handle success response
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-            String responseLine;
-            while ((responseLine = br.readLine()) != null) {
-                response.append(responseLine.trim());
-            }
-        }
-        
-        return response.toString();
+    public String getStreamingMetrics() {
+        long withTokens = streamsWithTokens.get();
+        return String.format("streams=%d, with tokens=%d, avg time to first token=%d ms",
+            streamsStarted.get(), withTokens, withTokens > 0 ? totalFirstTokenMillis.get() / withTokens : 0);
+    }
+    
+    /**
+     * Get a one-line summary of estimated prompt sizes against the prompt budget.
+     */
+    public String getPromptMetrics() {
+        long prompts = promptsBuilt.get();
+        return String.format("prompts=%d, avg tokens=%d, max tokens=%d, budget=%d",
+            prompts, prompts > 0 ? totalPromptTokens.get() / prompts : 0, maxPromptTokens.get(),
+            config.getPromptTokenBudget());
     }
     
     /**
      * Get the current API call count.
      */
     public int getApiCallCount() {
-        return apiCallCounter.get();
+        return rateLimiter.getRequestsToday();
     }
     
     /**
-     * Reset the API call counter.
+     * Reset today's API usage.
      */
     public void resetApiCallCounter() {
-        apiCallCounter.set(0);
+        rateLimiter.resetDailyUsage();
+    }
+    
+    /**
+     * Get a one-line summary of the API rate budgets and their use.
+     */
+    public String getRateLimitMetrics() {
+        return rateLimiter.getMetrics();
+    }
+    
+    /**
+     * Get a one-line summary of the response cache, including the API calls it saved
+     * against the daily limit.
+     */
+    public String getCacheMetrics() {
+        if (responseCache == null) {
+            return "response cache disabled";
+        }
+        int dailyLimit = config.getDailyLimit();
+        int savedApiCalls = rateLimiter.getSavedRequestsToday();
+        return String.format("%s, saved %d API calls today (%.0f%% of the daily limit of %d, %d calls made)",
+            responseCache.getMetrics(), savedApiCalls,
+            dailyLimit > 0 ? 100.0 * savedApiCalls / dailyLimit : 0.0, dailyLimit, rateLimiter.getRequestsToday());
     }
     
     /**
      * Clean up resources when the service is no longer needed.
      */
     public void shutdown() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
+        // OpenAI calls run on the shared AppExecutors I/O pool, which is shut down centrally
+        feedbackIndex.shutdown();
+        logger.info("Chat training service shut down");
+    }
+    
+    /**
+     * Shut down the service if it was ever created.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
         }
     }
+    
+    /**
+     * Get a one-line summary of the exchange index and the replies it provided.
+     */
+    public String getRetrievalMetrics() {
+        return exchangeIndex.getMetrics() + ", retrieved replies=" + retrievedReplies.get();
+    }
+    
+    /**
+     * Get a one-line summary of stored feedback.
+     */
+    public String getFeedbackMetrics() {
+        return feedbackIndex.getMetrics();
+    }
 } 
\ No newline at end of file
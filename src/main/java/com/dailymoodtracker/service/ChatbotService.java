@@ -2,17 +2,17 @@ package com.dailymoodtracker.service;
 
 import com.dailymoodtracker.model.ChatMessage;
 import com.dailymoodtracker.model.SentimentResult;
+import com.dailymoodtracker.repository.RepositoryFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for handling chatbot functionality.
@@ -20,16 +20,28 @@ import java.util.concurrent.TimeUnit;
 public class ChatbotService {
     private static final Logger logger = LoggerFactory.getLogger(ChatbotService.class);
     
-    private final SentimentAnalysisService sentimentService;
     private final ChatTrainingService trainingService;
+    private final IntentRouter intentRouter = IntentRouter.getInstance();
     private final Random random = new Random();
     
-    // Track last response to avoid repetition
-    private String lastResponse = "";
+    // Intents listed in intents.txt
+    private static final String GREETING_INTENTS = "greeting.";
     
-    // Recent conversation history (for context)
-    private final List<ChatMessage> recentMessages = new ArrayList<>();
+    // How long to wait for the enhanced GPT response before using the standard one
+    public static final long ENHANCED_RESPONSE_DEADLINE_MILLIS = 5000;
+    
+    // Recent conversation history and last response (to avoid repetition), per user session
     private static final int MAX_RECENT_MESSAGES = 10;
+    private static final long SESSION_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private final ConversationSessionStore sessions;
+    
+    // Latency metrics
+    private final StageLatency sentimentLatency = new StageLatency();
+    private final StageLatency enhancedLatency = new StageLatency();
+    private final StageLatency fallbackLatency = new StageLatency();
+    private final StageLatency turnLatency = new StageLatency();
+    private final AtomicLong enhancedWins = new AtomicLong();
+    private final AtomicLong deadlineFallbacks = new AtomicLong();
     
     // Responses for different topics
     private static final List<String> GREETING_RESPONSES = Arrays.asList(
@@ -80,102 +92,184 @@ public class ChatbotService {
         "I might need more context to give you a good response. Can you provide more details?"
     );
     
-    // Map of different greeting variations
-    private static final Map<String, List<String>> GREETING_PATTERNS = new HashMap<>();
-    
-    static {
-        GREETING_PATTERNS.put("hello", Arrays.asList("hello", "hi", "hey", "hiya", "howdy", "greetings"));
-        GREETING_PATTERNS.put("good_time", Arrays.asList("good morning", "good afternoon", "good evening", "good day"));
-        GREETING_PATTERNS.put("whatsup", Arrays.asList("what's up", "whats up", "wassup", "what up", "sup"));
-        GREETING_PATTERNS.put("howareyou", Arrays.asList("how are you", "how r u", "how're you", "how you doing", "how's it going"));
+    public ChatbotService() {
+        this(new ConversationSessionStore(RepositoryFactory::getChatMessageRepository,
+            MAX_RECENT_MESSAGES, SESSION_IDLE_TIMEOUT_MILLIS));
     }
     
-    public ChatbotService() {
-        this.sentimentService = SentimentServiceFactory.getService();
+    /**
+     * @param sessions Where conversation state is kept for each user session
+     */
+    public ChatbotService(ConversationSessionStore sessions) {
         this.trainingService = ChatTrainingService.getInstance();
+        this.sessions = sessions;
     }
     
     /**
-     * Process a user message and generate a response.
+     * Process a user message and generate a response, waiting for the result.
      * 
      * @param userMessage the user's message
      * @return the chatbot's response
      */
     public ChatMessage processMessage(String userMessage) {
+        return processMessageAsync(userMessage).join();
+    }
+    
+    /**
+     * Process a message in the default user's default session without blocking.
+     * 
+     * @param userMessage the user's message
+     * @return a future completing with the chatbot's response; it does not fail
+     */
+    public CompletableFuture<ChatMessage> processMessageAsync(String userMessage) {
+        return processMessageAsync(1, ConversationSessionStore.DEFAULT_SESSION_ID, userMessage); // Default user ID
+    }
+    
+    /**
+     * Process a user message without blocking.
+     * 
+     * Sentiment analysis runs first. Its result starts both the enhanced GPT response
+     * and the regular sentiment-based response; the GPT answer is used if it arrives
+     * within {@link #ENHANCED_RESPONSE_DEADLINE_MILLIS}, otherwise the regular response
+     * is used as soon as the deadline passes and the GPT request is cancelled.
+     * 
+     * Turns of different sessions share no state; the context and last response of
+     * each session are kept separately.
+     * 
+     * @param userId the user sending the message
+     * @param sessionId the user's conversation session
+     * @param userMessage the user's message
+     * @return a future completing with the chatbot's response; it does not fail
+     */
+    public CompletableFuture<ChatMessage> processMessageAsync(int userId, String sessionId, String userMessage) {
         if (userMessage == null || userMessage.trim().isEmpty()) {
-            return new ChatMessage(getRandomResponse(FALLBACK_RESPONSES), ChatMessage.MessageType.BOT);
+            return CompletableFuture.completedFuture(
+                new ChatMessage(getRandomResponse(FALLBACK_RESPONSES), ChatMessage.MessageType.BOT));
         }
         
+        long turnStart = System.nanoTime();
+        return sessions.getSession(userId, sessionId)
+            .thenCompose(session -> processTurn(session, userMessage))
+            .exceptionally(e -> {
+                logger.warn("Error processing message: {}", e.getMessage());
+                return new ChatMessage(getRandomResponse(FALLBACK_RESPONSES), ChatMessage.MessageType.BOT);
+            })
+            .whenComplete((botMessage, error) -> turnLatency.record(System.nanoTime() - turnStart));
+    }
+    
+    private CompletableFuture<ChatMessage> processTurn(ConversationSession session, String userMessage) {
         // Create and store user message
         ChatMessage userChatMessage = new ChatMessage(userMessage, ChatMessage.MessageType.USER);
-        addToRecentMessages(userChatMessage);
+        session.addMessage(userChatMessage);
         
         String lowerMessage = userMessage.toLowerCase().trim();
         
         // Check for greetings
         if (isGreeting(lowerMessage)) {
-            String response = getNonRepeatingResponse(GREETING_RESPONSES);
-            ChatMessage botMessage = new ChatMessage(response, ChatMessage.MessageType.BOT);
-            addToRecentMessages(botMessage);
-            return botMessage;
+            return CompletableFuture.completedFuture(
+                createBotMessage(session, getNonRepeatingResponse(session, GREETING_RESPONSES), null));
         }
         
         // Simple messages that might not need sentiment analysis
         if (lowerMessage.length() < 5) {
             // For very short messages that might not give good sentiment results
-            String response = getNonRepeatingResponse(MOOD_INQUIRY_RESPONSES);
-            ChatMessage botMessage = new ChatMessage(response, ChatMessage.MessageType.BOT);
-            addToRecentMessages(botMessage);
-            return botMessage;
+            return CompletableFuture.completedFuture(
+                createBotMessage(session, getNonRepeatingResponse(session, MOOD_INQUIRY_RESPONSES), null));
         }
         
+        // Resolve the service per message so health-based swaps take effect immediately
+        SentimentAnalysisService sentimentService = SentimentServiceFactory.getService();
+        
         // Analyze sentiment
-        SentimentResult sentiment = sentimentService.analyzeSentiment(userMessage, 1); // Default user ID
+        long sentimentStart = System.nanoTime();
+        return sentimentService.analyzeSentimentAsync(userMessage, session.getUserId())
+            .whenComplete((sentiment, error) -> sentimentLatency.record(System.nanoTime() - sentimentStart))
+            .thenCompose(sentiment -> {
+                // Set sentiment for user message
+                userChatMessage.setSentiment(sentiment);
+                return selectResponse(session, userMessage, sentiment, sentimentService)
+                    .thenApply(response -> finishTurn(session, userMessage, response, sentiment));
+            })
+            .exceptionally(e -> {
+                logger.warn("Error processing message: {}", e.getMessage());
+                return createBotMessage(session, getNonRepeatingResponse(session, FALLBACK_RESPONSES), null);
+            });
+    }
+    
+    /**
+     * Race the enhanced GPT response against the deadline. The regular response is
+     * only requested once the GPT response has missed the deadline or failed, so a
+     * turn GPT answers in time costs no call to the sentiment backend.
+     */
+    private CompletableFuture<String> selectResponse(ConversationSession session, String userMessage,
+                                                     SentimentResult sentiment,
+                                                     SentimentAnalysisService sentimentService) {
+        List<ChatMessage> context = session.getRecentMessages();
         
-        // Set sentiment for user message
-        userChatMessage.setSentiment(sentiment);
+        long enhancedStart = System.nanoTime();
+        CompletableFuture<String> enhancedResponse =
+            trainingService.generateImprovedResponse(userMessage, context, session.getEarlierSummary(), sentiment);
+        enhancedResponse.whenComplete((response, error) -> {
+            if (!enhancedResponse.isCancelled()) {
+                enhancedLatency.record(System.nanoTime() - enhancedStart);
+            }
+        });
         
-        // Try to generate an enhanced response using the training service
-        CompletableFuture<String> enhancedResponseFuture = 
-            trainingService.generateImprovedResponse(userMessage, recentMessages, sentiment);
+        // Completes with the GPT answer if it wins, or null once the fallback should be used
+        CompletableFuture<String> race = new CompletableFuture<>();
+        ScheduledFuture<?> deadline = AppExecutors.scheduler().schedule(() -> {
+            if (race.complete(null)) {
+                deadlineFallbacks.incrementAndGet();
+                enhancedResponse.cancel(false);
+                logger.info("Enhanced response missed the {} ms deadline, using standard response",
+                    ENHANCED_RESPONSE_DEADLINE_MILLIS);
+            }
+        }, ENHANCED_RESPONSE_DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
         
-        String response;
-        try {
-            // Wait up to 5 seconds for an enhanced response
-            String enhancedResponse = enhancedResponseFuture.get(5, TimeUnit.SECONDS);
-            
-            if (enhancedResponse != null && !enhancedResponse.isEmpty()) {
-                // Use enhanced response from GPT
-                response = enhancedResponse;
-                logger.info("Using enhanced GPT response");
+        enhancedResponse.whenComplete((response, error) -> {
+            if (error == null && response != null && !response.isEmpty()) {
+                if (race.complete(response)) {
+                    enhancedWins.incrementAndGet();
+                    logger.info("Using enhanced GPT response");
+                }
             } else {
-                // Fall back to regular sentiment-based response
-                response = sentimentService.getBotResponse(sentiment);
-                logger.info("Using standard sentiment-based response");
+                // Not configured, over the limit or failed: no reason to wait for the deadline
+                race.complete(null);
             }
-        } catch (Exception e) {
-            // If anything goes wrong with enhanced response, fall back to standard
-            logger.warn("Error getting enhanced response: {}", e.getMessage());
-            response = sentimentService.getBotResponse(sentiment);
-        }
+            deadline.cancel(false);
+        });
         
+        return race.thenCompose(response -> {
+            if (response != null) {
+                return CompletableFuture.completedFuture(response);
+            }
+            logger.info("Using standard sentiment-based response");
+            long fallbackStart = System.nanoTime();
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return sentimentService.getBotResponse(sentiment);
+                } catch (Exception e) {
+                    logger.warn("Error getting standard response: {}", e.getMessage());
+                    return null;
+                }
+            }, AppExecutors.io()).whenComplete((fallback, error) -> fallbackLatency.record(System.nanoTime() - fallbackStart));
+        });
+    }
+    
+    /**
+     * Create the bot message for the selected response and record the turn.
+     */
+    private ChatMessage finishTurn(ConversationSession session, String userMessage, String response,
+                                   SentimentResult sentiment) {
         // Log for debugging
         logger.debug("Generated response for sentiment {}: {}", sentiment.getDominantSentiment(), response);
         
         // Check if response is empty or the same as the last time
-        if (response == null || response.isEmpty() || response.equals(lastResponse)) {
-            response = getResponseBasedOnSentiment(sentiment);
+        if (response == null || response.isEmpty() || response.equals(session.getLastResponse())) {
+            response = getResponseBasedOnSentiment(session, sentiment);
         }
         
-        // Store last response to avoid repetition
-        lastResponse = response;
-        
-        // Create bot message
-        ChatMessage botMessage = new ChatMessage(response, ChatMessage.MessageType.BOT);
-        botMessage.setRelatedSentiment(sentiment);
-        
-        // Add to recent messages
-        addToRecentMessages(botMessage);
+        ChatMessage botMessage = createBotMessage(session, response, sentiment);
         
         // Record conversation for training
         trainingService.recordConversation(userMessage, response, sentiment);
@@ -184,65 +278,97 @@ public class ChatbotService {
     }
     
     /**
-     * Add a message to recent messages, maintaining maximum size.
+     * Create a bot message, remembering it to avoid repetition and as context.
      */
-    private void addToRecentMessages(ChatMessage message) {
-        recentMessages.add(message);
-        if (recentMessages.size() > MAX_RECENT_MESSAGES) {
-            recentMessages.remove(0);
+    private ChatMessage createBotMessage(ConversationSession session, String response, SentimentResult sentiment) {
+        // Store last response to avoid repetition
+        session.setLastResponse(response);
+        
+        ChatMessage botMessage = new ChatMessage(response, ChatMessage.MessageType.BOT);
+        if (sentiment != null) {
+            botMessage.setRelatedSentiment(sentiment);
         }
+        
+        // Add to recent messages
+        session.addMessage(botMessage);
+        return botMessage;
     }
     
     /**
-     * Check if the message is a greeting.
+     * Get a one-line summary of conversation sessions.
      */
-    private boolean isGreeting(String message) {
-        // Direct word match
-        for (List<String> patterns : GREETING_PATTERNS.values()) {
-            for (String pattern : patterns) {
-                if (message.equals(pattern) || message.startsWith(pattern + " ")) {
-                    return true;
-                }
-            }
+    public String getSessionMetrics() {
+        return sessions.getMetrics();
+    }
+    
+    /**
+     * Get a one-line summary of per-stage latency and how responses were chosen.
+     */
+    public String getLatencyMetrics() {
+        return String.format("sentiment{%s}, enhanced{%s}, standard{%s}, turn{%s}, "
+                + "enhanced used=%d, deadline fallbacks=%d",
+            sentimentLatency, enhancedLatency, fallbackLatency, turnLatency,
+            enhancedWins.get(), deadlineFallbacks.get());
+    }
+    
+    /**
+     * Count, average and maximum latency of one pipeline stage.
+     */
+    private static class StageLatency {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
         }
         
-        // If the message is very short, check for partial matches
-        if (message.length() < 10) {
-            for (List<String> patterns : GREETING_PATTERNS.values()) {
-                for (String pattern : patterns) {
-                    if (message.contains(pattern)) {
-                        return true;
-                    }
-                }
+        @Override
+        public String toString() {
+            long n = count.get();
+            return String.format("count=%d, avg=%.1f ms, max=%.1f ms", n,
+                n > 0 ? totalNanos.get() / 1_000_000.0 / n : 0.0, maxNanos.get() / 1_000_000.0);
+        }
+    }
+    
+    /**
+     * Check if the message is a greeting: it starts with one, or is short and contains one.
+     */
+    private boolean isGreeting(String message) {
+        for (IntentRouter.Match match : intentRouter.route(message)) {
+            if (match.getIntent().startsWith(GREETING_INTENTS) && (match.getStart() == 0 || message.length() < 10)) {
+                return true;
             }
         }
-        
         return false;
     }
     
     /**
      * Get a response based on the detected sentiment.
      */
-    private String getResponseBasedOnSentiment(SentimentResult sentiment) {
+    private String getResponseBasedOnSentiment(ConversationSession session, SentimentResult sentiment) {
         String dominantSentiment = sentiment.getDominantSentiment();
         
         if ("positive".equals(dominantSentiment)) {
-            return getNonRepeatingResponse(POSITIVE_RESPONSES);
+            return getNonRepeatingResponse(session, POSITIVE_RESPONSES);
         } else if ("negative".equals(dominantSentiment)) {
-            return getNonRepeatingResponse(NEGATIVE_RESPONSES);
+            return getNonRepeatingResponse(session, NEGATIVE_RESPONSES);
         } else {
-            return getNonRepeatingResponse(NEUTRAL_RESPONSES);
+            return getNonRepeatingResponse(session, NEUTRAL_RESPONSES);
         }
     }
     
     /**
      * Get a random response from a list that's different from the last response.
      */
-    private String getNonRepeatingResponse(List<String> responses) {
+    private String getNonRepeatingResponse(ConversationSession session, List<String> responses) {
         if (responses.size() <= 1) {
             return responses.get(0);
         }
         
+        String lastResponse = session.getLastResponse();
         String response;
         do {
             response = responses.get(random.nextInt(responses.size()));
@@ -0,0 +1,209 @@
+package com.dailymoodtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count-based circuit breaker for remote calls.
+ *
+ * The breaker records the outcome of the last {@code windowSize} calls. Once at least
+ * {@code minimumCalls} outcomes are recorded and the failure rate reaches the threshold,
+ * the breaker opens and rejects calls for {@code openDurationMillis}. After that it moves
+ * to half-open and lets a limited number of trial calls through: a success closes the
+ * breaker again, a failure re-opens it.
+ */
+public class CircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenPermits;
+
+    // Ring buffer of recent outcomes (true = failure)
+    private final boolean[] outcomes;
+    private int nextIndex = 0;
+    private int recordedCalls = 0;
+    private int failedCalls = 0;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight = 0;
+
+    // Metrics
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong openedCount = new AtomicLong();
+
+    /**
+     * Create a new circuit breaker.
+     *
+     * @param name name used in logs and metrics
+     * @param windowSize number of recent calls used to compute the failure rate
+     * @param minimumCalls calls required in the window before the breaker may open
+     * @param failureRateThreshold failure rate (0-1) at which the breaker opens
+     * @param openDurationMillis how long the breaker stays open before allowing trial calls
+     * @param halfOpenPermits number of concurrent trial calls allowed while half-open
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMillis, int halfOpenPermits) {
+        if (windowSize <= 0 || minimumCalls <= 0 || halfOpenPermits <= 0) {
+            throw new IllegalArgumentException("Window size, minimum calls and half-open permits must be positive");
+        }
+        this.name = name;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenPermits = halfOpenPermits;
+    }
+
+    /**
+     * Ask for permission to make a call.
+     *
+     * @return true if the call may proceed, false if it should be short-circuited
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenPermits) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Record a successful call.
+     */
+    public synchronized void onSuccess() {
+        successCount.incrementAndGet();
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * Record a failed call.
+     */
+    public synchronized void onFailure() {
+        failureCount.incrementAndGet();
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recordedCalls >= minimumCalls && getFailureRate() >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recordedCalls == outcomes.length) {
+            if (outcomes[nextIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        outcomes[nextIndex] = failure;
+        if (failure) {
+            failedCalls++;
+        }
+        nextIndex = (nextIndex + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State newState) {
+        if (state == newState) {
+            return;
+        }
+        logger.info("Circuit breaker '{}' changed state: {} -> {}", name, state, newState);
+        state = newState;
+        halfOpenInFlight = 0;
+
+        if (newState == State.OPEN) {
+            openedAt = System.currentTimeMillis();
+            openedCount.incrementAndGet();
+        } else if (newState == State.CLOSED) {
+            // Start with a clean window so old failures don't immediately re-open the breaker
+            nextIndex = 0;
+            recordedCalls = 0;
+            failedCalls = 0;
+        }
+    }
+
+    /**
+     * Get the current state, moving from OPEN to HALF_OPEN if the open period has elapsed.
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMillis) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    /**
+     * Check whether calls are currently allowed without waiting for the open period.
+     */
+    public boolean isCallPermitted() {
+        return getState() != State.OPEN;
+    }
+
+    /**
+     * Get the failure rate over the current window.
+     */
+    public synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0.0 : (double) failedCalls / recordedCalls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    /**
+     * Get a one-line summary of the breaker state and counters.
+     */
+    public String getMetrics() {
+        return String.format("%s breaker: state=%s, failure rate=%.2f, successes=%d, failures=%d, rejected=%d, opened=%d",
+                name, getState(), getFailureRate(), getSuccessCount(), getFailureCount(),
+                getRejectedCount(), getOpenedCount());
+    }
+}
@@ -0,0 +1,247 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.SentimentResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SentimentAnalysisService decorator that collapses duplicate requests.
+ *
+ * Requests are keyed by backend, normalized text and user ID. While a request for a
+ * key is in flight, identical requests attach to the same future instead of calling
+ * the backend again; the entry is removed when the call completes. Completed results
+ * are kept in a small, short-lived cache so duplicates that arrive just after the
+ * first call finishes are answered without a backend call as well. The neutral
+ * default a backend returns when it fails is not cached, so the next request tries
+ * again. Every caller, the first included, gets its own copy of the result.
+ */
+public class CoalescingSentimentService implements SentimentAnalysisService {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingSentimentService.class);
+
+    private static final int MAX_CACHE_SIZE = 256;
+    private static final long CACHE_TTL_MILLIS = 60_000;
+
+    private final SentimentAnalysisService delegate;
+    private final String backendName;
+
+    // Requests currently waiting on the backend
+    private final Map<String, CompletableFuture<SentimentResult>> inFlight = new ConcurrentHashMap<>();
+
+    // Recently completed results, least recently used evicted first
+    private final Map<String, CachedResult> cache = new LinkedHashMap<String, CachedResult>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    // Metrics
+    private final AtomicLong backendCalls = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    private static class CachedResult {
+        private final SentimentResult result;
+        private final long expiresAt;
+
+        CachedResult(SentimentResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Wrap a service.
+     *
+     * @param delegate The service that performs the actual analysis
+     * @param backendName Name of the backend, used as part of the request key
+     */
+    public CoalescingSentimentService(SentimentAnalysisService delegate, String backendName) {
+        this.delegate = delegate;
+        this.backendName = backendName;
+    }
+
+    @Override
+    public SentimentResult analyzeSentiment(String text, int userId) {
+        if (text == null || text.trim().isEmpty()) {
+            return delegate.analyzeSentiment(text, userId);
+        }
+
+        String key = buildKey(text, userId);
+        SentimentResult cached = getCached(key);
+        if (cached != null) {
+            return copyFor(cached, text, userId);
+        }
+
+        CompletableFuture<SentimentResult> promise = new CompletableFuture<>();
+        CompletableFuture<SentimentResult> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalescedRequests.incrementAndGet();
+            return copyFor(existing.join(), text, userId);
+        }
+
+        // This caller leads: run the backend on its own thread
+        backendCalls.incrementAndGet();
+        try {
+            SentimentResult result = delegate.analyzeSentiment(text, userId);
+            complete(key, promise, result, null);
+            // The callers that joined copy the same result, so the leader gets a copy too
+            return copyFor(result, text, userId);
+        } catch (RuntimeException e) {
+            complete(key, promise, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<SentimentResult> analyzeSentimentAsync(String text, int userId) {
+        if (text == null || text.trim().isEmpty()) {
+            return delegate.analyzeSentimentAsync(text, userId);
+        }
+
+        String key = buildKey(text, userId);
+        SentimentResult cached = getCached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(copyFor(cached, text, userId));
+        }
+
+        CompletableFuture<SentimentResult> promise = new CompletableFuture<>();
+        CompletableFuture<SentimentResult> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalescedRequests.incrementAndGet();
+            logger.debug("Coalesced duplicate sentiment request for {}", backendName);
+            return existing.thenApply(result -> copyFor(result, text, userId));
+        }
+
+        backendCalls.incrementAndGet();
+        CompletableFuture<SentimentResult> call;
+        try {
+            call = delegate.analyzeSentimentAsync(text, userId);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((result, error) -> complete(key, promise, result, error));
+        // A dependent future: cancelling it leaves the call to the callers that joined it
+        return promise.thenApply(result -> copyFor(result, text, userId));
+    }
+
+    /**
+     * Cache the result before releasing the in-flight entry so there is never a
+     * window in which a duplicate finds neither and calls the backend again.
+     */
+    private void complete(String key, CompletableFuture<SentimentResult> promise,
+                          SentimentResult result, Throwable error) {
+        if (error == null && result != null && !result.isFallback()) {
+            synchronized (cache) {
+                cache.put(key, new CachedResult(copyFor(result, result.getMessageText(), result.getUserId()),
+                        System.currentTimeMillis() + CACHE_TTL_MILLIS));
+            }
+        }
+        inFlight.remove(key, promise);
+
+        if (error != null) {
+            promise.completeExceptionally(error);
+        } else {
+            promise.complete(result);
+        }
+    }
+
+    private SentimentResult getCached(String key) {
+        synchronized (cache) {
+            CachedResult entry = cache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                cache.remove(key);
+                return null;
+            }
+            cacheHits.incrementAndGet();
+            return entry.result;
+        }
+    }
+
+    private String buildKey(String text, int userId) {
+        return backendName + '\u0000' + userId + '\u0000' + normalize(text);
+    }
+
+    /**
+     * Lowercase, trim and collapse whitespace so trivially different inputs share a key.
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Results are mutable, so every caller gets its own copy carrying its own text.
+     */
+    private static SentimentResult copyFor(SentimentResult source, String text, int userId) {
+        if (source == null) {
+            return null;
+        }
+        SentimentResult copy = new SentimentResult(text, source.getPositiveScore(), source.getNegativeScore(),
+                source.getNeutralScore(), source.getOverallSentiment(), userId);
+        copy.setSpecificEmotion(source.getSpecificEmotion());
+        copy.setAnalysisSource(source.getAnalysisSource());
+        if (source.getEmotionScores() != null) {
+            copy.setEmotionScores(new HashMap<>(source.getEmotionScores()));
+        }
+        if (source.getMetadata() != null) {
+            copy.setMetadata(new HashMap<>(source.getMetadata()));
+        }
+        return copy;
+    }
+
+    @Override
+    public String getBotResponse(SentimentResult sentiment) {
+        return delegate.getBotResponse(sentiment);
+    }
+
+    /**
+     * Get the wrapped service.
+     */
+    public SentimentAnalysisService getDelegate() {
+        return delegate;
+    }
+
+    public long getBackendCalls() {
+        return backendCalls.get();
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Get a one-line summary of coalescing and cache metrics.
+     */
+    public String getMetrics() {
+        return String.format("backend calls=%d, coalesced=%d, cache hits=%d, in flight=%d",
+                getBackendCalls(), getCoalescedRequests(), getCacheHits(), inFlight.size());
+    }
+}
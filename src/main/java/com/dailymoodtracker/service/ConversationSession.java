@@ -0,0 +1,126 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Conversation state of one user's chat session: the most recent messages, kept in a
+ * fixed-capacity ring buffer so the oldest message is overwritten instead of shifted
+ * out, a short summary of the messages that were overwritten, and the last bot
+ * response used to avoid repeating it.
+ *
+ * All methods are safe to call from concurrent turns of the same session.
+ */
+public class ConversationSession {
+    // Keeps the summary of older messages well below the prompt budget
+    private static final int MAX_SUMMARY_TOKENS = 200;
+
+    private final int userId;
+    private final String sessionId;
+
+    // Guarded by this
+    private final ChatMessage[] messages;
+    private int head; // index of the oldest message
+    private int size;
+    private String lastResponse = "";
+    private final ConversationSummary earlierSummary = new ConversationSummary(MAX_SUMMARY_TOKENS);
+
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    // Completes once earlier messages have been loaded into the session
+    private volatile CompletableFuture<ConversationSession> ready;
+
+    /**
+     * @param userId The user the session belongs to
+     * @param sessionId The session within the user's conversations
+     * @param capacity Maximum number of messages kept as context
+     */
+    public ConversationSession(int userId, String sessionId, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.userId = userId;
+        this.sessionId = sessionId;
+        this.messages = new ChatMessage[capacity];
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Add a message; if the session is full the oldest one moves into the summary.
+     */
+    public synchronized void addMessage(ChatMessage message) {
+        int tail = (head + size) % messages.length;
+        if (size < messages.length) {
+            size++;
+        } else {
+            earlierSummary.add(messages[tail]);
+            head = (head + 1) % messages.length;
+        }
+        messages[tail] = message;
+    }
+
+    /**
+     * Add messages in order, oldest first.
+     */
+    public synchronized void addMessages(List<ChatMessage> olderMessages) {
+        for (ChatMessage message : olderMessages) {
+            addMessage(message);
+        }
+    }
+
+    /**
+     * Get a copy of the kept messages, oldest first.
+     */
+    public synchronized List<ChatMessage> getRecentMessages() {
+        List<ChatMessage> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(messages[(head + i) % messages.length]);
+        }
+        return copy;
+    }
+
+    /**
+     * Get the summary of messages older than the recent ones, or an empty string.
+     */
+    public synchronized String getEarlierSummary() {
+        return earlierSummary.getText();
+    }
+
+    public synchronized int getMessageCount() {
+        return size;
+    }
+
+    public synchronized String getLastResponse() {
+        return lastResponse;
+    }
+
+    public synchronized void setLastResponse(String lastResponse) {
+        this.lastResponse = lastResponse;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    CompletableFuture<ConversationSession> getReady() {
+        return ready;
+    }
+
+    void setReady(CompletableFuture<ConversationSession> ready) {
+        this.ready = ready;
+    }
+}
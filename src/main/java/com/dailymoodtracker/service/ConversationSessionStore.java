@@ -0,0 +1,146 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.ChatMessage;
+import com.dailymoodtracker.repository.ChatMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Conversation sessions keyed by user and session id.
+ *
+ * A session is created on first use and, if a repository is available, filled in the
+ * background with the user's most recent saved messages; callers get it through a
+ * future that completes once that load has finished. Sessions not used for the idle
+ * timeout are evicted; the sweep runs on access at most once per sweep interval, so
+ * the store needs no background thread.
+ */
+public class ConversationSessionStore {
+    private static final Logger logger = LoggerFactory.getLogger(ConversationSessionStore.class);
+
+    public static final String DEFAULT_SESSION_ID = "default";
+
+    private final Supplier<ChatMessageRepository> repositorySupplier;
+    private final int capacity;
+    private final long idleTimeoutNanos;
+    private final long sweepIntervalNanos;
+
+    private final ConcurrentMap<String, ConversationSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    // Metrics
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong rehydrated = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * @param repositorySupplier Supplies the repository to load earlier messages from,
+     *                           or null to start every session empty
+     * @param capacity Maximum number of messages kept per session
+     * @param idleTimeoutMillis How long an unused session is kept
+     */
+    public ConversationSessionStore(Supplier<ChatMessageRepository> repositorySupplier, int capacity,
+                                    long idleTimeoutMillis) {
+        this.repositorySupplier = repositorySupplier;
+        this.capacity = capacity;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.sweepIntervalNanos = Math.max(TimeUnit.SECONDS.toNanos(1), idleTimeoutNanos / 4);
+    }
+
+    /**
+     * Get a session, creating and loading it if needed.
+     *
+     * @param userId The user
+     * @param sessionId The session id, or null for the user's default session
+     * @return a future completing with the session once its earlier messages are loaded
+     */
+    public CompletableFuture<ConversationSession> getSession(int userId, String sessionId) {
+        evictIdleSessions();
+
+        String id = sessionId != null ? sessionId : DEFAULT_SESSION_ID;
+        ConversationSession session = sessions.computeIfAbsent(key(userId, id), k -> {
+            created.incrementAndGet();
+            return new ConversationSession(userId, id, capacity);
+        });
+        session.touch();
+
+        CompletableFuture<ConversationSession> ready = session.getReady();
+        if (ready == null) {
+            synchronized (session) {
+                ready = session.getReady();
+                if (ready == null) {
+                    // The load runs outside the map so other sessions are never held up by it
+                    ready = repositorySupplier == null
+                        ? CompletableFuture.completedFuture(session)
+                        : CompletableFuture.supplyAsync(() -> rehydrate(session), AppExecutors.io());
+                    session.setReady(ready);
+                }
+            }
+        }
+        return ready;
+    }
+
+    private ConversationSession rehydrate(ConversationSession session) {
+        try {
+            List<ChatMessage> saved = repositorySupplier.get().findRecentByUserId(session.getUserId(), capacity);
+            // The repository returns newest first
+            List<ChatMessage> chronological = new ArrayList<>(saved);
+            Collections.reverse(chronological);
+            session.addMessages(chronological);
+            rehydrated.incrementAndGet();
+            logger.debug("Loaded {} earlier messages into session {} of user {}",
+                chronological.size(), session.getSessionId(), session.getUserId());
+        } catch (Exception e) {
+            logger.warn("Could not load earlier messages for user {}: {}", session.getUserId(), e.getMessage());
+        }
+        return session;
+    }
+
+    /**
+     * Remove a session, e.g. when the user signs out.
+     */
+    public void removeSession(int userId, String sessionId) {
+        sessions.remove(key(userId, sessionId != null ? sessionId : DEFAULT_SESSION_ID));
+    }
+
+    private static String key(int userId, String sessionId) {
+        return userId + ":" + sessionId;
+    }
+
+    private void evictIdleSessions() {
+        long now = System.nanoTime();
+        long lastSweep = lastSweepNanos.get();
+        if (now - lastSweep < sweepIntervalNanos || !lastSweepNanos.compareAndSet(lastSweep, now)) {
+            return;
+        }
+
+        sessions.values().removeIf(session -> {
+            if (now - session.getLastAccessNanos() > idleTimeoutNanos) {
+                evicted.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Get a one-line summary of session metrics.
+     */
+    public String getMetrics() {
+        return String.format("sessions=%d, created=%d, rehydrated=%d, evicted=%d",
+            sessions.size(), created.get(), rehydrated.get(), evicted.get());
+    }
+}
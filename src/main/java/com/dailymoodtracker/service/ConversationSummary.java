@@ -0,0 +1,92 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.ChatMessage;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Short running summary of conversation turns that no longer fit in the prompt.
+ *
+ * Each user message contributes one line: its first sentence, shortened, with the
+ * emotion detected in it. Bot messages are left out, since the model does not need
+ * to be reminded of its own answers. When the summary grows past its token limit
+ * the oldest lines are dropped, so its size stays bounded however long the
+ * conversation gets.
+ */
+public class ConversationSummary {
+    private static final int MAX_LINE_TOKENS = 30;
+
+    private final int maxTokens;
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private int tokens;
+
+    /**
+     * @param maxTokens Maximum estimated tokens of the whole summary
+     */
+    public ConversationSummary(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Create a summary of the given messages, oldest first.
+     */
+    public static ConversationSummary of(List<ChatMessage> messages, int maxTokens) {
+        ConversationSummary summary = new ConversationSummary(maxTokens);
+        for (ChatMessage message : messages) {
+            summary.add(message);
+        }
+        return summary;
+    }
+
+    /**
+     * Add a message that has dropped out of the recent context.
+     */
+    public void add(ChatMessage message) {
+        if (message.getType() != ChatMessage.MessageType.USER || message.getContent() == null
+                || message.getContent().isBlank()) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder("- ")
+            .append(TokenEstimator.truncate(firstSentence(message.getContent()), MAX_LINE_TOKENS));
+        if (message.hasSentiment()) {
+            String emotion = message.getSentiment().getSpecificEmotion();
+            line.append(" (").append(emotion != null && !emotion.isEmpty()
+                ? emotion : message.getSentiment().getDominantSentiment()).append(")");
+        }
+
+        String text = line.toString();
+        lines.addLast(text);
+        tokens += TokenEstimator.estimate(text);
+        while (tokens > maxTokens && !lines.isEmpty()) {
+            tokens -= TokenEstimator.estimate(lines.pollFirst());
+        }
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public int getEstimatedTokens() {
+        return tokens;
+    }
+
+    /**
+     * Get the summary text, one line per earlier user message.
+     */
+    public String getText() {
+        return String.join("\n", lines);
+    }
+
+    private static String firstSentence(String text) {
+        String trimmed = text.strip();
+        for (int i = 0; i < trimmed.length() - 1; i++) {
+            char c = trimmed.charAt(i);
+            if ((c == '.' || c == '!' || c == '?') && Character.isWhitespace(trimmed.charAt(i + 1))) {
+                return trimmed.substring(0, i + 1);
+            }
+        }
+        return trimmed;
+    }
+}
@@ -10,7 +10,7 @@ import java.sql.SQLException;
 public interface DatabaseService {
     
     /**
-     * Get a database connection.
+     * Get a database connection for one unit of work. The caller closes it.
      * @return Connection object
      * @throws SQLException if connection fails
      */
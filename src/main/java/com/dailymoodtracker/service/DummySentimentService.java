@@ -8,8 +8,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -23,7 +21,6 @@ public class DummySentimentService implements SentimentAnalysisService {
     private static DummySentimentService instance;
     private final Map<String, String> botResponses;
     private final Random random = new Random();
-    private final ScheduledExecutorService executor;
     
     // Positive keywords
     private static final String[] POSITIVE_WORDS = {
@@ -39,7 +36,6 @@ public class DummySentimentService implements SentimentAnalysisService {
     
     private DummySentimentService() {
         botResponses = initializeBotResponses();
-        executor = Executors.newScheduledThreadPool(1);
         logger.info("Dummy sentiment service initialized (for testing without API keys)");
     }
     
@@ -155,7 +151,7 @@ public class DummySentimentService implements SentimentAnalysisService {
         // Add a small delay to simulate network request
         CompletableFuture<SentimentResult> future = new CompletableFuture<>();
         
-        executor.schedule(() -> {
+        AppExecutors.scheduler().schedule(() -> {
             try {
                 SentimentResult result = analyzeSentiment(text, userId);
                 future.complete(result);
@@ -204,8 +200,7 @@ public class DummySentimentService implements SentimentAnalysisService {
      * Shutdown the service gracefully
      */
     public void shutdown() {
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
+        // Simulated delays run on the shared AppExecutors scheduler, which is shut down centrally
+        logger.info("Dummy sentiment service shut down");
     }
 } 
\ No newline at end of file
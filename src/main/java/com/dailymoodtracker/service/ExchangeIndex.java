@@ -0,0 +1,295 @@
+package com.dailymoodtracker.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search index over past exchanges (a user message and the bot's reply),
+ * used to find replies to messages similar to a new one without a network call.
+ *
+ * User messages are indexed by their hashed unigrams and bigrams and ranked with
+ * BM25. Postings are kept per hash bucket in primitive arrays of document ids and
+ * term frequencies, so a search touches only the postings of the query's own terms.
+ * When the index is full it is rebuilt from its newer half.
+ */
+public class ExchangeIndex {
+    // BM25 parameters (the usual defaults)
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final int TERM_BUCKETS = 1 << 16;
+    private static final int MAX_TERMS = 128; // per message; the rest is not indexed
+
+    private final HashedFeatureExtractor featureExtractor = new HashedFeatureExtractor(TERM_BUCKETS);
+    private final int maxDocuments;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final List<String> userMessages = new ArrayList<>();
+    private final List<String> replies = new ArrayList<>();
+    private final Set<String> keys = new HashSet<>();
+    private int[] documentLengths = new int[64];
+    private int[] documentTerms = new int[64]; // distinct terms per message
+    private final int[][] postingDocuments = new int[TERM_BUCKETS][];
+    private final int[][] postingFrequencies = new int[TERM_BUCKETS][];
+    private final int[] postingCounts = new int[TERM_BUCKETS];
+    private long totalLength;
+
+    // Metrics
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong totalSearchNanos = new AtomicLong();
+
+    /**
+     * A past exchange found for a query.
+     */
+    public static class Hit {
+        private final String userMessage;
+        private final String reply;
+        private final float score;
+        private final float confidence;
+
+        Hit(String userMessage, String reply, float score, float confidence) {
+            this.userMessage = userMessage;
+            this.reply = reply;
+            this.score = score;
+            this.confidence = confidence;
+        }
+
+        public String getUserMessage() {
+            return userMessage;
+        }
+
+        public String getReply() {
+            return reply;
+        }
+
+        public float getScore() {
+            return score;
+        }
+
+        /**
+         * How closely the past message matches the query (0-1): the lower of how much of
+         * the query it covers (its score relative to that of an average-length message
+         * containing every query term once) and how much of it the query covers. Near 1
+         * means the past message says the same.
+         */
+        public float getConfidence() {
+            return confidence;
+        }
+    }
+
+    /**
+     * @param maxDocuments Maximum number of exchanges kept
+     */
+    public ExchangeIndex(int maxDocuments) {
+        this.maxDocuments = maxDocuments;
+    }
+
+    /**
+     * Add an exchange. Exchanges already in the index are ignored.
+     */
+    public void add(String userMessage, String reply) {
+        if (userMessage == null || userMessage.isBlank() || reply == null || reply.isBlank()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            String key = key(userMessage, reply);
+            if (keys.contains(key)) {
+                return;
+            }
+            if (userMessages.size() >= maxDocuments) {
+                rebuildFromNewerHalf();
+            }
+            keys.add(key);
+            index(userMessage, reply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the exchanges whose user messages best match a query.
+     *
+     * @param query The new user message
+     * @param limit Maximum number of hits
+     * @return the hits, best first
+     */
+    public List<Hit> search(String query, int limit) {
+        long start = System.nanoTime();
+        int[] terms = new int[MAX_TERMS];
+        int termCount = distinct(terms, featureExtractor.extract(query, terms));
+
+        lock.readLock().lock();
+        try {
+            int documents = userMessages.size();
+            if (documents == 0 || termCount == 0 || limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            float averageLength = (float) totalLength / documents;
+            float[] scores = new float[documents];
+            int[] matchedTerms = new int[documents];
+            float fullMatchScore = 0;
+            for (int t = 0; t < termCount; t++) {
+                int term = terms[t];
+                int documentFrequency = postingCounts[term];
+                float idf = (float) Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                fullMatchScore += idf; // what one occurrence in an average-length message scores
+
+                int[] postingDocs = postingDocuments[term];
+                int[] postingFreqs = postingFrequencies[term];
+                for (int p = 0; p < documentFrequency; p++) {
+                    int doc = postingDocs[p];
+                    float tf = postingFreqs[p];
+                    float lengthNorm = 1 - B + B * documentLengths[doc] / averageLength;
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + K1 * lengthNorm);
+                    matchedTerms[doc]++;
+                }
+            }
+
+            return topHits(scores, matchedTerms, limit, fullMatchScore);
+        } finally {
+            lock.readLock().unlock();
+            searches.incrementAndGet();
+            totalSearchNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return userMessages.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a one-line summary of the index and search latency.
+     */
+    public String getMetrics() {
+        long count = searches.get();
+        return String.format("exchanges=%d, searches=%d, avg search=%.1f us", size(), count,
+            count > 0 ? totalSearchNanos.get() / 1000.0 / count : 0.0);
+    }
+
+    private List<Hit> topHits(float[] scores, int[] matchedTerms, int limit, float fullMatchScore) {
+        // Partial selection: keep the best few document ids, sorted by score
+        int[] best = new int[limit];
+        int found = 0;
+        for (int doc = 0; doc < scores.length; doc++) {
+            float score = scores[doc];
+            if (score <= 0 || (found == limit && score <= scores[best[found - 1]])) {
+                continue;
+            }
+            int position = found < limit ? found++ : found - 1;
+            while (position > 0 && scores[best[position - 1]] < score) {
+                best[position] = best[position - 1];
+                position--;
+            }
+            best[position] = doc;
+        }
+
+        List<Hit> hits = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int doc = best[i];
+            // How much of the query the message covers, and how much of the message the query covers
+            float queryCoverage = fullMatchScore > 0 ? Math.min(1f, scores[doc] / fullMatchScore) : 0f;
+            float messageCoverage = (float) matchedTerms[doc] / Math.max(1, documentTerms[doc]);
+            hits.add(new Hit(userMessages.get(doc), replies.get(doc), scores[doc],
+                Math.min(queryCoverage, messageCoverage)));
+        }
+        return hits;
+    }
+
+    private void index(String userMessage, String reply) {
+        int doc = userMessages.size();
+        userMessages.add(userMessage);
+        replies.add(reply);
+
+        int[] terms = new int[MAX_TERMS];
+        int length = featureExtractor.extract(userMessage, terms);
+        Arrays.sort(terms, 0, length);
+        if (doc == documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, doc * 2);
+            documentTerms = Arrays.copyOf(documentTerms, doc * 2);
+        }
+        documentLengths[doc] = length;
+        documentTerms[doc] = 0;
+        totalLength += length;
+
+        // Terms are sorted, so each run is one term with its frequency
+        for (int i = 0; i < length; ) {
+            int term = terms[i];
+            int runEnd = i;
+            while (runEnd < length && terms[runEnd] == term) {
+                runEnd++;
+            }
+            addPosting(term, doc, runEnd - i);
+            documentTerms[doc]++;
+            i = runEnd;
+        }
+    }
+
+    private void addPosting(int term, int doc, int frequency) {
+        int count = postingCounts[term];
+        if (postingDocuments[term] == null) {
+            postingDocuments[term] = new int[4];
+            postingFrequencies[term] = new int[4];
+        } else if (count == postingDocuments[term].length) {
+            postingDocuments[term] = Arrays.copyOf(postingDocuments[term], count * 2);
+            postingFrequencies[term] = Arrays.copyOf(postingFrequencies[term], count * 2);
+        }
+        postingDocuments[term][count] = doc;
+        postingFrequencies[term][count] = frequency;
+        postingCounts[term] = count + 1;
+    }
+
+    private void rebuildFromNewerHalf() {
+        int keepFrom = userMessages.size() / 2;
+        List<String> keptMessages = new ArrayList<>(userMessages.subList(keepFrom, userMessages.size()));
+        List<String> keptReplies = new ArrayList<>(replies.subList(keepFrom, replies.size()));
+
+        userMessages.clear();
+        replies.clear();
+        keys.clear();
+        Arrays.fill(postingDocuments, null);
+        Arrays.fill(postingFrequencies, null);
+        Arrays.fill(postingCounts, 0);
+        totalLength = 0;
+
+        for (int i = 0; i < keptMessages.size(); i++) {
+            keys.add(key(keptMessages.get(i), keptReplies.get(i)));
+            index(keptMessages.get(i), keptReplies.get(i));
+        }
+    }
+
+    private static String key(String userMessage, String reply) {
+        return ResponseCache.normalize(userMessage) + "|" + ResponseCache.normalize(reply);
+    }
+
+    /**
+     * Sort the first {@code count} terms and remove duplicates.
+     *
+     * @return the number of distinct terms
+     */
+    private static int distinct(int[] terms, int count) {
+        Arrays.sort(terms, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || terms[distinct - 1] != terms[i]) {
+                terms[distinct++] = terms[i];
+            }
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,319 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.ChatFeedback;
+import com.dailymoodtracker.repository.ChatFeedbackRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Feedback on chatbot responses, persisted in batches and summarized for prompts.
+ *
+ * New feedback is kept in memory and written to the repository in one batch a few
+ * seconds later, or as soon as a full batch has collected. The index keeps the most
+ * recent entries of each user and the number of entries per emotion and feedback
+ * type, and turns them into prompt notes whenever they change, so building a prompt
+ * only reads a ready list. A user's prompts quote only that user's own feedback;
+ * feedback from everyone else is part of them only as counts. The counts are
+ * reloaded from the repository periodically so they stay in line with what was
+ * actually saved.
+ */
+public class FeedbackIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackIndex.class);
+
+    private static final int RECENT_NOTES = 3;
+    private static final int TOP_EMOTIONS = 3;
+    private static final int MAX_BATCH_SIZE = 20;
+    private static final long FLUSH_DELAY_MILLIS = 2000;
+    private static final long REFRESH_INTERVAL_MINUTES = 10;
+
+    private static final ChatFeedback.FeedbackType[] FEEDBACK_TYPES = ChatFeedback.FeedbackType.values();
+
+    private final Supplier<ChatFeedbackRepository> repositorySupplier;
+
+    // Guarded by this
+    private final List<ChatFeedback> pending = new ArrayList<>();
+    private final Map<Integer, ArrayDeque<ChatFeedback>> recentByUser = new HashMap<>(); // newest first
+    private final Map<String, long[]> countsByEmotion = new HashMap<>(); // counts per feedback type
+    private final long[] totals = new long[FEEDBACK_TYPES.length];
+
+    // Held while writing, so a refresh never sees a batch that is half saved
+    private final Object writeLock = new Object();
+
+    private volatile List<String> overviewNotes = Collections.emptyList();
+    private volatile Map<Integer, List<String>> promptNotesByUser = Collections.emptyMap();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile ScheduledFuture<?> refreshTask;
+
+    // Metrics
+    private final AtomicLong saved = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    /**
+     * @param repositorySupplier Supplies the repository feedback is saved to
+     */
+    public FeedbackIndex(Supplier<ChatFeedbackRepository> repositorySupplier) {
+        this.repositorySupplier = repositorySupplier;
+    }
+
+    /**
+     * Load the saved feedback in the background and start the periodic refresh.
+     */
+    public void start() {
+        CompletableFuture.runAsync(this::refresh, AppExecutors.io());
+        refreshTask = AppExecutors.scheduler().scheduleWithFixedDelay(
+            () -> AppExecutors.io().execute(this::refresh),
+            REFRESH_INTERVAL_MINUTES, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Add feedback. It is part of the prompt notes at once and saved with the next batch.
+     */
+    public void add(ChatFeedback feedback) {
+        boolean fullBatch;
+        synchronized (this) {
+            pending.add(feedback);
+            addToIndex(feedback);
+            buildPromptNotes();
+            fullBatch = pending.size() >= MAX_BATCH_SIZE;
+        }
+
+        if (fullBatch) {
+            AppExecutors.io().execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            AppExecutors.scheduler().schedule(() -> AppExecutors.io().execute(this::flush),
+                FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Get the precomputed prompt notes for a user: an overview of all feedback first,
+     * then the user's most recent entries, newest first.
+     */
+    public List<String> getPromptNotes(int userId) {
+        return promptNotesByUser.getOrDefault(userId, overviewNotes);
+    }
+
+    /**
+     * Get the precomputed overview of all feedback, for a prompt not made for a known user.
+     */
+    public List<String> getOverviewNotes() {
+        return overviewNotes;
+    }
+
+    /**
+     * Save all pending feedback in one batch.
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        synchronized (writeLock) {
+            List<ChatFeedback> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+            }
+
+            try {
+                repositorySupplier.get().saveAll(batch);
+            } catch (RuntimeException e) {
+                // Keep the batch pending; the next flush or refresh tries again
+                failedBatches.incrementAndGet();
+                logger.warn("Could not save {} feedback entries: {}", batch.size(), e.getMessage());
+                return;
+            }
+
+            synchronized (this) {
+                pending.subList(0, batch.size()).clear();
+            }
+            saved.addAndGet(batch.size());
+            batches.incrementAndGet();
+        }
+    }
+
+    /**
+     * Save pending feedback, then reload the recent entries and counts from the repository.
+     */
+    public void refresh() {
+        synchronized (writeLock) {
+            flush();
+
+            List<ChatFeedback> savedRecent;
+            List<ChatFeedbackRepository.CategoryCount> savedCounts;
+            try {
+                ChatFeedbackRepository repository = repositorySupplier.get();
+                savedRecent = repository.findRecentPerUser(RECENT_NOTES);
+                savedCounts = repository.countByCategory();
+            } catch (RuntimeException e) {
+                logger.warn("Could not load saved feedback: {}", e.getMessage());
+                return;
+            }
+
+            synchronized (this) {
+                recentByUser.clear();
+                countsByEmotion.clear();
+                Arrays.fill(totals, 0);
+
+                // Saved entries come newest first; add the oldest first so the newest ends up in front
+                for (int i = savedRecent.size() - 1; i >= 0; i--) {
+                    addRecent(savedRecent.get(i));
+                }
+                for (ChatFeedbackRepository.CategoryCount count : savedCounts) {
+                    addCount(emotionLabel(count.getSentimentType(), count.getSpecificEmotion()),
+                        count.getFeedbackType(), count.getCount());
+                }
+                // Whatever failed to save is still only in memory
+                for (ChatFeedback feedback : pending) {
+                    addToIndex(feedback);
+                }
+                buildPromptNotes();
+            }
+        }
+    }
+
+    /**
+     * Stop the periodic refresh and save what is still pending.
+     */
+    public void shutdown() {
+        ScheduledFuture<?> task = refreshTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+        flush();
+    }
+
+    /**
+     * Get a one-line summary of feedback persistence.
+     */
+    public String getMetrics() {
+        long total = 0;
+        int pendingCount;
+        synchronized (this) {
+            for (long count : totals) {
+                total += count;
+            }
+            pendingCount = pending.size();
+        }
+        return String.format("feedback=%d, pending=%d, saved=%d in %d batches, failed batches=%d",
+            total, pendingCount, saved.get(), batches.get(), failedBatches.get());
+    }
+
+    private void addToIndex(ChatFeedback feedback) {
+        addRecent(feedback);
+        addCount(emotionLabel(feedback.getSentimentType(), feedback.getSpecificEmotion()), feedback.getType(), 1);
+    }
+
+    private void addRecent(ChatFeedback feedback) {
+        ArrayDeque<ChatFeedback> recent = recentByUser.computeIfAbsent(feedback.getUserId(), id -> new ArrayDeque<>());
+        recent.addFirst(feedback);
+        while (recent.size() > RECENT_NOTES) {
+            recent.removeLast();
+        }
+    }
+
+    private void addCount(String emotion, ChatFeedback.FeedbackType type, long count) {
+        totals[type.ordinal()] += count;
+        if (emotion != null) {
+            countsByEmotion.computeIfAbsent(emotion, e -> new long[FEEDBACK_TYPES.length])[type.ordinal()] += count;
+        }
+    }
+
+    private void buildPromptNotes() {
+        String overview = buildOverview();
+        List<String> overviewOnly = overview != null ? List.of(overview) : Collections.emptyList();
+
+        Map<Integer, List<String>> notesByUser = new HashMap<>();
+        for (Map.Entry<Integer, ArrayDeque<ChatFeedback>> entry : recentByUser.entrySet()) {
+            List<String> notes = new ArrayList<>(overviewOnly);
+            for (ChatFeedback feedback : entry.getValue()) {
+                notes.add(formatNote(feedback));
+            }
+            notesByUser.put(entry.getKey(), Collections.unmodifiableList(notes));
+        }
+        overviewNotes = overviewOnly;
+        promptNotesByUser = notesByUser;
+    }
+
+    private String buildOverview() {
+        long total = 0;
+        for (long count : totals) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        StringBuilder overview = new StringBuilder("\nAll feedback so far: ")
+            .append(totals[ChatFeedback.FeedbackType.POSITIVE.ordinal()]).append(" positive, ")
+            .append(totals[ChatFeedback.FeedbackType.NEGATIVE.ordinal()]).append(" negative, ")
+            .append(totals[ChatFeedback.FeedbackType.SUGGESTION.ordinal()]).append(" suggestions.\n");
+        appendTopEmotions(overview, ChatFeedback.FeedbackType.NEGATIVE, "Negative feedback came most often when the user felt: ");
+        appendTopEmotions(overview, ChatFeedback.FeedbackType.POSITIVE, "Positive feedback came most often when the user felt: ");
+        return overview.append("---\n").toString();
+    }
+
+    private void appendTopEmotions(StringBuilder overview, ChatFeedback.FeedbackType type, String label) {
+        int index = type.ordinal();
+        List<Map.Entry<String, long[]>> top = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : countsByEmotion.entrySet()) {
+            if (entry.getValue()[index] > 0) {
+                top.add(entry);
+            }
+        }
+        if (top.isEmpty()) {
+            return;
+        }
+
+        top.sort((a, b) -> Long.compare(b.getValue()[index], a.getValue()[index]));
+        overview.append(label);
+        for (int i = 0; i < Math.min(TOP_EMOTIONS, top.size()); i++) {
+            if (i > 0) {
+                overview.append(", ");
+            }
+            overview.append(top.get(i).getKey()).append(" (").append(top.get(i).getValue()[index]).append(")");
+        }
+        overview.append("\n");
+    }
+
+    private static String formatNote(ChatFeedback feedback) {
+        StringBuilder note = new StringBuilder();
+        note.append("\nUser message: \"").append(feedback.getUserMessage()).append("\"\n");
+        note.append("Your response: \"").append(feedback.getBotResponse()).append("\"\n");
+        note.append("Feedback type: ").append(feedback.getType()).append("\n");
+        note.append("Feedback content: \"").append(feedback.getFeedbackContent()).append("\"\n");
+
+        if (feedback.getSentimentType() != null) {
+            note.append("Sentiment: ").append(feedback.getSentimentType());
+
+            if (feedback.getSpecificEmotion() != null) {
+                note.append(" (").append(feedback.getSpecificEmotion()).append(")");
+            }
+
+            note.append("\n");
+        }
+
+        return note.append("---\n").toString();
+    }
+
+    private static String emotionLabel(String sentimentType, String specificEmotion) {
+        if (specificEmotion != null && !specificEmotion.isEmpty()) {
+            return specificEmotion;
+        }
+        return sentimentType;
+    }
+}
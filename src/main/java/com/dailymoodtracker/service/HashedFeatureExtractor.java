@@ -0,0 +1,83 @@
+package com.dailymoodtracker.service;
+
+/**
+ * Turns text into hashed unigram and bigram feature indexes.
+ *
+ * Tokens are runs of letters, digits and apostrophes, lowercased. Each token and each
+ * pair of adjacent tokens is hashed into one of {@code numBuckets} buckets, so the
+ * feature space has a fixed size regardless of vocabulary. Hashing is done directly
+ * over the characters without creating token strings.
+ */
+public class HashedFeatureExtractor {
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final int bucketMask;
+
+    /**
+     * @param numBuckets Number of hash buckets; must be a power of two
+     */
+    public HashedFeatureExtractor(int numBuckets) {
+        if (numBuckets <= 0 || Integer.bitCount(numBuckets) != 1) {
+            throw new IllegalArgumentException("Number of buckets must be a power of two: " + numBuckets);
+        }
+        this.bucketMask = numBuckets - 1;
+    }
+
+    public int getNumBuckets() {
+        return bucketMask + 1;
+    }
+
+    /**
+     * Extract feature indexes into {@code features}.
+     *
+     * @param text The text to featurize
+     * @param features Output buffer; extraction stops when it is full
+     * @return the number of features written
+     */
+    public int extract(String text, int[] features) {
+        if (text == null) {
+            return 0;
+        }
+
+        int count = 0;
+        int hash = FNV_OFFSET;
+        boolean inToken = false;
+        boolean hasPrevious = false;
+        int previous = 0;
+
+        for (int i = 0, length = text.length(); i <= length && count < features.length; i++) {
+            char c = i < length ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c) || (c == '\'' && inToken)) {
+                hash = (hash ^ c) * FNV_PRIME;
+                inToken = true;
+                continue;
+            }
+            if (!inToken) {
+                continue;
+            }
+
+            int token = avalanche(hash);
+            features[count++] = token & bucketMask;
+            if (hasPrevious && count < features.length) {
+                features[count++] = avalanche(previous * 0x9E3779B1 + token) & bucketMask;
+            }
+
+            previous = token;
+            hasPrevious = true;
+            hash = FNV_OFFSET;
+            inToken = false;
+        }
+
+        return count;
+    }
+
+    private static int avalanche(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,162 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.SentimentResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SentimentAnalysisService that races the HTTP service against a local backend.
+ *
+ * Every request goes to the HTTP service first. If no answer has arrived within the
+ * hedge delay, or the HTTP call fails or is rejected by its circuit breaker, the same
+ * text is analyzed by the local backend and whichever result completes first wins.
+ * This keeps chat latency bounded by roughly the hedge delay when the Python service
+ * is slow or down.
+ */
+public class HedgedSentimentService implements SentimentAnalysisService {
+    private static final Logger logger = LoggerFactory.getLogger(HedgedSentimentService.class);
+
+    private final HttpSentimentService primary;
+    private final SentimentAnalysisService secondary;
+    private final long hedgeDelayMillis;
+
+    // Metrics
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong primaryWins = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * Create a hedged service.
+     *
+     * @param primary The remote service to try first
+     * @param secondary The local service used as the hedge
+     * @param hedgeDelayMillis How long to wait for the remote service before starting the hedge
+     */
+    public HedgedSentimentService(HttpSentimentService primary, SentimentAnalysisService secondary,
+                                  long hedgeDelayMillis) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        logger.info("Hedged sentiment service initialized with a {} ms hedge delay", hedgeDelayMillis);
+    }
+
+    @Override
+    public SentimentResult analyzeSentiment(String text, int userId) {
+        return analyzeSentimentAsync(text, userId).join();
+    }
+
+    @Override
+    public CompletableFuture<SentimentResult> analyzeSentimentAsync(String text, int userId) {
+        if (text == null || text.trim().isEmpty()) {
+            return secondary.analyzeSentimentAsync(text, userId);
+        }
+
+        requestCount.incrementAndGet();
+        CompletableFuture<SentimentResult> result = new CompletableFuture<>();
+        AtomicBoolean hedgeStarted = new AtomicBoolean(false);
+        AtomicInteger failures = new AtomicInteger(0);
+
+        Runnable startHedge = () -> {
+            if (result.isDone() || !hedgeStarted.compareAndSet(false, true)) {
+                return;
+            }
+            hedgeCount.incrementAndGet();
+            secondary.analyzeSentimentAsync(text, userId).whenComplete((sentiment, error) -> {
+                if (error == null) {
+                    if (result.complete(sentiment)) {
+                        hedgeWins.incrementAndGet();
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        };
+
+        primary.requestSentimentAsync(text, userId).whenComplete((sentiment, error) -> {
+            if (error == null) {
+                if (result.complete(sentiment)) {
+                    primaryWins.incrementAndGet();
+                }
+                return;
+            }
+
+            logger.debug("HTTP sentiment request failed, using local analysis: {}", error.getMessage());
+            if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(error);
+            } else {
+                startHedge.run();
+            }
+        });
+
+        if (!result.isDone()) {
+            ScheduledFuture<?> hedgeTimer = AppExecutors.scheduler()
+                    .schedule(startHedge, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            // Drop the timer as soon as there is an answer
+            result.whenComplete((sentiment, error) -> hedgeTimer.cancel(false));
+        }
+
+        return result.exceptionally(e -> {
+            SentimentResult fallback = new SentimentResult(text, 0.1, 0.1, 0.8, "neutral", userId);
+            fallback.setAnalysisSource(SentimentResult.FALLBACK_SOURCE);
+            return fallback;
+        });
+    }
+
+    @Override
+    public String getBotResponse(SentimentResult sentiment) {
+        // Only spend a remote round trip when the HTTP service is known to be healthy
+        if (primary.getCircuitBreaker().getState() == CircuitBreaker.State.CLOSED) {
+            return primary.getBotResponse(sentiment);
+        }
+        return secondary.getBotResponse(sentiment);
+    }
+
+    public HttpSentimentService getPrimary() {
+        return primary;
+    }
+
+    public SentimentAnalysisService getSecondary() {
+        return secondary;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    public long getPrimaryWins() {
+        return primaryWins.get();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * Get the fraction of completed requests answered by the local hedge.
+     */
+    public double getHedgeWinRate() {
+        long wins = primaryWins.get() + hedgeWins.get();
+        return wins == 0 ? 0.0 : (double) hedgeWins.get() / wins;
+    }
+
+    /**
+     * Get a one-line summary of hedging and circuit breaker metrics.
+     */
+    public String getMetrics() {
+        return String.format("requests=%d, hedges=%d, primary wins=%d, hedge wins=%d, hedge win rate=%.2f; %s",
+                getRequestCount(), getHedgeCount(), getPrimaryWins(), getHedgeWins(), getHedgeWinRate(),
+                primary.getCircuitBreaker().getMetrics());
+    }
+}
@@ -1,5 +1,6 @@
 package com.dailymoodtracker.service;
 
+import com.dailymoodtracker.exception.CircuitBreakerOpenException;
 import com.dailymoodtracker.model.SentimentResult;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,8 +16,7 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionException;
 
 /**
  * Implementation of SentimentAnalysisService that connects to the Python Flask service.
@@ -24,9 +24,11 @@ import java.util.concurrent.Executors;
 public class HttpSentimentService implements SentimentAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(HttpSentimentService.class);
     
-    private final ExecutorService executorService;
     private final ObjectMapper objectMapper;
     
+    // Opens after repeated failures so callers stop waiting on a dead service
+    private final CircuitBreaker circuitBreaker;
+    
     // Service URL
     private final String serviceBaseUrl;
     private final HttpClient httpClient;
@@ -49,14 +51,16 @@ public class HttpSentimentService implements SentimentAnalysisService {
      * Private constructor to enforce singleton pattern.
      */
     private HttpSentimentService() {
-        this.executorService = Executors.newCachedThreadPool();
         this.objectMapper = new ObjectMapper();
         this.serviceBaseUrl = "http://localhost:8080"; // Default URL
         
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(5))
+                .executor(AppExecutors.io())
                 .build();
         
+        this.circuitBreaker = new CircuitBreaker("http-sentiment", 20, 5, 0.5, 30_000, 1);
+        
         logger.info("HTTP Sentiment Analysis Service initialized with URL: {}", serviceBaseUrl);
     }
     
@@ -67,6 +71,36 @@ public class HttpSentimentService implements SentimentAnalysisService {
             return createDefaultSentimentResult(text, userId);
         }
         
+        try {
+            return requestSentimentAsync(text, userId).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CircuitBreakerOpenException) {
+                logger.debug("Skipping HTTP sentiment call: {}", cause.getMessage());
+            } else {
+                logger.error("Error analyzing sentiment via HTTP: {}", cause.getMessage(), cause);
+            }
+            return createDefaultSentimentResult(text, userId);
+        }
+    }
+    
+    /**
+     * Send a sentiment request to the Python service without blocking the caller.
+     * Unlike {@link #analyzeSentimentAsync(String, int)}, the returned future completes
+     * exceptionally when the request fails or the circuit breaker is open, so callers
+     * can fall back to another backend instead of receiving a neutral default.
+     * 
+     * @param text The text to analyze
+     * @param userId The ID of the user who wrote the text
+     * @return A future that will complete with the sentiment analysis result
+     */
+    public CompletableFuture<SentimentResult> requestSentimentAsync(String text, int userId) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(
+                    new CircuitBreakerOpenException("HTTP sentiment service circuit breaker is open"));
+        }
+        
+        HttpRequest request;
         try {
             logger.debug("Analyzing sentiment using HTTP service for text: {}", 
                     text.length() > 50 ? text.substring(0, 47) + "..." : text);
@@ -79,28 +113,38 @@ public class HttpSentimentService implements SentimentAnalysisService {
             String requestBodyJson = objectMapper.writeValueAsString(requestBody);
             
             // Build HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
+            request = HttpRequest.newBuilder()
                     .uri(URI.create(serviceBaseUrl + "/analyze"))
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(requestBodyJson))
                     .timeout(Duration.ofSeconds(10))
                     .build();
-            
-            // Send request
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            
-            // Handle response
-            if (response.statusCode() == 200) {
-                return parseResponse(response.body(), text, userId);
-            } else {
-                logger.error("Error from sentiment service: HTTP {}", response.statusCode());
-                return createDefaultSentimentResult(text, userId);
-            }
-            
         } catch (Exception e) {
-            logger.error("Error analyzing sentiment via HTTP: {}", e.getMessage(), e);
-            return createDefaultSentimentResult(text, userId);
+            circuitBreaker.onFailure();
+            return CompletableFuture.failedFuture(e);
         }
+        
+        // Send request and handle the response when it arrives
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        circuitBreaker.onFailure();
+                        throw new CompletionException(error);
+                    }
+                    if (response.statusCode() != 200) {
+                        circuitBreaker.onFailure();
+                        throw new CompletionException(
+                                new IOException("Error from sentiment service: HTTP " + response.statusCode()));
+                    }
+                    try {
+                        SentimentResult result = parseResponse(response.body(), text, userId);
+                        circuitBreaker.onSuccess();
+                        return result;
+                    } catch (IOException e) {
+                        circuitBreaker.onFailure();
+                        throw new CompletionException(e);
+                    }
+                });
     }
     
     private SentimentResult parseResponse(String responseBody, String text, int userId) throws IOException {
@@ -151,11 +195,19 @@ public class HttpSentimentService implements SentimentAnalysisService {
     
     @Override
     public CompletableFuture<SentimentResult> analyzeSentimentAsync(String text, int userId) {
-        return CompletableFuture.supplyAsync(() -> analyzeSentiment(text, userId), executorService);
+        if (text == null || text.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(createDefaultSentimentResult(text, userId));
+        }
+        return requestSentimentAsync(text, userId)
+                .exceptionally(e -> createDefaultSentimentResult(text, userId));
     }
     
     @Override
     public String getBotResponse(SentimentResult sentiment) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return getFallbackResponse(sentiment);
+        }
+        
         try {
             // Create request body
             Map<String, Object> requestBody = new HashMap<>();
@@ -180,15 +232,19 @@ public class HttpSentimentService implements SentimentAnalysisService {
             // Parse response
             if (response.statusCode() == 200) {
                 JsonNode responseNode = objectMapper.readTree(response.body());
+                circuitBreaker.onSuccess();
                 if (responseNode.has("response")) {
                     return responseNode.get("response").asText();
                 }
+                return getFallbackResponse(sentiment);
             }
             
+            circuitBreaker.onFailure();
             logger.error("Failed to get bot response from service: HTTP {}", response.statusCode());
             return getFallbackResponse(sentiment);
             
         } catch (Exception e) {
+            circuitBreaker.onFailure();
             logger.error("Error getting bot response: {}", e.getMessage(), e);
             return getFallbackResponse(sentiment);
         }
@@ -207,17 +263,25 @@ public class HttpSentimentService implements SentimentAnalysisService {
     }
     
     private SentimentResult createDefaultSentimentResult(String text, int userId) {
-        return new SentimentResult(text, 0.1, 0.1, 0.8, "neutral", userId);
+        SentimentResult result = new SentimentResult(text, 0.1, 0.1, 0.8, "neutral", userId);
+        result.setAnalysisSource(SentimentResult.FALLBACK_SOURCE);
+        return result;
     }
     
     /**
      * Shutdown the service.
      */
     public void shutdown() {
-        executorService.shutdown();
         logger.info("HTTP Sentiment Analysis Service shutdown complete");
     }
     
+    /**
+     * Get the circuit breaker guarding calls to the Python service.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
     /**
      * Check if the service is available.
      * @return true if service is available
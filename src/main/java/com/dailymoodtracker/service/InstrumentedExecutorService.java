@@ -0,0 +1,181 @@
+package com.dailymoodtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ExecutorService decorator that records queue and latency metrics for a pool and
+ * can cap how many of its tasks run at the same time.
+ *
+ * Queue wait is measured from submission until the task starts running (including
+ * any wait for a concurrency permit); run time from start to completion.
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService {
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedExecutorService.class);
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    // Metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    /**
+     * @param name Pool name used in metrics and logs
+     * @param delegate The executor that runs the tasks
+     * @param maxConcurrency Maximum number of tasks running at once, or 0 for no limit
+     *                       beyond the delegate's own
+     */
+    public InstrumentedExecutorService(String name, ExecutorService delegate, int maxConcurrency) {
+        this.name = name;
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submittedAt = System.nanoTime();
+        submitted.incrementAndGet();
+        waiting.incrementAndGet();
+        try {
+            delegate.execute(() -> run(task, submittedAt));
+        } catch (RejectedExecutionException e) {
+            waiting.decrementAndGet();
+            rejected.incrementAndGet();
+            logger.warn("Task rejected by {} pool: {}", name, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void run(Runnable task, long submittedAt) {
+        boolean permitted = false;
+        try {
+            if (permits != null) {
+                permits.acquire();
+                permitted = true;
+            }
+        } catch (InterruptedException e) {
+            waiting.decrementAndGet();
+            failed.incrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        waiting.decrementAndGet();
+        running.incrementAndGet();
+        record(totalWaitNanos, maxWaitNanos, startedAt - submittedAt);
+        try {
+            task.run();
+            completed.incrementAndGet();
+        } catch (RuntimeException | Error e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            record(totalRunNanos, maxRunNanos, System.nanoTime() - startedAt);
+            running.decrementAndGet();
+            if (permitted) {
+                permits.release();
+            }
+        }
+    }
+
+    private static void record(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of tasks submitted but not yet started.
+     */
+    public int getQueuedTasks() {
+        return waiting.get();
+    }
+
+    public int getRunningTasks() {
+        return running.get();
+    }
+
+    public long getCompletedTasks() {
+        return completed.get();
+    }
+
+    public long getFailedTasks() {
+        return failed.get();
+    }
+
+    public long getRejectedTasks() {
+        return rejected.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long started = completed.get() + failed.get();
+        return started > 0 ? totalWaitNanos.get() / 1_000_000.0 / started : 0.0;
+    }
+
+    public double getAverageRunMillis() {
+        long finished = completed.get() + failed.get();
+        return finished > 0 ? totalRunNanos.get() / 1_000_000.0 / finished : 0.0;
+    }
+
+    /**
+     * Get a one-line summary of the pool metrics.
+     */
+    public String getMetrics() {
+        return String.format("%s{submitted=%d, running=%d%s, queued=%d, completed=%d, failed=%d, rejected=%d, "
+                        + "avg wait=%.1f ms, max wait=%.1f ms, avg run=%.1f ms, max run=%.1f ms}",
+                name, submitted.get(), running.get(), maxConcurrency > 0 ? "/" + maxConcurrency : "",
+                waiting.get(), completed.get(), failed.get(), rejected.get(),
+                getAverageWaitMillis(), maxWaitNanos.get() / 1_000_000.0,
+                getAverageRunMillis(), maxRunNanos.get() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,362 @@
+package com.dailymoodtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects the intents of a chat message, such as a greeting or a request for a
+ * breathing exercise, from the phrases listed in {@code intents.txt}.
+ *
+ * All phrases are compiled into one character trie. A message is scanned once from
+ * the start of each word, so the cost depends on the length of the message and of
+ * the longest phrase, not on how many intents or phrases there are. The intents file
+ * is looked up in the working directory, the user's home directory and the classpath,
+ * in that order; a file on disk is reloaded when it changes.
+ */
+public class IntentRouter {
+    private static final Logger logger = LoggerFactory.getLogger(IntentRouter.class);
+
+    private static final String INTENTS_FILE = "intents.txt";
+    private static final String USER_HOME = System.getProperty("user.home");
+    private static final long RELOAD_CHECK_INTERVAL_MILLIS = 2000;
+    private static final char RIGHT_SINGLE_QUOTE = '\u2019'; // typographic apostrophe
+
+    private static IntentRouter instance;
+
+    // Replaced as a whole on reload, so a scan never sees a half-built trie
+    private volatile Compiled compiled = new Compiled(new Node(), Collections.emptyList(), null);
+    private final AtomicLong lastReloadCheckMillis = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * An intent found in a message.
+     */
+    public static class Match {
+        private final String intent;
+        private final int priority;
+        private final int start;
+        private final int end;
+
+        Match(String intent, int priority, int start, int end) {
+            this.intent = intent;
+            this.priority = priority;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getIntent() {
+            return intent;
+        }
+
+        /**
+         * Position of the intent in the intents file; lower comes first.
+         */
+        public int getPriority() {
+            return priority;
+        }
+
+        /**
+         * Index of the first character of the matched phrase in the message.
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Index after the last character of the matched phrase in the message.
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return intent + "[" + start + "," + end + ")";
+        }
+    }
+
+    /**
+     * Trie node; children are kept sorted by character for binary search.
+     */
+    private static class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+
+        // Intent of a phrase ending here at a word end, and of a phrase ending here with *
+        private String wordIntent;
+        private int wordPriority;
+        private String prefixIntent;
+        private int prefixPriority;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = c;
+            newChildren[insertAt] = child;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    private static class Compiled {
+        private final Node root;
+        private final List<String> intents;
+        private final File source; // null if loaded from the classpath
+        private final long lastModified;
+
+        Compiled(Node root, List<String> intents, File source) {
+            this.root = root;
+            this.intents = intents;
+            this.source = source;
+            this.lastModified = source != null ? source.lastModified() : 0;
+        }
+    }
+
+    /**
+     * Get the singleton instance of IntentRouter.
+     * @return IntentRouter instance
+     */
+    public static synchronized IntentRouter getInstance() {
+        if (instance == null) {
+            instance = new IntentRouter();
+        }
+        return instance;
+    }
+
+    private IntentRouter() {
+        reload();
+    }
+
+    /**
+     * Load the intents file again. If it cannot be read, the current intents are kept.
+     */
+    public void reload() {
+        File file = findIntentsFile();
+        try {
+            if (file != null) {
+                try (InputStream input = new FileInputStream(file)) {
+                    compiled = compile(input, file);
+                }
+                logger.info("Loaded {} intents from {}", compiled.intents.size(), file.getAbsolutePath());
+                return;
+            }
+
+            try (InputStream input = getClass().getClassLoader().getResourceAsStream(INTENTS_FILE)) {
+                if (input == null) {
+                    logger.warn("No {} found; no intents will be detected", INTENTS_FILE);
+                    return;
+                }
+                compiled = compile(input, null);
+            }
+            logger.info("Loaded {} intents from classpath", compiled.intents.size());
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Error loading intents, keeping the current ones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Find all intents in a message.
+     *
+     * @param message The message
+     * @return the matches ordered by position in the message
+     */
+    public List<Match> route(String message) {
+        reloadIfChanged();
+        if (message == null || message.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Node root = compiled.root;
+        char[] text = normalize(message);
+        List<Match> matches = new ArrayList<>(2);
+
+        for (int start = 0; start < text.length; start++) {
+            // Phrases only start at the beginning of a word
+            if (text[start] == ' ' || (start > 0 && text[start - 1] != ' ')) {
+                continue;
+            }
+
+            Node node = root;
+            for (int i = start; i < text.length; i++) {
+                char c = text[i];
+                if (c == ' ' && text[i - 1] == ' ') {
+                    continue; // several spaces match one
+                }
+                node = node.child(c);
+                if (node == null) {
+                    break;
+                }
+
+                boolean wordEnd = i + 1 == text.length || text[i + 1] == ' ';
+                if (node.wordIntent != null && wordEnd) {
+                    matches.add(new Match(node.wordIntent, node.wordPriority, start, i + 1));
+                }
+                if (node.prefixIntent != null) {
+                    int end = i + 1;
+                    while (end < text.length && text[end] != ' ') {
+                        end++;
+                    }
+                    matches.add(new Match(node.prefixIntent, node.prefixPriority, start, end));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Find the first-listed intent of a group (the part of the intent name before the dot)
+     * that occurs in a message.
+     *
+     * @return the match, or null if no intent of the group occurs
+     */
+    public Match firstIntent(String message, String group) {
+        return firstIntent(route(message), group);
+    }
+
+    /**
+     * Find the first-listed intent of a group among matches returned by {@link #route}.
+     *
+     * @return the match, or null if no intent of the group occurs
+     */
+    public static Match firstIntent(List<Match> matches, String group) {
+        String prefix = group + ".";
+        Match best = null;
+        for (Match match : matches) {
+            if (match.intent.startsWith(prefix) && (best == null || match.priority < best.priority)) {
+                best = match;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the names of all loaded intents in priority order.
+     */
+    public List<String> getIntents() {
+        return compiled.intents;
+    }
+
+    private void reloadIfChanged() {
+        long now = System.currentTimeMillis();
+        long lastCheck = lastReloadCheckMillis.get();
+        if (now - lastCheck < RELOAD_CHECK_INTERVAL_MILLIS || !lastReloadCheckMillis.compareAndSet(lastCheck, now)) {
+            return;
+        }
+
+        // Reload if the file was changed, or one was added or removed
+        Compiled current = compiled;
+        File file = findIntentsFile();
+        if (!Objects.equals(file, current.source)
+                || (file != null && file.lastModified() != current.lastModified)) {
+            reload();
+        }
+    }
+
+    private static File findIntentsFile() {
+        File file = new File(INTENTS_FILE);
+        if (file.isFile()) {
+            return file;
+        }
+        file = new File(USER_HOME, INTENTS_FILE);
+        return file.isFile() ? file : null;
+    }
+
+    private static Compiled compile(InputStream input, File source) throws IOException {
+        Node root = new Node();
+        List<String> intents = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int separator = line.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Line " + lineNumber + " is not '<intent> = <phrases>'");
+            }
+            String intent = line.substring(0, separator).trim();
+            int priority = intents.size();
+            intents.add(intent);
+
+            for (String phrase : line.substring(separator + 1).split(",")) {
+                addPhrase(root, intent, priority, phrase.trim());
+            }
+        }
+        return new Compiled(root, Collections.unmodifiableList(intents), source);
+    }
+
+    private static void addPhrase(Node root, String intent, int priority, String phrase) {
+        boolean prefix = phrase.endsWith("*");
+        String words = new String(normalize(prefix ? phrase.substring(0, phrase.length() - 1) : phrase))
+            .trim().replaceAll(" +", " ");
+
+        Node node = root;
+        for (int i = 0; i < words.length(); i++) {
+            node = node.addChild(words.charAt(i));
+        }
+        if (node == root) {
+            return;
+        }
+
+        // A phrase listed under several intents belongs to the first one
+        if (prefix && node.prefixIntent == null) {
+            node.prefixIntent = intent;
+            node.prefixPriority = priority;
+        } else if (!prefix && node.wordIntent == null) {
+            node.wordIntent = intent;
+            node.wordPriority = priority;
+        }
+    }
+
+    /**
+     * Lowercase the text and turn everything but letters, digits and apostrophes into
+     * spaces, keeping every character at its index.
+     */
+    private static char[] normalize(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = Character.toLowerCase(chars[i]);
+            if (c == RIGHT_SINGLE_QUOTE) {
+                c = '\'';
+            } else if (!Character.isLetterOrDigit(c) && c != '\'') {
+                c = ' ';
+            }
+            chars[i] = c;
+        }
+        return chars;
+    }
+}
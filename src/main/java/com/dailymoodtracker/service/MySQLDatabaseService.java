@@ -34,9 +34,14 @@ public class MySQLDatabaseService implements DatabaseService {
         return instance;
     }
     
+    /**
+     * Open a connection of its own for the caller, who closes it. Repositories are
+     * called from several background threads at once, so they must not share, and
+     * close, the schema connection.
+     */
     @Override
     public Connection getConnection() throws SQLException {
-        return DatabaseConfig.getConnection();
+        return DatabaseConfig.openConnection();
     }
     
     @Override
@@ -100,9 +105,9 @@ public class MySQLDatabaseService implements DatabaseService {
         } finally {
             if (conn != null) {
                 try {
-                    conn.setAutoCommit(true);
+                    conn.close();
                 } catch (SQLException e) {
-                    logger.error("Error resetting auto-commit", e);
+                    logger.error("Error closing connection", e);
                 }
             }
         }
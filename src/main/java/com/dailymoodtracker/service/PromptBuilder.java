@@ -0,0 +1,221 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Assembles the messages of a chat completion request within a fixed token budget.
+ *
+ * The system prompt and the user's message are always included, shortened if they
+ * alone would exceed the budget. The remaining budget is filled in order of priority:
+ * the most recent turns verbatim (newest first, each capped in length), then a
+ * summary of earlier turns, including recent turns that did not fit, then well-rated
+ * replies to similar messages as examples, then notes from user feedback. Whatever does not fit is left out, so the prompt size stays the same
+ * however long the conversation gets.
+ */
+public class PromptBuilder {
+    // Turns quoted verbatim at most; older ones are only summarized
+    private static final int MAX_RECENT_TURNS = 5;
+    private static final int MAX_TURN_TOKENS = 150;
+    private static final int MAX_SUMMARY_TOKENS = 200;
+    private static final int MAX_EXAMPLE_TOKENS = 120;
+
+    private static final String SUMMARY_HEADER = "Earlier in this conversation the user said:\n";
+    private static final String EXAMPLES_HEADER = "Replies users found helpful in similar conversations:\n";
+    private static final String FEEDBACK_HEADER = "Recent user feedback about your responses:\n";
+    private static final String FEEDBACK_FOOTER = "\nPlease use this feedback to improve your responses.";
+
+    private final int budgetTokens;
+    private String systemPrompt = "";
+    private String userMessage = "";
+    private List<ChatMessage> recentMessages = Collections.emptyList();
+    private String earlierSummary;
+    private List<ExchangeIndex.Hit> examples = Collections.emptyList();
+    private List<String> feedbackNotes = Collections.emptyList();
+    private int estimatedTokens;
+
+    /**
+     * One message of the request.
+     */
+    public static class Message {
+        private final String role;
+        private final String content;
+
+        Message(String role, String content) {
+            this.role = role;
+            this.content = content;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * @param budgetTokens Maximum estimated tokens of all messages together
+     */
+    public PromptBuilder(int budgetTokens) {
+        this.budgetTokens = budgetTokens;
+    }
+
+    public PromptBuilder setSystemPrompt(String systemPrompt) {
+        this.systemPrompt = systemPrompt != null ? systemPrompt : "";
+        return this;
+    }
+
+    public PromptBuilder setUserMessage(String userMessage) {
+        this.userMessage = userMessage != null ? userMessage : "";
+        return this;
+    }
+
+    /**
+     * @param recentMessages The conversation so far, oldest first
+     */
+    public PromptBuilder setRecentMessages(List<ChatMessage> recentMessages) {
+        this.recentMessages = recentMessages != null ? recentMessages : Collections.emptyList();
+        return this;
+    }
+
+    /**
+     * @param earlierSummary Summary of turns older than the recent messages, or null
+     */
+    public PromptBuilder setEarlierSummary(String earlierSummary) {
+        this.earlierSummary = earlierSummary;
+        return this;
+    }
+
+    /**
+     * @param examples Past exchanges similar to the user's message, best first
+     */
+    public PromptBuilder setExamples(List<ExchangeIndex.Hit> examples) {
+        this.examples = examples != null ? examples : Collections.emptyList();
+        return this;
+    }
+
+    /**
+     * @param feedbackNotes Feedback notes, most important first
+     */
+    public PromptBuilder setFeedbackNotes(List<String> feedbackNotes) {
+        this.feedbackNotes = feedbackNotes != null ? feedbackNotes : Collections.emptyList();
+        return this;
+    }
+
+    /**
+     * Build the request messages in the order the model should read them.
+     */
+    public List<Message> build() {
+        // Required parts: the system prompt may take at most half of the budget
+        String system = TokenEstimator.truncate(systemPrompt, budgetTokens / 2 - TokenEstimator.MESSAGE_OVERHEAD_TOKENS);
+        int remaining = budgetTokens - TokenEstimator.estimateMessage(system);
+        String user = TokenEstimator.truncate(userMessage, Math.max(0, remaining - TokenEstimator.MESSAGE_OVERHEAD_TOKENS));
+        remaining -= TokenEstimator.estimateMessage(user);
+
+        // Recent turns, newest first, until the budget runs out
+        List<Message> turns = new ArrayList<>();
+        int firstQuoted = recentMessages.size();
+        int oldestRecent = Math.max(0, recentMessages.size() - MAX_RECENT_TURNS);
+        for (int i = recentMessages.size() - 1; i >= oldestRecent; i--) {
+            ChatMessage message = recentMessages.get(i);
+            String content = TokenEstimator.truncate(message.getContent(), MAX_TURN_TOKENS);
+            int cost = TokenEstimator.estimateMessage(content);
+            if (content == null || content.isEmpty() || cost > remaining) {
+                break;
+            }
+            turns.add(new Message(message.getType() == ChatMessage.MessageType.USER ? "user" : "assistant", content));
+            remaining -= cost;
+            firstQuoted = i;
+        }
+        Collections.reverse(turns);
+
+        // Earlier turns: the given summary plus whatever was not quoted
+        ConversationSummary summary = ConversationSummary.of(recentMessages.subList(0, firstQuoted), MAX_SUMMARY_TOKENS);
+        String summaryText = joinLines(earlierSummary, summary.getText());
+        Message summaryMessage = null;
+        if (!summaryText.isEmpty()) {
+            String content = TokenEstimator.truncate(SUMMARY_HEADER + summaryText,
+                Math.min(MAX_SUMMARY_TOKENS, remaining - TokenEstimator.MESSAGE_OVERHEAD_TOKENS));
+            if (content != null && !content.isEmpty() && content.length() > SUMMARY_HEADER.length()) {
+                summaryMessage = new Message("system", content);
+                remaining -= TokenEstimator.estimateMessage(content);
+            }
+        }
+
+        // Examples, as many as fit
+        Message examplesMessage = null;
+        StringBuilder exampleText = new StringBuilder(EXAMPLES_HEADER);
+        int examplesCost = TokenEstimator.estimateMessage(EXAMPLES_HEADER);
+        int exampleCount = 0;
+        for (ExchangeIndex.Hit example : examples) {
+            // Examples come from all users: quote only the reply, never another user's message
+            String text = TokenEstimator.truncate("You: " + example.getReply() + "\n", MAX_EXAMPLE_TOKENS);
+            int cost = TokenEstimator.estimate(text);
+            if (examplesCost + cost > remaining) {
+                break;
+            }
+            exampleText.append(text);
+            examplesCost += cost;
+            exampleCount++;
+        }
+        if (exampleCount > 0) {
+            examplesMessage = new Message("system", exampleText.toString());
+            remaining -= examplesCost;
+        }
+
+        // Feedback notes, as many as fit
+        Message feedbackMessage = null;
+        StringBuilder feedback = new StringBuilder(FEEDBACK_HEADER);
+        int feedbackCost = TokenEstimator.estimateMessage(FEEDBACK_HEADER + FEEDBACK_FOOTER);
+        int notes = 0;
+        for (String note : feedbackNotes) {
+            int cost = TokenEstimator.estimate(note);
+            if (feedbackCost + cost > remaining) {
+                break;
+            }
+            feedback.append(note);
+            feedbackCost += cost;
+            notes++;
+        }
+        if (notes > 0) {
+            feedbackMessage = new Message("system", feedback.append(FEEDBACK_FOOTER).toString());
+            remaining -= feedbackCost;
+        }
+
+        List<Message> messages = new ArrayList<>();
+        messages.add(new Message("system", system));
+        if (summaryMessage != null) {
+            messages.add(summaryMessage);
+        }
+        if (examplesMessage != null) {
+            messages.add(examplesMessage);
+        }
+        messages.addAll(turns);
+        if (feedbackMessage != null) {
+            messages.add(feedbackMessage);
+        }
+        messages.add(new Message("user", user));
+
+        estimatedTokens = budgetTokens - remaining;
+        return messages;
+    }
+
+    /**
+     * Estimated tokens of the messages returned by the last {@link #build()}.
+     */
+    public int getEstimatedTokens() {
+        return estimatedTokens;
+    }
+
+    private static String joinLines(String first, String second) {
+        if (first == null || first.isEmpty()) {
+            return second;
+        }
+        return second.isEmpty() ? first : first + "\n" + second;
+    }
+}
@@ -9,9 +9,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,7 +20,6 @@ import java.util.List;
 public class PythonSentimentService implements SentimentAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(PythonSentimentService.class);
     
-    private final ExecutorService executorService;
     private final ObjectMapper objectMapper;
     private final Random random = new Random();
     
@@ -52,7 +50,6 @@ public class PythonSentimentService implements SentimentAnalysisService {
      * Private constructor to enforce singleton pattern.
      */
     private PythonSentimentService() {
-        this.executorService = Executors.newCachedThreadPool();
         this.objectMapper = new ObjectMapper();
         
         // Initialize emotion keywords
@@ -338,9 +335,30 @@ public class PythonSentimentService implements SentimentAnalysisService {
         return dominantEmotion;
     }
     
+    /**
+     * Get the emotion keyword lexicon, used to seed the statistical model.
+     */
+    Map<String, List<String>> getEmotionKeywords() {
+        return Collections.unmodifiableMap(emotionKeywords);
+    }
+    
+    /**
+     * Get the therapeutic approach for a specific emotion.
+     */
+    String getTherapeuticApproach(String emotion) {
+        return therapyApproaches.getOrDefault(emotion, therapyApproaches.get("neutral"));
+    }
+    
+    /**
+     * Get the conversation needs for a specific emotion.
+     */
+    String getConversationNeeds(String emotion) {
+        return conversationNeeds.getOrDefault(emotion, conversationNeeds.get("neutral"));
+    }
+    
     @Override
     public CompletableFuture<SentimentResult> analyzeSentimentAsync(String text, int userId) {
-        return CompletableFuture.supplyAsync(() -> analyzeSentiment(text, userId), executorService);
+        return CompletableFuture.supplyAsync(() -> analyzeSentiment(text, userId), AppExecutors.cpu());
     }
     
     @Override
@@ -376,7 +394,9 @@ public class PythonSentimentService implements SentimentAnalysisService {
      */
     private SentimentResult createDefaultSentimentResult(String text, int userId) {
         // Default to neutral when analysis fails
-        return new SentimentResult(text, 0.1, 0.1, 0.8, "neutral", userId);
+        SentimentResult result = new SentimentResult(text, 0.1, 0.1, 0.8, "neutral", userId);
+        result.setAnalysisSource(SentimentResult.FALLBACK_SOURCE);
+        return result;
     }
     
     /**
@@ -398,10 +418,8 @@ public class PythonSentimentService implements SentimentAnalysisService {
      * Cleanly shut down resources
      */
     public void shutdown() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-            logger.info("Sentiment service executor shut down");
-        }
+        // Background work runs on the shared AppExecutors pools, which are shut down centrally
+        logger.info("Python sentiment service shut down");
     }
     
     /**
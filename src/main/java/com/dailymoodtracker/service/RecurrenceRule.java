@@ -0,0 +1,293 @@
+package com.dailymoodtracker.service;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * When a reminder recurs, compiled from its frequency.
+ *
+ * A frequency is either one of the names offered in the reminder dialog (daily,
+ * weekdays, weekends, weekly, monthly, and the older custom, which means daily) or
+ * a rule in a subset of the iCalendar RRULE syntax, for example
+ * {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;DTSTART=2026-01-05;UNTIL=2026-06-30;TZID=Europe/Berlin}.
+ * Supported parts are FREQ (DAILY, WEEKLY or MONTHLY), INTERVAL, BYDAY, BYMONTHDAY,
+ * DTSTART, UNTIL (inclusive) and TZID; without TZID times are read in the caller's zone.
+ *
+ * A compiled rule is a few integers, and {@link #nextOccurrence} works on epoch days
+ * with a bitmask of weekdays, so it jumps straight to the next matching day instead
+ * of testing one day or minute at a time.
+ */
+public final class RecurrenceRule {
+    private static final int ALL_DAYS = 0x7f; // bit 0 is Monday
+    private static final long NONE = Long.MAX_VALUE;
+    private static final int MAX_CACHED_RULES = 1024;
+
+    private static final Map<String, RecurrenceRule> compiled = new ConcurrentHashMap<>();
+
+    private enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int weekdays; // for DAILY and WEEKLY
+    private final int monthDay; // for MONTHLY; later than the month's last day means the last day
+    private final long startDay; // epoch day occurrences are counted from
+    private final long untilDay;
+    private final ZoneId zone; // null for the caller's zone
+
+    private RecurrenceRule(Frequency frequency, int interval, int weekdays, int monthDay,
+                           long startDay, long untilDay, ZoneId zone) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.weekdays = weekdays;
+        this.monthDay = monthDay;
+        this.startDay = startDay;
+        this.untilDay = untilDay;
+        this.zone = zone;
+    }
+
+    /**
+     * Get the compiled rule for a frequency. Rules are cached, as few distinct ones are in use.
+     *
+     * @throws IllegalArgumentException if the frequency is not a known name or a valid rule
+     */
+    public static RecurrenceRule compile(String frequency) {
+        if (frequency == null) {
+            throw new IllegalArgumentException("No frequency");
+        }
+        RecurrenceRule rule = compiled.get(frequency);
+        if (rule == null) {
+            rule = parse(frequency);
+            if (compiled.size() >= MAX_CACHED_RULES) {
+                compiled.clear();
+            }
+            compiled.put(frequency, rule);
+        }
+        return rule;
+    }
+
+    /**
+     * The first occurrence at the given time of day strictly after an instant. A time
+     * skipped by a daylight saving change resolves to the next valid one, and a time
+     * repeated by one occurs once.
+     *
+     * @param time The time of day
+     * @param after The instant, in the zone used when the rule has none
+     * @return the instant, or null if the rule has no later occurrence
+     */
+    public Instant nextOccurrence(LocalTime time, ZonedDateTime after) {
+        ZoneId ruleZone = zone != null ? zone : after.getZone();
+        Instant afterInstant = after.toInstant();
+        LocalDateTime local = LocalDateTime.ofInstant(afterInstant, ruleZone);
+
+        long day = local.toLocalDate().toEpochDay();
+        if (!time.isAfter(local.toLocalTime())) {
+            day++;
+        }
+        // Loops again only when a daylight saving change moved the candidate to or before the instant
+        for (int attempt = 0; attempt < 3; attempt++) {
+            day = firstDayOnOrAfter(day);
+            if (day == NONE) {
+                return null;
+            }
+            Instant candidate = LocalDate.ofEpochDay(day).atTime(time).atZone(ruleZone).toInstant();
+            if (candidate.isAfter(afterInstant)) {
+                return candidate;
+            }
+            day++;
+        }
+        return null;
+    }
+
+    /**
+     * The first epoch day on or after the given one on which the rule occurs.
+     *
+     * @return the day, or NONE if there is none
+     */
+    private long firstDayOnOrAfter(long day) {
+        day = Math.max(day, startDay);
+        long result;
+        switch (frequency) {
+            case DAILY:
+                result = nextDaily(day);
+                break;
+            case WEEKLY:
+                result = nextWeekly(day);
+                break;
+            default:
+                result = nextMonthly(day);
+                break;
+        }
+        return result <= untilDay ? result : NONE;
+    }
+
+    private long nextDaily(long day) {
+        long aligned = startDay + ceilDiv(day - startDay, interval) * interval;
+        if (weekdays == ALL_DAYS) {
+            return aligned;
+        }
+        // Seven steps of the interval reach every weekday it can reach
+        for (int step = 0; step < 7; step++) {
+            long candidate = aligned + (long) step * interval;
+            if ((weekdays & (1 << weekday(candidate))) != 0) {
+                return candidate;
+            }
+        }
+        return NONE;
+    }
+
+    private long nextWeekly(long day) {
+        long firstMonday = startDay - weekday(startDay);
+        long week = Math.floorDiv(day - firstMonday, 7);
+        if (week % interval == 0) {
+            int laterDays = weekdays >>> weekday(day);
+            if (laterDays != 0) {
+                return day + Integer.numberOfTrailingZeros(laterDays);
+            }
+        }
+        long nextWeek = week - week % interval + interval;
+        return firstMonday + nextWeek * 7 + Integer.numberOfTrailingZeros(weekdays);
+    }
+
+    private long nextMonthly(long day) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        LocalDate start = LocalDate.ofEpochDay(startDay);
+        long startMonth = start.getYear() * 12L + start.getMonthValue() - 1;
+        long month = date.getYear() * 12L + date.getMonthValue() - 1;
+        month = startMonth + ceilDiv(month - startMonth, interval) * interval;
+
+        // The occurrence in the first aligned month may already be past
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDate first = LocalDate.of((int) Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1, 1);
+            long candidate = first.withDayOfMonth(Math.min(monthDay, first.lengthOfMonth())).toEpochDay();
+            if (candidate >= day) {
+                return candidate;
+            }
+            month += interval;
+        }
+        return NONE;
+    }
+
+    private static RecurrenceRule parse(String frequency) {
+        switch (frequency.trim().toLowerCase()) {
+            case "daily":
+            case "custom":
+                return new RecurrenceRule(Frequency.DAILY, 1, ALL_DAYS, 0, 0, NONE, null);
+            case "weekdays":
+                return new RecurrenceRule(Frequency.DAILY, 1, 0x1f, 0, 0, NONE, null);
+            case "weekends":
+                return new RecurrenceRule(Frequency.DAILY, 1, 0x60, 0, 0, NONE, null);
+            case "weekly":
+                // Weekly reminders are on Mondays
+                return new RecurrenceRule(Frequency.WEEKLY, 1, 1, 0, 0, NONE, null);
+            case "monthly":
+                return new RecurrenceRule(Frequency.MONTHLY, 1, ALL_DAYS, 1, 0, NONE, null);
+            default:
+                return parseRule(frequency);
+        }
+    }
+
+    private static RecurrenceRule parseRule(String rule) {
+        Frequency frequency = null;
+        int interval = 1;
+        int weekdays = 0;
+        int monthDay = 0;
+        LocalDate start = null;
+        long untilDay = NONE;
+        ZoneId zone = null;
+
+        try {
+            for (String part : rule.trim().split(";")) {
+                int separator = part.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Not NAME=VALUE: " + part);
+                }
+                String name = part.substring(0, separator).trim().toUpperCase();
+                String value = part.substring(separator + 1).trim();
+
+                switch (name) {
+                    case "FREQ":
+                        frequency = Frequency.valueOf(value.toUpperCase());
+                        break;
+                    case "INTERVAL":
+                        interval = Integer.parseInt(value);
+                        break;
+                    case "BYDAY":
+                        for (String weekday : value.split(",")) {
+                            weekdays |= 1 << parseWeekday(weekday.trim()).ordinal();
+                        }
+                        break;
+                    case "BYMONTHDAY":
+                        monthDay = Integer.parseInt(value);
+                        break;
+                    case "DTSTART":
+                        start = LocalDate.parse(value);
+                        break;
+                    case "UNTIL":
+                        untilDay = LocalDate.parse(value).toEpochDay();
+                        break;
+                    case "TZID":
+                        zone = ZoneId.of(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported rule part: " + name);
+                }
+            }
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid recurrence rule: " + rule, e);
+        }
+
+        if (frequency == null) {
+            throw new IllegalArgumentException("No FREQ in recurrence rule: " + rule);
+        }
+        if (interval < 1 || monthDay < 0 || monthDay > 31) {
+            throw new IllegalArgumentException("Invalid recurrence rule: " + rule);
+        }
+
+        long startDay = start != null ? start.toEpochDay() : 0;
+        if (weekdays == 0) {
+            // Like RRULE, a weekly rule without days repeats on its start day (Monday if none)
+            if (frequency != Frequency.WEEKLY) {
+                weekdays = ALL_DAYS;
+            } else {
+                weekdays = start != null ? 1 << weekday(startDay) : 1;
+            }
+        }
+        if (monthDay == 0) {
+            monthDay = start != null ? start.getDayOfMonth() : 1;
+        }
+        return new RecurrenceRule(frequency, interval, weekdays, monthDay, startDay, untilDay, zone);
+    }
+
+    private static DayOfWeek parseWeekday(String weekday) {
+        switch (weekday.toUpperCase()) {
+            case "MO": return DayOfWeek.MONDAY;
+            case "TU": return DayOfWeek.TUESDAY;
+            case "WE": return DayOfWeek.WEDNESDAY;
+            case "TH": return DayOfWeek.THURSDAY;
+            case "FR": return DayOfWeek.FRIDAY;
+            case "SA": return DayOfWeek.SATURDAY;
+            case "SU": return DayOfWeek.SUNDAY;
+            default:
+                throw new IllegalArgumentException("Unknown weekday: " + weekday);
+        }
+    }
+
+    /**
+     * Day of the week of an epoch day, Monday being 0 (1970-01-01 was a Thursday).
+     */
+    private static int weekday(long epochDay) {
+        return Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
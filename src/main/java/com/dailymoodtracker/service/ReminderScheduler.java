@@ -0,0 +1,228 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.Reminder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Fires reminders at their next due instant.
+ *
+ * Each scheduled reminder has one entry in a priority queue ordered by fire instant,
+ * and a single task on the application scheduler is set for the earliest one, so
+ * nothing runs between reminders however many there are. Scheduling, rescheduling
+ * and cancelling are O(log n): a replaced entry is only marked cancelled and skipped
+ * when it reaches the head, and the queue is compacted when such entries pile up.
+ *
+ * When the task runs it fires every entry that is due by then, so a late wakeup
+ * delays a reminder but never skips it, and schedules the next occurrence strictly
+ * after the current time, so nothing fires twice. Occurrences missed during a long
+ * delay (the computer was asleep, say) fire once, not once each.
+ */
+public class ReminderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    // Wake up at least this often, in case the wall clock was changed while waiting
+    private static final long MAX_SLEEP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Consumer<Reminder> onFire;
+    private final Clock clock;
+
+    // Guarded by this
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private ScheduledFuture<?> wakeup;
+    private long wakeupAtMillis = Long.MAX_VALUE;
+    private boolean shutdown;
+
+    private static class Entry implements Comparable<Entry> {
+        private final Reminder reminder;
+        private final long fireAtMillis;
+        private boolean cancelled;
+
+        Entry(Reminder reminder, long fireAtMillis) {
+            this.reminder = reminder;
+            this.fireAtMillis = fireAtMillis;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(fireAtMillis, other.fireAtMillis);
+        }
+    }
+
+    /**
+     * @param onFire Called with each reminder when it is due, on a scheduler thread
+     * @param clock The clock and time zone reminder times are read in
+     */
+    public ReminderScheduler(Consumer<Reminder> onFire, Clock clock) {
+        this.onFire = onFire;
+        this.clock = clock;
+    }
+
+    /**
+     * Schedule the next occurrence of a reminder, replacing any earlier schedule for it.
+     * A disabled reminder, or one that never occurs, is only unscheduled.
+     */
+    public synchronized void schedule(Reminder reminder) {
+        cancelEntry(reminder.getReminderId());
+        Instant next = reminder.isEnabled() ? nextFireTime(reminder, ZonedDateTime.now(clock)) : null;
+        if (next != null) {
+            addEntry(new Entry(reminder, next.toEpochMilli()));
+        }
+        rescheduleWakeup();
+    }
+
+    /**
+     * Schedule a reminder to fire at a known instant, such as one stored earlier,
+     * replacing any earlier schedule for it. An instant already past fires at once.
+     */
+    public synchronized void schedule(Reminder reminder, Instant fireAt) {
+        cancelEntry(reminder.getReminderId());
+        addEntry(new Entry(reminder, fireAt.toEpochMilli()));
+        rescheduleWakeup();
+    }
+
+    /**
+     * Stop firing a reminder.
+     */
+    public synchronized void cancel(int reminderId) {
+        cancelEntry(reminderId);
+    }
+
+    /**
+     * Get when a reminder fires next.
+     *
+     * @return the instant, or null if the reminder is not scheduled
+     */
+    public synchronized Instant getNextFireTime(int reminderId) {
+        Entry entry = entries.get(reminderId);
+        return entry != null ? Instant.ofEpochMilli(entry.fireAtMillis) : null;
+    }
+
+    /**
+     * Number of scheduled reminders.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stop firing reminders.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (wakeup != null) {
+            wakeup.cancel(false);
+        }
+        queue.clear();
+        entries.clear();
+    }
+
+    /**
+     * The first occurrence of a reminder strictly after the given time.
+     *
+     * @return the instant, or null if the reminder does not occur again
+     */
+    static Instant nextFireTime(Reminder reminder, ZonedDateTime after) {
+        if (reminder.getTime() == null || reminder.getFrequency() == null) {
+            return null;
+        }
+
+        try {
+            return RecurrenceRule.compile(reminder.getFrequency()).nextOccurrence(reminder.getTime(), after);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Reminder {} has an invalid frequency: {}", reminder.getReminderId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void fireDue() {
+        List<Reminder> due = new ArrayList<>();
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            // A wakeup set while this one was starting is replaced below
+            if (wakeup != null) {
+                wakeup.cancel(false);
+                wakeup = null;
+            }
+            wakeupAtMillis = Long.MAX_VALUE;
+
+            long now = clock.millis();
+            while (!queue.isEmpty() && queue.peek().fireAtMillis <= now) {
+                Entry entry = queue.poll();
+                if (entry.cancelled) {
+                    continue;
+                }
+                entries.remove(entry.reminder.getReminderId());
+                due.add(entry.reminder);
+
+                // Occurrences missed while the wakeup was late are covered by this one firing
+                Instant next = nextFireTime(entry.reminder, Instant.ofEpochMilli(now).atZone(clock.getZone()));
+                if (next != null) {
+                    addEntry(new Entry(entry.reminder, next.toEpochMilli()));
+                }
+            }
+            rescheduleWakeup();
+        }
+
+        for (Reminder reminder : due) {
+            try {
+                onFire.accept(reminder);
+            } catch (RuntimeException e) {
+                logger.error("Error firing reminder {}", reminder.getReminderId(), e);
+            }
+        }
+    }
+
+    private void addEntry(Entry entry) {
+        entries.put(entry.reminder.getReminderId(), entry);
+        queue.add(entry);
+    }
+
+    private void cancelEntry(int reminderId) {
+        Entry entry = entries.remove(reminderId);
+        if (entry == null) {
+            return;
+        }
+        entry.cancelled = true;
+
+        // Drop cancelled entries once they outnumber the live ones
+        if (queue.size() > 2 * entries.size() + 16) {
+            queue.removeIf(e -> e.cancelled);
+        }
+    }
+
+    private void rescheduleWakeup() {
+        while (!queue.isEmpty() && queue.peek().cancelled) {
+            queue.poll();
+        }
+        if (shutdown || queue.isEmpty()) {
+            return;
+        }
+
+        long now = clock.millis();
+        long wakeAt = Math.min(queue.peek().fireAtMillis, now + MAX_SLEEP_MILLIS);
+        if (wakeup != null && wakeAt >= wakeupAtMillis) {
+            return; // already waking up early enough
+        }
+        if (wakeup != null) {
+            wakeup.cancel(false);
+        }
+        wakeupAtMillis = wakeAt;
+        wakeup = AppExecutors.scheduler().schedule(this::fireDue, Math.max(0, wakeAt - now), TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,134 +1,176 @@
 package com.dailymoodtracker.service;
 
 import com.dailymoodtracker.model.Reminder;
-import javafx.application.Platform;
-import javafx.scene.control.Alert;
-
-import java.time.LocalTime;
-import java.time.LocalDateTime;
-import java.time.DayOfWeek;
+import com.dailymoodtracker.repository.ReminderRepository;
+import com.dailymoodtracker.repository.ReminderRepository.ScheduledReminder;
+import com.dailymoodtracker.repository.RepositoryFactory;
+import com.dailymoodtracker.ui.NotificationDispatcher;
+import com.dailymoodtracker.ui.NotificationDispatcher.Notification;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
+/**
+ * Stores a user's reminders in the database and shows each one when it is due.
+ *
+ * Every reminder row holds the instant it fires next. Only reminders due within the
+ * next hour are loaded into the scheduler, and the window is refreshed every half
+ * hour, so memory does not grow with the number of reminders. Reminders that came
+ * due while the application was closed are shown together once at startup.
+ */
 public class ReminderService {
     private static final Logger LOGGER = Logger.getLogger(ReminderService.class.getName());
-    private final List<Reminder> reminders = new CopyOnWriteArrayList<>();
-    private final Timer timer;
 
-    public ReminderService() {
-        this.timer = new Timer(true); // Daemon timer
-        startReminderChecker();
+    private static final Duration LOAD_WINDOW = Duration.ofHours(1);
+    private static final long REFRESH_INTERVAL_MINUTES = 30;
+    // Missed reminders listed by message; the rest are only counted
+    private static final int MAX_LISTED_MISSED = 3;
+
+    private final int userId;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final ReminderRepository repository;
+    // Wakes up only when a reminder is due, instead of checking every minute
+    private final ReminderScheduler scheduler;
+    private final ScheduledFuture<?> refreshTask;
+
+    /**
+     * @param userId The user whose reminders are shown
+     */
+    public ReminderService(int userId) {
+        this.userId = userId;
+        this.repository = RepositoryFactory.getReminderRepository();
+        this.scheduler = new ReminderScheduler(this::triggerReminder, clock);
+
+        CompletableFuture.runAsync(this::loadDueReminders, AppExecutors.io())
+            .exceptionally(e -> {
+                LOGGER.log(Level.SEVERE, "Error loading reminders", e);
+                return null;
+            });
+        refreshTask = AppExecutors.scheduler().scheduleWithFixedDelay(
+            () -> AppExecutors.io().execute(this::refreshWindow),
+            REFRESH_INTERVAL_MINUTES, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
     }
 
-    private void startReminderChecker() {
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                checkReminders();
-            }
-        }, 0, 60000); // Check every minute
-    }
-
-    private void checkReminders() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalTime currentTime = now.toLocalTime();
-        
-        for (Reminder reminder : reminders) {
-            if (reminder.isEnabled() && shouldTrigger(reminder, now)) {
-                triggerReminder(reminder);
-                updateReminderAfterTrigger(reminder);
+    /**
+     * Show the reminders missed while the application was closed, then schedule
+     * those due within the window.
+     */
+    private void loadDueReminders() {
+        Instant now = clock.instant();
+        List<ScheduledReminder> missed = new ArrayList<>();
+        for (ScheduledReminder due : repository.findDueByUserId(userId, now.plus(LOAD_WINDOW))) {
+            if (due.getNextFireAt().isAfter(now)) {
+                scheduler.schedule(due.getReminder(), due.getNextFireAt());
+                continue;
             }
+            Reminder reminder = due.getReminder();
+            reminder.setRead(true);
+            scheduler.schedule(reminder);
+            missed.add(new ScheduledReminder(reminder, scheduler.getNextFireTime(reminder.getReminderId())));
         }
-    }
 
-    private boolean shouldTrigger(Reminder reminder, LocalDateTime now) {
-        if (reminder.isRead()) return false;
-
-        LocalTime reminderTime = reminder.getTime();
-        LocalTime currentTime = now.toLocalTime();
-        
-        if (reminderTime.getHour() != currentTime.getHour() || 
-            reminderTime.getMinute() != currentTime.getMinute()) {
-            return false;
+        if (!missed.isEmpty()) {
+            repository.updateSchedules(missed);
+            showMissedReminders(missed);
+            LOGGER.log(Level.INFO, "Delivered {0} missed reminders", missed.size());
         }
+    }
 
-        switch (reminder.getFrequency().toLowerCase()) {
-            case "daily":
-                return true;
-            case "weekly":
-                // Check if today is the correct day of the week
-                return now.getDayOfWeek() == DayOfWeek.MONDAY; // You can adjust this to the desired day
-            case "custom":
-                // Custom frequency logic can be implemented here
-                return true;
-            default:
-                return false;
+    private void refreshWindow() {
+        try {
+            Instant now = clock.instant();
+            for (ScheduledReminder due : repository.findDueByUserId(userId, now.plus(LOAD_WINDOW))) {
+                if (due.getNextFireAt().isAfter(now)) {
+                    scheduler.schedule(due.getReminder(), due.getNextFireAt());
+                } else if (scheduler.getNextFireTime(due.getReminder().getReminderId()) == null) {
+                    // Its new fire time was not saved; schedule the next occurrence without firing
+                    scheduler.schedule(due.getReminder());
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error refreshing reminders", e);
         }
     }
 
     private void triggerReminder(Reminder reminder) {
-        Platform.runLater(() -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Reminder");
-            alert.setHeaderText(null);
-            alert.setContentText(reminder.getMessage());
-            alert.show();
+        reminder.setRead(true);
+        NotificationDispatcher.getInstance().post(new Notification(
+            NotificationDispatcher.Kind.REMINDER, "⏰", "Reminder", reminder.getMessage()));
+
+        // The scheduler has already set the next occurrence
+        ScheduledReminder next = new ScheduledReminder(reminder, scheduler.getNextFireTime(reminder.getReminderId()));
+        AppExecutors.io().execute(() -> {
+            try {
+                repository.updateSchedules(Collections.singletonList(next));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error saving next fire time of reminder " + reminder.getReminderId(), e);
+            }
         });
     }
 
-    private void updateReminderAfterTrigger(Reminder reminder) {
-        reminder.setRead(true);
-        // For daily reminders, reset the read flag after the day changes
-        if ("daily".equalsIgnoreCase(reminder.getFrequency())) {
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    reminder.setRead(false);
-                }
-            }, 24 * 60 * 60 * 1000); // Reset after 24 hours
+    private void showMissedReminders(List<ScheduledReminder> missed) {
+        // One row for all of them, listing the first few
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < Math.min(MAX_LISTED_MISSED, missed.size()); i++) {
+            content.append("- ").append(missed.get(i).getReminder().getMessage()).append('\n');
         }
+        if (missed.size() > MAX_LISTED_MISSED) {
+            content.append("and ").append(missed.size() - MAX_LISTED_MISSED).append(" more");
+        }
+        String title = missed.size() == 1
+            ? "You missed a reminder while the app was closed"
+            : "You missed " + missed.size() + " reminders while the app was closed";
+        NotificationDispatcher.getInstance().post(new Notification(NotificationDispatcher.Kind.REMINDER, "⏰",
+            title, content.toString().trim(), missed.size()));
     }
 
     public void createReminder(Reminder reminder) {
-        reminders.add(reminder);
+        save(reminder);
         LOGGER.log(Level.INFO, "Created reminder: {0}", reminder.getMessage());
     }
 
     public void deleteReminder(Reminder reminder) {
-        reminders.remove(reminder);
+        repository.delete(reminder.getUserId(), reminder.getReminderId());
+        scheduler.cancel(reminder.getReminderId());
         LOGGER.log(Level.INFO, "Deleted reminder: {0}", reminder.getMessage());
     }
 
     public List<Reminder> getUserReminders(int userId) {
-        return reminders.stream()
-                .filter(r -> r.getUserId() == userId)
-                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        return repository.findByUserId(userId);
     }
 
     public void updateReminder(Reminder reminder) {
-        int index = -1;
-        for (int i = 0; i < reminders.size(); i++) {
-            if (reminders.get(i).getReminderId() == reminder.getReminderId()) {
-                index = i;
-                break;
-            }
-        }
-        if (index != -1) {
-            reminders.set(index, reminder);
-            LOGGER.log(Level.INFO, "Updated reminder: {0}", reminder.getMessage());
+        // Enabling, disabling or a new time takes effect immediately
+        save(reminder);
+        LOGGER.log(Level.INFO, "Updated reminder: {0}", reminder.getMessage());
+    }
+
+    private void save(Reminder reminder) {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        Instant next = reminder.isEnabled() ? ReminderScheduler.nextFireTime(reminder, now) : null;
+        repository.save(reminder, next);
+
+        if (next != null && reminder.getUserId() == userId && !next.isAfter(now.toInstant().plus(LOAD_WINDOW))) {
+            scheduler.schedule(reminder, next);
+        } else {
+            scheduler.cancel(reminder.getReminderId());
         }
     }
 
     // Method to clean up resources
     public void shutdown() {
-        if (timer != null) {
-            timer.cancel();
-            LOGGER.log(Level.INFO, "ReminderService shutdown completed");
-        }
+        refreshTask.cancel(false);
+        scheduler.shutdown();
+        LOGGER.log(Level.INFO, "ReminderService shutdown completed");
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,274 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.SentimentResult;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of generated chatbot responses, so a message that was already answered does
+ * not cost another API call.
+ *
+ * Entries are kept per user and looked up by the normalized message text together
+ * with a sentiment bucket (dominant sentiment and specific emotion), so the same words
+ * said in a different mood are answered again. When no entry matches exactly and a
+ * similarity threshold below 1 is set, the user's entries in the same bucket are
+ * compared by cosine similarity of their hashed unigram and bigram vectors and the
+ * most similar one above the threshold is used. Entries expire after the TTL; each
+ * user keeps at most {@code maxEntriesPerUser}, dropping the least recently used.
+ */
+public class ResponseCache {
+    // Only used to tell features apart, so a small space is enough for short messages
+    private static final int FEATURE_BUCKETS = 1 << 16;
+    private static final int MAX_FEATURES = 256;
+
+    private final HashedFeatureExtractor featureExtractor = new HashedFeatureExtractor(FEATURE_BUCKETS);
+    private final long ttlNanos;
+    private final double similarityThreshold;
+    private final int maxEntriesPerUser;
+
+    private final ConcurrentMap<Integer, UserEntries> users = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong similarHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * A cached response with the feature vector of the message it answered.
+     */
+    private static class Entry {
+        private final String bucket;
+        private final String response;
+        private final int[] features; // sorted, distinct
+        private final int[] counts;
+        private final double norm;
+        private final long createdNanos = System.nanoTime();
+
+        Entry(String bucket, String response, int[] features, int[] counts) {
+            this.bucket = bucket;
+            this.response = response;
+            this.features = features;
+            this.counts = counts;
+            long sumOfSquares = 0;
+            for (int count : counts) {
+                sumOfSquares += (long) count * count;
+            }
+            this.norm = Math.sqrt(sumOfSquares);
+        }
+    }
+
+    /**
+     * One user's entries keyed by bucket and normalized text, in access order.
+     */
+    private static class UserEntries extends LinkedHashMap<String, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        UserEntries(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    /**
+     * @param ttlMillis How long a response may be reused
+     * @param similarityThreshold Minimum cosine similarity (0-1) for reusing the
+     *                            response to a different message; 1 or more disables
+     *                            similarity matching
+     * @param maxEntriesPerUser Maximum number of responses kept per user
+     */
+    public ResponseCache(long ttlMillis, double similarityThreshold, int maxEntriesPerUser) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+    }
+
+    /**
+     * Find a cached response for a message.
+     *
+     * @param userId The user sending the message
+     * @param message The message
+     * @param sentiment The message's sentiment, or null
+     * @return the cached response, or null if there is none
+     */
+    public String get(int userId, String message, SentimentResult sentiment) {
+        UserEntries entries = users.get(userId);
+        if (entries == null || message == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        String bucket = sentimentBucket(sentiment);
+        String key = bucket + "|" + normalize(message);
+        long now = System.nanoTime();
+
+        synchronized (entries) {
+            Entry exact = entries.get(key);
+            if (exact != null) {
+                if (now - exact.createdNanos <= ttlNanos) {
+                    exactHits.incrementAndGet();
+                    return exact.response;
+                }
+                entries.remove(key);
+            }
+
+            if (similarityThreshold < 1.0) {
+                Entry query = createEntry(bucket, null, message);
+                Entry best = null;
+                double bestSimilarity = similarityThreshold;
+                for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                    Entry candidate = it.next();
+                    if (now - candidate.createdNanos > ttlNanos) {
+                        it.remove();
+                        continue;
+                    }
+                    if (!candidate.bucket.equals(bucket)) {
+                        continue;
+                    }
+                    double similarity = cosineSimilarity(query, candidate);
+                    if (similarity >= bestSimilarity) {
+                        best = candidate;
+                        bestSimilarity = similarity;
+                    }
+                }
+                if (best != null) {
+                    similarHits.incrementAndGet();
+                    return best.response;
+                }
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Cache the response generated for a message.
+     *
+     * @param userId The user who sent the message
+     * @param message The message
+     * @param sentiment The message's sentiment, or null
+     * @param response The generated response
+     */
+    public void put(int userId, String message, SentimentResult sentiment, String response) {
+        if (message == null || response == null || response.isEmpty()) {
+            return;
+        }
+
+        String bucket = sentimentBucket(sentiment);
+        Entry entry = createEntry(bucket, response, message);
+        UserEntries entries = users.computeIfAbsent(userId, id -> new UserEntries(maxEntriesPerUser));
+        synchronized (entries) {
+            entries.put(bucket + "|" + normalize(message), entry);
+        }
+    }
+
+    /**
+     * Drop all cached responses of a user.
+     */
+    public void invalidate(int userId) {
+        users.remove(userId);
+    }
+
+    /**
+     * Number of API calls the cache has saved.
+     */
+    public long getHits() {
+        return exactHits.get() + similarHits.get();
+    }
+
+    /**
+     * Get a one-line summary of cache metrics.
+     */
+    public String getMetrics() {
+        long hits = getHits();
+        long lookups = hits + misses.get();
+        return String.format("hits=%d (exact=%d, similar=%d), misses=%d, hit rate=%.0f%%",
+            hits, exactHits.get(), similarHits.get(), misses.get(),
+            lookups > 0 ? 100.0 * hits / lookups : 0.0);
+    }
+
+    private Entry createEntry(String bucket, String response, String message) {
+        int[] raw = new int[MAX_FEATURES];
+        int count = featureExtractor.extract(message, raw);
+        Arrays.sort(raw, 0, count);
+
+        // Collapse the sorted indexes into distinct features with their counts
+        int[] features = new int[count];
+        int[] counts = new int[count];
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct > 0 && features[distinct - 1] == raw[i]) {
+                counts[distinct - 1]++;
+            } else {
+                features[distinct] = raw[i];
+                counts[distinct] = 1;
+                distinct++;
+            }
+        }
+        return new Entry(bucket, response, Arrays.copyOf(features, distinct), Arrays.copyOf(counts, distinct));
+    }
+
+    private static double cosineSimilarity(Entry a, Entry b) {
+        if (a.norm == 0 || b.norm == 0) {
+            return 0.0;
+        }
+        long dot = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.features.length && j < b.features.length) {
+            if (a.features[i] == b.features[j]) {
+                dot += (long) a.counts[i++] * b.counts[j++];
+            } else if (a.features[i] < b.features[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return dot / (a.norm * b.norm);
+    }
+
+    /**
+     * Lowercase the text and reduce punctuation and whitespace runs to single spaces.
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c) || c == '\'') {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static String sentimentBucket(SentimentResult sentiment) {
+        if (sentiment == null) {
+            return "none";
+        }
+        String emotion = sentiment.getSpecificEmotion();
+        return sentiment.getDominantSentiment()
+            + "/" + (emotion != null ? emotion.toLowerCase(Locale.ROOT) : "");
+    }
+}
@@ -0,0 +1,22 @@
+package com.dailymoodtracker.service;
+
+/**
+ * Plain loop implementation of {@link ScoringKernel}, used when the Vector API is unavailable.
+ */
+public class ScalarScoringKernel implements ScoringKernel {
+
+    @Override
+    public void accumulate(int[] features, int count, float[] weights, int numClasses, float[] scores) {
+        for (int i = 0; i < count; i++) {
+            int row = features[i] * numClasses;
+            for (int c = 0; c < numClasses; c++) {
+                scores[c] += weights[row + c];
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
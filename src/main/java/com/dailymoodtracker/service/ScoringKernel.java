@@ -0,0 +1,26 @@
+package com.dailymoodtracker.service;
+
+/**
+ * Accumulates class scores for a set of active features.
+ *
+ * Weights are stored feature-major: the {@code numClasses} weights of feature
+ * {@code f} occupy {@code weights[f * numClasses .. f * numClasses + numClasses)}.
+ */
+public interface ScoringKernel {
+
+    /**
+     * Add the weight row of every feature to {@code scores}.
+     *
+     * @param features Feature indexes
+     * @param count Number of valid entries in {@code features}
+     * @param weights Feature-major weight matrix
+     * @param numClasses Number of classes (row width)
+     * @param scores Accumulator of length at least {@code numClasses}
+     */
+    void accumulate(int[] features, int count, float[] weights, int numClasses, float[] scores);
+
+    /**
+     * Get a short name for logs and benchmarks.
+     */
+    String getName();
+}
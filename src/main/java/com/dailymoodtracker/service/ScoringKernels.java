@@ -0,0 +1,59 @@
+package com.dailymoodtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the fastest available {@link ScoringKernel}.
+ *
+ * The Vector API is an incubator module, so {@link VectorScoringKernel} is only
+ * loaded when {@code jdk.incubator.vector} is in the boot layer; otherwise the
+ * scalar kernel is used.
+ */
+public final class ScoringKernels {
+    private static final Logger logger = LoggerFactory.getLogger(ScoringKernels.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL_CLASS = "com.dailymoodtracker.service.VectorScoringKernel";
+    private static final String DISABLE_PROPERTY = "moodtracker.scoring.scalar";
+
+    private static final ScoringKernel BEST = selectKernel();
+
+    private ScoringKernels() {
+    }
+
+    /**
+     * Get the best kernel for this JVM.
+     */
+    public static ScoringKernel best() {
+        return BEST;
+    }
+
+    /**
+     * Get the scalar kernel regardless of Vector API availability.
+     */
+    public static ScoringKernel scalar() {
+        return new ScalarScoringKernel();
+    }
+
+    private static ScoringKernel selectKernel() {
+        if (Boolean.getBoolean(DISABLE_PROPERTY)) {
+            logger.info("Vector scoring disabled by {}, using scalar kernel", DISABLE_PROPERTY);
+            return scalar();
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            logger.info("{} not available (start with --add-modules {}), using scalar scoring kernel",
+                    VECTOR_MODULE, VECTOR_MODULE);
+            return scalar();
+        }
+        try {
+            ScoringKernel kernel = (ScoringKernel) Class.forName(VECTOR_KERNEL_CLASS)
+                    .getDeclaredConstructor().newInstance();
+            logger.info("Using {} scoring kernel", kernel.getName());
+            return kernel;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Could not load vector scoring kernel, using scalar kernel: {}", e.getMessage());
+            return scalar();
+        }
+    }
+}
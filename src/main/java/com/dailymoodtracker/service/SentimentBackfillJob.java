@@ -0,0 +1,473 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.config.DatabaseConfig;
+import com.dailymoodtracker.model.SentimentResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Background job that scores rows that were stored without a sentiment: mood entry
+ * notes and user chat messages.
+ *
+ * Rows are read in id order one page at a time, analyzed in parallel on the shared
+ * CPU pool (using at most half of its threads, so interactive scoring is never
+ * starved), and written back with a batched UPDATE.
+ * The UPDATE and the checkpoint (the last processed id per source) are committed in
+ * the same transaction, so an interrupted run resumes where it stopped. A source's
+ * checkpoint is cleared once it is fully processed, so the next run picks up rows
+ * added since.
+ *
+ * The job uses its own database connection, commits small batches and is throttled
+ * to a maximum number of rows per second, so it can run while the application is in
+ * use. Analysis uses the in-process sentiment service, never the HTTP backend.
+ */
+public class SentimentBackfillJob {
+    private static final Logger logger = LoggerFactory.getLogger(SentimentBackfillJob.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_MAX_ROWS_PER_SECOND = 200;
+
+    /**
+     * Tables that can be backfilled, in processing order.
+     */
+    public enum Source {
+        MOOD_NOTES(
+            "SELECT id, user_id, notes FROM mood_entries " +
+            "WHERE id > ? AND sentiment IS NULL AND notes IS NOT NULL AND TRIM(notes) <> '' " +
+            "ORDER BY id LIMIT ?",
+            "SELECT COUNT(*) FROM mood_entries " +
+            "WHERE id > ? AND sentiment IS NULL AND notes IS NOT NULL AND TRIM(notes) <> ''",
+            "UPDATE mood_entries SET sentiment = ?, positive_score = ?, negative_score = ?, neutral_score = ? " +
+            "WHERE id = ? AND sentiment IS NULL"),
+        CHAT_MESSAGES(
+            "SELECT id, user_id, content FROM chat_messages " +
+            "WHERE id > ? AND sentiment IS NULL AND sender = 'USER' " +
+            "ORDER BY id LIMIT ?",
+            "SELECT COUNT(*) FROM chat_messages " +
+            "WHERE id > ? AND sentiment IS NULL AND sender = 'USER'",
+            "UPDATE chat_messages SET sentiment = ?, positive_score = ?, negative_score = ?, neutral_score = ? " +
+            "WHERE id = ? AND sentiment IS NULL");
+
+        private final String selectSql;
+        private final String countSql;
+        private final String updateSql;
+
+        Source(String selectSql, String countSql, String updateSql) {
+            this.selectSql = selectSql;
+            this.countSql = countSql;
+            this.updateSql = updateSql;
+        }
+    }
+
+    /**
+     * Lifecycle of a backfill run.
+     */
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    /**
+     * Immutable snapshot of the progress of a run.
+     */
+    public static class Progress {
+        private final State state;
+        private final Source source;
+        private final long processed;
+        private final long failed;
+        private final long total;
+        private final long elapsedMillis;
+
+        Progress(State state, Source source, long processed, long failed, long total, long elapsedMillis) {
+            this.state = state;
+            this.source = source;
+            this.processed = processed;
+            this.failed = failed;
+            this.total = total;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * The source currently being processed, or null when not running.
+         */
+        public Source getSource() {
+            return source;
+        }
+
+        public long getProcessed() {
+            return processed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Number of rows that were unscored when the run started.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis > 0 ? processed * 1000.0 / elapsedMillis : 0.0;
+        }
+
+        public double getFractionComplete() {
+            return total > 0 ? Math.min(1.0, (double) (processed + failed) / total) : 1.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d/%d rows scored, %d failed, %.1f rows/s",
+                    state, processed, total, failed, getRowsPerSecond());
+        }
+    }
+
+    private static SentimentBackfillJob instance;
+
+    private final int batchSize;
+    private final int workerCount;
+    private volatile int maxRowsPerSecond = DEFAULT_MAX_ROWS_PER_SECOND;
+
+    private volatile boolean cancelled = false;
+    private volatile Progress progress = new Progress(State.IDLE, null, 0, 0, 0, 0);
+    private CompletableFuture<Progress> currentRun;
+
+    /**
+     * Get the singleton instance of SentimentBackfillJob.
+     * @return SentimentBackfillJob instance
+     */
+    public static synchronized SentimentBackfillJob getInstance() {
+        if (instance == null) {
+            instance = new SentimentBackfillJob(DEFAULT_BATCH_SIZE,
+                    Math.max(1, AppExecutors.getCpuParallelism() / 2));
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     */
+    private SentimentBackfillJob(int batchSize, int workerCount) {
+        this.batchSize = batchSize;
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Start a backfill run in the background, or join the run already in progress.
+     *
+     * @param listener Called with a progress snapshot after every batch, on the
+     *                 backfill thread; may be null
+     * @return a future completed with the final progress when the run ends
+     */
+    public synchronized CompletableFuture<Progress> start(Consumer<Progress> listener) {
+        if (currentRun != null && !currentRun.isDone()) {
+            logger.info("Sentiment backfill already running");
+            return currentRun;
+        }
+
+        cancelled = false;
+        // The coordinator mostly waits on the database, so it runs on the I/O pool
+        currentRun = CompletableFuture.supplyAsync(() -> runBackfill(listener), AppExecutors.io());
+        return currentRun;
+    }
+
+    /**
+     * Ask the current run to stop after the batch in progress. Work committed so far
+     * is kept and the next run resumes from the checkpoint.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public synchronized boolean isRunning() {
+        return currentRun != null && !currentRun.isDone();
+    }
+
+    public Progress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Limit how fast rows are scored, to keep the database responsive for the UI.
+     *
+     * @param maxRowsPerSecond Maximum throughput; must be positive
+     */
+    public void setMaxRowsPerSecond(int maxRowsPerSecond) {
+        if (maxRowsPerSecond <= 0) {
+            throw new IllegalArgumentException("Max rows per second must be positive: " + maxRowsPerSecond);
+        }
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    private Progress runBackfill(Consumer<Progress> listener) {
+        long startNanos = System.nanoTime();
+        long processed = 0;
+        long failed = 0;
+        long total = 0;
+        Source source = null;
+        SentimentAnalysisService analyzer = SentimentServiceFactory.getLocalService();
+        ExecutorService workers = AppExecutors.cpu();
+
+        try (Connection conn = DatabaseConfig.openConnection()) {
+            for (Source s : Source.values()) {
+                total += countRemaining(conn, s, loadCheckpoint(conn, s).lastId);
+            }
+            logger.info("Sentiment backfill started: {} unscored rows, {} workers, max {} rows/s",
+                    total, workerCount, maxRowsPerSecond);
+
+            for (Source s : Source.values()) {
+                source = s;
+                Checkpoint checkpoint = loadCheckpoint(conn, s);
+
+                while (!cancelled) {
+                    long batchStartNanos = System.nanoTime();
+                    List<Row> rows = fetchBatch(conn, s, checkpoint.lastId);
+                    if (rows.isEmpty()) {
+                        clearCheckpoint(conn, s);
+                        break;
+                    }
+
+                    analyze(rows, analyzer, workers);
+                    int scored = writeBatch(conn, s, rows, checkpoint);
+                    processed += scored;
+                    failed += rows.size() - scored;
+
+                    report(listener, new Progress(State.RUNNING, s, processed, failed, total,
+                            elapsedMillis(startNanos)));
+                    throttle(batchStartNanos, rows.size());
+                }
+                if (cancelled) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Sentiment backfill failed: {}", e.getMessage(), e);
+            Progress result = new Progress(State.FAILED, source, processed, failed, total, elapsedMillis(startNanos));
+            report(listener, result);
+            return result;
+        }
+
+        State finalState = cancelled ? State.CANCELLED : State.COMPLETED;
+        Progress result = new Progress(finalState, null, processed, failed, total, elapsedMillis(startNanos));
+        logger.info("Sentiment backfill {}", result);
+        report(listener, result);
+        return result;
+    }
+
+    private List<Row> fetchBatch(Connection conn, Source source, int afterId) throws SQLException {
+        List<Row> rows = new ArrayList<>(batchSize);
+        try (PreparedStatement stmt = conn.prepareStatement(source.selectSql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, batchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Row(rs.getInt(1), rs.getInt(2), rs.getString(3)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Split the batch into one slice per worker and analyze the slices in parallel.
+     */
+    private void analyze(List<Row> rows, SentimentAnalysisService analyzer, ExecutorService workers) {
+        int sliceSize = (rows.size() + workerCount - 1) / workerCount;
+        List<CompletableFuture<Void>> slices = new ArrayList<>(workerCount);
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            List<Row> slice = rows.subList(from, Math.min(rows.size(), from + sliceSize));
+            slices.add(CompletableFuture.runAsync(() -> {
+                for (Row row : slice) {
+                    try {
+                        row.result = analyzer.analyzeSentiment(row.text, row.userId);
+                    } catch (RuntimeException e) {
+                        logger.warn("Could not analyze row {}: {}", row.id, e.getMessage());
+                    }
+                }
+            }, workers));
+        }
+        try {
+            CompletableFuture.allOf(slices.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            logger.warn("Sentiment backfill worker failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write the scores and the checkpoint in one transaction.
+     *
+     * @return the number of rows that were scored
+     */
+    private int writeBatch(Connection conn, Source source, List<Row> rows, Checkpoint checkpoint)
+            throws SQLException {
+        int scored = 0;
+        conn.setAutoCommit(false);
+        try (PreparedStatement update = conn.prepareStatement(source.updateSql)) {
+            for (Row row : rows) {
+                if (row.result == null) {
+                    continue;
+                }
+                update.setString(1, row.result.getOverallSentiment());
+                update.setDouble(2, row.result.getPositiveScore());
+                update.setDouble(3, row.result.getNegativeScore());
+                update.setDouble(4, row.result.getNeutralScore());
+                update.setInt(5, row.id);
+                update.addBatch();
+                scored++;
+            }
+            if (scored > 0) {
+                update.executeBatch();
+            }
+            Checkpoint next = new Checkpoint(rows.get(rows.size() - 1).id, checkpoint.processed + scored);
+            saveCheckpoint(conn, source, next);
+            conn.commit();
+            checkpoint.lastId = next.lastId;
+            checkpoint.processed = next.processed;
+            return scored;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private Checkpoint loadCheckpoint(Connection conn, Source source) throws SQLException {
+        String sql = "SELECT last_id, processed FROM sentiment_backfill_checkpoints WHERE source = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, source.name());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    logger.info("Resuming {} backfill after id {}", source, rs.getInt(1));
+                    return new Checkpoint(rs.getInt(1), rs.getLong(2));
+                }
+                return new Checkpoint(0, 0);
+            }
+        }
+    }
+
+    private void saveCheckpoint(Connection conn, Source source, Checkpoint checkpoint) throws SQLException {
+        String sql = "MERGE INTO sentiment_backfill_checkpoints (source, last_id, processed, updated_at) " +
+                     "KEY (source) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, source.name());
+            stmt.setInt(2, checkpoint.lastId);
+            stmt.setLong(3, checkpoint.processed);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void clearCheckpoint(Connection conn, Source source) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "DELETE FROM sentiment_backfill_checkpoints WHERE source = ?")) {
+            stmt.setString(1, source.name());
+            stmt.executeUpdate();
+        }
+    }
+
+    private long countRemaining(Connection conn, Source source, int afterId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(source.countSql)) {
+            stmt.setInt(1, afterId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Sleep long enough to keep the batch under the configured rows per second.
+     */
+    private void throttle(long batchStartNanos, int rowCount) {
+        long minimumNanos = rowCount * 1_000_000_000L / maxRowsPerSecond;
+        long remainingNanos = minimumNanos - (System.nanoTime() - batchStartNanos);
+        if (remainingNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+    }
+
+    private void report(Consumer<Progress> listener, Progress snapshot) {
+        progress = snapshot;
+        logger.debug("Sentiment backfill progress: {}", snapshot);
+        if (listener != null) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                logger.warn("Sentiment backfill progress listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Last processed id and number of rows scored so far for one source.
+     */
+    private static final class Checkpoint {
+        int lastId;
+        long processed;
+
+        Checkpoint(int lastId, long processed) {
+            this.lastId = lastId;
+            this.processed = processed;
+        }
+    }
+
+    /**
+     * A row being backfilled; {@code result} is set by a worker thread and read after
+     * the slice futures complete.
+     */
+    private static final class Row {
+        final int id;
+        final int userId;
+        final String text;
+        SentimentResult result;
+
+        Row(int id, int userId, String text) {
+            this.id = id;
+            this.userId = userId;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Run a backfill to completion from the command line.
+     */
+    public static void main(String[] args) {
+        Progress result = getInstance().start(snapshot -> logger.info("{}", snapshot)).join();
+        DatabaseConfig.closeConnection();
+        System.exit(result.getState() == State.FAILED ? 1 : 0);
+    }
+}
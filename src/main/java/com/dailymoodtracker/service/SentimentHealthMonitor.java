@@ -0,0 +1,236 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.service.SentimentServiceFactory.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically probes the sentiment backends in the background and keeps rolling
+ * availability and latency statistics for each of them, so that service selection
+ * never has to block on a network probe.
+ */
+public class SentimentHealthMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(SentimentHealthMonitor.class);
+
+    // Number of probes kept per backend for the rolling statistics
+    private static final int WINDOW_SIZE = 10;
+
+    // A backend slower than this on average is considered degraded
+    private static final long MAX_HEALTHY_LATENCY_MILLIS = 2000;
+
+    private final Map<ServiceType, BackendHealth> health = new EnumMap<>(ServiceType.class);
+    private volatile ScheduledFuture<?> probeTask;
+    private volatile boolean stopped = false;
+    private final AtomicBoolean probeRunning = new AtomicBoolean(false);
+    private final long probeIntervalSeconds;
+    private volatile Runnable listener;
+
+    /**
+     * Rolling health statistics for a single backend.
+     */
+    public static class BackendHealth {
+        private final ServiceType type;
+        private final boolean[] availability = new boolean[WINDOW_SIZE];
+        private final long[] latencies = new long[WINDOW_SIZE];
+        private int nextIndex = 0;
+        private int samples = 0;
+        private int consecutiveFailures = 0;
+        private long lastCheckedAt = 0;
+
+        BackendHealth(ServiceType type) {
+            this.type = type;
+        }
+
+        synchronized void record(boolean available, long latencyMillis) {
+            availability[nextIndex] = available;
+            latencies[nextIndex] = latencyMillis;
+            nextIndex = (nextIndex + 1) % WINDOW_SIZE;
+            samples = Math.min(samples + 1, WINDOW_SIZE);
+            consecutiveFailures = available ? 0 : consecutiveFailures + 1;
+            lastCheckedAt = System.currentTimeMillis();
+        }
+
+        public ServiceType getType() {
+            return type;
+        }
+
+        /**
+         * Check whether the backend has been probed at least once.
+         */
+        public synchronized boolean isProbed() {
+            return samples > 0;
+        }
+
+        /**
+         * Get the fraction of successful probes in the window.
+         */
+        public synchronized double getAvailability() {
+            if (samples == 0) {
+                return 0.0;
+            }
+            int up = 0;
+            for (int i = 0; i < samples; i++) {
+                if (availability[i]) {
+                    up++;
+                }
+            }
+            return (double) up / samples;
+        }
+
+        /**
+         * Get the average latency of successful probes in the window.
+         */
+        public synchronized long getAverageLatencyMillis() {
+            long total = 0;
+            int count = 0;
+            for (int i = 0; i < samples; i++) {
+                if (availability[i]) {
+                    total += latencies[i];
+                    count++;
+                }
+            }
+            return count == 0 ? 0 : total / count;
+        }
+
+        public synchronized int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public synchronized long getLastCheckedAt() {
+            return lastCheckedAt;
+        }
+
+        /**
+         * A backend is healthy when its last probe succeeded, most recent probes
+         * succeeded and it answers within the latency budget.
+         */
+        public synchronized boolean isHealthy() {
+            return samples > 0
+                    && consecutiveFailures == 0
+                    && getAvailability() >= 0.5
+                    && getAverageLatencyMillis() <= MAX_HEALTHY_LATENCY_MILLIS;
+        }
+
+        @Override
+        public synchronized String toString() {
+            if (samples == 0) {
+                return type + "{not probed}";
+            }
+            return String.format("%s{healthy=%s, availability=%.0f%%, avg latency=%d ms}",
+                    type, isHealthy(), getAvailability() * 100, getAverageLatencyMillis());
+        }
+    }
+
+    /**
+     * Create a monitor that probes every {@code probeIntervalSeconds} once started.
+     */
+    public SentimentHealthMonitor(long probeIntervalSeconds) {
+        this.probeIntervalSeconds = probeIntervalSeconds;
+        health.put(ServiceType.HTTP, new BackendHealth(ServiceType.HTTP));
+        health.put(ServiceType.PYTHON, new BackendHealth(ServiceType.PYTHON));
+    }
+
+    /**
+     * Start probing in the background. The shared scheduler triggers each round and
+     * the probes run on the I/O pool; the first round starts immediately, never on the
+     * caller's thread.
+     *
+     * @param listener Callback invoked on the probing thread after each probe round
+     */
+    public void start(Runnable listener) {
+        this.listener = listener;
+        probeTask = AppExecutors.scheduler().scheduleWithFixedDelay(this::probeNowAsync,
+                0, probeIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("Sentiment health monitor started (interval {} s)", probeIntervalSeconds);
+    }
+
+    /**
+     * Request an extra probe round as soon as possible without waiting for it.
+     */
+    public void probeNowAsync() {
+        if (stopped) {
+            return;
+        }
+        try {
+            AppExecutors.io().execute(this::probeAll);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Health probe not started, executors are shutting down");
+        }
+    }
+
+    private void probeAll() {
+        if (!probeRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            probe(ServiceType.HTTP);
+            probe(ServiceType.PYTHON);
+
+            Runnable callback = listener;
+            if (callback != null) {
+                callback.run();
+            }
+        } catch (Exception e) {
+            logger.error("Error during sentiment health probe: {}", e.getMessage(), e);
+        } finally {
+            probeRunning.set(false);
+        }
+    }
+
+    private void probe(ServiceType type) {
+        long start = System.nanoTime();
+        boolean available;
+        try {
+            switch (type) {
+                case HTTP:
+                    HttpSentimentService httpService = HttpSentimentService.getInstance();
+                    available = httpService.isServiceAvailable()
+                            && httpService.getCircuitBreaker().isCallPermitted();
+                    break;
+                case PYTHON:
+                    available = PythonSentimentService.getInstance().isServiceAvailable();
+                    break;
+                default:
+                    available = true;
+                    break;
+            }
+        } catch (Exception e) {
+            logger.warn("Error probing {} sentiment service: {}", type, e.getMessage());
+            available = false;
+        }
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        BackendHealth backendHealth = health.get(type);
+        backendHealth.record(available, latencyMillis);
+        logger.debug("Probed {} sentiment service: {}", type, backendHealth);
+    }
+
+    /**
+     * Get the latest health statistics for a backend.
+     * The Dummy backend is not probed and has no statistics.
+     *
+     * @return the statistics, or null if the backend is not monitored
+     */
+    public BackendHealth getHealth(ServiceType type) {
+        return health.get(type);
+    }
+
+    /**
+     * Stop probing.
+     */
+    public void shutdown() {
+        stopped = true;
+        ScheduledFuture<?> task = probeTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+        logger.info("Sentiment health monitor stopped");
+    }
+}
@@ -0,0 +1,218 @@
+package com.dailymoodtracker.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Multinomial naive Bayes sentiment model over hashed n-gram features.
+ *
+ * The model has two heads: overall sentiment (positive/negative/neutral) and specific
+ * emotion. Weights are log-likelihoods stored feature-major in a flat float array, so
+ * scoring a message adds one contiguous row of class weights per feature; the
+ * additions run through a {@link ScoringKernel}, vectorized when possible.
+ *
+ * Binary file layout (little endian): magic, version, bucket count, sentiment class
+ * count, emotion class count, sentiment priors, emotion priors, sentiment weights,
+ * emotion weights.
+ */
+public class SentimentModel {
+    private static final int MAGIC = 0x4D534D44; // "DMSM"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 5;
+
+    public static final String[] SENTIMENT_CLASSES = {"positive", "negative", "neutral"};
+    public static final String[] EMOTION_CLASSES = {
+        "joy", "sadness", "anger", "fear", "surprise", "confusion", "gratitude", "hope"
+    };
+
+    private final int numBuckets;
+    private final float[] sentimentPriors;
+    private final float[] emotionPriors;
+    private final float[] sentimentWeights;
+    private final float[] emotionWeights;
+
+    // Vectorized when the Vector API is available, scalar otherwise
+    private ScoringKernel kernel = ScoringKernels.best();
+
+    public SentimentModel(int numBuckets, float[] sentimentPriors, float[] emotionPriors,
+                          float[] sentimentWeights, float[] emotionWeights) {
+        if (sentimentPriors.length != SENTIMENT_CLASSES.length || emotionPriors.length != EMOTION_CLASSES.length
+                || sentimentWeights.length != numBuckets * SENTIMENT_CLASSES.length
+                || emotionWeights.length != numBuckets * EMOTION_CLASSES.length) {
+            throw new IllegalArgumentException("Model dimensions do not match the class layout");
+        }
+        this.numBuckets = numBuckets;
+        this.sentimentPriors = sentimentPriors;
+        this.emotionPriors = emotionPriors;
+        this.sentimentWeights = sentimentWeights;
+        this.emotionWeights = emotionWeights;
+    }
+
+    /**
+     * Load a model by memory-mapping the file and bulk-copying the weight blocks.
+     *
+     * @param path Path of the model file
+     * @return the loaded model
+     * @throws IOException if the file cannot be read or is not a valid model
+     */
+    public static SentimentModel load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.remaining() < HEADER_INTS * Integer.BYTES || mapped.getInt() != MAGIC) {
+                throw new IOException("Not a sentiment model file: " + path);
+            }
+            int version = mapped.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported sentiment model version " + version + ": " + path);
+            }
+            int numBuckets = mapped.getInt();
+            int sentimentClasses = mapped.getInt();
+            int emotionClasses = mapped.getInt();
+            if (sentimentClasses != SENTIMENT_CLASSES.length || emotionClasses != EMOTION_CLASSES.length
+                    || numBuckets <= 0 || Integer.bitCount(numBuckets) != 1) {
+                throw new IOException("Sentiment model layout does not match this version: " + path);
+            }
+
+            long expectedFloats = sentimentClasses + emotionClasses
+                    + (long) numBuckets * (sentimentClasses + emotionClasses);
+            if (mapped.remaining() != expectedFloats * Float.BYTES) {
+                throw new IOException("Sentiment model file is truncated or corrupt: " + path);
+            }
+
+            float[] sentimentPriors = new float[sentimentClasses];
+            float[] emotionPriors = new float[emotionClasses];
+            float[] sentimentWeights = new float[numBuckets * sentimentClasses];
+            float[] emotionWeights = new float[numBuckets * emotionClasses];
+
+            FloatBuffer floats = mapped.asFloatBuffer();
+            floats.get(sentimentPriors);
+            floats.get(emotionPriors);
+            floats.get(sentimentWeights);
+            floats.get(emotionWeights);
+
+            return new SentimentModel(numBuckets, sentimentPriors, emotionPriors, sentimentWeights, emotionWeights);
+        }
+    }
+
+    /**
+     * Write the model in the binary layout read by {@link #load(Path)}.
+     */
+    public void save(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        int floatCount = sentimentPriors.length + emotionPriors.length
+                + sentimentWeights.length + emotionWeights.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES + floatCount * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(numBuckets)
+                .putInt(SENTIMENT_CLASSES.length).putInt(EMOTION_CLASSES.length);
+        buffer.asFloatBuffer()
+                .put(sentimentPriors).put(emotionPriors).put(sentimentWeights).put(emotionWeights);
+        buffer.position(buffer.capacity());
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Compute sentiment class probabilities for the given features.
+     *
+     * @param features Feature indexes from {@link HashedFeatureExtractor}
+     * @param count Number of valid entries in {@code features}
+     * @param probabilities Output array sized to {@link #SENTIMENT_CLASSES}
+     */
+    public void scoreSentiment(int[] features, int count, float[] probabilities) {
+        score(features, count, sentimentPriors, sentimentWeights, probabilities);
+    }
+
+    /**
+     * Compute emotion class probabilities for the given features.
+     *
+     * @param features Feature indexes from {@link HashedFeatureExtractor}
+     * @param count Number of valid entries in {@code features}
+     * @param probabilities Output array sized to {@link #EMOTION_CLASSES}
+     */
+    public void scoreEmotion(int[] features, int count, float[] probabilities) {
+        score(features, count, emotionPriors, emotionWeights, probabilities);
+    }
+
+    /**
+     * Count how many of the features were seen during training. Buckets never seen
+     * have all-zero weights and carry no evidence.
+     */
+    public int countKnownFeatures(int[] features, int count) {
+        int known = 0;
+        int numClasses = SENTIMENT_CLASSES.length;
+        for (int i = 0; i < count; i++) {
+            int row = features[i] * numClasses;
+            for (int c = 0; c < numClasses; c++) {
+                if (sentimentWeights[row + c] != 0f) {
+                    known++;
+                    break;
+                }
+            }
+        }
+        return known;
+    }
+
+    private void score(int[] features, int count, float[] priors, float[] weights, float[] out) {
+        int numClasses = priors.length;
+        System.arraycopy(priors, 0, out, 0, numClasses);
+        kernel.accumulate(features, count, weights, numClasses, out);
+        softmax(out, numClasses);
+    }
+
+    private static void softmax(float[] scores, int numClasses) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int c = 0; c < numClasses; c++) {
+            max = Math.max(max, scores[c]);
+        }
+        float sum = 0f;
+        for (int c = 0; c < numClasses; c++) {
+            scores[c] = (float) Math.exp(scores[c] - max);
+            sum += scores[c];
+        }
+        for (int c = 0; c < numClasses; c++) {
+            scores[c] /= sum;
+        }
+    }
+
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    public ScoringKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Override the scoring kernel, e.g. to compare implementations.
+     */
+    public void setKernel(ScoringKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    @Override
+    public String toString() {
+        return "SentimentModel{buckets=" + numBuckets
+                + ", sentiment=" + Arrays.toString(SENTIMENT_CLASSES)
+                + ", emotions=" + Arrays.toString(EMOTION_CLASSES) + '}';
+    }
+}
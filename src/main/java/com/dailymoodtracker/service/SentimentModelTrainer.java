@@ -0,0 +1,326 @@
+package com.dailymoodtracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline trainer for {@link SentimentModel}.
+ *
+ * Collects labelled examples from the data the application already stores (chat
+ * messages with a recorded sentiment, the Python service's conversation log) plus the
+ * keyword lexicon of {@link PythonSentimentService} as seed examples, fits a
+ * multinomial naive Bayes model with Laplace smoothing and writes the binary model file.
+ *
+ * Run with: {@code mvn exec:java -Dexec.mainClass=com.dailymoodtracker.service.SentimentModelTrainer}
+ */
+public class SentimentModelTrainer {
+    private static final Logger logger = LoggerFactory.getLogger(SentimentModelTrainer.class);
+
+    public static final int DEFAULT_NUM_BUCKETS = 1 << 16;
+    private static final String CONVERSATION_LOG = "python_sentiment_service/conversation_data/conversations.jsonl";
+    private static final float SMOOTHING = 0.5f;
+    private static final int MAX_FEATURES_PER_EXAMPLE = 512;
+
+    // Map labels produced by the different analyzers onto the model's emotion classes
+    private static final Map<String, String> EMOTION_ALIASES = new HashMap<>();
+
+    static {
+        EMOTION_ALIASES.put("happy", "joy");
+        EMOTION_ALIASES.put("happiness", "joy");
+        EMOTION_ALIASES.put("excited", "joy");
+        EMOTION_ALIASES.put("sad", "sadness");
+        EMOTION_ALIASES.put("depressed", "sadness");
+        EMOTION_ALIASES.put("angry", "anger");
+        EMOTION_ALIASES.put("frustrated", "anger");
+        EMOTION_ALIASES.put("anxious", "fear");
+        EMOTION_ALIASES.put("anxiety", "fear");
+        EMOTION_ALIASES.put("worried", "fear");
+        EMOTION_ALIASES.put("scared", "fear");
+        EMOTION_ALIASES.put("surprised", "surprise");
+        EMOTION_ALIASES.put("confused", "confusion");
+        EMOTION_ALIASES.put("grateful", "gratitude");
+        EMOTION_ALIASES.put("thankful", "gratitude");
+        EMOTION_ALIASES.put("hopeful", "hope");
+    }
+
+    // Neutral seed phrases so the sentiment head has a neutral class to learn from
+    private static final List<String> NEUTRAL_SEEDS = Arrays.asList(
+        "i went to work today", "what time is it", "i had lunch", "tell me more",
+        "i am at home", "it is tuesday", "i watched a show", "i need to buy groceries",
+        "the weather is cloudy", "i have a meeting later", "ok", "i see", "not sure what to say"
+    );
+
+    private final HashedFeatureExtractor extractor;
+    private final int numBuckets;
+    private final int[] featureBuffer = new int[MAX_FEATURES_PER_EXAMPLE];
+
+    // Feature counts per class, feature-major like the model weights
+    private final float[] sentimentCounts;
+    private final float[] emotionCounts;
+    private final float[] sentimentTotals = new float[SentimentModel.SENTIMENT_CLASSES.length];
+    private final float[] emotionTotals = new float[SentimentModel.EMOTION_CLASSES.length];
+    private final float[] sentimentDocs = new float[SentimentModel.SENTIMENT_CLASSES.length];
+    private final float[] emotionDocs = new float[SentimentModel.EMOTION_CLASSES.length];
+    private int exampleCount = 0;
+
+    public SentimentModelTrainer(int numBuckets) {
+        this.extractor = new HashedFeatureExtractor(numBuckets);
+        this.numBuckets = numBuckets;
+        this.sentimentCounts = new float[numBuckets * SentimentModel.SENTIMENT_CLASSES.length];
+        this.emotionCounts = new float[numBuckets * SentimentModel.EMOTION_CLASSES.length];
+    }
+
+    /**
+     * Add a labelled example.
+     *
+     * @param text The message text
+     * @param sentiment Sentiment label (positive/negative/neutral), or null if unknown
+     * @param emotion Specific emotion label, or null if unknown
+     * @param weight How much the example counts (e.g. more for user-confirmed labels)
+     */
+    public void addExample(String text, String sentiment, String emotion, float weight) {
+        if (text == null || text.trim().isEmpty() || weight <= 0) {
+            return;
+        }
+        int sentimentClass = indexOf(SentimentModel.SENTIMENT_CLASSES, normalizeLabel(sentiment));
+        int emotionClass = indexOf(SentimentModel.EMOTION_CLASSES, normalizeEmotion(emotion));
+        if (sentimentClass < 0 && emotionClass < 0) {
+            return;
+        }
+
+        int count = extractor.extract(text, featureBuffer);
+        if (count == 0) {
+            return;
+        }
+
+        if (sentimentClass >= 0) {
+            accumulate(sentimentCounts, sentimentTotals, sentimentDocs, SentimentModel.SENTIMENT_CLASSES.length,
+                    sentimentClass, count, weight);
+        }
+        if (emotionClass >= 0) {
+            accumulate(emotionCounts, emotionTotals, emotionDocs, SentimentModel.EMOTION_CLASSES.length,
+                    emotionClass, count, weight);
+        }
+        exampleCount++;
+    }
+
+    private void accumulate(float[] counts, float[] totals, float[] docs, int numClasses,
+                            int label, int featureCount, float weight) {
+        for (int i = 0; i < featureCount; i++) {
+            counts[featureBuffer[i] * numClasses + label] += weight;
+        }
+        totals[label] += featureCount * weight;
+        docs[label] += weight;
+    }
+
+    /**
+     * Add the keyword lexicon of the local keyword service as seed examples.
+     */
+    public void addSeedLexicon() {
+        Map<String, List<String>> keywords = PythonSentimentService.getInstance().getEmotionKeywords();
+        for (Map.Entry<String, List<String>> entry : keywords.entrySet()) {
+            String emotion = entry.getKey();
+            String sentiment = sentimentForEmotion(emotion);
+            for (String keyword : entry.getValue()) {
+                addExample(keyword, sentiment, emotion, 1f);
+                addExample("i feel " + keyword, sentiment, emotion, 1f);
+            }
+        }
+        for (String phrase : NEUTRAL_SEEDS) {
+            addExample(phrase, "neutral", null, 1f);
+        }
+    }
+
+    /**
+     * Add user messages from chat_messages that have a recorded sentiment.
+     */
+    public void addChatMessages(DatabaseService databaseService) {
+        String sql = "SELECT content, sentiment FROM chat_messages WHERE sender = 'USER' AND sentiment IS NOT NULL";
+        int added = 0;
+        try (Connection conn = databaseService.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                addExample(rs.getString("content"), rs.getString("sentiment"), null, 1f);
+                added++;
+            }
+            logger.info("Loaded {} labelled chat messages", added);
+        } catch (SQLException e) {
+            logger.warn("Could not read chat messages for training: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add examples from the Python service's JSON-lines conversation log.
+     */
+    public void addConversationLog(Path path) {
+        if (!Files.exists(path)) {
+            logger.info("No conversation log found at {}", path);
+            return;
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        int added = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    JsonNode sentiment = node.path("sentiment");
+                    addExample(node.path("user_message").asText(null),
+                            sentiment.path("dominant_sentiment").asText(null),
+                            sentiment.path("specific_emotion").asText(null), 1f);
+                    added++;
+                } catch (IOException e) {
+                    logger.debug("Skipping malformed conversation log line: {}", e.getMessage());
+                }
+            }
+            logger.info("Loaded {} conversations from {}", added, path);
+        } catch (IOException e) {
+            logger.warn("Could not read conversation log {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Fit the model from the collected counts.
+     */
+    public SentimentModel train() {
+        if (exampleCount == 0) {
+            throw new IllegalStateException("No training examples were added");
+        }
+        logger.info("Training sentiment model from {} examples", exampleCount);
+
+        float[] sentimentPriors = priors(sentimentDocs);
+        float[] emotionPriors = priors(emotionDocs);
+        float[] sentimentWeights = logLikelihoods(sentimentCounts, sentimentTotals);
+        float[] emotionWeights = logLikelihoods(emotionCounts, emotionTotals);
+
+        return new SentimentModel(numBuckets, sentimentPriors, emotionPriors, sentimentWeights, emotionWeights);
+    }
+
+    private static float[] priors(float[] docs) {
+        float total = 0f;
+        for (float d : docs) {
+            total += d;
+        }
+        float[] priors = new float[docs.length];
+        for (int c = 0; c < docs.length; c++) {
+            priors[c] = (float) Math.log((docs[c] + SMOOTHING) / (total + SMOOTHING * docs.length));
+        }
+        return priors;
+    }
+
+    /**
+     * Smoothed log P(feature | class). Buckets never seen for any class keep all-zero
+     * weights so they add nothing at scoring time.
+     */
+    private float[] logLikelihoods(float[] counts, float[] totals) {
+        int numClasses = totals.length;
+        int vocabulary = 0;
+        for (int f = 0; f < numBuckets; f++) {
+            for (int c = 0; c < numClasses; c++) {
+                if (counts[f * numClasses + c] > 0) {
+                    vocabulary++;
+                    break;
+                }
+            }
+        }
+
+        float[] weights = new float[counts.length];
+        for (int f = 0; f < numBuckets; f++) {
+            int row = f * numClasses;
+            boolean seen = false;
+            for (int c = 0; c < numClasses; c++) {
+                if (counts[row + c] > 0) {
+                    seen = true;
+                    break;
+                }
+            }
+            if (!seen) {
+                continue;
+            }
+            for (int c = 0; c < numClasses; c++) {
+                weights[row + c] = (float) Math.log((counts[row + c] + SMOOTHING)
+                        / (totals[c] + SMOOTHING * vocabulary));
+            }
+        }
+        return weights;
+    }
+
+    private static String sentimentForEmotion(String emotion) {
+        switch (emotion) {
+            case "joy":
+            case "gratitude":
+            case "hope":
+                return "positive";
+            case "sadness":
+            case "anger":
+            case "fear":
+                return "negative";
+            default:
+                return "neutral";
+        }
+    }
+
+    private static String normalizeLabel(String label) {
+        return label == null ? null : label.trim().toLowerCase();
+    }
+
+    private static String normalizeEmotion(String emotion) {
+        String normalized = normalizeLabel(emotion);
+        return normalized == null ? null : EMOTION_ALIASES.getOrDefault(normalized, normalized);
+    }
+
+    private static int indexOf(String[] labels, String label) {
+        if (label == null) {
+            return -1;
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equals(label)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getExampleCount() {
+        return exampleCount;
+    }
+
+    /**
+     * Train a model from all available data and write it to the model path.
+     *
+     * @param args optional output path (defaults to {@link StatisticalSentimentService#DEFAULT_MODEL_PATH})
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : StatisticalSentimentService.DEFAULT_MODEL_PATH);
+
+        SentimentModelTrainer trainer = new SentimentModelTrainer(DEFAULT_NUM_BUCKETS);
+        trainer.addSeedLexicon();
+        trainer.addChatMessages(MySQLDatabaseService.getInstance());
+        trainer.addConversationLog(Paths.get(CONVERSATION_LOG));
+
+        SentimentModel model = trainer.train();
+        model.save(output);
+        logger.info("Saved {} to {}", model, output.toAbsolutePath());
+    }
+}
@@ -3,186 +3,286 @@ package com.dailymoodtracker.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Factory for creating SentimentAnalysisService instances.
  * Provides service implementations based on configuration and availability.
+ *
+ * Backend availability is tracked by a background {@link SentimentHealthMonitor};
+ * the active service is swapped atomically whenever a better backend comes up or
+ * the current one degrades, so {@link #getService()} never blocks.
  */
 public class SentimentServiceFactory {
     private static final Logger logger = LoggerFactory.getLogger(SentimentServiceFactory.class);
-    
+
     // Service type enum
     public enum ServiceType {
         PYTHON,
         HTTP,
         DUMMY
     }
-    
-    // Default to HTTP if available, otherwise try Python, then fallback to dummy
-    private static ServiceType serviceType = determineDefaultServiceType();
-    
-    // Cache the created service
-    private static SentimentAnalysisService cachedService;
-    
+
+    // Preferred service type; HTTP by default, falling back to Python, then dummy
+    private static volatile ServiceType preferredType = ServiceType.HTTP;
+
+    // Service type currently in use
+    private static volatile ServiceType activeType;
+
+    // The active service, swapped atomically by the health monitor
+    private static final AtomicReference<SentimentAnalysisService> activeService = new AtomicReference<>();
+
+    // Race HTTP requests against local analysis once they take longer than the hedge delay
+    private static boolean hedgingEnabled = true;
+    private static final long HEDGE_DELAY_MILLIS = 750;
+
+    // Probes backends off the startup path
+    private static final long HEALTH_PROBE_INTERVAL_SECONDS = 15;
+    private static final SentimentHealthMonitor healthMonitor = new SentimentHealthMonitor(HEALTH_PROBE_INTERVAL_SECONDS);
+
+    static {
+        healthMonitor.start(SentimentServiceFactory::onHealthUpdate);
+    }
+
     /**
-     * Determine the default service type based on available configurations.
+     * Gets the appropriate sentiment analysis service implementation
+     * based on the current service type setting and the latest health data.
+     * Never blocks on a network probe.
      */
-    private static ServiceType determineDefaultServiceType() {
-        // First check if HTTP service is available
+    public static SentimentAnalysisService getService() {
+        SentimentAnalysisService service = activeService.get();
+        if (service != null) {
+            return service;
+        }
+        return refreshActiveService();
+    }
+
+    /**
+     * Called by the health monitor after each probe round.
+     */
+    private static void onHealthUpdate() {
+        refreshActiveService();
+    }
+
+    /**
+     * Select the best available service from the latest health data and swap it in
+     * if it differs from the active one.
+     */
+    private static synchronized SentimentAnalysisService refreshActiveService() {
+        ServiceType selectedType = selectServiceType();
+        SentimentAnalysisService current = activeService.get();
+
+        if (current != null && selectedType == activeType) {
+            return current;
+        }
+
+        SentimentAnalysisService service;
         try {
-            HttpSentimentService httpService = HttpSentimentService.getInstance();
-            if (httpService.isServiceAvailable()) {
-                logger.info("HTTP sentiment analysis service detected, using as default");
-                return ServiceType.HTTP;
-            }
+            // Collapse duplicate concurrent requests in front of every backend
+            service = new CoalescingSentimentService(createService(selectedType), selectedType.name());
         } catch (Exception e) {
-            logger.warn("Error checking HTTP service: {}", e.getMessage());
+            logger.error("Failed to create {} sentiment service: {}", selectedType, e.getMessage(), e);
+            selectedType = ServiceType.DUMMY;
+            service = DummySentimentService.getInstance();
         }
-        
-        // Then check if Python service is available
-        try {
-            PythonSentimentService pythonService = PythonSentimentService.getInstance();
-            if (pythonService.isServiceAvailable()) {
-                logger.info("Python sentiment analysis service detected, using as default");
+
+        if (current == null) {
+            logger.info("Using {} sentiment analysis service", selectedType);
+        } else {
+            logger.info("Switching sentiment analysis service from {} to {}", activeType, selectedType);
+        }
+
+        activeType = selectedType;
+        activeService.set(service);
+        return service;
+    }
+
+    /**
+     * Walk the fallback chain HTTP -> PYTHON -> DUMMY starting at the preferred type
+     * and return the first backend the health monitor considers usable.
+     */
+    private static ServiceType selectServiceType() {
+        if (preferredType == ServiceType.HTTP && healthMonitor.getHealth(ServiceType.HTTP).isHealthy()) {
+            return ServiceType.HTTP;
+        }
+        if (preferredType == ServiceType.HTTP || preferredType == ServiceType.PYTHON) {
+            SentimentHealthMonitor.BackendHealth pythonHealth = healthMonitor.getHealth(ServiceType.PYTHON);
+            // The local service needs no network, so assume it works until a probe says otherwise
+            if (!pythonHealth.isProbed() || pythonHealth.isHealthy()) {
                 return ServiceType.PYTHON;
             }
-        } catch (Exception e) {
-            logger.warn("Error checking Python service: {}", e.getMessage());
         }
-        
-        // Fallback to Dummy if nothing else available
-        logger.warn("No valid service configurations found, falling back to Dummy service");
         return ServiceType.DUMMY;
     }
-    
+
+    private static SentimentAnalysisService createService(ServiceType type) {
+        switch (type) {
+            case HTTP:
+                HttpSentimentService httpService = HttpSentimentService.getInstance();
+                if (hedgingEnabled) {
+                    return new HedgedSentimentService(httpService, getLocalService(), HEDGE_DELAY_MILLIS);
+                }
+                return httpService;
+            case PYTHON:
+                return getLocalService();
+            case DUMMY:
+            default:
+                return DummySentimentService.getInstance();
+        }
+    }
+
     /**
-     * Gets the appropriate sentiment analysis service implementation
-     * based on the current service type setting.
+     * Get the in-process service: the trained statistical model when a model file
+     * is present, otherwise the keyword-based local service.
      */
-    public static synchronized SentimentAnalysisService getService() {
-        // Return cached instance if available
-        if (cachedService != null) {
-            return cachedService;
-        }
-        
-        // Determine which service to use based on service type and availability
-        try {
-            switch (serviceType) {
-                case HTTP:
-                    try {
-                        HttpSentimentService httpService = HttpSentimentService.getInstance();
-                        if (httpService.isServiceAvailable()) {
-                            return cachedService = httpService;
-                        }
-                        logger.warn("HTTP service is not available. Falling back to Python service");
-                        serviceType = ServiceType.PYTHON; // Update service type
-                        return getService(); // Recursive call with updated service type
-                    } catch (Exception e) {
-                        logger.error("Failed to initialize HTTP service: {}", e.getMessage(), e);
-                        logger.warn("Falling back to Python service");
-                        serviceType = ServiceType.PYTHON; // Update service type
-                        return getService(); // Recursive call with updated service type
-                    }
-                    
-                case PYTHON:
-                    try {
-                        PythonSentimentService pythonService = PythonSentimentService.getInstance();
-                        if (pythonService.isServiceAvailable()) {
-                            return cachedService = pythonService;
-                        }
-                        logger.warn("Python service is not available. Falling back to Dummy service");
-                        serviceType = ServiceType.DUMMY;
-                        return getService(); // Recursive call with updated service type
-                    } catch (Exception e) {
-                        logger.error("Failed to initialize Python service: {}", e.getMessage(), e);
-                        logger.warn("Falling back to Dummy service");
-                        serviceType = ServiceType.DUMMY;
-                        return getService(); // Recursive call with updated service type
-                    }
-                    
-                case DUMMY:
-                default:
-                    return cachedService = DummySentimentService.getInstance();
-            }
-        } catch (Exception e) {
-            logger.error("Unexpected error creating sentiment service: {}", e.getMessage(), e);
-            return cachedService = DummySentimentService.getInstance();
+    static SentimentAnalysisService getLocalService() {
+        StatisticalSentimentService statisticalService = StatisticalSentimentService.getInstance();
+        if (statisticalService.isServiceAvailable()) {
+            return statisticalService;
         }
+        return PythonSentimentService.getInstance();
     }
-    
+
     /**
      * Set the sentiment analysis service type to use.
-     * 
+     *
      * @param type The service type to use
-     * @return the newly created service based on the updated setting
+     * @return the service selected for the updated setting
      */
     public static SentimentAnalysisService setServiceType(ServiceType type) {
-        if (type != serviceType) {
-            serviceType = type;
-            // Clear cached service to force recreation
-            cachedService = null;
+        if (type != preferredType) {
+            preferredType = type;
             logger.info("Sentiment service setting changed to: {}", type);
+            healthMonitor.probeNowAsync();
+        }
+        return refreshActiveService();
+    }
+
+    /**
+     * Enable or disable hedging of HTTP requests with local analysis.
+     *
+     * @param enabled true to race slow HTTP requests against the local service
+     * @return the service selected for the updated setting
+     */
+    public static synchronized SentimentAnalysisService setHedgingEnabled(boolean enabled) {
+        if (enabled != hedgingEnabled) {
+            hedgingEnabled = enabled;
+            // Force recreation of the HTTP service wrapper
+            activeType = null;
+            logger.info("Sentiment request hedging {}", enabled ? "enabled" : "disabled");
         }
-        return getService();
+        return refreshActiveService();
+    }
+
+    /**
+     * Check whether HTTP requests are hedged with local analysis.
+     */
+    public static boolean isHedgingEnabled() {
+        return hedgingEnabled;
     }
-    
+
     /**
      * Forces reload of the sentiment service.
-     * Useful after updating API credentials.
-     * 
-     * @return the newly created service
+     * Useful after updating API credentials. The current selection is returned
+     * immediately and a fresh probe round is scheduled in the background.
+     *
+     * @return the currently selected service
      */
     public static SentimentAnalysisService reloadService() {
-        cachedService = null;
         logger.info("Sentiment service reloading...");
-        return getService();
+        healthMonitor.probeNowAsync();
+        return refreshActiveService();
+    }
+
+    /**
+     * Gets the latest health statistics for a backend without probing it.
+     *
+     * @param type The backend to look up
+     * @return the statistics, or null for backends that are not monitored
+     */
+    public static SentimentHealthMonitor.BackendHealth getBackendHealth(ServiceType type) {
+        return healthMonitor.getHealth(type);
     }
-    
+
     /**
      * Gets diagnostic information about the current sentiment service.
-     * 
+     * Uses the health monitor's latest data rather than probing the backends.
+     *
      * @return A string containing diagnostic information
      */
     public static String getDiagnosticInfo() {
         StringBuilder info = new StringBuilder();
-        
-        info.append("Current service type: ").append(serviceType);
-        
+        SentimentAnalysisService active = activeService.get();
+        SentimentAnalysisService current = active instanceof CoalescingSentimentService
+                ? ((CoalescingSentimentService) active).getDelegate() : active;
+
+        info.append("Preferred service type: ").append(preferredType);
+        info.append(", Current service type: ").append(activeType);
+
         info.append(", Current service: ");
-        if (cachedService == null) {
+        if (current == null) {
             info.append("None (not initialized)");
-        } else if (cachedService instanceof PythonSentimentService) {
+        } else if (current instanceof StatisticalSentimentService) {
+            info.append("Statistical Sentiment Model (Local)");
+        } else if (current instanceof PythonSentimentService) {
             info.append("Python Sentiment Analysis (Local)");
-        } else if (cachedService instanceof HttpSentimentService) {
+        } else if (current instanceof HedgedSentimentService) {
+            info.append("Python Sentiment Analysis (HTTP Service, hedged with local)");
+        } else if (current instanceof HttpSentimentService) {
             info.append("Python Sentiment Analysis (HTTP Service)");
-        } else if (cachedService instanceof DummySentimentService) {
+        } else if (current instanceof DummySentimentService) {
             info.append("Dummy Service (for testing)");
         } else {
-            info.append(cachedService.getClass().getSimpleName());
+            info.append(current.getClass().getSimpleName());
         }
-        
-        // HTTP service info
-        try {
-            HttpSentimentService httpService = HttpSentimentService.getInstance();
-            info.append(", HTTP service available: ").append(httpService.isServiceAvailable());
-        } catch (Exception e) {
-            info.append(", HTTP service available: false");
+
+        // Backend health from the last probes
+        SentimentHealthMonitor.BackendHealth httpHealth = healthMonitor.getHealth(ServiceType.HTTP);
+        info.append(", HTTP service available: ").append(httpHealth.isHealthy());
+        info.append(" ").append(httpHealth);
+        info.append(", ").append(HttpSentimentService.getInstance().getCircuitBreaker().getMetrics());
+
+        SentimentHealthMonitor.BackendHealth pythonHealth = healthMonitor.getHealth(ServiceType.PYTHON);
+        info.append(", Python service available: ").append(pythonHealth.isHealthy());
+        info.append(" ").append(pythonHealth);
+
+        // Hedging metrics
+        if (current instanceof HedgedSentimentService) {
+            HedgedSentimentService hedgedService = (HedgedSentimentService) current;
+            info.append(", Hedging: ").append(hedgedService.getMetrics());
         }
-        
-        // Python service info
-        try {
-            PythonSentimentService pythonService = PythonSentimentService.getInstance();
-            info.append(", Python service available: ").append(pythonService.isServiceAvailable());
-        } catch (Exception e) {
-            info.append(", Python service available: false");
+
+        // Request coalescing metrics
+        if (active instanceof CoalescingSentimentService) {
+            info.append(", Coalescing: ").append(((CoalescingSentimentService) active).getMetrics());
         }
-        
+
+        // Shared executor metrics
+        info.append(", Executors: ").append(AppExecutors.getMetrics());
+
         return info.toString();
     }
-    
+
     /**
      * Get current service type
      */
     public static ServiceType getServiceType() {
-        return serviceType;
+        ServiceType type = activeType;
+        return type != null ? type : preferredType;
+    }
+
+    /**
+     * Get the service type the user asked for, which may differ from the
+     * active one while the preferred backend is unavailable.
+     */
+    public static ServiceType getPreferredServiceType() {
+        return preferredType;
+    }
+
+    /**
+     * Stop background health monitoring.
+     */
+    public static void shutdown() {
+        healthMonitor.shutdown();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.SentimentResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Scores a message draft in the background while the user is still typing.
+ *
+ * Every draft change restarts a short debounce timer; when the user pauses, the
+ * draft is sent to the sentiment service. A newer draft supersedes the previous
+ * speculation: a pending timer is cancelled before it fires, and the result of an
+ * analysis already in flight is discarded. When the message is sent,
+ * {@link #takeResult(String, int)} hands back the speculative result if it was
+ * computed for exactly the same text by the service that is still active.
+ */
+public class SpeculativeSentimentAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(SpeculativeSentimentAnalyzer.class);
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    // Drafts shorter than this are not worth a backend call
+    private static final int MIN_DRAFT_LENGTH = 3;
+
+    private final Supplier<SentimentAnalysisService> serviceSupplier;
+    private final long debounceMillis;
+
+    // Guarded by this
+    private ScheduledFuture<?> pendingDebounce;
+    private Speculation current;
+    // Bumped on every draft change so a timer that already fired cannot start stale work
+    private long generation;
+
+    // Metrics
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Speculation {
+        private final String text;
+        private final int userId;
+        private final SentimentAnalysisService service;
+        private final CompletableFuture<SentimentResult> result;
+
+        Speculation(String text, int userId, SentimentAnalysisService service,
+                    CompletableFuture<SentimentResult> result) {
+            this.text = text;
+            this.userId = userId;
+            this.service = service;
+            this.result = result;
+        }
+
+        boolean matches(String otherText, int otherUserId) {
+            return userId == otherUserId && text.equals(otherText);
+        }
+    }
+
+    /**
+     * @param serviceSupplier Supplies the currently active sentiment service
+     * @param debounceMillis How long the draft must stay unchanged before it is analyzed
+     */
+    public SpeculativeSentimentAnalyzer(Supplier<SentimentAnalysisService> serviceSupplier, long debounceMillis) {
+        this.serviceSupplier = serviceSupplier;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Record a change of the draft text. Cheap enough to call on every keystroke.
+     *
+     * @param draft The current draft
+     * @param userId The user typing it
+     */
+    public synchronized void onDraftChanged(String draft, int userId) {
+        cancelPendingDebounce();
+        long draftGeneration = ++generation;
+
+        String text = draft == null ? "" : draft.trim();
+        if (text.length() < MIN_DRAFT_LENGTH) {
+            discardCurrent();
+            return;
+        }
+        if (current != null && current.matches(text, userId)) {
+            // e.g. trailing whitespace typed: the running speculation still applies
+            return;
+        }
+
+        pendingDebounce = AppExecutors.scheduler().schedule(() -> startSpeculation(text, userId, draftGeneration),
+                debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void startSpeculation(String text, int userId, long draftGeneration) {
+        if (draftGeneration != generation) {
+            return;
+        }
+        pendingDebounce = null;
+        discardCurrent();
+
+        SentimentAnalysisService service = serviceSupplier.get();
+        CompletableFuture<SentimentResult> backendCall;
+        try {
+            backendCall = service.analyzeSentimentAsync(text, userId);
+        } catch (RuntimeException e) {
+            logger.debug("Speculative sentiment analysis could not start: {}", e.getMessage());
+            return;
+        }
+
+        current = new Speculation(text, userId, service, backendCall);
+        started.incrementAndGet();
+        logger.debug("Started speculative sentiment analysis ({} chars)", text.length());
+    }
+
+    /**
+     * Take the speculative result for a message that is being sent. The speculation
+     * is consumed either way.
+     *
+     * @param text The text being sent
+     * @param userId The sending user
+     * @return the speculative result, or null if none matches and the caller should
+     *         analyze the message normally
+     */
+    public synchronized CompletableFuture<SentimentResult> takeResult(String text, int userId) {
+        cancelPendingDebounce();
+        Speculation speculation = current;
+        current = null;
+
+        String sentText = text == null ? "" : text.trim();
+        if (speculation == null || !speculation.matches(sentText, userId)
+                || speculation.service != serviceSupplier.get()
+                || speculation.result.isCompletedExceptionally()) {
+            if (speculation != null) {
+                speculation.result.cancel(false);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+
+        reused.incrementAndGet();
+        logger.debug("Reusing speculative sentiment analysis (completed={})", speculation.result.isDone());
+        return speculation.result;
+    }
+
+    /**
+     * Drop any pending or running speculation.
+     */
+    public synchronized void clear() {
+        cancelPendingDebounce();
+        discardCurrent();
+    }
+
+    private void cancelPendingDebounce() {
+        generation++;
+        if (pendingDebounce != null) {
+            pendingDebounce.cancel(false);
+            pendingDebounce = null;
+        }
+    }
+
+    private void discardCurrent() {
+        if (current != null) {
+            if (!current.result.isDone()) {
+                superseded.incrementAndGet();
+            }
+            current.result.cancel(false);
+            current = null;
+        }
+    }
+
+    /**
+     * Get a one-line summary of speculation metrics.
+     */
+    public String getMetrics() {
+        return String.format("speculations=%d, reused=%d, superseded=%d, misses=%d",
+                started.get(), reused.get(), superseded.get(), misses.get());
+    }
+}
@@ -0,0 +1,95 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.config.DatabaseConfig;
+import com.dailymoodtracker.config.OpenAIConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the application's startup initializations in the background, so the login
+ * screen does not wait for them.
+ *
+ * Critical work, which logging in needs, starts before the JavaFX toolkit and runs
+ * alongside it and the login view: today that is the database connection, lock file
+ * and schema. Everything else is deferred until the login screen has been painted,
+ * then runs concurrently: the OpenAI settings file, the local sentiment lexicon and
+ * model, the sentiment backend selection and its health monitor, and the chat
+ * training service. Each of these still initializes itself on first use, so an
+ * early caller is never worse off than before; it simply finds the work done.
+ *
+ * Every phase is timed by the {@link StartupProfiler}, and the report is logged
+ * once the deferred phases have finished.
+ */
+public class StartupOrchestrator {
+    private static final Logger logger = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+    private static StartupOrchestrator instance;
+
+    private final StartupProfiler profiler = StartupProfiler.getInstance();
+    private CompletableFuture<Void> database;
+    private CompletableFuture<Void> deferred;
+
+    /**
+     * Get the singleton instance of StartupOrchestrator.
+     * @return StartupOrchestrator instance
+     */
+    public static synchronized StartupOrchestrator getInstance() {
+        if (instance == null) {
+            instance = new StartupOrchestrator();
+        }
+        return instance;
+    }
+
+    private StartupOrchestrator() {
+    }
+
+    /**
+     * Start the initializations logging in depends on. Returns at once.
+     */
+    public synchronized void startCritical() {
+        if (database != null) {
+            return;
+        }
+        database = run("database", DatabaseConfig::getConnection);
+    }
+
+    /**
+     * Start the initializations nothing on the login screen needs. Call once the
+     * login screen has been painted. Returns at once.
+     */
+    public synchronized void startDeferred() {
+        if (deferred != null) {
+            return;
+        }
+        startCritical();
+
+        CompletableFuture<Void> openAiConfig = run("openai-config", OpenAIConfig::getInstance);
+        CompletableFuture<Void> lexicon = run("sentiment-lexicon", PythonSentimentService::getInstance);
+        CompletableFuture<Void> model = run("sentiment-model", StatisticalSentimentService::getInstance);
+        CompletableFuture<Void> sentimentService = run("sentiment-service", SentimentServiceFactory::getService);
+
+        // Needs the settings file and, for its feedback index, the schema
+        CompletableFuture<Void> chatTraining = CompletableFuture.allOf(openAiConfig, database)
+            .thenCompose(ignored -> run("chat-training", ChatTrainingService::getInstance));
+
+        deferred = CompletableFuture.allOf(database, openAiConfig, lexicon, model, sentimentService, chatTraining);
+        deferred.whenComplete((ignored, error) -> profiler.logReport());
+    }
+
+    /**
+     * Run one phase on the I/O executor. A failure is logged and left for the
+     * phase's first real use to report, so the returned future always completes normally.
+     */
+    private CompletableFuture<Void> run(String name, Callable<?> work) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                profiler.time(name, work);
+            } catch (Exception e) {
+                logger.warn("Startup phase {} failed: {}", name, e.getMessage(), e);
+            }
+        }, AppExecutors.io());
+    }
+}
@@ -0,0 +1,166 @@
+package com.dailymoodtracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Records how long each phase of application startup took and when it ran,
+ * measured from the start of the process, so the report shows both the cost of a
+ * phase and whether it was on the way to the login screen.
+ */
+public class StartupProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(StartupProfiler.class);
+
+    private static StartupProfiler instance;
+
+    private final long originNanos; // System.nanoTime() at process start
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * One timed phase, or a milestone when it has no duration.
+     */
+    public static class Phase {
+        private final String name;
+        private final String thread;
+        private final long startNanos;
+        private final long durationNanos;
+        private final boolean failed;
+
+        private Phase(String name, String thread, long startNanos, long durationNanos, boolean failed) {
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.failed = failed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getStartMillis() {
+            return startNanos / 1_000_000;
+        }
+
+        public long getDurationMillis() {
+            return durationNanos / 1_000_000;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+    }
+
+    /**
+     * Get the singleton instance of StartupProfiler.
+     * @return StartupProfiler instance
+     */
+    public static synchronized StartupProfiler getInstance() {
+        if (instance == null) {
+            instance = new StartupProfiler();
+        }
+        return instance;
+    }
+
+    private StartupProfiler() {
+        long sinceProcessStart = ProcessHandle.current().info().startInstant()
+            .map(start -> Duration.between(start, Instant.now()).toNanos())
+            .orElse(0L);
+        originNanos = System.nanoTime() - Math.max(0, sinceProcessStart);
+    }
+
+    /**
+     * Run and time a phase on the calling thread.
+     *
+     * @param name The phase name shown in the report
+     * @param work The phase
+     * @throws Exception whatever the phase throws, after recording it as failed
+     */
+    public <T> T time(String name, Callable<T> work) throws Exception {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = work.call();
+            failed = false;
+            return result;
+        } finally {
+            record(name, start, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Run and time a phase that throws no checked exceptions.
+     */
+    public void time(String name, Runnable work) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            work.run();
+            failed = false;
+        } finally {
+            record(name, start, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Record a point in startup, such as the login screen becoming interactive.
+     *
+     * @return milliseconds since the process started
+     */
+    public long mark(String name) {
+        long now = System.nanoTime();
+        record(name, now, 0, false);
+        return (now - originNanos) / 1_000_000;
+    }
+
+    /**
+     * Get the recorded phases, in the order they started.
+     */
+    public List<Phase> getPhases() {
+        synchronized (phases) {
+            List<Phase> sorted = new ArrayList<>(phases);
+            sorted.sort(Comparator.comparingLong(phase -> phase.startNanos));
+            return sorted;
+        }
+    }
+
+    /**
+     * Get a table of the phases: when each started after process start, how long it
+     * took, and on which thread.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("Startup phases (ms after process start):");
+        for (Phase phase : getPhases()) {
+            report.append(String.format("%n  %-22s at %6d", phase.name, phase.getStartMillis()));
+            if (phase.durationNanos > 0) {
+                report.append(String.format("  took %6d  on %s", phase.getDurationMillis(), phase.thread));
+            }
+            if (phase.failed) {
+                report.append("  FAILED");
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Log the report.
+     */
+    public void logReport() {
+        logger.info(getReport());
+    }
+
+    private void record(String name, long startNanos, long durationNanos, boolean failed) {
+        Phase phase = new Phase(name, Thread.currentThread().getName(), startNanos - originNanos, durationNanos, failed);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+        logger.debug("Startup phase {} took {} ms", name, phase.getDurationMillis());
+    }
+}
@@ -0,0 +1,166 @@
+package com.dailymoodtracker.service;
+
+import com.dailymoodtracker.model.SentimentResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-process sentiment analysis using a trained {@link SentimentModel}.
+ *
+ * Scoring is a handful of array additions per token, so it runs on the caller's
+ * thread with no network hop. The model file is produced offline by
+ * {@link SentimentModelTrainer}; when it is missing the service reports itself as
+ * unavailable and the keyword-based {@link PythonSentimentService} is used instead.
+ */
+public class StatisticalSentimentService implements SentimentAnalysisService {
+    private static final Logger logger = LoggerFactory.getLogger(StatisticalSentimentService.class);
+
+    public static final String DEFAULT_MODEL_PATH = "./data/sentiment-model.bin";
+    private static final String MODEL_PATH_PROPERTY = "moodtracker.sentiment.model";
+
+    // Minimum emotion probability to report a specific emotion
+    private static final float EMOTION_THRESHOLD = 0.4f;
+    private static final int MAX_FEATURES = 512;
+
+    private static StatisticalSentimentService instance;
+
+    private final SentimentModel model;
+    private final HashedFeatureExtractor extractor;
+    private final PythonSentimentService responseService;
+
+    // Scratch buffers per thread so scoring does not allocate
+    private final ThreadLocal<int[]> featureBuffers = ThreadLocal.withInitial(() -> new int[MAX_FEATURES]);
+
+    /**
+     * Get the singleton instance of StatisticalSentimentService.
+     * @return StatisticalSentimentService instance
+     */
+    public static synchronized StatisticalSentimentService getInstance() {
+        if (instance == null) {
+            instance = new StatisticalSentimentService();
+        }
+        return instance;
+    }
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     */
+    private StatisticalSentimentService() {
+        this.model = loadModel();
+        this.extractor = model != null ? new HashedFeatureExtractor(model.getNumBuckets()) : null;
+        this.responseService = PythonSentimentService.getInstance();
+    }
+
+    private static SentimentModel loadModel() {
+        Path path = Paths.get(System.getProperty(MODEL_PATH_PROPERTY, DEFAULT_MODEL_PATH));
+        if (!Files.exists(path)) {
+            logger.info("No sentiment model found at {}, statistical analysis disabled", path.toAbsolutePath());
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            SentimentModel loaded = SentimentModel.load(path);
+            logger.info("Loaded {} from {} in {} ms", loaded, path.toAbsolutePath(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        } catch (Exception e) {
+            logger.error("Failed to load sentiment model from {}: {}", path.toAbsolutePath(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public SentimentResult analyzeSentiment(String text, int userId) {
+        if (model == null || text == null || text.trim().isEmpty()) {
+            return responseService.analyzeSentiment(text, userId);
+        }
+
+        int[] features = featureBuffers.get();
+        int count = extractor.extract(text, features);
+        if (model.countKnownFeatures(features, count) == 0) {
+            // Nothing the model has seen before: report neutral rather than the class priors
+            return createNeutralResult(text, userId);
+        }
+
+        float[] sentiment = new float[SentimentModel.SENTIMENT_CLASSES.length];
+        float[] emotions = new float[SentimentModel.EMOTION_CLASSES.length];
+        model.scoreSentiment(features, count, sentiment);
+        model.scoreEmotion(features, count, emotions);
+
+        SentimentResult result = new SentimentResult(text, sentiment[0], sentiment[1], sentiment[2],
+                SentimentModel.SENTIMENT_CLASSES[argMax(sentiment)], userId);
+
+        int topEmotion = argMax(emotions);
+        String specificEmotion = "neutral";
+        if (emotions[topEmotion] >= EMOTION_THRESHOLD) {
+            specificEmotion = SentimentModel.EMOTION_CLASSES[topEmotion];
+            result.setSpecificEmotion(specificEmotion);
+        }
+        result.addEmotionScore("intensity", Math.max(0.3, Math.min(0.9, emotions[topEmotion])));
+        for (int c = 0; c < emotions.length; c++) {
+            result.addEmotionScore(SentimentModel.EMOTION_CLASSES[c], emotions[c]);
+        }
+
+        result.setAnalysisSource("local_model");
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("therapeutic_approach", responseService.getTherapeuticApproach(specificEmotion));
+        metadata.put("conversation_needs", responseService.getConversationNeeds(specificEmotion));
+        result.setMetadata(metadata);
+
+        logger.debug("Model sentiment: {} ({})", result.getOverallSentiment(), specificEmotion);
+        return result;
+    }
+
+    private SentimentResult createNeutralResult(String text, int userId) {
+        SentimentResult result = new SentimentResult(text, 0.15, 0.15, 0.7, "neutral", userId);
+        result.addEmotionScore("intensity", 0.5);
+        result.setAnalysisSource("local_model");
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("therapeutic_approach", responseService.getTherapeuticApproach("neutral"));
+        metadata.put("conversation_needs", responseService.getConversationNeeds("neutral"));
+        result.setMetadata(metadata);
+        return result;
+    }
+
+    private static int argMax(float[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public CompletableFuture<SentimentResult> analyzeSentimentAsync(String text, int userId) {
+        if (model == null) {
+            return responseService.analyzeSentimentAsync(text, userId);
+        }
+        // Scoring takes microseconds; a thread hop would cost more than the work
+        try {
+            return CompletableFuture.completedFuture(analyzeSentiment(text, userId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public String getBotResponse(SentimentResult sentiment) {
+        return responseService.getBotResponse(sentiment);
+    }
+
+    /**
+     * Check if a model was loaded.
+     */
+    public boolean isServiceAvailable() {
+        return model != null;
+    }
+}
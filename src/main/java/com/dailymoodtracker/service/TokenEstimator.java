@@ -0,0 +1,90 @@
+package com.dailymoodtracker.service;
+
+/**
+ * Local estimate of how many tokens a text takes in a GPT prompt, without a tokenizer.
+ *
+ * Runs of letters and digits count one token per four characters (at least one),
+ * each punctuation mark or symbol counts one, and characters of scripts written
+ * without spaces (CJK and beyond) count one each. That is close to the tokenizers
+ * of GPT models for English chat text, which is all a prompt budget needs.
+ */
+public final class TokenEstimator {
+    // Tokens the chat format adds around every message (role and separators)
+    public static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private static final char FIRST_WIDE_CHAR = '\u2E80';
+    private static final String ELLIPSIS = "...";
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * Estimate the tokens of a text.
+     */
+    public static int estimate(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < FIRST_WIDE_CHAR && Character.isLetterOrDigit(c)) {
+                wordLength++;
+                continue;
+            }
+            tokens += wordTokens(wordLength);
+            wordLength = 0;
+            if (!Character.isWhitespace(c)) {
+                tokens++;
+            }
+        }
+        return tokens + wordTokens(wordLength);
+    }
+
+    /**
+     * Estimate the tokens of a chat message including its formatting overhead.
+     */
+    public static int estimateMessage(String content) {
+        return estimate(content) + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    /**
+     * Shorten a text to at most {@code maxTokens} estimated tokens, cutting at a word
+     * boundary and marking the cut with an ellipsis.
+     *
+     * @return the text itself if it already fits
+     */
+    public static String truncate(String text, int maxTokens) {
+        if (text == null || estimate(text) <= maxTokens) {
+            return text;
+        }
+        int budget = maxTokens - estimate(ELLIPSIS);
+        if (budget <= 0) {
+            return "";
+        }
+
+        int tokens = 0;
+        int wordLength = 0;
+        int lastBoundary = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < FIRST_WIDE_CHAR && Character.isLetterOrDigit(c)) {
+                wordLength++;
+                continue;
+            }
+            int charTokens = wordTokens(wordLength) + (Character.isWhitespace(c) ? 0 : 1);
+            if (tokens + charTokens > budget) {
+                break;
+            }
+            tokens += charTokens;
+            wordLength = 0;
+            lastBoundary = i;
+        }
+        return text.substring(0, lastBoundary).stripTrailing() + ELLIPSIS;
+    }
+
+    private static int wordTokens(int wordLength) {
+        return (wordLength + 3) / 4;
+    }
+}
@@ -0,0 +1,84 @@
+package com.dailymoodtracker.service;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ScoringKernel} built on the JDK Vector API.
+ *
+ * Each feature's weight row is loaded as one or more SIMD vectors and added to
+ * vector accumulators, so all class scores are computed in a single pass over the
+ * feature array. With the eight emotion classes a row is exactly one 256-bit vector.
+ * Rows narrower than the smallest species, and any remainder lanes, use scalar code.
+ *
+ * Requires {@code --add-modules jdk.incubator.vector}; load it through
+ * {@link ScoringKernels#best()} so the scalar kernel is used when the module is absent.
+ */
+public class VectorScoringKernel implements ScoringKernel {
+    private static final VectorSpecies<Float> PREFERRED = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void accumulate(int[] features, int count, float[] weights, int numClasses, float[] scores) {
+        VectorSpecies<Float> species = speciesFor(numClasses);
+        if (species == null) {
+            accumulateScalar(features, 0, count, weights, numClasses, scores, 0);
+            return;
+        }
+
+        int lanes = species.length();
+        int vectorWidth = numClasses - numClasses % lanes;
+
+        if (vectorWidth == lanes) {
+            // Common case: the row (or its vector part) fits in one register
+            FloatVector accumulator = FloatVector.fromArray(species, scores, 0);
+            for (int i = 0; i < count; i++) {
+                accumulator = accumulator.add(FloatVector.fromArray(species, weights, features[i] * numClasses));
+            }
+            accumulator.intoArray(scores, 0);
+        } else {
+            for (int offset = 0; offset < vectorWidth; offset += lanes) {
+                FloatVector accumulator = FloatVector.fromArray(species, scores, offset);
+                for (int i = 0; i < count; i++) {
+                    accumulator = accumulator.add(
+                            FloatVector.fromArray(species, weights, features[i] * numClasses + offset));
+                }
+                accumulator.intoArray(scores, offset);
+            }
+        }
+
+        if (vectorWidth < numClasses) {
+            accumulateScalar(features, 0, count, weights, numClasses, scores, vectorWidth);
+        }
+    }
+
+    private static void accumulateScalar(int[] features, int from, int to, float[] weights,
+                                         int numClasses, float[] scores, int firstClass) {
+        for (int i = from; i < to; i++) {
+            int row = features[i] * numClasses;
+            for (int c = firstClass; c < numClasses; c++) {
+                scores[c] += weights[row + c];
+            }
+        }
+    }
+
+    /**
+     * Pick the widest species that fits in a row, or null if rows are too narrow to vectorize.
+     */
+    private static VectorSpecies<Float> speciesFor(int numClasses) {
+        if (PREFERRED.length() <= numClasses) {
+            return PREFERRED;
+        }
+        if (FloatVector.SPECIES_256.length() <= numClasses) {
+            return FloatVector.SPECIES_256;
+        }
+        if (FloatVector.SPECIES_128.length() <= numClasses) {
+            return FloatVector.SPECIES_128;
+        }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return "vector-" + PREFERRED.vectorBitSize();
+    }
+}
@@ -0,0 +1,251 @@
+package com.dailymoodtracker.ui;
+
+import javafx.animation.Animation;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the decorative looping animations (pulses, glows, slow rotations) only while
+ * someone can see them.
+ *
+ * A registered animation plays while its node is visible in a window that is
+ * showing, not minimized and focused, and pauses otherwise, so a hidden view or a
+ * window in the background does not keep the JavaFX pulse running. At most
+ * {@link #MAX_RUNNING} play at once, the most recently registered first, as that is
+ * usually the dialog in front. With reduced motion on, none play. When a window is
+ * closed, the animations in it are stopped and forgotten.
+ *
+ * FX thread only.
+ */
+public class AnimationCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(AnimationCoordinator.class);
+
+    public static final int MAX_RUNNING = 3;
+    private static final String REDUCED_MOTION_PROPERTY = "dailymoodtracker.reducedMotion";
+
+    private static AnimationCoordinator instance;
+
+    private final List<Entry> entries = new ArrayList<>(); // in registration order
+    private final Set<Scene> watchedScenes = new HashSet<>();
+    private final Map<Window, EventHandler<WindowEvent>> watchedWindows = new HashMap<>();
+    private final InvalidationListener update = observable -> update();
+    private final ChangeListener<Window> windowChanged = (observable, oldWindow, window) -> {
+        watchWindow(window);
+        update();
+    };
+
+    private boolean reducedMotion = Boolean.getBoolean(REDUCED_MOTION_PROPERTY);
+
+    private static class Entry {
+        private final Animation animation;
+        private final Node node;
+        private final ChangeListener<Scene> sceneChanged;
+
+        private Entry(Animation animation, Node node, ChangeListener<Scene> sceneChanged) {
+            this.animation = animation;
+            this.node = node;
+            this.sceneChanged = sceneChanged;
+        }
+    }
+
+    /**
+     * Get the singleton instance of AnimationCoordinator.
+     * @return AnimationCoordinator instance
+     */
+    public static synchronized AnimationCoordinator getInstance() {
+        if (instance == null) {
+            instance = new AnimationCoordinator();
+        }
+        return instance;
+    }
+
+    private AnimationCoordinator() {
+    }
+
+    /**
+     * Take over playing a looping animation. Register it instead of calling play.
+     *
+     * @param animation The animation, typically with an indefinite cycle count
+     * @param node The node it animates, whose visibility decides whether it plays
+     */
+    public void register(Animation animation, Node node) {
+        ChangeListener<Scene> sceneChanged = (observable, oldScene, scene) -> {
+            watchScene(scene);
+            update();
+        };
+        entries.add(new Entry(animation, node, sceneChanged));
+        node.visibleProperty().addListener(update);
+        node.sceneProperty().addListener(sceneChanged);
+        watchScene(node.getScene());
+        update();
+    }
+
+    /**
+     * Stop an animation and stop managing it.
+     */
+    public void unregister(Animation animation) {
+        entries.removeIf(entry -> {
+            if (entry.animation != animation) {
+                return false;
+            }
+            release(entry);
+            return true;
+        });
+        update();
+    }
+
+    /**
+     * Turn reduced motion on or off. While on, registered animations are stopped at
+     * their first frame.
+     */
+    public void setReducedMotion(boolean reducedMotion) {
+        if (reducedMotion != this.reducedMotion) {
+            this.reducedMotion = reducedMotion;
+            logger.info("Reduced motion {}", reducedMotion ? "on" : "off");
+            update();
+        }
+    }
+
+    public boolean isReducedMotion() {
+        return reducedMotion;
+    }
+
+    /**
+     * Number of registered animations now playing.
+     */
+    public int getRunningCount() {
+        int running = 0;
+        for (Entry entry : entries) {
+            if (entry.animation.getStatus() == Animation.Status.RUNNING) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    /**
+     * Get a one-line summary of the registered animations.
+     */
+    public String getMetrics() {
+        return String.format("registered=%d, running=%d, windows=%d, reducedMotion=%b",
+            entries.size(), getRunningCount(), watchedWindows.size(), reducedMotion);
+    }
+
+    /**
+     * Play the newest animations that can be seen, up to the limit, and pause the rest.
+     */
+    private void update() {
+        int running = 0;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            boolean play = !reducedMotion && running < MAX_RUNNING && isSeen(entry.node);
+            if (play) {
+                running++;
+                if (entry.animation.getStatus() != Animation.Status.RUNNING) {
+                    entry.animation.play();
+                }
+            } else if (reducedMotion && entry.animation.getStatus() != Animation.Status.STOPPED) {
+                // Leave the node as it looks without the animation
+                entry.animation.jumpTo(Duration.ZERO);
+                entry.animation.stop();
+            } else if (entry.animation.getStatus() == Animation.Status.RUNNING) {
+                entry.animation.pause();
+            }
+        }
+    }
+
+    private static boolean isSeen(Node node) {
+        Scene scene = node.getScene();
+        Window window = scene != null ? scene.getWindow() : null;
+        if (window == null || !window.isShowing() || !window.isFocused()) {
+            return false;
+        }
+        if (window instanceof Stage && ((Stage) window).isIconified()) {
+            return false;
+        }
+        // Only the node's own visibility is listened to; a hidden parent is noticed on the next change
+        for (Node current = node; current != null; current = current.getParent()) {
+            if (!current.isVisible()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void watchScene(Scene scene) {
+        if (scene == null || !watchedScenes.add(scene)) {
+            return;
+        }
+        scene.windowProperty().addListener(windowChanged);
+        watchWindow(scene.getWindow());
+    }
+
+    private void watchWindow(Window window) {
+        if (window == null || watchedWindows.containsKey(window)) {
+            return;
+        }
+        EventHandler<WindowEvent> onHidden = event -> forget(window);
+        watchedWindows.put(window, onHidden);
+        window.focusedProperty().addListener(update);
+        window.showingProperty().addListener(update);
+        if (window instanceof Stage) {
+            ((Stage) window).iconifiedProperty().addListener(update);
+        }
+        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, onHidden);
+    }
+
+    /**
+     * A window was closed: drop it and the animations in it. A cached view that is
+     * only switched out stays registered, since its scene leaves the window instead.
+     */
+    private void forget(Window window) {
+        EventHandler<WindowEvent> onHidden = watchedWindows.remove(window);
+        if (onHidden == null) {
+            return;
+        }
+        window.focusedProperty().removeListener(update);
+        window.showingProperty().removeListener(update);
+        if (window instanceof Stage) {
+            ((Stage) window).iconifiedProperty().removeListener(update);
+        }
+        window.removeEventHandler(WindowEvent.WINDOW_HIDDEN, onHidden);
+
+        Scene scene = window.getScene();
+        if (scene != null && watchedScenes.remove(scene)) {
+            scene.windowProperty().removeListener(windowChanged);
+        }
+
+        int before = entries.size();
+        entries.removeIf(entry -> {
+            if (entry.node.getScene() == null || entry.node.getScene() != scene) {
+                return false;
+            }
+            release(entry);
+            return true;
+        });
+        logger.debug("Window closed; dropped {} animations", before - entries.size());
+        update();
+    }
+
+    private void release(Entry entry) {
+        entry.animation.stop();
+        entry.node.visibleProperty().removeListener(update);
+        entry.node.sceneProperty().removeListener(entry.sceneChanged);
+    }
+}
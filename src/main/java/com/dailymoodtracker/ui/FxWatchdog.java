@@ -0,0 +1,131 @@
+package com.dailymoodtracker.ui;
+
+import com.dailymoodtracker.service.AppExecutors;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs when the JavaFX Application Thread is busy for longer than a frame.
+ *
+ * A heartbeat is posted to the FX thread and timed until it runs. While it is
+ * waiting past the threshold, the FX thread's stack is sampled once, so the log
+ * names the event handler, listener or layout pass that held it up. The delay also
+ * covers slow rendering pulses, which drop frames just the same.
+ *
+ * The heartbeat wakes the FX thread many times a second, so the watchdog is a
+ * debugging aid and runs only when the {@code dailymoodtracker.fxWatchdog} system
+ * property is true.
+ */
+public class FxWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(FxWatchdog.class);
+
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(16); // one frame at 60 fps
+    private static final long CHECK_INTERVAL_MILLIS = 8;
+    private static final String APP_PACKAGE = "com.dailymoodtracker.";
+    private static final String ENABLE_PROPERTY = "dailymoodtracker.fxWatchdog";
+
+    private static FxWatchdog instance;
+
+    private volatile Thread fxThread;
+    private volatile ScheduledFuture<?> checkTask;
+
+    // Written by the checking thread and the FX thread
+    private volatile long heartbeatPostedAt; // 0 when no heartbeat is waiting
+    private volatile StackTraceElement[] stallSample;
+
+    // Metrics
+    private final AtomicLong stalls = new AtomicLong();
+    private final AtomicLong longestStallNanos = new AtomicLong();
+
+    /**
+     * Get the singleton instance of FxWatchdog.
+     * @return FxWatchdog instance
+     */
+    public static synchronized FxWatchdog getInstance() {
+        if (instance == null) {
+            instance = new FxWatchdog();
+        }
+        return instance;
+    }
+
+    private FxWatchdog() {
+    }
+
+    /**
+     * Start watching, if enabled by the system property. Must be called on the FX thread.
+     */
+    public synchronized void start() {
+        if (checkTask != null || !Boolean.getBoolean(ENABLE_PROPERTY)) {
+            return;
+        }
+        fxThread = Thread.currentThread();
+        checkTask = AppExecutors.scheduler().scheduleAtFixedRate(
+            this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Watching the FX thread for stalls over {} ms", TimeUnit.NANOSECONDS.toMillis(THRESHOLD_NANOS));
+    }
+
+    /**
+     * Stop watching.
+     */
+    public synchronized void stop() {
+        if (checkTask != null) {
+            checkTask.cancel(false);
+            checkTask = null;
+            logger.info("FX watchdog stopped: {}", getMetrics());
+        }
+    }
+
+    /**
+     * Get a one-line summary of the stalls seen.
+     */
+    public String getMetrics() {
+        return String.format("stalls=%d, longest=%.1f ms", stalls.get(), longestStallNanos.get() / 1e6);
+    }
+
+    private void check() {
+        long postedAt = heartbeatPostedAt;
+        if (postedAt == 0) {
+            heartbeatPostedAt = System.nanoTime();
+            Platform.runLater(this::heartbeat);
+            return;
+        }
+
+        // Sample once per stall, while the FX thread is still stuck in it
+        if (stallSample == null && System.nanoTime() - postedAt > THRESHOLD_NANOS) {
+            stallSample = fxThread.getStackTrace();
+        }
+    }
+
+    private void heartbeat() {
+        long waited = System.nanoTime() - heartbeatPostedAt;
+        StackTraceElement[] sample = stallSample;
+        stallSample = null;
+        heartbeatPostedAt = 0;
+
+        if (waited > THRESHOLD_NANOS) {
+            stalls.incrementAndGet();
+            longestStallNanos.accumulateAndGet(waited, Math::max);
+            logger.warn("FX thread was busy for {} ms in {}", TimeUnit.NANOSECONDS.toMillis(waited), describe(sample));
+        }
+    }
+
+    /**
+     * The innermost application frame of a stack sample, or its top frame if none.
+     */
+    private static String describe(StackTraceElement[] sample) {
+        if (sample == null || sample.length == 0) {
+            return "a rendering pulse or an unsampled handler";
+        }
+        for (StackTraceElement frame : sample) {
+            if (frame.getClassName().startsWith(APP_PACKAGE) && !frame.getClassName().startsWith(FxWatchdog.class.getName())) {
+                return frame.toString();
+            }
+        }
+        return sample[0].toString();
+    }
+}
@@ -0,0 +1,356 @@
+package com.dailymoodtracker.ui;
+
+import com.dailymoodtracker.service.AppExecutors;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shows reminders, achievements and other notifications in one panel in the corner
+ * of the main window.
+ *
+ * Notifications can be posted from any thread. They are queued and handed to the FX
+ * thread in one batch at most once a second, after a short wait for the rest of a
+ * burst, so fifty reminders missed while the app was closed become one runLater call
+ * and one grouped panel instead of fifty windows. The panel's stage and rows are
+ * built once and only their text changes, so showing a batch creates no nodes.
+ * The header counts every notification since the panel opened, including those
+ * no longer shown in a row.
+ */
+public class NotificationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long COALESCE_MILLIS = 250; // wait for the rest of a burst
+    private static final long MIN_DRAIN_INTERVAL_MILLIS = 1000;
+    private static final int MAX_ROWS = 5;
+    private static final double PANEL_WIDTH = 360;
+    private static final Duration HIDE_AFTER = Duration.seconds(8);
+
+    private static NotificationDispatcher instance;
+
+    private final ConcurrentLinkedQueue<Notification> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile long lastDrainMillis;
+
+    // Metrics
+    private final AtomicLong posted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    // FX thread only
+    private Window owner;
+    private Stage stage;
+    private Label headerLabel;
+    private final List<Label> iconLabels = new ArrayList<>();
+    private final List<Label> titleLabels = new ArrayList<>();
+    private final List<Label> messageLabels = new ArrayList<>();
+    private final List<HBox> rows = new ArrayList<>();
+    private Label overflowLabel;
+    private PauseTransition hideTimer;
+    private final Deque<Notification> showing = new ArrayDeque<>(); // newest first
+    private int notShownCount;
+    private final int[] kindTotals = new int[Kind.values().length]; // since the panel opened
+
+    /**
+     * Kind of a notification; the panel header counts each kind.
+     */
+    public enum Kind {
+        REMINDER("reminder", "reminders"),
+        ACHIEVEMENT("achievement", "achievements"),
+        INFO("notification", "notifications");
+
+        private final String singular;
+        private final String plural;
+
+        Kind(String singular, String plural) {
+            this.singular = singular;
+            this.plural = plural;
+        }
+    }
+
+    /**
+     * A notification to show.
+     */
+    public static class Notification {
+        private final Kind kind;
+        private final String icon;
+        private final String title;
+        private final String message;
+        private final int count;
+
+        public Notification(Kind kind, String icon, String title, String message) {
+            this(kind, icon, title, message, 1);
+        }
+
+        /**
+         * A notification summarizing several of a kind in one row.
+         *
+         * @param count How many the header counts it as
+         */
+        public Notification(Kind kind, String icon, String title, String message, int count) {
+            this.kind = kind;
+            this.icon = icon;
+            this.title = title;
+            this.message = message;
+            this.count = count;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getIcon() {
+            return icon;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Get the singleton instance of NotificationDispatcher.
+     * @return NotificationDispatcher instance
+     */
+    public static synchronized NotificationDispatcher getInstance() {
+        if (instance == null) {
+            instance = new NotificationDispatcher();
+        }
+        return instance;
+    }
+
+    private NotificationDispatcher() {
+    }
+
+    /**
+     * Post a notification. Safe to call from any thread.
+     */
+    public void post(Notification notification) {
+        pending.add(notification);
+        posted.incrementAndGet();
+        scheduleDrain();
+    }
+
+    /**
+     * Set the window the panel is shown over. Without one it is shown in the corner
+     * of the primary screen. Must be called on the FX thread.
+     */
+    public void setOwner(Window owner) {
+        if (owner == this.owner) {
+            return;
+        }
+        this.owner = owner;
+        if (stage != null) {
+            // A stage's owner cannot change, so build a new one next time
+            hidePanel();
+            stage = null;
+        }
+    }
+
+    /**
+     * Get a one-line summary of posted notifications and how many panels showed them.
+     */
+    public String getMetrics() {
+        return String.format("posted=%d, batches=%d, pending=%d", posted.get(), batches.get(), pending.size());
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return; // the scheduled drain will take this one too
+        }
+        long sinceLastDrain = System.currentTimeMillis() - lastDrainMillis;
+        long delay = Math.max(COALESCE_MILLIS, MIN_DRAIN_INTERVAL_MILLIS - sinceLastDrain);
+        AppExecutors.scheduler().schedule(() -> Platform.runLater(this::drain), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        // Reset first, so anything posted from here on schedules another drain
+        drainScheduled.set(false);
+        lastDrainMillis = System.currentTimeMillis();
+
+        int added = 0;
+        Notification notification;
+        while ((notification = pending.poll()) != null) {
+            showing.addFirst(notification);
+            kindTotals[notification.getKind().ordinal()] += notification.getCount();
+            added++;
+        }
+        if (added == 0) {
+            return;
+        }
+        batches.incrementAndGet();
+
+        try {
+            while (showing.size() > MAX_ROWS) {
+                showing.removeLast();
+                notShownCount++;
+            }
+            ensureStage();
+            updatePanel();
+            showPanel();
+        } catch (RuntimeException e) {
+            logger.error("Error showing {} notifications", added, e);
+        }
+    }
+
+    private void ensureStage() {
+        if (stage != null) {
+            return;
+        }
+
+        stage = new Stage(StageStyle.TRANSPARENT);
+        if (owner != null) {
+            stage.initOwner(owner);
+        }
+        stage.setResizable(false);
+
+        headerLabel = new Label();
+        headerLabel.setStyle("-fx-font-size: 13px; -fx-font-weight: bold; -fx-text-fill: #a1a1aa;");
+        Region headerSpacer = new Region();
+        HBox.setHgrow(headerSpacer, Priority.ALWAYS);
+        Button closeButton = new Button("✕");
+        closeButton.setStyle("-fx-background-color: transparent; -fx-text-fill: #a1a1aa; -fx-cursor: hand;");
+        closeButton.setOnAction(e -> hidePanel());
+        HBox header = new HBox(8, headerLabel, headerSpacer, closeButton);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        VBox panel = new VBox(8, header);
+        panel.setPadding(new Insets(14));
+        panel.setPrefWidth(PANEL_WIDTH);
+        panel.setStyle("-fx-background-color: linear-gradient(to bottom right, #2d2d3a, #1a1a24); " +
+                       "-fx-background-radius: 15px; " +
+                       "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.5), 15, 0, 0, 2); " +
+                       "-fx-border-width: 1px; " +
+                       "-fx-border-color: rgba(93, 95, 239, 0.3); " +
+                       "-fx-border-radius: 15px;");
+
+        iconLabels.clear();
+        titleLabels.clear();
+        messageLabels.clear();
+        rows.clear();
+        for (int i = 0; i < MAX_ROWS; i++) {
+            Label icon = new Label();
+            icon.setStyle("-fx-font-size: 22px;");
+            Label title = new Label();
+            title.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: white;");
+            Label message = new Label();
+            message.setStyle("-fx-font-size: 12px; -fx-text-fill: #a1a1aa;");
+            message.setWrapText(true);
+            message.setMaxWidth(PANEL_WIDTH - 80);
+
+            HBox row = new HBox(10, icon, new VBox(2, title, message));
+            row.setAlignment(Pos.CENTER_LEFT);
+            // Hidden rows take no space
+            row.managedProperty().bind(row.visibleProperty());
+
+            iconLabels.add(icon);
+            titleLabels.add(title);
+            messageLabels.add(message);
+            rows.add(row);
+            panel.getChildren().add(row);
+        }
+
+        overflowLabel = new Label();
+        overflowLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #5D5FEF;");
+        overflowLabel.managedProperty().bind(overflowLabel.visibleProperty());
+        panel.getChildren().add(overflowLabel);
+
+        Scene scene = new Scene(panel);
+        scene.setFill(Color.TRANSPARENT);
+        scene.getStylesheets().add(getClass().getResource("/styles/main.css").toExternalForm());
+        stage.setScene(scene);
+
+        hideTimer = new PauseTransition(HIDE_AFTER);
+        hideTimer.setOnFinished(e -> hidePanel());
+        // Stay open while the pointer is over the panel
+        panel.setOnMouseEntered(e -> hideTimer.stop());
+        panel.setOnMouseExited(e -> hideTimer.playFromStart());
+    }
+
+    private void updatePanel() {
+        int index = 0;
+        for (Notification notification : showing) {
+            iconLabels.get(index).setText(notification.getIcon());
+            titleLabels.get(index).setText(notification.getTitle());
+            messageLabels.get(index).setText(notification.getMessage());
+            rows.get(index).setVisible(true);
+            index++;
+        }
+        for (; index < MAX_ROWS; index++) {
+            rows.get(index).setVisible(false);
+        }
+
+        overflowLabel.setText("+ " + notShownCount + " more");
+        overflowLabel.setVisible(notShownCount > 0);
+
+        StringBuilder header = new StringBuilder();
+        for (Kind kind : Kind.values()) {
+            int count = kindTotals[kind.ordinal()];
+            if (count > 0) {
+                if (header.length() > 0) {
+                    header.append(", ");
+                }
+                header.append(count).append(' ').append(count == 1 ? kind.singular : kind.plural);
+            }
+        }
+        headerLabel.setText(header.toString().toUpperCase());
+    }
+
+    private void showPanel() {
+        if (owner != null && owner.isShowing()) {
+            stage.setX(owner.getX() + owner.getWidth() - PANEL_WIDTH - 20);
+            stage.setY(owner.getY() + 50);
+        } else {
+            Rectangle2D bounds = Screen.getPrimary().getVisualBounds();
+            stage.setX(bounds.getMaxX() - PANEL_WIDTH - 20);
+            stage.setY(bounds.getMinY() + 20);
+        }
+        if (!stage.isShowing()) {
+            stage.show();
+        }
+        stage.sizeToScene();
+        hideTimer.playFromStart();
+    }
+
+    private void hidePanel() {
+        hideTimer.stop();
+        stage.hide();
+        showing.clear();
+        notShownCount = 0;
+        Arrays.fill(kindTotals, 0);
+    }
+}
@@ -0,0 +1,262 @@
+package com.dailymoodtracker.ui;
+
+import com.dailymoodtracker.service.AppExecutors;
+import com.dailymoodtracker.utils.AlertHelper;
+import javafx.concurrent.Task;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ProgressIndicator;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Runs a view's blocking work (database queries, file and network I/O) off the
+ * JavaFX Application Thread and hands the result back to it.
+ *
+ * Each controller keeps one scope. Work runs as a {@link Task} on the shared I/O
+ * executor, and its success and error handlers run on the FX thread. An error
+ * without its own handler is logged and shown with {@link AlertHelper}. Once
+ * {@link #cancelWhenClosed} has been called with the view's root, closing the
+ * window or replacing the view cancels the scope's running tasks, and their
+ * handlers do not run.
+ *
+ * <pre>
+ * tasks.task(() -> reminderService.getUserReminders(userId))
+ *      .onSuccess(reminders -> reminderTable.setItems(...))
+ *      .errorTitle("Could not load reminders")
+ *      .start();
+ * </pre>
+ */
+public class TaskScope {
+    private static final Logger logger = LoggerFactory.getLogger(TaskScope.class);
+
+    private final Set<Task<?>> running = ConcurrentHashMap.newKeySet();
+    private final EventHandler<WindowEvent> onWindowHidden = event -> cancelAll();
+
+    /**
+     * Work with no result.
+     */
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Work that reports how far it has got.
+     */
+    public interface ProgressWork<T> {
+        T call(Progress progress) throws Exception;
+    }
+
+    /**
+     * Progress of a running task, shown by a bound {@link ProgressIndicator}.
+     */
+    public interface Progress {
+        void update(long done, long total);
+    }
+
+    /**
+     * Start building a task that computes a result.
+     */
+    public <T> Builder<T> task(Callable<T> work) {
+        return new Builder<>(progress -> work.call());
+    }
+
+    /**
+     * Start building a task that reports its progress.
+     */
+    public <T> Builder<T> task(ProgressWork<T> work) {
+        return new Builder<>(work);
+    }
+
+    /**
+     * Start building a task with no result.
+     */
+    public Builder<Void> action(Action work) {
+        return new Builder<>(progress -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Cancel the running tasks when the view's window is closed or the view leaves it.
+     * Call once per view; a cached view shown again keeps being watched. Must be
+     * called on the FX thread.
+     *
+     * @param view The root of the view, or any node in it
+     */
+    public void cancelWhenClosed(Node view) {
+        view.sceneProperty().addListener((observable, oldScene, scene) -> {
+            if (scene == null) {
+                cancelAll();
+            } else {
+                watchScene(scene);
+            }
+        });
+        if (view.getScene() != null) {
+            watchScene(view.getScene());
+        }
+    }
+
+    /**
+     * Cancel all running tasks; their handlers do not run.
+     */
+    public void cancelAll() {
+        for (Task<?> task : new ArrayList<>(running)) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Number of tasks started and not yet finished.
+     */
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    private void watchScene(Scene scene) {
+        scene.windowProperty().addListener((observable, oldWindow, window) -> {
+            if (oldWindow != null) {
+                oldWindow.removeEventHandler(WindowEvent.WINDOW_HIDDEN, onWindowHidden);
+            }
+            if (window == null) {
+                cancelAll();
+            } else {
+                watchWindow(window);
+            }
+        });
+        if (scene.getWindow() != null) {
+            watchWindow(scene.getWindow());
+        }
+    }
+
+    private void watchWindow(Window window) {
+        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, onWindowHidden);
+    }
+
+    /**
+     * Options for one task; {@link #start} runs it.
+     */
+    public class Builder<T> {
+        private final ProgressWork<T> work;
+        private Consumer<? super T> onSuccess;
+        private Consumer<Throwable> onError;
+        private String errorTitle = "Error";
+        private ProgressIndicator progressIndicator;
+        private final List<Node> disabledNodes = new ArrayList<>();
+
+        private Builder(ProgressWork<T> work) {
+            this.work = work;
+        }
+
+        /**
+         * Handle the result on the FX thread.
+         */
+        public Builder<T> onSuccess(Consumer<? super T> onSuccess) {
+            this.onSuccess = onSuccess;
+            return this;
+        }
+
+        /**
+         * Handle an error on the FX thread instead of logging and showing it.
+         */
+        public Builder<T> onError(Consumer<Throwable> onError) {
+            this.onError = onError;
+            return this;
+        }
+
+        /**
+         * Title of the error alert and log message.
+         */
+        public Builder<T> errorTitle(String errorTitle) {
+            this.errorTitle = errorTitle;
+            return this;
+        }
+
+        /**
+         * Show the task's progress in an indicator, visible only while it runs.
+         */
+        public Builder<T> showProgress(ProgressIndicator progressIndicator) {
+            this.progressIndicator = progressIndicator;
+            return this;
+        }
+
+        /**
+         * Disable controls, such as the button that started the task, while it runs.
+         */
+        public Builder<T> disableWhileRunning(Node... nodes) {
+            disabledNodes.addAll(Arrays.asList(nodes));
+            return this;
+        }
+
+        /**
+         * Run the task. Must be called on the FX thread.
+         *
+         * @return the task, to cancel it or bind to its properties
+         */
+        public Task<T> start() {
+            Task<T> task = new Task<>() {
+                @Override
+                protected T call() throws Exception {
+                    return work.call((done, total) -> updateProgress(done, total));
+                }
+            };
+
+            running.add(task);
+            if (progressIndicator != null) {
+                progressIndicator.progressProperty().bind(task.progressProperty());
+                progressIndicator.setVisible(true);
+            }
+            for (Node node : disabledNodes) {
+                node.setDisable(true);
+            }
+
+            task.setOnSucceeded(event -> {
+                finish(task);
+                if (onSuccess != null) {
+                    onSuccess.accept(task.getValue());
+                }
+            });
+            task.setOnFailed(event -> {
+                finish(task);
+                handleError(task.getException());
+            });
+            task.setOnCancelled(event -> finish(task));
+
+            AppExecutors.io().execute(task);
+            return task;
+        }
+
+        private void finish(Task<T> task) {
+            running.remove(task);
+            if (progressIndicator != null) {
+                progressIndicator.progressProperty().unbind();
+                progressIndicator.setVisible(false);
+            }
+            for (Node node : disabledNodes) {
+                node.setDisable(false);
+            }
+        }
+
+        private void handleError(Throwable error) {
+            if (onError != null) {
+                onError.accept(error);
+                return;
+            }
+            logger.error("{}", errorTitle, error);
+            String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+            AlertHelper.showError(errorTitle, message);
+        }
+    }
+}
@@ -1,32 +1,122 @@
 package com.dailymoodtracker.utils;
 
+import com.dailymoodtracker.service.AppExecutors;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Callback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Singleton class to manage scene transitions in the application.
+ *
+ * Views are kept in a small least-recently-used cache of loaded scenes and their
+ * controllers, so going back to a view does not parse its FXML again. Because a
+ * cached controller keeps its state, navigation passes an initializer that brings
+ * it up to date each time the view is shown. Controllers that hold resources
+ * implement {@link AutoCloseable} and are closed when their view leaves the cache.
+ *
+ * After login the likely next views are preloaded: their FXML is read and the
+ * classes it names are loaded on the I/O executor, then each view is built on the
+ * FX thread in its own pulse, since controllers start animations and tasks in
+ * their initialize methods.
  */
 public class SceneManager {
     private static final Logger logger = LoggerFactory.getLogger(SceneManager.class);
-    
+
+    public static final String LOGIN_VIEW = "fxml/LoginView.fxml";
+    public static final String REGISTER_VIEW = "fxml/RegisterView.fxml";
+    public static final String MAIN_VIEW = "fxml/MainView.fxml";
+    public static final String CHATBOT_VIEW = "fxml/ChatbotView.fxml";
+    public static final String PREFERENCES_VIEW = "fxml/PreferencesView.fxml";
+    public static final String SETTINGS_VIEW = "fxml/settings.fxml";
+    public static final String REMINDER_DIALOG = "fxml/ReminderDialog.fxml";
+
+    private static final int MAX_CACHED_SCENES = 4;
+    private static final long PRELOAD_DELAY_MILLIS = 1000; // let the login transition finish first
+
+    // <?import javafx.scene.control.*?> or <?import javafx.scene.control.Label?>
+    private static final Pattern IMPORT = Pattern.compile("<\\?import\\s+([\\w.]+?)(\\.\\*)?\\s*\\?>");
+    private static final Pattern ELEMENT = Pattern.compile("<([A-Z]\\w*)");
+    private static final Pattern CONTROLLER = Pattern.compile("fx:controller\\s*=\\s*\"([\\w.$]+)\"");
+
     private static SceneManager instance;
     private Stage mainStage;
-    private Map<String, Scene> sceneCache = new HashMap<>();
-    
+
+    // FX thread only; access order, so the first entry is the least recently used
+    private final Map<String, View> sceneCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, View> eldest) {
+            if (size() > MAX_CACHED_SCENES) {
+                evictions.incrementAndGet();
+                logger.debug("Evicted cached scene: {}", eldest.getKey());
+                close(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // FXML read ahead by preload, until the view is built
+    private final Map<String, byte[]> preloadedSources = new ConcurrentHashMap<>();
+    private final Set<String> preloading = ConcurrentHashMap.newKeySet();
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong preloaded = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * A loaded view: its scene and the controller created for it.
+     */
+    public static class View {
+        private final Scene scene;
+        private final Object controller;
+
+        private View(Scene scene, Object controller) {
+            this.scene = scene;
+            this.controller = controller;
+        }
+
+        public Scene getScene() {
+            return scene;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getController() {
+            return (T) controller;
+        }
+    }
+
     private SceneManager() {
         // Private constructor for singleton
     }
-    
+
     /**
      * Get the singleton instance of SceneManager.
      * @return SceneManager instance
@@ -37,7 +127,7 @@ public class SceneManager {
         }
         return instance;
     }
-    
+
     /**
      * Set the main application stage.
      * @param stage The main application stage
@@ -45,7 +135,7 @@ public class SceneManager {
     public void setMainStage(Stage stage) {
         this.mainStage = stage;
     }
-    
+
     /**
      * Get the main application stage.
      * @return The main application stage
@@ -53,42 +143,97 @@ public class SceneManager {
     public Stage getMainStage() {
         return mainStage;
     }
-    
+
     /**
      * Switch the main stage to a new scene.
      * @param fxmlPath The path to the FXML file defining the scene
-     * @param title The title for the stage
+     * @param title The title for the stage, or null to keep the current one
      * @param useCache Whether to cache the scene for future use
      */
     public void switchScene(String fxmlPath, String title, boolean useCache) {
         try {
-            Scene scene;
-            if (useCache && sceneCache.containsKey(fxmlPath)) {
-                // Use cached scene if available
-                scene = sceneCache.get(fxmlPath);
-                logger.debug("Using cached scene: {}", fxmlPath);
-            } else {
-                // Load new scene
-                Parent root = loadFXML(fxmlPath);
-                scene = new Scene(root);
-                
-                if (useCache) {
-                    sceneCache.put(fxmlPath, scene);
-                    logger.debug("Cached scene: {}", fxmlPath);
-                }
+            View view = useCache ? getView(fxmlPath, null) : load(fxmlPath, null);
+            showView(fxmlPath, view, title);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error switching scene to {}: {}", fxmlPath, e.getMessage(), e);
+            AlertHelper.showError("Navigation Error",
+                    "Failed to load the requested screen. Please try again.");
+        }
+    }
+
+    /**
+     * Switch the main stage to a cached view, loading it if needed, and prepare its
+     * controller. Must be called on the FX thread.
+     * @param fxmlPath The path to the FXML file defining the scene
+     * @param title The title for the stage, or null to keep the current one
+     * @param controllerFactory Creates the controller if the view is loaded, or null for the FXML's own
+     * @param initializer Brings the controller up to date each time the view is shown, or null
+     * @return The view's controller, or null if it could not be loaded
+     */
+    public <T> T switchScene(String fxmlPath, String title,
+                             Callback<Class<?>, Object> controllerFactory, Consumer<T> initializer) {
+        try {
+            View view = getView(fxmlPath, controllerFactory);
+            T controller = view.getController();
+            if (initializer != null) {
+                initializer.accept(controller);
             }
-            
-            mainStage.setTitle(title);
-            mainStage.setScene(scene);
-            
-            logger.info("Switched to scene: {}", fxmlPath);
-        } catch (IOException e) {
+            showView(fxmlPath, view, title);
+            return controller;
+        } catch (IOException | RuntimeException e) {
             logger.error("Error switching scene to {}: {}", fxmlPath, e.getMessage(), e);
-            AlertHelper.showError("Navigation Error", 
+            AlertHelper.showError("Navigation Error",
                     "Failed to load the requested screen. Please try again.");
+            return null;
+        }
+    }
+
+    /**
+     * Get a view from the cache, loading and caching it on a miss. The view may be
+     * shown in a window of its own. Must be called on the FX thread.
+     * @param fxmlPath The path to the FXML file defining the scene
+     * @param controllerFactory Creates the controller if the view is loaded, or null for the FXML's own
+     * @return The view
+     * @throws IOException If the FXML file cannot be loaded
+     */
+    public View getView(String fxmlPath, Callback<Class<?>, Object> controllerFactory) throws IOException {
+        String key = normalize(fxmlPath);
+        View view = sceneCache.get(key);
+        if (view != null) {
+            hits.incrementAndGet();
+            logger.debug("Using cached scene: {}", key);
+            return view;
+        }
+
+        misses.incrementAndGet();
+        view = load(key, controllerFactory);
+        sceneCache.put(key, view);
+        logger.debug("Cached scene: {}", key);
+        return view;
+    }
+
+    /**
+     * Show a view on the main stage.
+     */
+    private void showView(String fxmlPath, View view, String title) {
+        Scene scene = view.getScene();
+
+        // A scene can be in one window only; take it from a separate window it was opened in
+        Window window = scene.getWindow();
+        if (window != null && window != mainStage) {
+            window.hide();
+        }
+        // The view may have faded itself out when it was last left
+        scene.getRoot().setOpacity(1);
+
+        if (title != null) {
+            mainStage.setTitle(title);
         }
+        mainStage.setScene(scene);
+
+        logger.info("Switched to scene: {}", normalize(fxmlPath));
     }
-    
+
     /**
      * Open a new window as a modal dialog.
      * @param fxmlPath The path to the FXML file defining the dialog
@@ -96,46 +241,221 @@ public class SceneManager {
      * @return The stage for the dialog
      */
     public Stage openDialog(String fxmlPath, String title) {
+        return openDialog(fxmlPath, title, null);
+    }
+
+    /**
+     * Open a new window as a modal dialog. Dialogs are not cached.
+     * @param fxmlPath The path to the FXML file defining the dialog
+     * @param title The title for the dialog window
+     * @param controllerFactory Creates the dialog's controller, or null for the FXML's own
+     * @return The stage for the dialog, or null if it could not be loaded
+     */
+    public Stage openDialog(String fxmlPath, String title, Callback<Class<?>, Object> controllerFactory) {
         try {
-            Parent root = loadFXML(fxmlPath);
-            Scene scene = new Scene(root);
-            
+            Scene scene = load(normalize(fxmlPath), controllerFactory).getScene();
+
             Stage dialogStage = new Stage();
             dialogStage.setTitle(title);
             dialogStage.setScene(scene);
             dialogStage.initModality(Modality.APPLICATION_MODAL);
             dialogStage.initOwner(mainStage);
-            
+
             logger.info("Opened dialog: {}", fxmlPath);
-            
+
             return dialogStage;
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             logger.error("Error opening dialog {}: {}", fxmlPath, e.getMessage(), e);
-            AlertHelper.showError("Dialog Error", 
+            AlertHelper.showError("Dialog Error",
                     "Failed to open the dialog. Please try again.");
             return null;
         }
     }
-    
+
     /**
-     * Load an FXML file and return the root node.
+     * Load views ahead of their first use, in the background and one per FX pulse.
+     * Views already cached are skipped. Safe to call from any thread.
+     * @param fxmlPaths The paths to the FXML files, whose controllers must have no-argument constructors
+     */
+    public void preload(String... fxmlPaths) {
+        Deque<String> queue = new ArrayDeque<>();
+        for (String fxmlPath : fxmlPaths) {
+            String key = normalize(fxmlPath);
+            if (preloading.add(key)) {
+                queue.add(key);
+            }
+        }
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        AppExecutors.scheduler().schedule(() -> AppExecutors.io().execute(() -> {
+            for (String key : queue) {
+                try {
+                    byte[] source = readSource(key);
+                    warmClasses(new String(source, StandardCharsets.UTF_8));
+                    preloadedSources.put(key, source);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not preload {}: {}", key, e.getMessage());
+                }
+            }
+            Platform.runLater(() -> buildNext(queue.iterator()));
+        }), PRELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Build one preloaded view, then yield to the FX thread before the next.
+     */
+    private void buildNext(Iterator<String> keys) {
+        if (!keys.hasNext()) {
+            return;
+        }
+        String key = keys.next();
+        preloading.remove(key);
+        if (preloadedSources.containsKey(key) && !sceneCache.containsKey(key)) {
+            try {
+                sceneCache.put(key, load(key, null));
+                preloaded.incrementAndGet();
+                logger.debug("Preloaded scene: {}", key);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not preload {}: {}", key, e.getMessage());
+            }
+        }
+        preloadedSources.remove(key);
+        Platform.runLater(() -> buildNext(keys));
+    }
+
+    /**
+     * Load an FXML file into a new scene.
      * @param fxmlPath The path to the FXML file
-     * @return The root node of the loaded FXML
+     * @param controllerFactory Creates the controller, or null for the FXML's own
+     * @return The loaded view
      * @throws IOException If the FXML file cannot be loaded
      */
-    private Parent loadFXML(String fxmlPath) throws IOException {
-        URL resource = getClass().getClassLoader().getResource(fxmlPath);
+    private View load(String fxmlPath, Callback<Class<?>, Object> controllerFactory) throws IOException {
+        String key = normalize(fxmlPath);
+        URL resource = getClass().getClassLoader().getResource(key);
+        if (resource == null) {
+            throw new IOException("Could not find FXML file: " + key);
+        }
+
+        FXMLLoader loader = new FXMLLoader(resource);
+        if (controllerFactory != null) {
+            loader.setControllerFactory(controllerFactory);
+        }
+
+        Parent root;
+        byte[] source = preloadedSources.remove(key);
+        if (source != null) {
+            root = loader.load(new ByteArrayInputStream(source));
+        } else {
+            root = loader.load();
+        }
+        return new View(new Scene(root), loader.getController());
+    }
+
+    private byte[] readSource(String key) throws IOException {
+        URL resource = getClass().getClassLoader().getResource(key);
         if (resource == null) {
-            throw new IOException("Could not find FXML file: " + fxmlPath);
+            throw new IOException("Could not find FXML file: " + key);
+        }
+        try (InputStream in = resource.openStream()) {
+            return in.readAllBytes();
         }
-        return FXMLLoader.load(resource);
     }
-    
+
     /**
-     * Clear the scene cache.
+     * Load, without initializing, the controller and node classes an FXML file names,
+     * so building it on the FX thread does not wait for class loading.
+     */
+    private void warmClasses(String fxml) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        Deque<String> packages = new ArrayDeque<>();
+        Matcher imports = IMPORT.matcher(fxml);
+        while (imports.find()) {
+            if (imports.group(2) != null) {
+                packages.add(imports.group(1));
+            } else {
+                loadClass(imports.group(1), classLoader);
+            }
+        }
+
+        Matcher controller = CONTROLLER.matcher(fxml);
+        if (controller.find()) {
+            loadClass(controller.group(1), classLoader);
+        }
+
+        Set<String> elements = new HashSet<>();
+        Matcher element = ELEMENT.matcher(fxml);
+        while (element.find()) {
+            if (elements.add(element.group(1))) {
+                for (String pkg : packages) {
+                    if (loadClass(pkg + "." + element.group(1), classLoader)) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean loadClass(String name, ClassLoader classLoader) {
+        try {
+            Class.forName(name, false, classLoader);
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Drop a view from the cache, closing its controller if it holds resources.
+     * Must be called on the FX thread.
+     * @param fxmlPath The path to the FXML file
+     */
+    public void evict(String fxmlPath) {
+        View view = sceneCache.remove(normalize(fxmlPath));
+        if (view != null) {
+            close(view);
+        }
+    }
+
+    /**
+     * Clear the scene cache, for example when the user logs out.
+     * Must be called on the FX thread.
      */
     public void clearCache() {
+        for (View view : sceneCache.values()) {
+            close(view);
+        }
         sceneCache.clear();
         logger.info("Scene cache cleared");
     }
-} 
\ No newline at end of file
+
+    /**
+     * Get a one-line summary of the scene cache.
+     */
+    public String getMetrics() {
+        return String.format("hits=%d, misses=%d, preloaded=%d, evictions=%d",
+                hits.get(), misses.get(), preloaded.get(), evictions.get());
+    }
+
+    private static void close(View view) {
+        if (view.getController() instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) view.getController()).close();
+            } catch (Exception e) {
+                logger.warn("Error closing controller {}", view.getController().getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Resource paths are relative to the class path root; the controllers' "/fxml/..." form is accepted too.
+     */
+    private static String normalize(String fxmlPath) {
+        if (fxmlPath != null && fxmlPath.startsWith("/")) {
+            return fxmlPath.substring(1);
+        }
+        return fxmlPath;
+    }
+}
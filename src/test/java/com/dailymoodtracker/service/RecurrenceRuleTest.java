@@ -0,0 +1,263 @@
+package com.dailymoodtracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks {@link RecurrenceRule#nextOccurrence} against a brute force that tests one
+ * day at a time, over random rules, zones (including daylight saving changes) and
+ * instants. The seeds are fixed, so a failure names a case that can be replayed.
+ */
+class RecurrenceRuleTest {
+    private static final int CASES = 20_000;
+    private static final int SEARCH_DAYS = 3 * 366;
+
+    private static final ZoneId[] ZONES = {
+        ZoneId.of("UTC"),
+        ZoneId.of("Europe/Berlin"),
+        ZoneId.of("America/New_York"),
+        ZoneId.of("Australia/Lord_Howe"), // half-hour daylight saving shift
+        ZoneId.of("Asia/Kolkata")
+    };
+    private static final String[] WEEKDAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final String[] NAMED_FREQUENCIES = {"daily", "custom", "weekdays", "weekends", "weekly", "monthly"};
+
+    /**
+     * The parameters of a generated rule, and when it occurs, worked out independently
+     * of the compiled rule.
+     */
+    private static class Spec {
+        String freq = "DAILY";
+        int interval = 1;
+        int weekdays; // bit 0 is Monday; 0 means the default
+        int monthDay; // 0 means the default
+        LocalDate start; // null means none
+        LocalDate until; // null means none
+        ZoneId zone; // null means the caller's
+
+        String toRule() {
+            StringBuilder rule = new StringBuilder("FREQ=").append(freq);
+            if (interval != 1) {
+                rule.append(";INTERVAL=").append(interval);
+            }
+            if (weekdays != 0) {
+                List<String> days = new ArrayList<>();
+                for (int i = 0; i < 7; i++) {
+                    if ((weekdays & (1 << i)) != 0) {
+                        days.add(WEEKDAY_CODES[i]);
+                    }
+                }
+                rule.append(";BYDAY=").append(String.join(",", days));
+            }
+            if (monthDay != 0) {
+                rule.append(";BYMONTHDAY=").append(monthDay);
+            }
+            if (start != null) {
+                rule.append(";DTSTART=").append(start);
+            }
+            if (until != null) {
+                rule.append(";UNTIL=").append(until);
+            }
+            if (zone != null) {
+                rule.append(";TZID=").append(zone.getId());
+            }
+            return rule.toString();
+        }
+
+        boolean occursOn(LocalDate date) {
+            LocalDate from = start != null ? start : LocalDate.EPOCH;
+            if (date.isBefore(from) || (until != null && date.isAfter(until))) {
+                return false;
+            }
+            int dayBit = 1 << (date.getDayOfWeek().getValue() - 1);
+            switch (freq) {
+                case "DAILY": {
+                    long days = ChronoUnit.DAYS.between(from, date);
+                    int mask = weekdays != 0 ? weekdays : 0x7f;
+                    return days % interval == 0 && (mask & dayBit) != 0;
+                }
+                case "WEEKLY": {
+                    LocalDate firstMonday = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                    long weeks = ChronoUnit.WEEKS.between(firstMonday, date);
+                    int mask = weekdays != 0 ? weekdays
+                        : start != null ? 1 << (start.getDayOfWeek().getValue() - 1) : 1;
+                    return weeks % interval == 0 && (mask & dayBit) != 0;
+                }
+                default: {
+                    long months = ChronoUnit.MONTHS.between(from.withDayOfMonth(1), date.withDayOfMonth(1));
+                    int day = monthDay != 0 ? monthDay : from.getDayOfMonth();
+                    return months % interval == 0 && date.getDayOfMonth() == Math.min(day, date.lengthOfMonth());
+                }
+            }
+        }
+
+        Instant bruteForceNext(LocalTime time, ZonedDateTime after) {
+            ZoneId ruleZone = zone != null ? zone : after.getZone();
+            LocalDate date = after.withZoneSameInstant(ruleZone).toLocalDate();
+            if (start != null && start.isAfter(date)) {
+                date = start;
+            }
+            for (int i = 0; i < SEARCH_DAYS; i++, date = date.plusDays(1)) {
+                if (occursOn(date)) {
+                    Instant candidate = date.atTime(time).atZone(ruleZone).toInstant();
+                    if (candidate.isAfter(after.toInstant())) {
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    @Test
+    void rulesMatchBruteForce() {
+        Random random = new Random(20260105);
+        for (int i = 0; i < CASES; i++) {
+            Spec spec = randomSpec(random);
+            LocalTime time = randomTime(random);
+            ZonedDateTime after = randomInstant(random);
+
+            Instant expected = spec.bruteForceNext(time, after);
+            Instant actual = RecurrenceRule.compile(spec.toRule()).nextOccurrence(time, after);
+            assertEquals(expected, actual,
+                () -> "case " + spec.toRule() + " at " + time + " after " + after);
+        }
+    }
+
+    @Test
+    void namedFrequenciesMatchBruteForce() {
+        Random random = new Random(7);
+        for (int i = 0; i < CASES; i++) {
+            String name = NAMED_FREQUENCIES[random.nextInt(NAMED_FREQUENCIES.length)];
+            Spec spec = new Spec();
+            switch (name) {
+                case "weekdays":
+                    spec.weekdays = 0x1f;
+                    break;
+                case "weekends":
+                    spec.weekdays = 0x60;
+                    break;
+                case "weekly":
+                    spec.freq = "WEEKLY"; // Mondays
+                    break;
+                case "monthly":
+                    spec.freq = "MONTHLY";
+                    spec.monthDay = 1;
+                    break;
+                default:
+                    break;
+            }
+            LocalTime time = randomTime(random);
+            ZonedDateTime after = randomInstant(random);
+
+            Instant expected = spec.bruteForceNext(time, after);
+            Instant actual = RecurrenceRule.compile(name).nextOccurrence(time, after);
+            assertEquals(expected, actual, () -> "case " + name + " at " + time + " after " + after);
+        }
+    }
+
+    @Test
+    void occurrencesStrictlyIncrease() {
+        // Following a rule from one occurrence to the next must not skip or repeat any
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Spec spec = randomSpec(random);
+            spec.until = null;
+            RecurrenceRule rule = RecurrenceRule.compile(spec.toRule());
+            LocalTime time = randomTime(random);
+            ZonedDateTime after = randomInstant(random);
+
+            for (int step = 0; step < 20; step++) {
+                ZonedDateTime from = after;
+                Instant next = rule.nextOccurrence(time, from);
+                assertEquals(spec.bruteForceNext(time, from), next,
+                    () -> "case " + spec.toRule() + " at " + time + " after " + from);
+                if (next == null) {
+                    break;
+                }
+                after = next.atZone(from.getZone());
+            }
+        }
+    }
+
+    @Test
+    void invalidRulesAreRejected() {
+        String[] invalid = {
+            "", "yearly", "FREQ=HOURLY", "FREQ=DAILY;INTERVAL=0", "FREQ=WEEKLY;BYDAY=XX",
+            "FREQ=MONTHLY;BYMONTHDAY=32", "FREQ=DAILY;DTSTART=2026-02-30", "FREQ=DAILY;TZID=Nowhere/City",
+            "INTERVAL=2", "FREQ=DAILY;COUNT=3", "FREQ"
+        };
+        for (String rule : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.compile(rule), rule);
+        }
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.compile(null));
+    }
+
+    private static Spec randomSpec(Random random) {
+        Spec spec = new Spec();
+        switch (random.nextInt(3)) {
+            case 0:
+                spec.freq = "DAILY";
+                spec.interval = 1 + random.nextInt(5);
+                if (random.nextBoolean()) {
+                    spec.weekdays = 1 + random.nextInt(0x7f);
+                }
+                break;
+            case 1:
+                spec.freq = "WEEKLY";
+                spec.interval = 1 + random.nextInt(4);
+                if (random.nextInt(4) != 0) {
+                    spec.weekdays = 1 + random.nextInt(0x7f);
+                }
+                break;
+            default:
+                spec.freq = "MONTHLY";
+                spec.interval = 1 + random.nextInt(4);
+                if (random.nextInt(4) != 0) {
+                    // Weighted toward the ends of months, where lengths differ
+                    spec.monthDay = random.nextBoolean() ? 28 + random.nextInt(4) : 1 + random.nextInt(31);
+                }
+                break;
+        }
+        if (random.nextInt(3) != 0) {
+            spec.start = LocalDate.of(2019, 1, 1).plusDays(random.nextInt(12 * 365));
+        }
+        if (random.nextInt(4) == 0) {
+            LocalDate from = spec.start != null ? spec.start : LocalDate.of(2020, 1, 1);
+            spec.until = from.plusDays(random.nextInt(5 * 365));
+        }
+        if (random.nextInt(3) == 0) {
+            spec.zone = ZONES[random.nextInt(ZONES.length)];
+        }
+        return spec;
+    }
+
+    private static LocalTime randomTime(Random random) {
+        // Often in the small hours, where daylight saving changes skip or repeat times
+        if (random.nextBoolean()) {
+            return LocalTime.of(1 + random.nextInt(3), random.nextInt(4) * 15);
+        }
+        return LocalTime.of(random.nextInt(24), random.nextInt(60));
+    }
+
+    private static ZonedDateTime randomInstant(Random random) {
+        long from = Instant.parse("2020-01-01T00:00:00Z").getEpochSecond();
+        long to = Instant.parse("2030-12-31T00:00:00Z").getEpochSecond();
+        Instant instant = Instant.ofEpochSecond(from + (long) (random.nextDouble() * (to - from)));
+        return instant.atZone(ZONES[random.nextInt(ZONES.length)]);
+    }
+}